@@ -1,11 +1,23 @@
 package br.com.fiap;
 
+import br.com.fiap.bo.EstimativaWriteBehind;
+import br.com.fiap.bo.SerieTemporalStore;
+import br.com.fiap.config.ApplicationProperties;
+import br.com.fiap.dao.ConnectionFactory;
+import br.com.fiap.dao.EstatisticasEstimativa;
+import br.com.fiap.dao.MigrationRunner;
 import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.grizzly.http.server.NetworkListener;
 import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpServerFactory;
 import org.glassfish.jersey.server.ResourceConfig;
 
 import java.io.IOException;
 import java.net.URI;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
 
 /**
  * Main class.
@@ -17,6 +29,11 @@ public class Main {
 
     /**
      * Starts Grizzly HTTP server exposing JAX-RS resources defined in this application.
+     * <p>
+     * Com {@code http.threads-virtuais.enabled}, cada requisição é atendida em uma thread
+     * virtual em vez do pool fixo de workers do Grizzly: requisições bloqueadas no JDBC
+     * não ocupam mais threads de plataforma, e o limite de concorrência passa a ser
+     * apenas o pool de conexões ({@code datasource.pool.maximum-size}).
      * @return Grizzly HTTP server.
      */
     public static HttpServer startServer() {
@@ -24,9 +41,55 @@ public class Main {
         // in br.com.fiap package
         final ResourceConfig rc = new ResourceConfig().packages("br.com.fiap.resource");
 
-        // create and start a new instance of grizzly http server
-        // exposing the Jersey application at BASE_URI
-        return GrizzlyHttpServerFactory.createHttpServer(URI.create(BASE_URI), rc);
+        if (!ApplicationProperties.getBoolean("http.threads-virtuais.enabled", false)) {
+            // create and start a new instance of grizzly http server
+            // exposing the Jersey application at BASE_URI
+            return GrizzlyHttpServerFactory.createHttpServer(URI.create(BASE_URI), rc);
+        }
+        final HttpServer server = GrizzlyHttpServerFactory.createHttpServer(URI.create(BASE_URI), rc, false);
+        for (NetworkListener listener : server.getListeners()) {
+            // As threads de seleção continuam de plataforma; só o processamento das requisições muda.
+            // O executor não é gerenciado pelo Grizzly, mas não retém threads depois que as tarefas terminam.
+            listener.getTransport().setWorkerThreadPool(Executors.newVirtualThreadPerTaskExecutor());
+        }
+        try {
+            server.start();
+        } catch (IOException e) {
+            throw new RuntimeException("Erro ao iniciar o servidor HTTP: " + e.getMessage(), e);
+        }
+        return server;
+    }
+
+    /**
+     * Aplica as migrações de esquema pendentes antes de aceitar requisições.
+     */
+    public static void migrate() {
+        try (Connection connection = ConnectionFactory.getInstance().getConexao()) {
+            int aplicadas = new MigrationRunner(connection,
+                    ApplicationProperties.getInt("db.migration.baseline-version", 0)).migrate();
+            System.out.println("Migrações aplicadas: " + aplicadas);
+            avisarQuarentena(connection);
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao devolver a conexão usada nas migrações: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Lista as unidades das linhas que a migração V8 tirou de GERACAO_CONSUMO_MENSAL e de
+     * FONTE_ENERGIA por não saber convertê-las; essas linhas ficam fora das leituras até
+     * serem corrigidas e devolvidas manualmente.
+     */
+    private static void avisarQuarentena(Connection connection) throws SQLException {
+        String sql = "SELECT 'GERACAO_CONSUMO_MENSAL', UNIDADE_GERACAO || '/' || UNIDADE_CONSUMO, COUNT(*) "
+                + "FROM GERACAO_CONSUMO_QUARENTENA GROUP BY UNIDADE_GERACAO, UNIDADE_CONSUMO "
+                + "UNION ALL SELECT 'FONTE_ENERGIA', UNIDADE_CAPACIDADE, COUNT(*) "
+                + "FROM FONTE_ENERGIA_QUARENTENA GROUP BY UNIDADE_CAPACIDADE";
+        try (Statement st = connection.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+            while (rs.next()) {
+                System.out.println("AVISO: " + rs.getLong(3) + " linhas de " + rs.getString(1)
+                        + " em quarentena com unidade desconhecida: " + rs.getString(2));
+            }
+        }
     }
 
     /**
@@ -35,11 +98,33 @@ public class Main {
      * @throws IOException
      */
     public static void main(String[] args) throws IOException {
+        if (ApplicationProperties.getBoolean("db.migration.enabled", true)) {
+            migrate();
+        }
+        if (ApplicationProperties.getBoolean("analise.series.enabled", true)) {
+            SerieTemporalStore series = SerieTemporalStore.getInstance();
+            String origem = series.iniciar();
+            System.out.println("Séries em memória: " + series.getRegistrosCarregados() + " registros de "
+                    + series.getMicrogrids() + " microgrids carregados de " + origem + " em "
+                    + series.getDuracaoCargaMs() + " ms (" + series.getRegistrosReaplicados() + " reaplicados, "
+                    + series.getMicrogridsReconciliadas() + " microgrids reconciliadas)");
+        }
+        if (ApplicationProperties.getBoolean("estimativa.estatisticas.enabled", true)) {
+            // Cada microgrid é lida na primeira consulta: a inicialização não percorre ESTIMATIVA_GERACAO
+            EstatisticasEstimativa.getInstance().habilitar();
+        }
         final HttpServer server = startServer();
         System.out.println(String.format("Jersey app started with endpoints available at "
                 + "%s%nHit Ctrl-C to stop it...", BASE_URI));
         System.in.read();
         server.stop();
+        if (!EstimativaWriteBehind.getInstance().encerrar(
+                ApplicationProperties.getLong("estimativa.write-behind.encerramento-ms", 30000L))) {
+            System.out.println("Estimativas pendentes não gravadas no encerramento: "
+                    + EstimativaWriteBehind.getInstance().getProfundidade());
+        }
+        SerieTemporalStore.getInstance().encerrar();
+        ConnectionFactory.shutdown();
     }
 }
 
@@ -0,0 +1,158 @@
+package br.com.fiap.bo;
+
+import br.com.fiap.exception.AnaliseIndisponivelException;
+import br.com.fiap.exception.InvalidAnaliseException;
+import br.com.fiap.to.ComparacaoPeriodoTO;
+import br.com.fiap.to.PontoSerieTO;
+import br.com.fiap.to.TotalPeriodoTO;
+import br.com.fiap.to.Unidade;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Análises de geração e consumo calculadas sobre as séries em memória de
+ * {@link SerieTemporalStore}, sem consultar o banco.
+ */
+public class AnaliseBO {
+    private static final int MAXIMO_MESES = 1200;
+    private static final int MAXIMA_JANELA = 120;
+
+    private final SerieTemporalStore serieTemporalStore = SerieTemporalStore.getInstance();
+
+    /**
+     * @param idMicrogrid ID da microgrid, ou null para a frota.
+     * @param de          Primeiro mês (AAAA-MM), ou null para o primeiro com dados.
+     * @param ate         Último mês (AAAA-MM), ou null para o último com dados.
+     */
+    public TotalPeriodoTO totais(Long idMicrogrid, String de, String ate) {
+        return totais(idMicrogrid, janela(idMicrogrid, de, ate));
+    }
+
+    /**
+     * Série mês a mês com a média móvel de {@code meses} meses.
+     */
+    public List<PontoSerieTO> serie(Long idMicrogrid, String de, String ate, Integer meses) {
+        int tamanhoJanela = meses == null ? 3 : meses;
+        if (tamanhoJanela < 1 || tamanhoJanela > MAXIMA_JANELA) {
+            throw new InvalidAnaliseException("A janela da média móvel deve estar entre 1 e " + MAXIMA_JANELA + " meses.");
+        }
+        SerieTemporalStore.Janela janela = janela(idMicrogrid, de, ate);
+        double[] mediaGerado = janela.mediaMovelGerado(tamanhoJanela);
+        double[] mediaConsumido = janela.mediaMovelConsumido(tamanhoJanela);
+
+        List<PontoSerieTO> pontos = new ArrayList<>(janela.getTamanho());
+        for (int i = 0; i < janela.getTamanho(); i++) {
+            int periodo = janela.getInicio() + i;
+            PontoSerieTO ponto = new PontoSerieTO();
+            ponto.setAno(Periodo.ano(periodo));
+            ponto.setMes(Periodo.mes(periodo));
+            ponto.setGerado(janela.getGerado(i));
+            ponto.setConsumido(janela.getConsumido(i));
+            ponto.setSaldo(janela.getGerado(i) - janela.getConsumido(i));
+            ponto.setRegistros(janela.getRegistros(i));
+            if (!Double.isNaN(mediaGerado[i])) {
+                ponto.setMediaGerado(mediaGerado[i]);
+                ponto.setMediaConsumido(mediaConsumido[i]);
+                ponto.setMediaSaldo(mediaGerado[i] - mediaConsumido[i]);
+            }
+            pontos.add(ponto);
+        }
+        return pontos;
+    }
+
+    /**
+     * Compara o intervalo informado com o intervalo de mesmo tamanho
+     * {@code deslocamento} meses antes (12 por padrão, o mesmo período do ano anterior).
+     */
+    public ComparacaoPeriodoTO comparar(Long idMicrogrid, String de, String ate, Integer deslocamento) {
+        int meses = deslocamento == null ? 12 : deslocamento;
+        if (meses < 1 || meses > MAXIMO_MESES) {
+            throw new InvalidAnaliseException("O deslocamento deve estar entre 1 e " + MAXIMO_MESES + " meses.");
+        }
+        SerieTemporalStore.Janela atual = janela(idMicrogrid, de, ate);
+        if (atual.getTamanho() == 0) {
+            throw new InvalidAnaliseException("Não há dados para comparar; informe o intervalo com 'de' e 'ate'.");
+        }
+        int inicio = atual.getInicio();
+        int fim = inicio + atual.getTamanho() - 1;
+        SerieTemporalStore.Janela anterior = serieTemporalStore.janela(idMicrogrid, inicio - meses, fim - meses);
+
+        ComparacaoPeriodoTO comparacao = new ComparacaoPeriodoTO();
+        comparacao.setAtual(totais(idMicrogrid, atual));
+        comparacao.setAnterior(totais(idMicrogrid, anterior));
+        comparacao.setVariacaoGerado(variacao(comparacao.getAnterior().getTotalGerado(), comparacao.getAtual().getTotalGerado()));
+        comparacao.setVariacaoConsumido(variacao(comparacao.getAnterior().getTotalConsumido(), comparacao.getAtual().getTotalConsumido()));
+        comparacao.setDiferencaSaldo(comparacao.getAtual().getSaldo() - comparacao.getAnterior().getSaldo());
+        return comparacao;
+    }
+
+    /**
+     * @param unit Unidade de energia da resposta ({@code ?unit=}), ou null para kWh.
+     */
+    public Unidade unidade(String unit) {
+        try {
+            return Unidade.of(unit, Unidade.Grandeza.ENERGIA);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidAnaliseException(e.getMessage());
+        }
+    }
+
+    private SerieTemporalStore.Janela janela(Long idMicrogrid, String de, String ate) {
+        if (!serieTemporalStore.isCarregado()) {
+            throw new AnaliseIndisponivelException("As séries de geração e consumo ainda não foram carregadas.");
+        }
+        Integer inicio = periodo(de, "de");
+        Integer fim = periodo(ate, "ate");
+        if (inicio != null && fim != null) {
+            if (inicio > fim) {
+                throw new InvalidAnaliseException("O período 'de' não pode ser posterior ao período 'ate'.");
+            }
+            if (fim - inicio >= MAXIMO_MESES) {
+                throw new InvalidAnaliseException("O intervalo não pode passar de " + MAXIMO_MESES + " meses.");
+            }
+        }
+        SerieTemporalStore.Janela janela = serieTemporalStore.janela(idMicrogrid, inicio, fim);
+        if (janela.getTamanho() > MAXIMO_MESES) {
+            throw new InvalidAnaliseException("O intervalo não pode passar de " + MAXIMO_MESES + " meses.");
+        }
+        return janela;
+    }
+
+    private static Integer periodo(String valor, String parametro) {
+        if (valor == null || valor.isBlank()) {
+            return null;
+        }
+        try {
+            return Periodo.parse(valor);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidAnaliseException("Parâmetro '" + parametro + "': " + e.getMessage());
+        }
+    }
+
+    private static TotalPeriodoTO totais(Long idMicrogrid, SerieTemporalStore.Janela janela) {
+        TotalPeriodoTO total = new TotalPeriodoTO();
+        total.setIdMicrogrid(idMicrogrid);
+        if (janela.getTamanho() > 0) {
+            total.setDe(Periodo.formatar(janela.getInicio()));
+            total.setAte(Periodo.formatar(janela.getInicio() + janela.getTamanho() - 1));
+        }
+        int comDados = 0;
+        for (int i = 0; i < janela.getTamanho(); i++) {
+            if (janela.getRegistros(i) > 0) {
+                comDados++;
+            }
+        }
+        total.setMeses(janela.getTamanho());
+        total.setMesesComDados(comDados);
+        total.setTotalGerado(janela.somaGerado());
+        total.setTotalConsumido(janela.somaConsumido());
+        total.setSaldo(total.getTotalGerado() - total.getTotalConsumido());
+        total.setRegistros(janela.somaRegistros());
+        return total;
+    }
+
+    private static Double variacao(double anterior, double atual) {
+        return anterior == 0.0 ? null : (atual - anterior) * 100.0 / anterior;
+    }
+}
@@ -1,14 +1,20 @@
 package br.com.fiap.bo;
 
+import br.com.fiap.dao.EstatisticasEstimativa;
 import br.com.fiap.dao.EstimativaGeracaoDAO;
+import br.com.fiap.dao.UnitOfWork;
+import br.com.fiap.to.EstatisticaEstimativaTO;
 import br.com.fiap.to.EstimativaGeracaoTO;
+import br.com.fiap.to.PaginaTO;
 import br.com.fiap.exception.EstimativaGeracaoNotFoundException;
 import br.com.fiap.exception.InvalidEstimativaGeracaoException;
 
 import java.util.ArrayList;
+import java.util.List;
 
 public class EstimativaGeracaoBO {
     private final EstimativaGeracaoDAO estimativaGeracaoDAO;
+    private final EstimativaWriteBehind estimativaWriteBehind = EstimativaWriteBehind.getInstance();
 
     public EstimativaGeracaoBO() {
         this.estimativaGeracaoDAO = new EstimativaGeracaoDAO();
@@ -17,6 +23,11 @@ public class EstimativaGeracaoBO {
         return estimativaGeracaoDAO.findAll();
     }
 
+    // Busca uma página de estimativas ordenadas por ano e mês
+    public PaginaTO<EstimativaGeracaoTO> findPage(String after, Integer limite) {
+        return estimativaGeracaoDAO.findPage(after, limite);
+    }
+
     // Adicionado método findById
     public EstimativaGeracaoTO findById(Long idEstimativa) {
         if (idEstimativa == null) {
@@ -33,6 +44,8 @@ public class EstimativaGeracaoBO {
     // Salva uma nova estimativa após validação
     public EstimativaGeracaoTO save(EstimativaGeracaoTO estimativa) {
         validateEstimativa(estimativa);
+        // Uma estimativa calculada ainda na fila para o mesmo período seria gravada depois desta
+        estimativaWriteBehind.aguardar(estimativa.getIdMicrogrid(), estimativa.getAno(), estimativa.getMes());
         EstimativaGeracaoTO savedEstimativa = estimativaGeracaoDAO.save(estimativa);
         if (savedEstimativa == null) {
             throw new InvalidEstimativaGeracaoException("Erro ao salvar estimativa. Tente novamente.");
@@ -53,11 +66,67 @@ public class EstimativaGeracaoBO {
         return estimativas;
     }
 
+    /**
+     * Quantidade, soma, média, mínimo, máximo e variância das estimativas da
+     * microgrid, lidos dos acumuladores em memória sem percorrer as estimativas
+     * (ou calculados no banco se eles não estiverem habilitados).
+     *
+     * @param de  Primeiro mês (AAAA-MM), ou null para o início.
+     * @param ate Último mês (AAAA-MM), ou null para o fim.
+     */
+    public EstatisticaEstimativaTO estatisticas(Long idMicrogrid, String de, String ate) {
+        validateMicrogridId(idMicrogrid);
+        Integer inicio = periodo(de, "de");
+        Integer fim = periodo(ate, "ate");
+        if (inicio != null && fim != null && inicio > fim) {
+            throw new InvalidEstimativaGeracaoException("O período 'de' não pode ser posterior ao período 'ate'.");
+        }
+        EstatisticasEstimativa acumulados = EstatisticasEstimativa.getInstance();
+        EstatisticaEstimativaTO estatistica = acumulados.isHabilitado()
+                ? acumulados.consultar(idMicrogrid, inicio, fim)
+                : estimativaGeracaoDAO.estatisticas(idMicrogrid, inicio, fim);
+        if (estatistica.getQuantidade() == 0) {
+            throw new EstimativaGeracaoNotFoundException(inicio == null && fim == null
+                    ? "Nenhuma estimativa encontrada para a microgrid informada."
+                    : "Nenhuma estimativa encontrada para a microgrid no período informado.");
+        }
+        estatistica.setDe(inicio == null ? null : Periodo.formatar(inicio));
+        estatistica.setAte(fim == null ? null : Periodo.formatar(fim));
+        return estatistica;
+    }
+
+    /**
+     * Reajusta o modelo de previsão da microgrid com todo o histórico e grava as
+     * estimativas do horizonte configurado, pela fila de gravação se habilitada.
+     *
+     * @param idMicrogrid ID da microgrid.
+     * @return Estimativas gravadas.
+     */
+    public List<EstimativaGeracaoTO> reajustar(Long idMicrogrid) {
+        validateMicrogridId(idMicrogrid);
+        MotorPrevisao motorPrevisao = MotorPrevisao.getInstance();
+        MotorPrevisao.Atualizacao atualizacao = UnitOfWork.execute(() -> {
+            MotorPrevisao.Atualizacao reajuste = motorPrevisao.reajustar(idMicrogrid);
+            estimativaWriteBehind.agendar(reajuste.getEstimativas());
+            UnitOfWork.afterCommit(() -> motorPrevisao.confirmar(reajuste));
+            return reajuste;
+        });
+        if (atualizacao.getEstimativas().isEmpty()) {
+            throw new EstimativaGeracaoNotFoundException("Não há histórico de geração para estimar a microgrid informada.");
+        }
+        return atualizacao.getEstimativas();
+    }
+
     // Exclui uma estimativa pelo ID
     public boolean delete(Long idEstimativa) {
         if (idEstimativa == null) {
             throw new InvalidEstimativaGeracaoException("ID da estimativa é obrigatório.");
         }
+        EstimativaGeracaoTO estimativa = estimativaWriteBehind.isEnabled() ? estimativaGeracaoDAO.findById(idEstimativa) : null;
+        if (estimativa != null) {
+            // Uma gravação ainda na fila para o período recriaria a estimativa depois da exclusão
+            estimativaWriteBehind.aguardar(estimativa.getIdMicrogrid(), estimativa.getAno(), estimativa.getMes());
+        }
 
         boolean isDeleted = estimativaGeracaoDAO.delete(idEstimativa);
         if (!isDeleted) {
@@ -82,6 +151,17 @@ public class EstimativaGeracaoBO {
         }
     }
 
+    private static Integer periodo(String valor, String parametro) {
+        if (valor == null || valor.isBlank()) {
+            return null;
+        }
+        try {
+            return Periodo.parse(valor);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEstimativaGeracaoException("Parâmetro '" + parametro + "': " + e.getMessage());
+        }
+    }
+
     private void validateMicrogridId(Long idMicrogrid) {
         if (idMicrogrid == null) {
             throw new InvalidEstimativaGeracaoException("ID da microgrid é obrigatório.");
@@ -0,0 +1,510 @@
+package br.com.fiap.bo;
+
+import br.com.fiap.config.ApplicationProperties;
+import br.com.fiap.dao.EstimativaGeracaoDAO;
+import br.com.fiap.dao.UnitOfWork;
+import br.com.fiap.to.EstimativaGeracaoTO;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Fila limitada de gravações de estimativas, processada por uma thread própria
+ * fora do caminho da requisição.
+ * <p>
+ * As operações são agrupadas por microgrid e período: uma nova gravação ou
+ * remoção para um período já pendente substitui a anterior, mantendo a posição
+ * na fila. A thread grava em lotes, com tentativas e espera crescente em caso de
+ * erro. Com a fila cheia, quem enfileira um novo período aguarda espaço: gravar
+ * por fora da fila poderia competir com uma operação mais antiga do mesmo período
+ * já em gravação pela thread, e a mais antiga prevalecer.
+ * <p>
+ * Pelo mesmo motivo, toda gravação de estimativa calculada passa por
+ * {@link #agendar(List)} e {@link #agendarRemocao(Long, Integer, Integer)}, e as
+ * gravações síncronas da API chamam antes {@link #aguardar(Long, Integer, Integer)}.
+ */
+public final class EstimativaWriteBehind {
+    private static final Logger LOGGER = Logger.getLogger(EstimativaWriteBehind.class.getName());
+    private static final EstimativaWriteBehind INSTANCE = new EstimativaWriteBehind(
+            ApplicationProperties.getBoolean("estimativa.write-behind.enabled", true),
+            ApplicationProperties.getInt("estimativa.write-behind.capacidade", 10000),
+            ApplicationProperties.getInt("estimativa.write-behind.tamanho-lote", 500),
+            ApplicationProperties.getLong("estimativa.write-behind.intervalo-ms", 200L),
+            ApplicationProperties.getInt("estimativa.write-behind.max-tentativas", 5),
+            ApplicationProperties.getLong("estimativa.write-behind.espera-inicial-ms", 500L));
+
+    private final boolean enabled;
+    private final int capacidade;
+    private final int tamanhoLote;
+    private final long intervaloMs;
+    private final int maxTentativas;
+    private final long esperaInicialMs;
+    private final Gravador gravador;
+    private final EstimativaGeracaoDAO estimativaGeracaoDAO = new EstimativaGeracaoDAO();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition pendente = lock.newCondition();
+    private final Condition espaco = lock.newCondition();
+    private final Condition gravada = lock.newCondition();
+    private final LinkedHashMap<Chave, Operacao> fila = new LinkedHashMap<>();
+    // Períodos do lote que a thread está gravando, retirados da fila mas ainda não confirmados
+    private final Set<Chave> emGravacao = new HashSet<>();
+    private final AtomicLong enfileiradas = new AtomicLong();
+    private final AtomicLong coalescidas = new AtomicLong();
+    private final AtomicLong gravadas = new AtomicLong();
+    private final AtomicLong removidas = new AtomicLong();
+    private final AtomicLong sincronas = new AtomicLong();
+    private final AtomicLong bloqueadas = new AtomicLong();
+    private final AtomicLong falhas = new AtomicLong();
+    private final AtomicLong descartadas = new AtomicLong();
+    private volatile long ultimoFlushMs;
+    private volatile boolean encerrada;
+    // A thread terminou de esvaziar a fila após o encerramento; só então as gravações passam a ser síncronas
+    private volatile boolean drenada;
+    private Thread worker;
+
+    EstimativaWriteBehind(boolean enabled, int capacidade, int tamanhoLote, long intervaloMs,
+                          int maxTentativas, long esperaInicialMs) {
+        this(enabled, capacidade, tamanhoLote, intervaloMs, maxTentativas, esperaInicialMs, gravadorPadrao(tamanhoLote));
+    }
+
+    EstimativaWriteBehind(boolean enabled, int capacidade, int tamanhoLote, long intervaloMs,
+                          int maxTentativas, long esperaInicialMs, Gravador gravador) {
+        this.gravador = gravador;
+        this.enabled = enabled && capacidade > 0;
+        this.capacidade = capacidade;
+        this.tamanhoLote = Math.max(tamanhoLote, 1);
+        this.intervaloMs = intervaloMs;
+        this.maxTentativas = Math.max(maxTentativas, 1);
+        this.esperaInicialMs = esperaInicialMs;
+    }
+
+    public static EstimativaWriteBehind getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return true se as estimativas devem ser gravadas pela fila; caso contrário
+     * o chamador grava de forma síncrona.
+     */
+    public boolean isEnabled() {
+        return enabled && !drenada;
+    }
+
+    /**
+     * Enfileira a gravação (upsert) da estimativa do período.
+     */
+    public void gravar(EstimativaGeracaoTO estimativa) {
+        enfileirar(new Operacao(estimativa.getIdMicrogrid(), estimativa.getAno(), estimativa.getMes(), estimativa));
+    }
+
+    /**
+     * Enfileira a remoção da estimativa do período, descartando uma gravação pendente para ele.
+     */
+    public void remover(Long idMicrogrid, Integer ano, Integer mes) {
+        enfileirar(new Operacao(idMicrogrid, ano, mes, null));
+    }
+
+    /**
+     * Grava as estimativas pela fila, após o commit da unidade de trabalho atual,
+     * ou na própria transação se a fila estiver desligada. Gravá-las direto no
+     * banco com a fila ligada deixaria uma operação mais antiga ainda pendente
+     * sobrescrever o valor novo.
+     *
+     * @return Quantidade de estimativas gravadas ou enfileiradas.
+     */
+    public int agendar(List<EstimativaGeracaoTO> estimativas) {
+        return agendar(estimativas, tamanhoLote);
+    }
+
+    /**
+     * Como {@link #agendar(List)}, com o tamanho do batch JDBC usado quando a fila
+     * está desligada.
+     */
+    public int agendar(List<EstimativaGeracaoTO> estimativas, int tamanhoLoteSincrono) {
+        if (estimativas.isEmpty()) {
+            return 0;
+        }
+        if (isEnabled()) {
+            UnitOfWork.afterCommit(() -> estimativas.forEach(this::gravar));
+        } else {
+            estimativaGeracaoDAO.upsertBatch(estimativas, tamanhoLoteSincrono);
+        }
+        return estimativas.size();
+    }
+
+    /**
+     * Remove a estimativa do período pela fila, após o commit da unidade de
+     * trabalho atual, ou na própria transação se a fila estiver desligada.
+     */
+    public void agendarRemocao(Long idMicrogrid, Integer ano, Integer mes) {
+        if (isEnabled()) {
+            UnitOfWork.afterCommit(() -> remover(idMicrogrid, ano, mes));
+        } else {
+            estimativaGeracaoDAO.deleteByMicrogridAnoMes(idMicrogrid, ano, mes);
+        }
+    }
+
+    /**
+     * Aguarda a gravação das operações pendentes ou em andamento para o período,
+     * antes de uma gravação síncrona dele. Sem isso, uma operação mais antiga
+     * ainda na fila seria gravada depois e prevaleceria.
+     */
+    public void aguardar(Long idMicrogrid, Integer ano, Integer mes) {
+        Chave chave = new Chave(idMicrogrid, ano, mes);
+        aguardarEnquanto(() -> fila.containsKey(chave) || emGravacao.contains(chave));
+    }
+
+    /**
+     * Como {@link #aguardar(Long, Integer, Integer)}, para todos os períodos das microgrids.
+     */
+    public void aguardarMicrogrids(Set<Long> idsMicrogrid) {
+        Predicate<Chave> daMicrogrid = chave -> idsMicrogrid.contains(chave.idMicrogrid);
+        aguardarEnquanto(() -> fila.keySet().stream().anyMatch(daMicrogrid) || emGravacao.stream().anyMatch(daMicrogrid));
+    }
+
+    private void aguardarEnquanto(BooleanSupplier pendentes) {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            while (!drenada && pendentes.getAsBoolean()) {
+                pendente.signal();
+                gravada.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void enfileirar(Operacao operacao) {
+        lock.lock();
+        try {
+            boolean bloqueada = false;
+            while (!drenada) {
+                iniciarWorkerSeNecessario();
+                Operacao anterior = fila.get(operacao.chave);
+                if (anterior != null) {
+                    operacao.enfileiradaEm = anterior.enfileiradaEm;
+                    fila.put(operacao.chave, operacao);
+                    coalescidas.incrementAndGet();
+                    return;
+                }
+                if (fila.size() < capacidade) {
+                    fila.put(operacao.chave, operacao);
+                    enfileiradas.incrementAndGet();
+                    if (fila.size() >= tamanhoLote || encerrada) {
+                        pendente.signal();
+                    }
+                    return;
+                }
+                // Fila cheia: aguarda a thread retirar um lote
+                if (!bloqueada) {
+                    bloqueada = true;
+                    bloqueadas.incrementAndGet();
+                }
+                espaco.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+        // A thread já esvaziou a fila e terminou: não há operação pendente com que competir
+        sincronas.incrementAndGet();
+        aplicar(List.of(operacao));
+    }
+
+    /**
+     * Para de aceitar operações e aguarda a gravação das pendentes.
+     *
+     * @param timeoutMs Tempo máximo de espera.
+     * @return true se todas as operações pendentes foram gravadas.
+     */
+    public boolean encerrar(long timeoutMs) {
+        Thread atual;
+        lock.lock();
+        try {
+            encerrada = true;
+            atual = worker;
+            pendente.signal();
+        } finally {
+            lock.unlock();
+        }
+        if (atual == null) {
+            return true;
+        }
+        try {
+            atual.join(timeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return getProfundidade() == 0;
+    }
+
+    public int getCapacidade() {
+        return capacidade;
+    }
+
+    public int getProfundidade() {
+        lock.lock();
+        try {
+            return fila.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return Há quanto tempo a operação mais antiga aguarda na fila, em milissegundos.
+     */
+    public long getAtrasoMs() {
+        lock.lock();
+        try {
+            if (fila.isEmpty()) {
+                return 0L;
+            }
+            return System.currentTimeMillis() - fila.values().iterator().next().enfileiradaEm;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getEnfileiradas() {
+        return enfileiradas.get();
+    }
+
+    public long getCoalescidas() {
+        return coalescidas.get();
+    }
+
+    public long getGravadas() {
+        return gravadas.get();
+    }
+
+    public long getRemovidas() {
+        return removidas.get();
+    }
+
+    public long getSincronas() {
+        return sincronas.get();
+    }
+
+    /**
+     * @return Quantas operações aguardaram espaço na fila cheia.
+     */
+    public long getBloqueadas() {
+        return bloqueadas.get();
+    }
+
+    public long getFalhas() {
+        return falhas.get();
+    }
+
+    public long getDescartadas() {
+        return descartadas.get();
+    }
+
+    public long getUltimoFlushMs() {
+        return ultimoFlushMs;
+    }
+
+    private void iniciarWorkerSeNecessario() {
+        if (worker == null) {
+            worker = new Thread(this::processar, "estimativa-write-behind");
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    private void processar() {
+        long espera = 0L;
+        while (true) {
+            List<Operacao> lote;
+            lock.lock();
+            try {
+                if (espera > 0) {
+                    // Após uma falha a espera é cumprida inteira, mesmo com a fila cheia ou no encerramento
+                    long restante = TimeUnit.MILLISECONDS.toNanos(espera);
+                    while (restante > 0) {
+                        restante = pendente.awaitNanos(restante);
+                    }
+                } else if (!encerrada && fila.size() < tamanhoLote) {
+                    pendente.await(intervaloMs, TimeUnit.MILLISECONDS);
+                }
+                if (fila.isEmpty()) {
+                    if (encerrada) {
+                        drenada = true;
+                        espaco.signalAll();
+                        gravada.signalAll();
+                        return;
+                    }
+                    continue;
+                }
+                lote = retirarLote();
+                espaco.signalAll();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                drenada = true;
+                espaco.signalAll();
+                gravada.signalAll();
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                aplicar(lote);
+                espera = 0L;
+                concluir(lote);
+            } catch (RuntimeException e) {
+                falhas.incrementAndGet();
+                LOGGER.log(Level.WARNING, "Erro ao gravar lote de " + lote.size() + " estimativas: " + e.getMessage());
+                devolver(lote);
+                espera = espera == 0L ? esperaInicialMs : Math.min(espera * 2, 60000L);
+            }
+        }
+    }
+
+    private void concluir(List<Operacao> lote) {
+        lock.lock();
+        try {
+            lote.forEach(operacao -> emGravacao.remove(operacao.chave));
+            gravada.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private List<Operacao> retirarLote() {
+        List<Operacao> lote = new ArrayList<>(Math.min(tamanhoLote, fila.size()));
+        Iterator<Operacao> it = fila.values().iterator();
+        while (it.hasNext() && lote.size() < tamanhoLote) {
+            Operacao operacao = it.next();
+            lote.add(operacao);
+            emGravacao.add(operacao.chave);
+            it.remove();
+        }
+        return lote;
+    }
+
+    /**
+     * Recoloca na fila as operações de um lote que falhou, exceto as que esgotaram
+     * as tentativas ou que já foram substituídas por uma operação mais recente.
+     */
+    private void devolver(List<Operacao> lote) {
+        lock.lock();
+        try {
+            for (Operacao operacao : lote) {
+                if (++operacao.tentativas >= maxTentativas) {
+                    descartadas.incrementAndGet();
+                    LOGGER.severe("Estimativa descartada após " + operacao.tentativas + " tentativas: microgrid "
+                            + operacao.chave.idMicrogrid + ", " + operacao.chave.mes + "/" + operacao.chave.ano);
+                } else {
+                    fila.putIfAbsent(operacao.chave, operacao);
+                }
+                emGravacao.remove(operacao.chave);
+            }
+            gravada.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void aplicar(List<Operacao> lote) {
+        List<EstimativaGeracaoTO> upserts = new ArrayList<>(lote.size());
+        List<EstimativaGeracaoTO> remocoes = new ArrayList<>();
+        for (Operacao operacao : lote) {
+            if (operacao.estimativa != null) {
+                upserts.add(operacao.estimativa);
+            } else {
+                EstimativaGeracaoTO remocao = new EstimativaGeracaoTO();
+                remocao.setIdMicrogrid(operacao.chave.idMicrogrid);
+                remocao.setAno(operacao.chave.ano);
+                remocao.setMes(operacao.chave.mes);
+                remocoes.add(remocao);
+            }
+        }
+        gravador.gravar(upserts, remocoes);
+        gravadas.addAndGet(upserts.size());
+        removidas.addAndGet(remocoes.size());
+        ultimoFlushMs = System.currentTimeMillis();
+    }
+
+    private static Gravador gravadorPadrao(int tamanhoLote) {
+        EstimativaGeracaoDAO estimativaGeracaoDAO = new EstimativaGeracaoDAO();
+        return (upserts, remocoes) -> UnitOfWork.run(() -> {
+            if (!upserts.isEmpty()) {
+                estimativaGeracaoDAO.upsertBatch(upserts, Math.max(tamanhoLote, 1));
+            }
+            for (EstimativaGeracaoTO remocao : remocoes) {
+                estimativaGeracaoDAO.deleteByMicrogridAnoMes(remocao.getIdMicrogrid(), remocao.getAno(), remocao.getMes());
+            }
+        });
+    }
+
+    /**
+     * Grava um lote da fila em uma única transação: os upserts e as remoções
+     * (apenas microgrid, ano e mês preenchidos).
+     */
+    interface Gravador {
+        void gravar(List<EstimativaGeracaoTO> upserts, List<EstimativaGeracaoTO> remocoes);
+    }
+
+    private static final class Chave {
+        private final Long idMicrogrid;
+        private final Integer ano;
+        private final Integer mes;
+
+        private Chave(Long idMicrogrid, Integer ano, Integer mes) {
+            this.idMicrogrid = idMicrogrid;
+            this.ano = ano;
+            this.mes = mes;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Chave)) {
+                return false;
+            }
+            Chave outra = (Chave) o;
+            return Objects.equals(idMicrogrid, outra.idMicrogrid) && Objects.equals(ano, outra.ano)
+                    && Objects.equals(mes, outra.mes);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(idMicrogrid, ano, mes);
+        }
+    }
+
+    /**
+     * Gravação (estimativa preenchida) ou remoção (estimativa nula) de um período.
+     */
+    private static final class Operacao {
+        private final Chave chave;
+        private final EstimativaGeracaoTO estimativa;
+        private long enfileiradaEm = System.currentTimeMillis();
+        private int tentativas;
+
+        private Operacao(Long idMicrogrid, Integer ano, Integer mes, EstimativaGeracaoTO estimativa) {
+            this.chave = new Chave(idMicrogrid, ano, mes);
+            this.estimativa = estimativa;
+        }
+    }
+}
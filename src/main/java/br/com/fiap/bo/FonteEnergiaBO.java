@@ -2,8 +2,11 @@ package br.com.fiap.bo;
 
 import br.com.fiap.dao.FonteEnergiaDAO;
 import br.com.fiap.to.FonteEnergiaTO;
+import br.com.fiap.to.PaginaTO;
+import br.com.fiap.to.Unidade;
 import br.com.fiap.exception.FonteEnergiaNotFoundException;
 import br.com.fiap.exception.InvalidFonteEnergiaException;
+import br.com.fiap.exception.VersaoDesatualizadaException;
 
 import java.util.ArrayList;
 
@@ -27,6 +30,17 @@ public class FonteEnergiaBO {
         return fontes;
     }
 
+    /**
+     * Busca uma página de fontes de energia ordenadas por ID.
+     *
+     * @param after  Cursor retornado pela página anterior, ou null para a primeira.
+     * @param limite Quantidade máxima de itens.
+     * @return Página de fontes de energia.
+     */
+    public PaginaTO<FonteEnergiaTO> findPage(String after, Integer limite) {
+        return fonteEnergiaDAO.findPage(after, limite);
+    }
+
     /**
      * Busca uma fonte de energia pelo ID.
      *
@@ -83,8 +97,20 @@ public class FonteEnergiaBO {
      * @return true se a atualização for bem-sucedida, false caso contrário.
      */
     public boolean update(FonteEnergiaTO fonte) {
+        return update(fonte, null);
+    }
+
+    /**
+     * Atualiza uma fonte de energia apenas se ela ainda estiver na versão informada.
+     *
+     * @param fonte          Fonte de energia a ser atualizada.
+     * @param versaoEsperada Versão informada em If-Match, ou null para atualizar incondicionalmente.
+     * @return true se a atualização for bem-sucedida.
+     * @throws VersaoDesatualizadaException Se a fonte estiver em outra versão.
+     */
+    public boolean update(FonteEnergiaTO fonte, Long versaoEsperada) {
         validateFonteEnergia(fonte);
-        boolean isUpdated = fonteEnergiaDAO.update(fonte);
+        boolean isUpdated = fonteEnergiaDAO.update(fonte, versaoEsperada);
         if (!isUpdated) {
             throw new FonteEnergiaNotFoundException("Erro ao atualizar: Fonte de energia não encontrada.");
         }
@@ -109,5 +135,28 @@ public class FonteEnergiaBO {
         if (fonte.getStatus() == null || fonte.getStatus().trim().isEmpty()) {
             throw new InvalidFonteEnergiaException("O status da fonte é obrigatório.");
         }
+        // A capacidade é gravada em kW, convertida uma única vez aqui
+        Unidade unidade;
+        try {
+            unidade = Unidade.of(fonte.getUnidadeCapacidade(), Unidade.Grandeza.POTENCIA);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidFonteEnergiaException("Campo 'unidadeCapacidade': " + e.getMessage());
+        }
+        fonte.setCapacidadeInstalada(unidade.paraBase(fonte.getCapacidadeInstalada()));
+        fonte.setUnidadeCapacidade(Unidade.KW.getSimbolo());
+    }
+
+    /**
+     * Converte a unidade de potência pedida na consulta ({@code ?unit=}).
+     *
+     * @param unit Símbolo da unidade, ou null para kW.
+     * @return Unidade correspondente.
+     */
+    public Unidade unidadeSaida(String unit) {
+        try {
+            return Unidade.of(unit, Unidade.Grandeza.POTENCIA);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidFonteEnergiaException(e.getMessage());
+        }
     }
 }
@@ -1,21 +1,48 @@
 package br.com.fiap.bo;
 
+import br.com.fiap.config.ApplicationProperties;
 import br.com.fiap.dao.GeracaoConsumoMensalDAO;
-import br.com.fiap.dao.EstimativaGeracaoDAO;
+import br.com.fiap.dao.MicrogridDAO;
+import br.com.fiap.dao.ResumoGeracaoConsumoDAO;
+import br.com.fiap.dao.UnitOfWork;
+import br.com.fiap.to.AgregadoGeracaoConsumoTO;
 import br.com.fiap.to.GeracaoConsumoMensalTO;
+import br.com.fiap.to.Granularidade;
 import br.com.fiap.to.EstimativaGeracaoTO;
+import br.com.fiap.to.PaginaTO;
+import br.com.fiap.to.ResultadoLoteTO;
+import br.com.fiap.to.SaldoMicrogridTO;
+import br.com.fiap.to.SinalSaldo;
+import br.com.fiap.to.Unidade;
 import br.com.fiap.exception.GeracaoConsumoMensalNotFoundException;
 import br.com.fiap.exception.InvalidGeracaoConsumoMensalException;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public class GeracaoConsumoMensalBO {
+    private static final int TAMANHO_LOTE = ApplicationProperties.getInt("geracao-consumo.lote.tamanho", 500);
+    private static final int MAXIMO_LOTE = ApplicationProperties.getInt("geracao-consumo.lote.maximo", 50000);
+
     private final GeracaoConsumoMensalDAO geracaoConsumoMensalDAO;
-    private final EstimativaGeracaoDAO estimativaGeracaoDAO;
+    private final ResumoGeracaoConsumoDAO resumoGeracaoConsumoDAO;
+    private final MicrogridDAO microgridDAO;
+    private final EstimativaWriteBehind estimativaWriteBehind = EstimativaWriteBehind.getInstance();
+    private final MotorPrevisao motorPrevisao = MotorPrevisao.getInstance();
+    private final SerieTemporalStore serieTemporalStore = SerieTemporalStore.getInstance();
 
     public GeracaoConsumoMensalBO() {
         this.geracaoConsumoMensalDAO = new GeracaoConsumoMensalDAO();
-        this.estimativaGeracaoDAO = new EstimativaGeracaoDAO();
+        this.resumoGeracaoConsumoDAO = new ResumoGeracaoConsumoDAO();
+        this.microgridDAO = new MicrogridDAO();
     }
 
     public ArrayList<GeracaoConsumoMensalTO> findAll() {
@@ -25,6 +52,159 @@ public class GeracaoConsumoMensalBO {
         }
         return registros;
     }
+
+    public PaginaTO<GeracaoConsumoMensalTO> findPage(String after, Integer limite) {
+        return geracaoConsumoMensalDAO.findPage(after, limite);
+    }
+
+    /**
+     * Totais de geração, consumo e saldo por período. Totais anuais e totais
+     * mensais ou trimestrais da frota são lidos da tabela de resumo; os demais
+     * são calculados no banco a partir dos registros.
+     *
+     * @param granularidade mes, trimestre ou ano (padrão: mes).
+     * @param idMicrogrid   Restringe a uma microgrid, ou null para a frota.
+     * @param porMicrogrid  Se true, retorna uma linha por microgrid e período.
+     * @param anoInicial    Primeiro ano considerado, ou null.
+     * @param anoFinal      Último ano considerado, ou null.
+     */
+    public List<AgregadoGeracaoConsumoTO> agregar(String granularidade, Long idMicrogrid, boolean porMicrogrid,
+                                                  Integer anoInicial, Integer anoFinal) {
+        Granularidade periodo;
+        try {
+            periodo = Granularidade.of(granularidade);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidGeracaoConsumoMensalException(e.getMessage());
+        }
+        if (anoInicial != null && anoFinal != null && anoInicial > anoFinal) {
+            throw new InvalidGeracaoConsumoMensalException("O ano inicial não pode ser maior que o ano final.");
+        }
+        boolean frota = idMicrogrid == null && !porMicrogrid;
+        if (periodo == Granularidade.ANO) {
+            Long escopo = frota ? Long.valueOf(ResumoGeracaoConsumoDAO.FROTA) : idMicrogrid;
+            return doResumo(resumoGeracaoConsumoDAO.buscar(escopo, false, anoInicial, anoFinal), periodo, frota);
+        }
+        if (frota) {
+            return doResumo(resumoGeracaoConsumoDAO.buscar(ResumoGeracaoConsumoDAO.FROTA, true, anoInicial, anoFinal),
+                    periodo, true);
+        }
+        return geracaoConsumoMensalDAO.agregar(periodo, idMicrogrid, porMicrogrid, anoInicial, anoFinal);
+    }
+
+    /**
+     * Recalcula a tabela de resumo a partir dos registros.
+     *
+     * @return Quantidade de linhas do resumo que estavam divergentes.
+     */
+    public int reconstruirResumo() {
+        return UnitOfWork.execute(resumoGeracaoConsumoDAO::reconstruir);
+    }
+
+    /**
+     * Saldo (geração menos consumo) de cada microgrid com registros no intervalo.
+     * Usa as séries em memória quando carregadas; caso contrário, calcula tudo em
+     * uma única consulta.
+     *
+     * @param de     Primeiro mês (AAAA-MM).
+     * @param ate    Último mês (AAAA-MM), ou null para apenas o mês {@code de}.
+     * @param sinal  deficit, superavit ou todos (padrão: todos).
+     * @param limiar Valor absoluto mínimo do saldo, ou null para nenhum.
+     * @param ordem  asc (maior déficit primeiro, padrão) ou desc (maior superávit primeiro).
+     * @param limite Quantidade máxima de microgrids, ou null para todas.
+     */
+    public List<SaldoMicrogridTO> saldos(String de, String ate, String sinal, Double limiar, String ordem, Integer limite) {
+        if (de == null || de.isBlank()) {
+            throw new InvalidGeracaoConsumoMensalException("Informe o período inicial em 'de' (AAAA-MM).");
+        }
+        int inicio = periodo(de, "de");
+        int fim = ate == null || ate.isBlank() ? inicio : periodo(ate, "ate");
+        if (inicio > fim) {
+            throw new InvalidGeracaoConsumoMensalException("O período 'de' não pode ser posterior ao período 'ate'.");
+        }
+        SinalSaldo filtro;
+        try {
+            filtro = SinalSaldo.of(sinal);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidGeracaoConsumoMensalException(e.getMessage());
+        }
+        double minimo = limiar == null ? 0.0 : limiar;
+        if (minimo < 0 || Double.isNaN(minimo)) {
+            throw new InvalidGeracaoConsumoMensalException("O limiar deve ser maior ou igual a zero.");
+        }
+        boolean crescente;
+        if (ordem == null || ordem.isBlank() || ordem.equalsIgnoreCase("asc")) {
+            crescente = true;
+        } else if (ordem.equalsIgnoreCase("desc")) {
+            crescente = false;
+        } else {
+            throw new InvalidGeracaoConsumoMensalException("Ordem inválida: " + ordem + ". Use asc ou desc.");
+        }
+        if (limite != null && limite < 1) {
+            throw new InvalidGeracaoConsumoMensalException("O limite deve ser maior que zero.");
+        }
+
+        if (!serieTemporalStore.isCarregado()) {
+            return geracaoConsumoMensalDAO.saldos(Periodo.ano(inicio), Periodo.mes(inicio), Periodo.ano(fim),
+                    Periodo.mes(fim), filtro, minimo, crescente, limite);
+        }
+        List<SaldoMicrogridTO> saldos = new ArrayList<>();
+        serieTemporalStore.somarPorMicrogrid(inicio, fim, (idMicrogrid, gerado, consumido, registros) -> {
+            if (filtro.aceita(gerado - consumido, minimo)) {
+                saldos.add(new SaldoMicrogridTO(idMicrogrid, gerado, consumido, registros));
+            }
+        });
+        Comparator<SaldoMicrogridTO> porSaldo = Comparator.comparingDouble(SaldoMicrogridTO::getSaldo);
+        saldos.sort((crescente ? porSaldo : porSaldo.reversed()).thenComparing(SaldoMicrogridTO::getIdMicrogrid));
+        return limite != null && saldos.size() > limite ? new ArrayList<>(saldos.subList(0, limite)) : saldos;
+    }
+
+    private static int periodo(String valor, String parametro) {
+        try {
+            return Periodo.parse(valor);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidGeracaoConsumoMensalException("Parâmetro '" + parametro + "': " + e.getMessage());
+        }
+    }
+
+    /**
+     * Converte linhas do resumo para o formato da agregação, somando os meses em
+     * trimestres quando necessário. Linhas zeradas por exclusões são omitidas.
+     */
+    private static List<AgregadoGeracaoConsumoTO> doResumo(List<AgregadoGeracaoConsumoTO> linhas,
+                                                           Granularidade periodo, boolean frota) {
+        List<AgregadoGeracaoConsumoTO> agregados = new ArrayList<>(linhas.size());
+        AgregadoGeracaoConsumoTO trimestre = null;
+        for (AgregadoGeracaoConsumoTO linha : linhas) {
+            if (linha.getRegistros() <= 0) {
+                continue;
+            }
+            Long idMicrogrid = frota ? null : linha.getIdMicrogrid();
+            if (periodo != Granularidade.TRIMESTRE) {
+                Integer mes = periodo == Granularidade.MES ? linha.getMes() : null;
+                agregados.add(new AgregadoGeracaoConsumoTO(idMicrogrid, linha.getAno(), null, mes,
+                        linha.getTotalGerado(), linha.getTotalConsumido(), linha.getRegistros()));
+                continue;
+            }
+            int numero = (linha.getMes() + 2) / 3;
+            if (trimestre == null || !trimestre.getAno().equals(linha.getAno()) || trimestre.getTrimestre() != numero) {
+                trimestre = new AgregadoGeracaoConsumoTO(idMicrogrid, linha.getAno(), numero, null, 0.0, 0.0, 0);
+                agregados.add(trimestre);
+            }
+            trimestre.setTotalGerado(trimestre.getTotalGerado() + linha.getTotalGerado());
+            trimestre.setTotalConsumido(trimestre.getTotalConsumido() + linha.getTotalConsumido());
+            trimestre.setSaldo(trimestre.getTotalGerado() - trimestre.getTotalConsumido());
+            trimestre.setRegistros(trimestre.getRegistros() + linha.getRegistros());
+        }
+        return agregados;
+    }
+
+    /**
+     * Entrega todos os registros ao consumidor à medida que são lidos do banco.
+     */
+    public long exportar(Consumer<GeracaoConsumoMensalTO> consumidor) {
+        return geracaoConsumoMensalDAO.forEach(consumidor);
+    }
+
     public GeracaoConsumoMensalTO findById(Long idRegistro) {
         if (idRegistro == null) {
             throw new InvalidGeracaoConsumoMensalException("ID do registro é obrigatório.");
@@ -49,9 +229,110 @@ public class GeracaoConsumoMensalBO {
 
     public GeracaoConsumoMensalTO save(GeracaoConsumoMensalTO registro) {
         validateRegistro(registro);
-        GeracaoConsumoMensalTO savedRegistro = geracaoConsumoMensalDAO.save(registro);
-        calcularEGuardarEstimativa(savedRegistro);
-        return savedRegistro;
+        return UnitOfWork.execute(() -> {
+            GeracaoConsumoMensalTO savedRegistro = geracaoConsumoMensalDAO.save(registro);
+            Map<List<Object>, AgregadoGeracaoConsumoTO> deltas = new HashMap<>();
+            ResumoGeracaoConsumoDAO.acumular(deltas, savedRegistro, 1);
+            resumoGeracaoConsumoDAO.aplicarDeltas(deltas.values());
+            sincronizarSeries(List.of(savedRegistro), 1, savedRegistro.getIdRegistro());
+            gravarEstimativas(motorPrevisao.registrar(savedRegistro.getIdMicrogrid(), List.of(savedRegistro)));
+            return savedRegistro;
+        });
+    }
+
+    /**
+     * Valida e grava vários registros de uma vez. Linhas inválidas, de microgrids
+     * inexistentes ou recusadas pelo banco são rejeitadas individualmente; as demais
+     * e as estimativas de cada microgrid afetada são gravadas com batch JDBC em uma
+     * única transação. Uma linha só é informada como criada depois do batch.
+     *
+     * @param registros Registros recebidos na carga.
+     * @return Resultado de cada linha, na mesma ordem da entrada.
+     */
+    public List<ResultadoLoteTO> saveLote(List<GeracaoConsumoMensalTO> registros) {
+        if (registros == null || registros.isEmpty()) {
+            throw new InvalidGeracaoConsumoMensalException("A carga em lote não contém registros.");
+        }
+        if (registros.size() > MAXIMO_LOTE) {
+            throw new InvalidGeracaoConsumoMensalException("A carga em lote excede o máximo de " + MAXIMO_LOTE + " registros.");
+        }
+
+        ResultadoLoteTO[] resultados = new ResultadoLoteTO[registros.size()];
+        List<Integer> indices = new ArrayList<>(registros.size());
+        for (int i = 0; i < registros.size(); i++) {
+            GeracaoConsumoMensalTO registro = registros.get(i);
+            if (registro == null) {
+                resultados[i] = new ResultadoLoteTO(i, null, null, null, ResultadoLoteTO.REJEITADO, "Registro vazio.");
+                continue;
+            }
+            try {
+                validateRegistro(registro);
+                indices.add(i);
+            } catch (InvalidGeracaoConsumoMensalException e) {
+                resultados[i] = rejeitado(i, registro, e.getMessage());
+            }
+        }
+
+        // Microgrids inexistentes violariam a FK no meio do batch: são recusadas aqui, linha a linha
+        Set<Long> ids = new HashSet<>();
+        for (int i : indices) {
+            ids.add(registros.get(i).getIdMicrogrid());
+        }
+        Set<Long> existentes = ids.isEmpty() ? ids : microgridDAO.existentes(ids);
+        List<GeracaoConsumoMensalTO> validos = new ArrayList<>(indices.size());
+        List<Integer> indicesValidos = new ArrayList<>(indices.size());
+        for (int i : indices) {
+            GeracaoConsumoMensalTO registro = registros.get(i);
+            if (existentes.contains(registro.getIdMicrogrid())) {
+                validos.add(registro);
+                indicesValidos.add(i);
+            } else {
+                resultados[i] = rejeitado(i, registro, "Microgrid não encontrada para o ID informado.");
+            }
+        }
+
+        if (!validos.isEmpty()) {
+            UnitOfWork.run(() -> {
+                Map<Integer, String> recusados = geracaoConsumoMensalDAO.saveBatch(validos, TAMANHO_LOTE);
+                List<GeracaoConsumoMensalTO> inseridos = new ArrayList<>(validos.size());
+                Map<Long, List<GeracaoConsumoMensalTO>> porMicrogrid = new LinkedHashMap<>();
+                for (int k = 0; k < validos.size(); k++) {
+                    GeracaoConsumoMensalTO registro = validos.get(k);
+                    int i = indicesValidos.get(k);
+                    if (recusados.containsKey(k)) {
+                        resultados[i] = rejeitado(i, registro, "Registro recusado pelo banco: " + recusados.get(k));
+                        continue;
+                    }
+                    inseridos.add(registro);
+                    porMicrogrid.computeIfAbsent(registro.getIdMicrogrid(), id -> new ArrayList<>()).add(registro);
+                    resultados[i] = new ResultadoLoteTO(i, registro.getIdMicrogrid(), registro.getAno(), registro.getMes(),
+                            ResultadoLoteTO.CRIADO, null);
+                }
+                if (inseridos.isEmpty()) {
+                    return;
+                }
+                Map<List<Object>, AgregadoGeracaoConsumoTO> deltas = new HashMap<>();
+                for (GeracaoConsumoMensalTO registro : inseridos) {
+                    ResumoGeracaoConsumoDAO.acumular(deltas, registro, 1);
+                }
+                resumoGeracaoConsumoDAO.aplicarDeltas(deltas.values());
+                // O batch não devolve os IDs: o maior ID visível na transação cobre os registros do lote
+                sincronizarSeries(inseridos, 1, serieTemporalStore.isCarregado() ? geracaoConsumoMensalDAO.maiorIdRegistro() : 0L);
+                List<EstimativaGeracaoTO> estimativas = new ArrayList<>();
+                for (Map.Entry<Long, List<GeracaoConsumoMensalTO>> microgrid : porMicrogrid.entrySet()) {
+                    MotorPrevisao.Atualizacao atualizacao = motorPrevisao.registrar(microgrid.getKey(), microgrid.getValue());
+                    UnitOfWork.afterCommit(() -> motorPrevisao.confirmar(atualizacao));
+                    estimativas.addAll(atualizacao.getEstimativas());
+                }
+                estimativaWriteBehind.agendar(estimativas, TAMANHO_LOTE);
+            });
+        }
+        return new ArrayList<>(Arrays.asList(resultados));
+    }
+
+    private static ResultadoLoteTO rejeitado(int indice, GeracaoConsumoMensalTO registro, String mensagem) {
+        return new ResultadoLoteTO(indice, registro.getIdMicrogrid(), registro.getAno(), registro.getMes(),
+                ResultadoLoteTO.REJEITADO, mensagem);
     }
 
     public boolean delete(Long idRegistro) {
@@ -59,8 +340,12 @@ public class GeracaoConsumoMensalBO {
             throw new InvalidGeracaoConsumoMensalException("ID do registro não pode ser nulo.");
         }
 
-        // Busca o registro para obter informações necessárias
-        GeracaoConsumoMensalTO registro = geracaoConsumoMensalDAO.findById(idRegistro);
+        return UnitOfWork.execute(() -> deleteRegistro(idRegistro));
+    }
+
+    private boolean deleteRegistro(Long idRegistro) {
+        // Bloqueia a linha: uma alteração concorrente só prossegue depois do commit e não desconta o resumo duas vezes
+        GeracaoConsumoMensalTO registro = geracaoConsumoMensalDAO.findByIdParaAlteracao(idRegistro);
         if (registro == null) {
             throw new GeracaoConsumoMensalNotFoundException("Registro não encontrado para exclusão.");
         }
@@ -69,12 +354,24 @@ public class GeracaoConsumoMensalBO {
         boolean isDeleted = geracaoConsumoMensalDAO.delete(idRegistro);
 
         if (isDeleted) {
-            // Exclui as estimativas relacionadas
-            estimativaGeracaoDAO.deleteByMicrogridAnoMes(
-                    registro.getIdMicrogrid(),
-                    registro.getAno(),
-                    registro.getMes() + 1 // Ajuste para estimativas relacionadas ao próximo mês
-            );
+            Map<List<Object>, AgregadoGeracaoConsumoTO> deltas = new HashMap<>();
+            ResumoGeracaoConsumoDAO.acumular(deltas, registro, -1);
+            resumoGeracaoConsumoDAO.aplicarDeltas(deltas.values());
+            sincronizarSeries(List.of(registro), -1, 0L);
+
+            // Reajusta o modelo sem o registro e remove as estimativas que ele gerou e que o novo horizonte não cobre
+            MotorPrevisao.Atualizacao atualizacao = motorPrevisao.reajustar(registro.getIdMicrogrid());
+            Set<Integer> cobertos = new HashSet<>();
+            for (EstimativaGeracaoTO estimativa : atualizacao.getEstimativas()) {
+                cobertos.add(Periodo.indice(estimativa.getAno(), estimativa.getMes()));
+            }
+            int periodoRegistro = Periodo.indice(registro.getAno(), registro.getMes());
+            for (int passos = 1; passos <= motorPrevisao.getHorizonte(); passos++) {
+                if (!cobertos.contains(periodoRegistro + passos)) {
+                    removerEstimativa(registro.getIdMicrogrid(), periodoRegistro + passos);
+                }
+            }
+            gravarEstimativas(atualizacao);
         }
 
         return isDeleted;
@@ -83,33 +380,53 @@ public class GeracaoConsumoMensalBO {
 
     public boolean update(GeracaoConsumoMensalTO registro) {
         validateRegistro(registro);
-        boolean isUpdated = geracaoConsumoMensalDAO.update(registro);
-        if (isUpdated) {
-            recalcularEAtualizarEstimativa(registro);
-        }
-        return isUpdated;
+        return UnitOfWork.execute(() -> {
+            // Ano, mês e microgrid não mudam no update: o registro anterior indica o modelo e as linhas do resumo.
+            // A linha fica bloqueada até o commit, então o delta parte do valor que este update substitui
+            GeracaoConsumoMensalTO anterior = geracaoConsumoMensalDAO.findByIdParaAlteracao(registro.getIdRegistro());
+            if (anterior == null) {
+                throw new GeracaoConsumoMensalNotFoundException("Registro não encontrado para o ID especificado.");
+            }
+            boolean isUpdated = geracaoConsumoMensalDAO.update(registro);
+            if (isUpdated) {
+                Map<List<Object>, AgregadoGeracaoConsumoTO> deltas = new HashMap<>();
+                ResumoGeracaoConsumoDAO.acumularAlteracao(deltas, anterior, registro);
+                resumoGeracaoConsumoDAO.aplicarDeltas(deltas.values());
+                // Delta sobre o valor bloqueado: deltas somam-se em qualquer ordem, então as séries não dependem
+                // da ordem em que os ganchos pós-commit de transações concorrentes rodam
+                double gerado = registro.getWattsGerados() - anterior.getWattsGerados();
+                double consumido = registro.getWattsConsumidos() - anterior.getWattsConsumidos();
+                UnitOfWork.afterCommit(() -> serieTemporalStore.aplicar(anterior.getIdMicrogrid(),
+                        anterior.getAno(), anterior.getMes(), gerado, consumido, 0));
+                gravarEstimativas(motorPrevisao.reajustar(anterior.getIdMicrogrid()));
+            }
+            return isUpdated;
+        });
+    }
+
+    /**
+     * Grava as estimativas calculadas pelo motor de previsão e confirma o novo
+     * estado do modelo após o commit. Com a fila de gravação habilitada, as
+     * estimativas são enfileiradas após o commit do registro e a requisição não
+     * espera por elas; caso contrário são gravadas na mesma transação.
+     */
+    private void gravarEstimativas(MotorPrevisao.Atualizacao atualizacao) {
+        UnitOfWork.afterCommit(() -> motorPrevisao.confirmar(atualizacao));
+        estimativaWriteBehind.agendar(atualizacao.getEstimativas(), TAMANHO_LOTE);
     }
 
-    private void recalcularEAtualizarEstimativa(GeracaoConsumoMensalTO registro) {
-        double novaEstimativaWatts = registro.getWattsGerados() * 1.1;
-        EstimativaGeracaoTO estimativaAtualizada = new EstimativaGeracaoTO(
-                registro.getIdMicrogrid(),
-                registro.getAno(),
-                registro.getMes() + 1,
-                novaEstimativaWatts
-        );
-        estimativaGeracaoDAO.update(estimativaAtualizada);
+    /**
+     * Aplica os registros incluídos ({@code sinal = 1}) ou excluídos ({@code sinal = -1})
+     * às séries em memória após o commit.
+     */
+    private void sincronizarSeries(List<GeracaoConsumoMensalTO> registros, int sinal, Long idRegistroMaximo) {
+        long maiorId = idRegistroMaximo != null ? idRegistroMaximo : 0L;
+        UnitOfWork.afterCommit(() -> serieTemporalStore.aplicar(registros, sinal, maiorId));
     }
 
-    private void calcularEGuardarEstimativa(GeracaoConsumoMensalTO registro) {
-        double estimativaWatts = registro.getWattsGerados() * 1.1;
-        EstimativaGeracaoTO estimativa = new EstimativaGeracaoTO(
-                registro.getIdMicrogrid(),
-                registro.getAno(),
-                registro.getMes() + 1,
-                estimativaWatts
-        );
-        estimativaGeracaoDAO.save(estimativa);
+    private void removerEstimativa(Long idMicrogrid, int periodo) {
+        // Passa pela fila para não ser sobrescrita por uma gravação ainda pendente do mesmo período
+        estimativaWriteBehind.agendarRemocao(idMicrogrid, Periodo.ano(periodo), Periodo.mes(periodo));
     }
 
     private void validateRegistro(GeracaoConsumoMensalTO registro) {
@@ -128,6 +445,32 @@ public class GeracaoConsumoMensalBO {
         if (registro.getWattsConsumidos() <= 0) {
             throw new InvalidGeracaoConsumoMensalException("Watts consumidos deve ser maior que zero.");
         }
+        // Os valores são gravados em kWh, convertidos uma única vez aqui
+        Unidade geracao = unidadeEntrada(registro.getUnidadeGeracao(), "unidadeGeracao");
+        Unidade consumo = unidadeEntrada(registro.getUnidadeConsumo(), "unidadeConsumo");
+        registro.setWattsGerados(geracao.paraBase(registro.getWattsGerados()));
+        registro.setUnidadeGeracao(Unidade.KWH.getSimbolo());
+        registro.setWattsConsumidos(consumo.paraBase(registro.getWattsConsumidos()));
+        registro.setUnidadeConsumo(Unidade.KWH.getSimbolo());
+    }
+
+    /**
+     * @param unit Unidade de energia pedida na consulta ({@code ?unit=}), ou null para kWh.
+     */
+    public Unidade unidadeSaida(String unit) {
+        try {
+            return Unidade.of(unit, Unidade.Grandeza.ENERGIA);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidGeracaoConsumoMensalException(e.getMessage());
+        }
+    }
+
+    private static Unidade unidadeEntrada(String simbolo, String campo) {
+        try {
+            return Unidade.of(simbolo, Unidade.Grandeza.ENERGIA);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidGeracaoConsumoMensalException("Campo '" + campo + "': " + e.getMessage());
+        }
     }
 
 
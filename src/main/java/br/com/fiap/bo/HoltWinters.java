@@ -0,0 +1,136 @@
+package br.com.fiap.bo;
+
+import java.util.Arrays;
+
+/**
+ * Suavização exponencial de Holt-Winters aditiva com sazonalidade de 12 meses.
+ * <p>
+ * Cada observação atualiza nível, tendência e o fator sazonal do seu mês em
+ * tempo constante, inclusive quando há meses sem dados entre duas observações.
+ * O ajuste completo é a aplicação das observações em ordem, de modo que o
+ * estado obtido incrementalmente é igual ao do reajuste sobre o mesmo histórico.
+ */
+public final class HoltWinters {
+    public static final int ESTACAO = 12;
+
+    private final double alfa;
+    private final double beta;
+    private final double gama;
+
+    /**
+     * @param alfa Suavização do nível (0 a 1).
+     * @param beta Suavização da tendência (0 a 1).
+     * @param gama Suavização dos fatores sazonais (0 a 1).
+     */
+    public HoltWinters(double alfa, double beta, double gama) {
+        if (!coeficienteValido(alfa) || !coeficienteValido(beta) || !coeficienteValido(gama)) {
+            throw new IllegalArgumentException("Os coeficientes de suavização devem estar entre 0 e 1.");
+        }
+        this.alfa = alfa;
+        this.beta = beta;
+        this.gama = gama;
+    }
+
+    /**
+     * Aplica uma observação ao estado, sem alterá-lo.
+     *
+     * @param anterior Estado atual, ou null se for a primeira observação.
+     * @param periodo  Índice do mês observado (ver {@link Periodo}), posterior ao último do estado.
+     * @param valor    Valor observado.
+     * @return Novo estado.
+     */
+    public Estado atualizar(Estado anterior, int periodo, double valor) {
+        if (anterior == null) {
+            return new Estado(valor, 0.0, new double[ESTACAO], periodo, 1);
+        }
+        int passos = periodo - anterior.ultimoPeriodo;
+        if (passos < 1) {
+            throw new IllegalArgumentException("A observação deve ser posterior ao último período do estado.");
+        }
+        int posicao = Periodo.mesDoAno(periodo);
+        double sazonal = anterior.sazonal[posicao];
+        // Meses sem observação avançam o nível apenas pela tendência
+        double nivelProjetado = anterior.nivel + passos * anterior.tendencia;
+        double nivel = alfa * (valor - sazonal) + (1 - alfa) * nivelProjetado;
+        double tendencia = beta * ((nivel - anterior.nivel) / passos) + (1 - beta) * anterior.tendencia;
+
+        double[] fatores = anterior.sazonal.clone();
+        fatores[posicao] = gama * (valor - nivel) + (1 - gama) * sazonal;
+        return new Estado(nivel, tendencia, fatores, periodo, anterior.observacoes + 1);
+    }
+
+    /**
+     * Ajusta o modelo a um histórico completo.
+     *
+     * @param periodos Índices dos meses, em ordem crescente e sem repetição.
+     * @param valores  Valor observado em cada período.
+     * @param tamanho  Quantidade de posições usadas dos vetores.
+     * @return Estado final, ou null se o histórico estiver vazio.
+     */
+    public Estado ajustar(int[] periodos, double[] valores, int tamanho) {
+        Estado estado = null;
+        for (int i = 0; i < tamanho; i++) {
+            estado = atualizar(estado, periodos[i], valores[i]);
+        }
+        return estado;
+    }
+
+    /**
+     * @param estado Estado do modelo.
+     * @param passos Quantidade de meses à frente do último período observado.
+     * @return Valor previsto.
+     */
+    public double prever(Estado estado, int passos) {
+        int periodo = estado.ultimoPeriodo + passos;
+        return estado.nivel + passos * estado.tendencia + estado.sazonal[Periodo.mesDoAno(periodo)];
+    }
+
+    private static boolean coeficienteValido(double coeficiente) {
+        return coeficiente >= 0.0 && coeficiente <= 1.0;
+    }
+
+    /**
+     * Estado imutável do modelo de uma série.
+     */
+    public static final class Estado {
+        private final double nivel;
+        private final double tendencia;
+        private final double[] sazonal;
+        private final int ultimoPeriodo;
+        private final int observacoes;
+
+        private Estado(double nivel, double tendencia, double[] sazonal, int ultimoPeriodo, int observacoes) {
+            this.nivel = nivel;
+            this.tendencia = tendencia;
+            this.sazonal = sazonal;
+            this.ultimoPeriodo = ultimoPeriodo;
+            this.observacoes = observacoes;
+        }
+
+        public double getNivel() {
+            return nivel;
+        }
+
+        public double getTendencia() {
+            return tendencia;
+        }
+
+        public double getSazonal(int mesDoAno) {
+            return sazonal[mesDoAno];
+        }
+
+        public int getUltimoPeriodo() {
+            return ultimoPeriodo;
+        }
+
+        public int getObservacoes() {
+            return observacoes;
+        }
+
+        @Override
+        public String toString() {
+            return "Estado{nivel=" + nivel + ", tendencia=" + tendencia + ", sazonal=" + Arrays.toString(sazonal)
+                    + ", ultimoPeriodo=" + ultimoPeriodo + ", observacoes=" + observacoes + '}';
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package br.com.fiap.bo;
 
 import br.com.fiap.dao.MicrogridDAO;
+import br.com.fiap.dao.UnitOfWork;
 import br.com.fiap.exception.MicrogridNotFoundException;
+import br.com.fiap.exception.VersaoDesatualizadaException;
 import br.com.fiap.exception.InvalidMicrogridException;
 import br.com.fiap.to.MicrogridTO;
+import br.com.fiap.to.PaginaTO;
 
 import java.util.ArrayList;
 
@@ -23,6 +26,17 @@ public class MicrogridBO {
         return microgridDAO.findAll();
     }
 
+    /**
+     * Busca uma página de microgrids ordenadas por nome.
+     *
+     * @param after  Cursor retornado pela página anterior, ou null para a primeira.
+     * @param limite Quantidade máxima de itens.
+     * @return Página de microgrids.
+     */
+    public PaginaTO<MicrogridTO> findPage(String after, Integer limite) {
+        return microgridDAO.findPage(after, limite);
+    }
+
     /**
      * Salva uma nova microgrid ou atualiza se já existir.
      *
@@ -33,18 +47,21 @@ public class MicrogridBO {
     public MicrogridTO save(MicrogridTO microgrid) {
         validateMicrogrid(microgrid);
 
-        try {
-            // Se o nome já existir, retorna erro
-            findByNome(microgrid.getNome().trim());
-            throw new InvalidMicrogridException("Microgrid já existe com o nome informado.");
-        } catch (MicrogridNotFoundException e) {
-            // Prossegue para salvar caso não exista
-            MicrogridTO savedMicrogrid = microgridDAO.save(microgrid);
-            if (savedMicrogrid == null) {
-                throw new InvalidMicrogridException("Erro ao salvar a microgrid. Tente novamente.");
+        // Verificação de existência e inserção usam a mesma conexão e transação
+        return UnitOfWork.execute(() -> {
+            try {
+                // Se o nome já existir, retorna erro
+                findByNome(microgrid.getNome().trim());
+                throw new InvalidMicrogridException("Microgrid já existe com o nome informado.");
+            } catch (MicrogridNotFoundException e) {
+                // Prossegue para salvar caso não exista
+                MicrogridTO savedMicrogrid = microgridDAO.save(microgrid);
+                if (savedMicrogrid == null) {
+                    throw new InvalidMicrogridException("Erro ao salvar a microgrid. Tente novamente.");
+                }
+                return savedMicrogrid;
             }
-            return savedMicrogrid;
-        }
+        });
     }
 
     /**
@@ -93,11 +110,25 @@ public class MicrogridBO {
      * @return true se a atualização for bem-sucedida.
      */
     public boolean update(MicrogridTO microgrid) {
+        return update(microgrid, null);
+    }
+
+    /**
+     * Atualiza uma microgrid apenas se ela ainda estiver na versão informada.
+     * Não há leitura prévia: o UPDATE já falha se a microgrid não existir ou
+     * estiver em outra versão.
+     *
+     * @param microgrid      Objeto da microgrid a ser atualizado.
+     * @param versaoEsperada Versão informada em If-Match, ou null para atualizar incondicionalmente.
+     * @return true se a atualização for bem-sucedida.
+     * @throws VersaoDesatualizadaException Se a microgrid estiver em outra versão.
+     */
+    public boolean update(MicrogridTO microgrid, Long versaoEsperada) {
         validateMicrogrid(microgrid);
-        if (microgrid.getIdMicrogrid() == null || microgridDAO.findById(microgrid.getIdMicrogrid()) == null) {
+        if (microgrid.getIdMicrogrid() == null) {
             throw new MicrogridNotFoundException("Microgrid não encontrada para o ID informado.");
         }
-        return microgridDAO.update(microgrid);
+        return UnitOfWork.execute(() -> microgridDAO.update(microgrid, versaoEsperada));
     }
 
     /**
@@ -0,0 +1,179 @@
+package br.com.fiap.bo;
+
+import br.com.fiap.config.ApplicationProperties;
+import br.com.fiap.dao.GeracaoConsumoMensalDAO;
+import br.com.fiap.to.EstimativaGeracaoTO;
+import br.com.fiap.to.GeracaoConsumoMensalTO;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mantém em memória o estado do {@link HoltWinters} de cada microgrid e gera as
+ * estimativas de geração para os próximos meses.
+ * <p>
+ * Um registro posterior ao último mês conhecido atualiza o estado em tempo
+ * constante. Na primeira vez que a microgrid é vista, ou quando chega um
+ * registro de um mês já observado (correção ou carga retroativa), o modelo é
+ * reajustado a partir do histórico gravado. Vários registros do mesmo mês são
+ * somados.
+ * <p>
+ * O novo estado é calculado dentro da transação e só passa a valer com
+ * {@link #confirmar(Atualizacao)}, chamado após o commit.
+ */
+public final class MotorPrevisao {
+    private static final MotorPrevisao INSTANCE = new MotorPrevisao(
+            new HoltWinters(
+                    ApplicationProperties.getDouble("previsao.alfa", 0.5),
+                    ApplicationProperties.getDouble("previsao.beta", 0.1),
+                    ApplicationProperties.getDouble("previsao.gama", 0.3)),
+            ApplicationProperties.getInt("previsao.horizonte-meses", 3));
+
+    private final HoltWinters modelo;
+    private final int horizonte;
+    private final Map<Long, HoltWinters.Estado> estados = new ConcurrentHashMap<>();
+    private final GeracaoConsumoMensalDAO geracaoConsumoMensalDAO = new GeracaoConsumoMensalDAO();
+
+    MotorPrevisao(HoltWinters modelo, int horizonte) {
+        this.modelo = modelo;
+        this.horizonte = Math.max(horizonte, 1);
+    }
+
+    public static MotorPrevisao getInstance() {
+        return INSTANCE;
+    }
+
+    public HoltWinters getModelo() {
+        return modelo;
+    }
+
+    public int getHorizonte() {
+        return horizonte;
+    }
+
+    public int getMicrogridsEmMemoria() {
+        return estados.size();
+    }
+
+    /**
+     * Calcula o estado da microgrid após os novos registros, já gravados na
+     * transação atual, e as estimativas resultantes.
+     *
+     * @param idMicrogrid ID da microgrid.
+     * @param registros   Registros novos da microgrid.
+     * @return Atualização a confirmar após o commit.
+     */
+    public Atualizacao registrar(Long idMicrogrid, List<GeracaoConsumoMensalTO> registros) {
+        HoltWinters.Estado base = estados.get(idMicrogrid);
+        TreeMap<Integer, Double> porPeriodo = somarPorPeriodo(registros);
+        if (base == null || porPeriodo.isEmpty() || porPeriodo.firstKey() <= base.getUltimoPeriodo()) {
+            return reajustar(idMicrogrid, base);
+        }
+        HoltWinters.Estado novo = base;
+        for (Map.Entry<Integer, Double> observacao : porPeriodo.entrySet()) {
+            novo = modelo.atualizar(novo, observacao.getKey(), observacao.getValue());
+        }
+        return new Atualizacao(idMicrogrid, base, novo, estimativas(idMicrogrid, novo));
+    }
+
+    /**
+     * Reajusta o modelo da microgrid a partir de todo o histórico gravado.
+     *
+     * @param idMicrogrid ID da microgrid.
+     * @return Atualização a confirmar após o commit; sem estimativas se não houver histórico.
+     */
+    public Atualizacao reajustar(Long idMicrogrid) {
+        return reajustar(idMicrogrid, estados.get(idMicrogrid));
+    }
+
+    /**
+     * Torna o novo estado visível. Se outra atualização da mesma microgrid foi
+     * confirmada nesse meio tempo, o estado é descartado e será reajustado a
+     * partir do histórico no próximo uso.
+     */
+    public void confirmar(Atualizacao atualizacao) {
+        estados.compute(atualizacao.idMicrogrid,
+                (id, atual) -> atual == atualizacao.base ? atualizacao.novo : null);
+    }
+
+    /**
+     * Descarta o estado da microgrid, que será reajustado no próximo uso.
+     */
+    public void invalidar(Long idMicrogrid) {
+        estados.remove(idMicrogrid);
+    }
+
+    /**
+     * @return Estimativas para os meses seguintes ao último observado, omitindo
+     * previsões que não sejam positivas.
+     */
+    public List<EstimativaGeracaoTO> estimativas(Long idMicrogrid, HoltWinters.Estado estado) {
+        if (estado == null) {
+            return Collections.emptyList();
+        }
+        List<EstimativaGeracaoTO> estimativas = new ArrayList<>(horizonte);
+        for (int passos = 1; passos <= horizonte; passos++) {
+            double previsto = modelo.prever(estado, passos);
+            if (previsto > 0) {
+                int periodo = estado.getUltimoPeriodo() + passos;
+                estimativas.add(new EstimativaGeracaoTO(idMicrogrid, Periodo.ano(periodo), Periodo.mes(periodo), previsto));
+            }
+        }
+        return estimativas;
+    }
+
+    private Atualizacao reajustar(Long idMicrogrid, HoltWinters.Estado base) {
+        TreeMap<Integer, Double> historico = somarPorPeriodo(geracaoConsumoMensalDAO.findByMicrogrid(idMicrogrid));
+        int[] periodos = new int[historico.size()];
+        double[] valores = new double[historico.size()];
+        int i = 0;
+        for (Map.Entry<Integer, Double> observacao : historico.entrySet()) {
+            periodos[i] = observacao.getKey();
+            valores[i++] = observacao.getValue();
+        }
+        HoltWinters.Estado novo = modelo.ajustar(periodos, valores, i);
+        return new Atualizacao(idMicrogrid, base, novo, estimativas(idMicrogrid, novo));
+    }
+
+    private static TreeMap<Integer, Double> somarPorPeriodo(List<GeracaoConsumoMensalTO> registros) {
+        TreeMap<Integer, Double> porPeriodo = new TreeMap<>();
+        for (GeracaoConsumoMensalTO registro : registros) {
+            porPeriodo.merge(Periodo.indice(registro.getAno(), registro.getMes()), registro.getWattsGerados(), Double::sum);
+        }
+        return porPeriodo;
+    }
+
+    /**
+     * Estado calculado para uma microgrid e as estimativas correspondentes.
+     */
+    public static final class Atualizacao {
+        private final Long idMicrogrid;
+        private final HoltWinters.Estado base;
+        private final HoltWinters.Estado novo;
+        private final List<EstimativaGeracaoTO> estimativas;
+
+        private Atualizacao(Long idMicrogrid, HoltWinters.Estado base, HoltWinters.Estado novo,
+                            List<EstimativaGeracaoTO> estimativas) {
+            this.idMicrogrid = idMicrogrid;
+            this.base = base;
+            this.novo = novo;
+            this.estimativas = estimativas;
+        }
+
+        public Long getIdMicrogrid() {
+            return idMicrogrid;
+        }
+
+        public HoltWinters.Estado getEstado() {
+            return novo;
+        }
+
+        public List<EstimativaGeracaoTO> getEstimativas() {
+            return estimativas;
+        }
+    }
+}
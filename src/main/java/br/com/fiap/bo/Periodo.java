@@ -0,0 +1,57 @@
+package br.com.fiap.bo;
+
+/**
+ * Conversão entre (ano, mês) e um índice sequencial de meses, usado para
+ * avançar períodos sem tratar a virada de ano em cada chamador.
+ */
+public final class Periodo {
+
+    private Periodo() {
+    }
+
+    /**
+     * @return Índice do mês: {@code ano * 12 + mes - 1}.
+     */
+    public static int indice(int ano, int mes) {
+        return ano * 12 + mes - 1;
+    }
+
+    public static int ano(int indice) {
+        return Math.floorDiv(indice, 12);
+    }
+
+    public static int mes(int indice) {
+        return Math.floorMod(indice, 12) + 1;
+    }
+
+    /**
+     * @return Mês do ano (0 a 11) do índice, usado como posição sazonal.
+     */
+    public static int mesDoAno(int indice) {
+        return Math.floorMod(indice, 12);
+    }
+
+    /**
+     * @param texto Mês no formato {@code AAAA-MM}.
+     * @return Índice do mês.
+     * @throws IllegalArgumentException Se o texto não estiver no formato esperado.
+     */
+    public static int parse(String texto) {
+        String valor = texto == null ? "" : texto.trim();
+        if (!valor.matches("\\d{4}-\\d{2}")) {
+            throw new IllegalArgumentException("Período inválido: '" + texto + "'. Use o formato AAAA-MM.");
+        }
+        int mes = Integer.parseInt(valor.substring(5));
+        if (mes < 1 || mes > 12) {
+            throw new IllegalArgumentException("Período inválido: '" + texto + "'. O mês deve estar entre 01 e 12.");
+        }
+        return indice(Integer.parseInt(valor.substring(0, 4)), mes);
+    }
+
+    /**
+     * @return Índice formatado como {@code AAAA-MM}.
+     */
+    public static String formatar(int indice) {
+        return String.format("%04d-%02d", ano(indice), mes(indice));
+    }
+}
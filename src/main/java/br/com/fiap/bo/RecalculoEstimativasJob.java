@@ -0,0 +1,233 @@
+package br.com.fiap.bo;
+
+import br.com.fiap.config.ApplicationProperties;
+import br.com.fiap.dao.ConnectionFactory;
+import br.com.fiap.dao.EstimativaGeracaoDAO;
+import br.com.fiap.dao.GeracaoConsumoMensalDAO;
+import br.com.fiap.dao.MicrogridDAO;
+import br.com.fiap.dao.UnitOfWork;
+import br.com.fiap.exception.RecalculoEmAndamentoException;
+import br.com.fiap.to.EstimativaGeracaoTO;
+import br.com.fiap.to.RecalculoEstimativasTO;
+import br.com.fiap.to.SerieMensalTO;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Recalcula as estimativas de todas as microgrids, por exemplo após mudar os
+ * parâmetros da previsão.
+ * <p>
+ * Os IDs das microgrids são divididos em tarefas de um {@link ForkJoinPool}.
+ * Cada tarefa processa suas microgrids em uma única transação: lê a série de
+ * cada uma para vetores primitivos, ajusta o {@link HoltWinters}, exclui as
+ * estimativas fora da nova previsão e grava as demais com batch JDBC. Antes, as
+ * gravações das mesmas microgrids pendentes na {@link EstimativaWriteBehind} são
+ * concluídas, para que nenhuma estimativa antiga seja gravada depois. Como cada
+ * thread usa no máximo uma conexão, o paralelismo é limitado pelo número de
+ * núcleos e pelo tamanho do pool de conexões, descontadas as conexões reservadas
+ * às requisições.
+ */
+public final class RecalculoEstimativasJob {
+    private static final Logger LOGGER = Logger.getLogger(RecalculoEstimativasJob.class.getName());
+    private static final RecalculoEstimativasJob INSTANCE = new RecalculoEstimativasJob(
+            ApplicationProperties.getInt("recalculo.microgrids-por-tarefa", 50),
+            ApplicationProperties.getInt("recalculo.conexoes-reservadas", 2),
+            ApplicationProperties.getInt("recalculo.paralelismo-maximo", 0),
+            ApplicationProperties.getInt("recalculo.tamanho-lote", 500));
+
+    private final int microgridsPorTarefa;
+    private final int conexoesReservadas;
+    private final int paralelismoMaximo;
+    private final int tamanhoLote;
+    private final MicrogridDAO microgridDAO = new MicrogridDAO();
+    private final GeracaoConsumoMensalDAO geracaoConsumoMensalDAO = new GeracaoConsumoMensalDAO();
+    private final EstimativaGeracaoDAO estimativaGeracaoDAO = new EstimativaGeracaoDAO();
+    private final EstimativaWriteBehind estimativaWriteBehind = EstimativaWriteBehind.getInstance();
+
+    private final AtomicInteger processadas = new AtomicInteger();
+    private final AtomicInteger comFalha = new AtomicInteger();
+    private final AtomicLong estimativasGravadas = new AtomicLong();
+    private final AtomicLong estimativasRemovidas = new AtomicLong();
+    private volatile String status = RecalculoEstimativasTO.OCIOSO;
+    private volatile String mensagem;
+    private volatile int paralelismo;
+    private volatile int totalMicrogrids;
+    private volatile long iniciadoEm;
+    private volatile long concluidoEm;
+
+    RecalculoEstimativasJob(int microgridsPorTarefa, int conexoesReservadas, int paralelismoMaximo, int tamanhoLote) {
+        this.microgridsPorTarefa = Math.max(microgridsPorTarefa, 1);
+        this.conexoesReservadas = Math.max(conexoesReservadas, 0);
+        this.paralelismoMaximo = paralelismoMaximo;
+        this.tamanhoLote = Math.max(tamanhoLote, 1);
+    }
+
+    public static RecalculoEstimativasJob getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Inicia o recálculo em segundo plano.
+     *
+     * @return Situação inicial do recálculo.
+     * @throws RecalculoEmAndamentoException Se já houver um recálculo em execução.
+     */
+    public synchronized RecalculoEstimativasTO iniciar() {
+        if (RecalculoEstimativasTO.EXECUTANDO.equals(status)) {
+            throw new RecalculoEmAndamentoException("Já existe um recálculo de estimativas em andamento.");
+        }
+        processadas.set(0);
+        comFalha.set(0);
+        estimativasGravadas.set(0);
+        estimativasRemovidas.set(0);
+        mensagem = null;
+        totalMicrogrids = 0;
+        concluidoEm = 0L;
+        iniciadoEm = System.currentTimeMillis();
+        paralelismo = calcularParalelismo();
+        status = RecalculoEstimativasTO.EXECUTANDO;
+
+        Thread coordenador = new Thread(this::executar, "recalculo-estimativas");
+        coordenador.setDaemon(true);
+        coordenador.start();
+        return getSituacao();
+    }
+
+    /**
+     * @return Progresso e vazão do recálculo atual ou do último executado.
+     */
+    public RecalculoEstimativasTO getSituacao() {
+        RecalculoEstimativasTO situacao = new RecalculoEstimativasTO();
+        situacao.setStatus(status);
+        situacao.setParalelismo(paralelismo);
+        situacao.setTotalMicrogrids(totalMicrogrids);
+        situacao.setMicrogridsProcessadas(processadas.get());
+        situacao.setMicrogridsComFalha(comFalha.get());
+        situacao.setEstimativasGravadas(estimativasGravadas.get());
+        situacao.setEstimativasRemovidas(estimativasRemovidas.get());
+        situacao.setMensagem(mensagem);
+        if (iniciadoEm > 0) {
+            long fim = concluidoEm > 0 ? concluidoEm : System.currentTimeMillis();
+            long duracao = Math.max(fim - iniciadoEm, 1L);
+            situacao.setIniciadoEm(iniciadoEm);
+            situacao.setConcluidoEm(concluidoEm > 0 ? concluidoEm : null);
+            situacao.setDuracaoMs(duracao);
+            situacao.setMicrogridsPorSegundo(processadas.get() * 1000.0 / duracao);
+            situacao.setEstimativasPorSegundo(estimativasGravadas.get() * 1000.0 / duracao);
+        }
+        situacao.setPercentual(totalMicrogrids == 0 ? 0.0 : 100.0 * processadas.get() / totalMicrogrids);
+        return situacao;
+    }
+
+    private int calcularParalelismo() {
+        int conexoes = ConnectionFactory.getInstance().getPool().getMaximumSize() - conexoesReservadas;
+        int limite = Math.min(Runtime.getRuntime().availableProcessors(), conexoes);
+        if (paralelismoMaximo > 0) {
+            limite = Math.min(limite, paralelismoMaximo);
+        }
+        return Math.max(limite, 1);
+    }
+
+    private void executar() {
+        ForkJoinPool pool = new ForkJoinPool(paralelismo);
+        String resultado = RecalculoEstimativasTO.FALHOU;
+        try {
+            long[] ids = microgridDAO.findAllIds();
+            totalMicrogrids = ids.length;
+            LOGGER.info("Recalculando estimativas de " + ids.length + " microgrids com paralelismo " + paralelismo);
+            pool.invoke(new Tarefa(ids, 0, ids.length));
+            if (comFalha.get() == 0) {
+                resultado = RecalculoEstimativasTO.CONCLUIDO;
+            }
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Erro no recálculo de estimativas: " + e.getMessage(), e);
+            mensagem = e.getMessage();
+        } finally {
+            pool.shutdown();
+            concluidoEm = System.currentTimeMillis();
+            status = resultado;
+            LOGGER.info("Recálculo de estimativas " + resultado + ": " + processadas.get() + " microgrids, "
+                    + estimativasGravadas.get() + " estimativas gravadas e " + estimativasRemovidas.get()
+                    + " removidas em " + (concluidoEm - iniciadoEm) + " ms");
+        }
+    }
+
+    /**
+     * Processa as microgrids {@code ids[inicio..fim)}, dividindo o intervalo até o
+     * tamanho de uma tarefa.
+     */
+    private final class Tarefa extends RecursiveAction {
+        private final long[] ids;
+        private final int inicio;
+        private final int fim;
+
+        private Tarefa(long[] ids, int inicio, int fim) {
+            this.ids = ids;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        @Override
+        protected void compute() {
+            if (fim <= inicio) {
+                return;
+            }
+            if (fim - inicio <= microgridsPorTarefa) {
+                processar();
+                return;
+            }
+            int meio = (inicio + fim) >>> 1;
+            invokeAll(new Tarefa(ids, inicio, meio), new Tarefa(ids, meio, fim));
+        }
+
+        private void processar() {
+            MotorPrevisao motorPrevisao = MotorPrevisao.getInstance();
+            HoltWinters modelo = motorPrevisao.getModelo();
+            SerieMensalTO serie = new SerieMensalTO();
+            int[] removidas = new int[1];
+            Set<Long> microgrids = new HashSet<>();
+            for (int i = inicio; i < fim; i++) {
+                microgrids.add(ids[i]);
+            }
+            try {
+                // A previsão nova substitui a anterior na mesma transação: as estimativas ainda na fila
+                // dessas microgrids são gravadas antes, para não prevalecerem sobre as recalculadas
+                estimativaWriteBehind.aguardarMicrogrids(microgrids);
+                int gravadas = UnitOfWork.execute(() -> {
+                    removidas[0] = 0;
+                    List<EstimativaGeracaoTO> estimativas = new ArrayList<>((fim - inicio) * motorPrevisao.getHorizonte());
+                    for (int i = inicio; i < fim; i++) {
+                        Long idMicrogrid = ids[i];
+                        geracaoConsumoMensalDAO.lerSerieGeracao(idMicrogrid, serie);
+                        HoltWinters.Estado estado = modelo.ajustar(serie.getPeriodos(), serie.getValores(), serie.getTamanho());
+                        List<EstimativaGeracaoTO> previsao = motorPrevisao.estimativas(idMicrogrid, estado);
+                        // Estimativas de períodos que a nova previsão não cobre deixariam de refletir os parâmetros
+                        removidas[0] += estimativaGeracaoDAO.deleteForaDosPeriodos(idMicrogrid, previsao);
+                        estimativas.addAll(previsao);
+                        // O estado em memória é reconstruído no próximo uso, já com o histórico confirmado
+                        UnitOfWork.afterCommit(() -> motorPrevisao.invalidar(idMicrogrid));
+                    }
+                    return estimativas.isEmpty() ? 0 : estimativaGeracaoDAO.upsertBatch(estimativas, tamanhoLote);
+                });
+                estimativasGravadas.addAndGet(gravadas);
+                estimativasRemovidas.addAndGet(removidas[0]);
+            } catch (RuntimeException e) {
+                comFalha.addAndGet(fim - inicio);
+                mensagem = e.getMessage();
+                LOGGER.log(Level.WARNING, "Erro ao recalcular as microgrids " + ids[inicio] + " a " + ids[fim - 1]
+                        + ": " + e.getMessage());
+            } finally {
+                processadas.addAndGet(fim - inicio);
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package br.com.fiap.bo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Arquivo binário com as séries de {@link SerieTemporalStore}, lido por
+ * mapeamento em memória na inicialização.
+ * <p>
+ * Cabeçalho de {@value #CABECALHO} bytes: assinatura, versão, quantidade de
+ * meses, maior ID_REGISTRO incluído, data de criação, CRC32 dos registros e
+ * tamanho do registro. Em seguida, um registro de {@value #REGISTRO} bytes por
+ * mês com dados (ID da microgrid, período, quantidade de registros, geração e
+ * consumo), ordenados por microgrid e período, de modo que cada série ocupa
+ * uma faixa contígua do arquivo.
+ * <p>
+ * O arquivo é escrito em um temporário e movido sobre o anterior, para que uma
+ * queda durante a gravação nunca deixe um snapshot pela metade.
+ */
+final class SerieTemporalSnapshot {
+    static final int CABECALHO = 48;
+    static final int REGISTRO = 32;
+    private static final int ASSINATURA = 0x46535453; // "FSTS"
+    private static final int VERSAO = 1;
+
+    private SerieTemporalSnapshot() {
+    }
+
+    /**
+     * @param series          Séries por ID da microgrid.
+     * @param maiorIdRegistro Maior ID_REGISTRO já incluído nas séries.
+     * @return Quantidade de meses gravados.
+     */
+    static long gravar(Path arquivo, Map<Long, SerieTemporalStore.Serie> series, long maiorIdRegistro) throws IOException {
+        long[] ids = new long[series.size()];
+        int n = 0;
+        long meses = 0;
+        for (Map.Entry<Long, SerieTemporalStore.Serie> serie : series.entrySet()) {
+            ids[n++] = serie.getKey();
+            for (int i = 0; i < serie.getValue().getTamanho(); i++) {
+                if (serie.getValue().getRegistros(i) > 0) {
+                    meses++;
+                }
+            }
+        }
+        Arrays.sort(ids);
+        long tamanho = CABECALHO + meses * REGISTRO;
+        if (tamanho > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot com " + meses + " meses excede o tamanho máximo de um arquivo mapeado.");
+        }
+
+        Path diretorio = arquivo.toAbsolutePath().getParent();
+        if (diretorio != null) {
+            Files.createDirectories(diretorio);
+        }
+        Path temporario = arquivo.resolveSibling(arquivo.getFileName() + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanho);
+            buffer.position(CABECALHO);
+            for (long id : ids) {
+                SerieTemporalStore.Serie serie = series.get(id);
+                for (int i = 0; i < serie.getTamanho(); i++) {
+                    if (serie.getRegistros(i) > 0) {
+                        buffer.putLong(id)
+                                .putInt(serie.getInicio() + i)
+                                .putInt(serie.getRegistros(i))
+                                .putDouble(serie.getGerado(i))
+                                .putDouble(serie.getConsumido(i));
+                    }
+                }
+            }
+            buffer.putInt(0, ASSINATURA)
+                    .putInt(4, VERSAO)
+                    .putLong(8, meses)
+                    .putLong(16, maiorIdRegistro)
+                    .putLong(24, System.currentTimeMillis())
+                    .putLong(32, crc(buffer, (int) tamanho))
+                    .putInt(40, REGISTRO)
+                    .putInt(44, 0);
+            buffer.force();
+        }
+        Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return meses;
+    }
+
+    /**
+     * Mapeia o arquivo e monta as séries.
+     *
+     * @throws IOException Se o arquivo não puder ser lido ou estiver inválido.
+     */
+    static Conteudo ler(Path arquivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            long tamanho = canal.size();
+            if (tamanho < CABECALHO || tamanho > Integer.MAX_VALUE) {
+                throw new IOException("Tamanho de arquivo inválido: " + tamanho + " bytes.");
+            }
+            MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamanho);
+            if (buffer.getInt(0) != ASSINATURA || buffer.getInt(4) != VERSAO || buffer.getInt(40) != REGISTRO) {
+                throw new IOException("Assinatura ou versão desconhecida.");
+            }
+            long meses = buffer.getLong(8);
+            if (meses < 0 || CABECALHO + meses * REGISTRO != tamanho) {
+                throw new IOException("Quantidade de meses não corresponde ao tamanho do arquivo.");
+            }
+            if (crc(buffer, (int) tamanho) != buffer.getLong(32)) {
+                throw new IOException("CRC32 dos registros não confere.");
+            }
+
+            Map<Long, SerieTemporalStore.Serie> series = new HashMap<>();
+            int fim = (int) tamanho;
+            int posicao = CABECALHO;
+            while (posicao < fim) {
+                long id = buffer.getLong(posicao);
+                int faixa = posicao;
+                while (faixa < fim && buffer.getLong(faixa) == id) {
+                    faixa += REGISTRO;
+                }
+                int inicio = buffer.getInt(posicao + 8);
+                int quantidade = buffer.getInt(faixa - REGISTRO + 8) - inicio + 1;
+                if (quantidade < (faixa - posicao) / REGISTRO) {
+                    throw new IOException("Períodos fora de ordem na microgrid " + id + ".");
+                }
+                double[] gerado = new double[quantidade];
+                double[] consumido = new double[quantidade];
+                int[] registros = new int[quantidade];
+                for (int p = posicao; p < faixa; p += REGISTRO) {
+                    int i = buffer.getInt(p + 8) - inicio;
+                    if (i < 0 || i >= quantidade) {
+                        throw new IOException("Períodos fora de ordem na microgrid " + id + ".");
+                    }
+                    registros[i] = buffer.getInt(p + 12);
+                    gerado[i] = buffer.getDouble(p + 16);
+                    consumido[i] = buffer.getDouble(p + 24);
+                }
+                if (series.put(id, new SerieTemporalStore.Serie(inicio, gerado, consumido, registros)) != null) {
+                    throw new IOException("Microgrid " + id + " aparece em mais de uma faixa.");
+                }
+                posicao = faixa;
+            }
+            return new Conteudo(series, meses, buffer.getLong(16), buffer.getLong(24));
+        }
+    }
+
+    private static long crc(ByteBuffer buffer, int tamanho) {
+        ByteBuffer registros = buffer.duplicate();
+        registros.limit(tamanho).position(CABECALHO);
+        CRC32 crc = new CRC32();
+        crc.update(registros);
+        return crc.getValue();
+    }
+
+    /**
+     * Séries lidas de um snapshot.
+     */
+    static final class Conteudo {
+        private final Map<Long, SerieTemporalStore.Serie> series;
+        private final long meses;
+        private final long maiorIdRegistro;
+        private final long criadoEm;
+
+        private Conteudo(Map<Long, SerieTemporalStore.Serie> series, long meses, long maiorIdRegistro, long criadoEm) {
+            this.series = series;
+            this.meses = meses;
+            this.maiorIdRegistro = maiorIdRegistro;
+            this.criadoEm = criadoEm;
+        }
+
+        Map<Long, SerieTemporalStore.Serie> getSeries() {
+            return series;
+        }
+
+        long getMeses() {
+            return meses;
+        }
+
+        long getMaiorIdRegistro() {
+            return maiorIdRegistro;
+        }
+
+        long getCriadoEm() {
+            return criadoEm;
+        }
+    }
+}
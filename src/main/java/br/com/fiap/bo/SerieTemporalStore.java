@@ -0,0 +1,809 @@
+package br.com.fiap.bo;
+
+import br.com.fiap.config.ApplicationProperties;
+import br.com.fiap.dao.GeracaoConsumoMensalDAO;
+import br.com.fiap.dao.ResumoGeracaoConsumoDAO;
+import br.com.fiap.to.AgregadoGeracaoConsumoTO;
+import br.com.fiap.to.GeracaoConsumoMensalTO;
+import br.com.fiap.to.Granularidade;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Séries mensais de geração e consumo de todas as microgrids em memória, em
+ * colunas {@code double[]} indexadas por {@link Periodo}, para análises sem
+ * consultar o banco nem criar um objeto por registro.
+ * <p>
+ * As séries são imutáveis: cada gravação confirmada troca a série da microgrid
+ * por uma cópia com o mês ajustado (estendida se o mês estiver fora do
+ * intervalo). As leituras não usam trava e nunca veem uma série pela metade; a
+ * cópia de algumas centenas de meses custa menos que sincronizar os leitores.
+ * <p>
+ * O conteúdo é carregado com {@link #carregar()} antes de o servidor aceitar
+ * requisições e mantido por {@link GeracaoConsumoMensalBO} após cada commit.
+ * Além da série de cada microgrid é mantida a soma da frota, para que as
+ * análises da frota percorram um único vetor em vez de todas as séries.
+ * <p>
+ * Para reinícios rápidos, o conteúdo é gravado periodicamente em um snapshot
+ * ({@link SerieTemporalSnapshot}) com o maior ID_REGISTRO incluído. Na
+ * inicialização o snapshot é mapeado em memória, os registros com ID maior são
+ * lidos do banco e os totais anuais de cada microgrid são conferidos com a
+ * tabela de resumo. Só se algum divergir os totais são recalculados sobre os
+ * próprios registros, e as microgrids que divergem deles (alterações e exclusões
+ * posteriores ao snapshot) são relidas do banco.
+ */
+public final class SerieTemporalStore {
+    private static final Logger LOGGER = Logger.getLogger(SerieTemporalStore.class.getName());
+    private static final SerieTemporalStore INSTANCE = new SerieTemporalStore(
+            ApplicationProperties.getBoolean("analise.snapshot.enabled", true),
+            Paths.get(ApplicationProperties.getString("analise.snapshot.arquivo", "dados/series.snapshot")),
+            ApplicationProperties.getLong("analise.snapshot.intervalo-ms", 300000L));
+
+    public static final String ORIGEM_BANCO = "BANCO";
+    public static final String ORIGEM_SNAPSHOT = "SNAPSHOT";
+
+    private final boolean snapshotHabilitado;
+    private final Path arquivoSnapshot;
+    private final long intervaloSnapshotMs;
+    private final GeracaoConsumoMensalDAO geracaoConsumoMensalDAO = new GeracaoConsumoMensalDAO();
+    private final ResumoGeracaoConsumoDAO resumoGeracaoConsumoDAO = new ResumoGeracaoConsumoDAO();
+
+    // Gravações aplicam sob a trava de leitura, em paralelo; o snapshot captura as séries e o maior ID sob a de escrita
+    private final ReentrantReadWriteLock trava = new ReentrantReadWriteLock();
+    private final AtomicLong maiorIdRegistro = new AtomicLong();
+    private final AtomicLong atualizacoes = new AtomicLong();
+    private final AtomicLong falhasSnapshot = new AtomicLong();
+    private final AtomicReference<Serie> frota = new AtomicReference<>();
+    private volatile ConcurrentHashMap<Long, Serie> series = new ConcurrentHashMap<>();
+    private volatile boolean carregado;
+    private volatile String origemCarga;
+    private volatile long registrosCarregados;
+    private volatile long registrosReaplicados;
+    private volatile int microgridsReconciliadas;
+    private volatile long duracaoCargaMs;
+    private volatile long ultimoSnapshotEm;
+    private volatile long ultimoSnapshotMeses;
+    private volatile long duracaoUltimoSnapshotMs;
+    private ScheduledExecutorService agendador;
+
+    SerieTemporalStore(boolean snapshotHabilitado, Path arquivoSnapshot, long intervaloSnapshotMs) {
+        this.snapshotHabilitado = snapshotHabilitado;
+        this.arquivoSnapshot = arquivoSnapshot;
+        this.intervaloSnapshotMs = intervaloSnapshotMs;
+    }
+
+    public static SerieTemporalStore getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Lê todos os registros do banco e substitui o conteúdo da store. Gravações
+     * confirmadas durante a carga podem se perder, por isso deve ser chamado
+     * antes de o servidor aceitar requisições.
+     *
+     * @return Quantidade de registros lidos.
+     */
+    public synchronized long carregar() {
+        long inicio = System.currentTimeMillis();
+        Map<Long, Construtor> construtores = new HashMap<>();
+        long[] maiorId = new long[1];
+        long lidos = geracaoConsumoMensalDAO.lerColunas(null, null, (idRegistro, idMicrogrid, ano, mes, gerado, consumido) -> {
+            construtores.computeIfAbsent(idMicrogrid, id -> new Construtor())
+                    .adicionar(Periodo.indice(ano, mes), gerado, consumido);
+            maiorId[0] = Math.max(maiorId[0], idRegistro);
+        });
+
+        ConcurrentHashMap<Long, Serie> carregadas = new ConcurrentHashMap<>(Math.max(construtores.size() * 2, 16));
+        construtores.forEach((idMicrogrid, construtor) -> carregadas.put(idMicrogrid, construtor.construir()));
+        series = carregadas;
+        frota.set(Serie.somar(carregadas.values()));
+        maiorIdRegistro.set(maiorId[0]);
+        origemCarga = ORIGEM_BANCO;
+        registrosCarregados = lidos;
+        registrosReaplicados = 0;
+        microgridsReconciliadas = 0;
+        duracaoCargaMs = System.currentTimeMillis() - inicio;
+        carregado = true;
+        return lidos;
+    }
+
+    /**
+     * Carrega as séries a partir do snapshot, se houver um válido, ou do banco, e
+     * agenda a gravação periódica do snapshot.
+     *
+     * @return Origem da carga ({@link #ORIGEM_SNAPSHOT} ou {@link #ORIGEM_BANCO}).
+     */
+    public synchronized String iniciar() {
+        boolean restaurado = snapshotHabilitado && Files.exists(arquivoSnapshot) && restaurar();
+        if (!restaurado) {
+            carregar();
+        }
+        if (snapshotHabilitado) {
+            if (!restaurado) {
+                gravarSnapshotComSeguranca();
+            }
+            if (intervaloSnapshotMs > 0 && agendador == null) {
+                agendador = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+                    Thread thread = new Thread(tarefa, "series-snapshot");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                agendador.scheduleWithFixedDelay(this::gravarSnapshotComSeguranca,
+                        intervaloSnapshotMs, intervaloSnapshotMs, TimeUnit.MILLISECONDS);
+            }
+        }
+        return origemCarga;
+    }
+
+    /**
+     * Interrompe a gravação periódica e grava um último snapshot.
+     */
+    public synchronized void encerrar() {
+        if (agendador != null) {
+            agendador.shutdownNow();
+            agendador = null;
+        }
+        if (snapshotHabilitado && carregado) {
+            gravarSnapshotComSeguranca();
+        }
+    }
+
+    /**
+     * Grava o snapshot das séries atuais, substituindo o anterior de forma atômica.
+     *
+     * @return Quantidade de meses gravados.
+     */
+    public synchronized long gravarSnapshot() {
+        Map<Long, Serie> captura;
+        long maiorId;
+        trava.writeLock().lock();
+        try {
+            captura = new HashMap<>(series);
+            maiorId = maiorIdRegistro.get();
+        } finally {
+            trava.writeLock().unlock();
+        }
+        long inicio = System.currentTimeMillis();
+        long meses;
+        try {
+            meses = SerieTemporalSnapshot.gravar(arquivoSnapshot, captura, maiorId);
+        } catch (IOException e) {
+            throw new RuntimeException("Erro ao gravar o snapshot das séries em " + arquivoSnapshot + ": " + e.getMessage(), e);
+        }
+        ultimoSnapshotEm = System.currentTimeMillis();
+        ultimoSnapshotMeses = meses;
+        duracaoUltimoSnapshotMs = ultimoSnapshotEm - inicio;
+        return meses;
+    }
+
+    private void gravarSnapshotComSeguranca() {
+        try {
+            gravarSnapshot();
+        } catch (RuntimeException e) {
+            falhasSnapshot.incrementAndGet();
+            LOGGER.log(Level.WARNING, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Restaura o snapshot, aplica os registros posteriores a ele e reconcilia com os
+     * totais anuais do resumo, ou dos registros se o resumo divergir.
+     *
+     * @return false se o snapshot for inválido ou estiver divergente demais, caso em
+     * que a carga deve ser feita do banco.
+     */
+    private boolean restaurar() {
+        long inicio = System.currentTimeMillis();
+        SerieTemporalSnapshot.Conteudo conteudo;
+        try {
+            conteudo = SerieTemporalSnapshot.ler(arquivoSnapshot);
+        } catch (IOException e) {
+            LOGGER.warning("Snapshot das séries descartado (" + arquivoSnapshot + "): " + e.getMessage());
+            return false;
+        }
+
+        ConcurrentHashMap<Long, Serie> restauradas = new ConcurrentHashMap<>(Math.max(conteudo.getSeries().size() * 2, 16));
+        restauradas.putAll(conteudo.getSeries());
+        long[] maiorId = {conteudo.getMaiorIdRegistro()};
+        long reaplicados = geracaoConsumoMensalDAO.lerColunas(null, conteudo.getMaiorIdRegistro(),
+                (idRegistro, idMicrogrid, ano, mes, gerado, consumido) -> {
+                    restauradas.compute(idMicrogrid,
+                            (id, atual) -> Serie.com(atual, Periodo.indice(ano, mes), gerado, consumido, 1));
+                    maiorId[0] = Math.max(maiorId[0], idRegistro);
+                });
+
+        Set<Long> divergentes = divergentes(restauradas);
+        if (divergentes.size() > Math.max(10, restauradas.size() / 4)) {
+            LOGGER.warning("Snapshot das séries descartado: " + divergentes.size() + " microgrids divergem dos registros.");
+            return false;
+        }
+        for (Long idMicrogrid : divergentes) {
+            Construtor construtor = new Construtor();
+            geracaoConsumoMensalDAO.lerColunas(idMicrogrid, null, (idRegistro, id, ano, mes, gerado, consumido) -> {
+                construtor.adicionar(Periodo.indice(ano, mes), gerado, consumido);
+                maiorId[0] = Math.max(maiorId[0], idRegistro);
+            });
+            if (construtor.isVazio()) {
+                restauradas.remove(idMicrogrid);
+            } else {
+                restauradas.put(idMicrogrid, construtor.construir());
+            }
+        }
+
+        series = restauradas;
+        Serie total = Serie.somar(restauradas.values());
+        frota.set(total);
+        maiorIdRegistro.set(maiorId[0]);
+        origemCarga = ORIGEM_SNAPSHOT;
+        registrosCarregados = total == null ? 0 : total.totalRegistros();
+        registrosReaplicados = reaplicados;
+        microgridsReconciliadas = divergentes.size();
+        duracaoCargaMs = System.currentTimeMillis() - inicio;
+        carregado = true;
+        return true;
+    }
+
+    /**
+     * Compara os totais anuais de cada microgrid com a tabela de resumo, que tem uma
+     * linha por microgrid e ano. Se algum divergir, compara com os totais somados a
+     * partir de GERACAO_CONSUMO_MENSAL, que são a referência: o resumo é mantido
+     * pelos mesmos deltas que as séries, e a varredura dos registros resolve o caso
+     * raro de os dois terem se afastado dos registros.
+     *
+     * @return IDs das microgrids cuja série diverge dos registros.
+     */
+    private Set<Long> divergentes(Map<Long, Serie> candidatas) {
+        Set<Long> suspeitas = divergentes(candidatas, resumoGeracaoConsumoDAO.buscar(null, false, null, null));
+        if (suspeitas.isEmpty()) {
+            return suspeitas;
+        }
+        Set<Long> divergentes = divergentes(candidatas, geracaoConsumoMensalDAO.agregar(Granularidade.ANO, null, true, null, null));
+        if (!divergentes.containsAll(suspeitas)) {
+            LOGGER.warning("O resumo de geração e consumo diverge dos registros em " + suspeitas.size()
+                    + " microgrids; reconstrua o resumo.");
+        }
+        return divergentes;
+    }
+
+    /**
+     * @param totaisAnuais Totais por microgrid e ano (linhas com zero registros são ignoradas).
+     * @return IDs das microgrids cuja série diverge dos totais.
+     */
+    private static Set<Long> divergentes(Map<Long, Serie> candidatas, List<AgregadoGeracaoConsumoTO> totaisAnuais) {
+        Set<Long> divergentes = new HashSet<>();
+        Map<Long, Integer> anosNoBanco = new HashMap<>();
+        double[] totais = new double[3];
+        for (AgregadoGeracaoConsumoTO linha : totaisAnuais) {
+            if (linha.getRegistros() == 0) {
+                continue;
+            }
+            Long idMicrogrid = linha.getIdMicrogrid();
+            anosNoBanco.merge(idMicrogrid, 1, Integer::sum);
+            Serie serie = candidatas.get(idMicrogrid);
+            if (serie == null) {
+                divergentes.add(idMicrogrid);
+                continue;
+            }
+            serie.totaisAno(linha.getAno(), totais);
+            if (totais[2] != linha.getRegistros()
+                    || !proximos(totais[0], linha.getTotalGerado())
+                    || !proximos(totais[1], linha.getTotalConsumido())) {
+                divergentes.add(idMicrogrid);
+            }
+        }
+        // Séries com anos que não têm mais registros (excluídos depois do snapshot)
+        for (Map.Entry<Long, Serie> candidata : candidatas.entrySet()) {
+            if (candidata.getValue().anosComRegistros() != anosNoBanco.getOrDefault(candidata.getKey(), 0)) {
+                divergentes.add(candidata.getKey());
+            }
+        }
+        return divergentes;
+    }
+
+    private static boolean proximos(double a, double b) {
+        return Math.abs(a - b) <= 1e-9 * Math.max(1.0, Math.max(Math.abs(a), Math.abs(b)));
+    }
+
+    /**
+     * Aplica registros incluídos ({@code sinal = 1}) ou excluídos ({@code sinal = -1}).
+     * Ignorado enquanto a store não tiver sido carregada.
+     *
+     * @param idRegistroMaximo Maior ID_REGISTRO incluído, ou 0 em exclusões.
+     */
+    public void aplicar(List<GeracaoConsumoMensalTO> registros, int sinal, long idRegistroMaximo) {
+        if (!carregado) {
+            return;
+        }
+        trava.readLock().lock();
+        try {
+            for (GeracaoConsumoMensalTO registro : registros) {
+                aplicarMes(registro.getIdMicrogrid(), Periodo.indice(registro.getAno(), registro.getMes()),
+                        sinal * registro.getWattsGerados(), sinal * registro.getWattsConsumidos(), sinal);
+            }
+            maiorIdRegistro.accumulateAndGet(idRegistroMaximo, Math::max);
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    /**
+     * Soma valores a um mês da série da microgrid. Ignorado enquanto a store não
+     * tiver sido carregada.
+     *
+     * @param registros Variação na quantidade de registros do mês (1 na inclusão,
+     *                  -1 na exclusão, 0 na alteração).
+     */
+    public void aplicar(long idMicrogrid, int ano, int mes, double gerado, double consumido, int registros) {
+        if (!carregado) {
+            return;
+        }
+        trava.readLock().lock();
+        try {
+            aplicarMes(idMicrogrid, Periodo.indice(ano, mes), gerado, consumido, registros);
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    private void aplicarMes(long idMicrogrid, int periodo, double gerado, double consumido, int registros) {
+        series.compute(idMicrogrid, (id, atual) -> Serie.com(atual, periodo, gerado, consumido, registros));
+        frota.updateAndGet(atual -> Serie.com(atual, periodo, gerado, consumido, registros));
+        atualizacoes.incrementAndGet();
+    }
+
+    public boolean isCarregado() {
+        return carregado;
+    }
+
+    public int getMicrogrids() {
+        return series.size();
+    }
+
+    public long getRegistrosCarregados() {
+        return registrosCarregados;
+    }
+
+    public long getDuracaoCargaMs() {
+        return duracaoCargaMs;
+    }
+
+    public long getAtualizacoes() {
+        return atualizacoes.get();
+    }
+
+    public String getOrigemCarga() {
+        return origemCarga;
+    }
+
+    public long getRegistrosReaplicados() {
+        return registrosReaplicados;
+    }
+
+    public int getMicrogridsReconciliadas() {
+        return microgridsReconciliadas;
+    }
+
+    public long getMaiorIdRegistro() {
+        return maiorIdRegistro.get();
+    }
+
+    public boolean isSnapshotHabilitado() {
+        return snapshotHabilitado;
+    }
+
+    public long getUltimoSnapshotEm() {
+        return ultimoSnapshotEm;
+    }
+
+    public long getUltimoSnapshotMeses() {
+        return ultimoSnapshotMeses;
+    }
+
+    public long getDuracaoUltimoSnapshotMs() {
+        return duracaoUltimoSnapshotMs;
+    }
+
+    public long getFalhasSnapshot() {
+        return falhasSnapshot.get();
+    }
+
+    /**
+     * @return Quantidade de meses mantidos em memória, somando todas as séries.
+     */
+    public long getMeses() {
+        long meses = 0;
+        for (Serie serie : series.values()) {
+            meses += serie.gerado.length;
+        }
+        return meses;
+    }
+
+    /**
+     * Copia um intervalo de meses da microgrid, ou a soma de todas as microgrids.
+     *
+     * @param idMicrogrid ID da microgrid, ou null para a frota.
+     * @param de          Primeiro mês, ou null para o primeiro mês com dados.
+     * @param ate         Último mês, ou null para o último mês com dados.
+     * @return Colunas do intervalo; vazias se não houver dados e o intervalo não for informado.
+     */
+    public Janela janela(Long idMicrogrid, Integer de, Integer ate) {
+        Serie serie = idMicrogrid == null ? frota.get() : series.get(idMicrogrid);
+        if (serie == null && (de == null || ate == null)) {
+            return new Janela(de != null ? de : 0, 0);
+        }
+        int inicio = de != null ? de : serie.inicio;
+        int fim = ate != null ? ate : serie.getFim();
+        if (fim < inicio) {
+            return new Janela(inicio, 0);
+        }
+        Janela janela = new Janela(inicio, fim - inicio + 1);
+        if (serie != null) {
+            serie.copiarPara(janela);
+        }
+        return janela;
+    }
+
+    /**
+     * Soma o intervalo de cada microgrid, entregando ao consumidor apenas as que têm
+     * registros nele.
+     */
+    public void somarPorMicrogrid(int de, int ate, TotaisMicrogrid consumidor) {
+        for (Map.Entry<Long, Serie> entrada : series.entrySet()) {
+            Serie serie = entrada.getValue();
+            int inicio = Math.max(de, serie.inicio);
+            int fim = Math.min(ate, serie.getFim());
+            double gerado = 0.0;
+            double consumido = 0.0;
+            int registros = 0;
+            for (int i = inicio - serie.inicio; i <= fim - serie.inicio; i++) {
+                gerado += serie.gerado[i];
+                consumido += serie.consumido[i];
+                registros += serie.registros[i];
+            }
+            if (registros > 0) {
+                consumidor.aceitar(entrada.getKey(), gerado, consumido, registros);
+            }
+        }
+    }
+
+    /**
+     * Recebe os totais de uma microgrid de {@link #somarPorMicrogrid(int, int, TotaisMicrogrid)}.
+     */
+    @FunctionalInterface
+    public interface TotaisMicrogrid {
+        void aceitar(long idMicrogrid, double gerado, double consumido, int registros);
+    }
+
+    /**
+     * Série imutável de uma microgrid (ou da frota): o mês {@code inicio + i} está
+     * na posição {@code i} de cada coluna. O primeiro e o último mês sempre têm registros.
+     */
+    static final class Serie {
+        private final int inicio;
+        private final double[] gerado;
+        private final double[] consumido;
+        private final int[] registros;
+
+        Serie(int inicio, double[] gerado, double[] consumido, int[] registros) {
+            this.inicio = inicio;
+            this.gerado = gerado;
+            this.consumido = consumido;
+            this.registros = registros;
+        }
+
+        int getInicio() {
+            return inicio;
+        }
+
+        int getFim() {
+            return inicio + gerado.length - 1;
+        }
+
+        int getTamanho() {
+            return gerado.length;
+        }
+
+        double getGerado(int i) {
+            return gerado[i];
+        }
+
+        double getConsumido(int i) {
+            return consumido[i];
+        }
+
+        int getRegistros(int i) {
+            return registros[i];
+        }
+
+        /**
+         * Escreve em {@code totais} a geração, o consumo e a quantidade de registros do ano.
+         */
+        private void totaisAno(int ano, double[] totais) {
+            Arrays.fill(totais, 0.0);
+            int de = Math.max(inicio, Periodo.indice(ano, 1));
+            int ate = Math.min(getFim(), Periodo.indice(ano, 12));
+            for (int periodo = de; periodo <= ate; periodo++) {
+                int i = periodo - inicio;
+                totais[0] += gerado[i];
+                totais[1] += consumido[i];
+                totais[2] += registros[i];
+            }
+        }
+
+        private long totalRegistros() {
+            long total = 0;
+            for (int quantidade : registros) {
+                total += quantidade;
+            }
+            return total;
+        }
+
+        private int anosComRegistros() {
+            int anos = 0;
+            int ultimoAno = Integer.MIN_VALUE;
+            for (int i = 0; i < registros.length; i++) {
+                int ano = Periodo.ano(inicio + i);
+                if (registros[i] > 0 && ano != ultimoAno) {
+                    anos++;
+                    ultimoAno = ano;
+                }
+            }
+            return anos;
+        }
+
+        /**
+         * @return Soma das séries, ou null se não houver nenhuma.
+         */
+        private static Serie somar(Collection<Serie> series) {
+            int inicio = Integer.MAX_VALUE;
+            int fim = Integer.MIN_VALUE;
+            for (Serie serie : series) {
+                inicio = Math.min(inicio, serie.inicio);
+                fim = Math.max(fim, serie.getFim());
+            }
+            if (inicio > fim) {
+                return null;
+            }
+            int tamanho = fim - inicio + 1;
+            double[] gerado = new double[tamanho];
+            double[] consumido = new double[tamanho];
+            int[] registros = new int[tamanho];
+            for (Serie serie : series) {
+                int deslocamento = serie.inicio - inicio;
+                for (int i = 0; i < serie.gerado.length; i++) {
+                    gerado[deslocamento + i] += serie.gerado[i];
+                    consumido[deslocamento + i] += serie.consumido[i];
+                    registros[deslocamento + i] += serie.registros[i];
+                }
+            }
+            return new Serie(inicio, gerado, consumido, registros);
+        }
+
+        /**
+         * @return Cópia da série com o mês ajustado, ou null se ela ficar sem registros.
+         */
+        private static Serie com(Serie atual, int periodo, double deltaGerado, double deltaConsumido, int deltaRegistros) {
+            int inicio = atual == null ? periodo : Math.min(atual.inicio, periodo);
+            int fim = atual == null ? periodo : Math.max(atual.getFim(), periodo);
+            int tamanho = fim - inicio + 1;
+            double[] gerado = new double[tamanho];
+            double[] consumido = new double[tamanho];
+            int[] registros = new int[tamanho];
+            if (atual != null) {
+                int deslocamento = atual.inicio - inicio;
+                System.arraycopy(atual.gerado, 0, gerado, deslocamento, atual.gerado.length);
+                System.arraycopy(atual.consumido, 0, consumido, deslocamento, atual.consumido.length);
+                System.arraycopy(atual.registros, 0, registros, deslocamento, atual.registros.length);
+            }
+
+            int i = periodo - inicio;
+            registros[i] += deltaRegistros;
+            if (registros[i] <= 0) {
+                // Sem registros o mês volta a zero, sem resíduo de arredondamento das subtrações
+                registros[i] = 0;
+                gerado[i] = 0.0;
+                consumido[i] = 0.0;
+            } else {
+                gerado[i] += deltaGerado;
+                consumido[i] += deltaConsumido;
+            }
+
+            // Meses sem registros nas pontas são descartados
+            int primeiro = 0;
+            int ultimo = tamanho - 1;
+            while (primeiro <= ultimo && registros[primeiro] == 0) {
+                primeiro++;
+            }
+            while (ultimo >= primeiro && registros[ultimo] == 0) {
+                ultimo--;
+            }
+            if (primeiro > ultimo) {
+                return null;
+            }
+            if (primeiro == 0 && ultimo == tamanho - 1) {
+                return new Serie(inicio, gerado, consumido, registros);
+            }
+            return new Serie(inicio + primeiro,
+                    Arrays.copyOfRange(gerado, primeiro, ultimo + 1),
+                    Arrays.copyOfRange(consumido, primeiro, ultimo + 1),
+                    Arrays.copyOfRange(registros, primeiro, ultimo + 1));
+        }
+
+        private void copiarPara(Janela janela) {
+            int de = Math.max(inicio, janela.inicio);
+            int ate = Math.min(getFim(), janela.inicio + janela.tamanho - 1);
+            for (int periodo = de; periodo <= ate; periodo++) {
+                int origem = periodo - inicio;
+                int destino = periodo - janela.inicio;
+                janela.gerado[destino] = gerado[origem];
+                janela.consumido[destino] = consumido[origem];
+                janela.registros[destino] = registros[origem];
+            }
+        }
+    }
+
+    /**
+     * Cópia de um intervalo de meses, de uma microgrid ou da frota, com as
+     * operações de análise sobre as colunas.
+     */
+    public static final class Janela {
+        private final int inicio;
+        private final int tamanho;
+        private final double[] gerado;
+        private final double[] consumido;
+        private final int[] registros;
+
+        private Janela(int inicio, int tamanho) {
+            this.inicio = inicio;
+            this.tamanho = tamanho;
+            this.gerado = new double[tamanho];
+            this.consumido = new double[tamanho];
+            this.registros = new int[tamanho];
+        }
+
+        public int getInicio() {
+            return inicio;
+        }
+
+        public int getTamanho() {
+            return tamanho;
+        }
+
+        public double getGerado(int i) {
+            return gerado[i];
+        }
+
+        public double getConsumido(int i) {
+            return consumido[i];
+        }
+
+        public int getRegistros(int i) {
+            return registros[i];
+        }
+
+        public double somaGerado() {
+            double soma = 0.0;
+            for (int i = 0; i < tamanho; i++) {
+                soma += gerado[i];
+            }
+            return soma;
+        }
+
+        public double somaConsumido() {
+            double soma = 0.0;
+            for (int i = 0; i < tamanho; i++) {
+                soma += consumido[i];
+            }
+            return soma;
+        }
+
+        public long somaRegistros() {
+            long soma = 0;
+            for (int i = 0; i < tamanho; i++) {
+                soma += registros[i];
+            }
+            return soma;
+        }
+
+        /**
+         * @return Média móvel da geração nos últimos {@code meses} meses de cada posição.
+         * @see #mediaMovel(double[], int[], int)
+         */
+        public double[] mediaMovelGerado(int meses) {
+            return mediaMovel(gerado, registros, meses);
+        }
+
+        public double[] mediaMovelConsumido(int meses) {
+            return mediaMovel(consumido, registros, meses);
+        }
+
+        /**
+         * Média móvel em uma passada: considera apenas os meses da janela que têm
+         * registros, para que meses sem dados não puxem a média para zero. Posições
+         * cuja janela não tem nenhum mês com dados recebem NaN.
+         */
+        static double[] mediaMovel(double[] valores, int[] registros, int meses) {
+            double[] medias = new double[valores.length];
+            double soma = 0.0;
+            int comDados = 0;
+            for (int i = 0; i < valores.length; i++) {
+                if (registros[i] > 0) {
+                    soma += valores[i];
+                    comDados++;
+                }
+                int saindo = i - meses;
+                if (saindo >= 0 && registros[saindo] > 0) {
+                    soma -= valores[saindo];
+                    comDados--;
+                }
+                medias[i] = comDados == 0 ? Double.NaN : soma / comDados;
+            }
+            return medias;
+        }
+    }
+
+    /**
+     * Acumula os registros de uma microgrid durante a carga, em vetores
+     * primitivos que crescem conforme necessário, e monta a série no final.
+     */
+    private static final class Construtor {
+        private int[] periodos = new int[16];
+        private double[] gerado = new double[16];
+        private double[] consumido = new double[16];
+        private int tamanho;
+        private int minimo = Integer.MAX_VALUE;
+        private int maximo = Integer.MIN_VALUE;
+
+        private boolean isVazio() {
+            return tamanho == 0;
+        }
+
+        private void adicionar(int periodo, double wattsGerados, double wattsConsumidos) {
+            if (tamanho == periodos.length) {
+                int capacidade = tamanho * 2;
+                periodos = Arrays.copyOf(periodos, capacidade);
+                gerado = Arrays.copyOf(gerado, capacidade);
+                consumido = Arrays.copyOf(consumido, capacidade);
+            }
+            periodos[tamanho] = periodo;
+            gerado[tamanho] = wattsGerados;
+            consumido[tamanho] = wattsConsumidos;
+            tamanho++;
+            minimo = Math.min(minimo, periodo);
+            maximo = Math.max(maximo, periodo);
+        }
+
+        private Serie construir() {
+            int meses = maximo - minimo + 1;
+            double[] colunaGerado = new double[meses];
+            double[] colunaConsumido = new double[meses];
+            int[] colunaRegistros = new int[meses];
+            for (int i = 0; i < tamanho; i++) {
+                int posicao = periodos[i] - minimo;
+                colunaGerado[posicao] += gerado[i];
+                colunaConsumido[posicao] += consumido[i];
+                colunaRegistros[posicao]++;
+            }
+            return new Serie(minimo, colunaGerado, colunaConsumido, colunaRegistros);
+        }
+    }
+}
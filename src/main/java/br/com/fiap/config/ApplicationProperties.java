@@ -0,0 +1,91 @@
+package br.com.fiap.config;
+
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * Acesso centralizado às configurações de application.properties.
+ * Propriedades de sistema (-Dchave=valor) têm precedência sobre o arquivo.
+ */
+public final class ApplicationProperties {
+    private static final String ARQUIVO = "application.properties";
+    private static Properties properties;
+
+    private ApplicationProperties() {
+    }
+
+    private static synchronized Properties load() {
+        if (properties != null) {
+            return properties;
+        }
+        try (InputStream file = ApplicationProperties.class.getClassLoader().getResourceAsStream(ARQUIVO)) {
+            if (file == null) {
+                throw new RuntimeException("Arquivo " + ARQUIVO + " não encontrado no classpath.");
+            }
+            Properties prop = new Properties();
+            prop.load(file);
+            properties = prop;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Erro ao carregar " + ARQUIVO + ": " + e.getMessage(), e);
+        }
+        return properties;
+    }
+
+    public static String getString(String chave) {
+        return getString(chave, null);
+    }
+
+    public static String getString(String chave, String padrao) {
+        String valor = System.getProperty(chave);
+        if (valor == null) {
+            valor = load().getProperty(chave);
+        }
+        return valor != null ? valor.trim() : padrao;
+    }
+
+    public static int getInt(String chave, int padrao) {
+        String valor = getString(chave);
+        if (valor == null || valor.isEmpty()) {
+            return padrao;
+        }
+        try {
+            return Integer.parseInt(valor);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Valor inválido para a propriedade " + chave + ": " + valor, e);
+        }
+    }
+
+    public static long getLong(String chave, long padrao) {
+        String valor = getString(chave);
+        if (valor == null || valor.isEmpty()) {
+            return padrao;
+        }
+        try {
+            return Long.parseLong(valor);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Valor inválido para a propriedade " + chave + ": " + valor, e);
+        }
+    }
+
+    public static double getDouble(String chave, double padrao) {
+        String valor = getString(chave);
+        if (valor == null || valor.isEmpty()) {
+            return padrao;
+        }
+        try {
+            return Double.parseDouble(valor);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Valor inválido para a propriedade " + chave + ": " + valor, e);
+        }
+    }
+
+    public static boolean getBoolean(String chave, boolean padrao) {
+        String valor = getString(chave);
+        if (valor == null || valor.isEmpty()) {
+            return padrao;
+        }
+        return Boolean.parseBoolean(valor);
+    }
+}
@@ -1,14 +1,13 @@
 package br.com.fiap.dao;
 
-import java.io.InputStream;
+import br.com.fiap.config.ApplicationProperties;
+
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.util.Properties;
 
 public class ConnectionFactory {
     private static ConnectionFactory instance;
-    private Connection conexao;
+    private final ConnectionPool pool;
     private String url;
     private String user;
     private String pass;
@@ -19,6 +18,25 @@ public class ConnectionFactory {
         this.user = user;
         this.pass = pass;
         this.driver = driver;
+
+        try {
+            if (this.getDriver() == null || this.getDriver().isEmpty()) {
+                throw new ClassNotFoundException("Nome do driver nulo ou vazio.");
+            }
+            Class.forName(this.getDriver());
+        } catch (ClassNotFoundException e) {
+            throw new RuntimeException("Driver do banco de dados não encontrado: " + e.getMessage(), e);
+        }
+
+        this.pool = new ConnectionPool(url, user, pass,
+                ApplicationProperties.getInt("datasource.pool.maximum-size", 10),
+                ApplicationProperties.getInt("datasource.pool.minimum-idle", 2),
+                ApplicationProperties.getLong("datasource.pool.idle-timeout-ms", 600000L),
+                ApplicationProperties.getLong("datasource.pool.max-lifetime-ms", 1800000L),
+                ApplicationProperties.getLong("datasource.pool.connection-timeout-ms", 5000L),
+                ApplicationProperties.getLong("datasource.pool.validation-interval-ms", 1000L),
+                ApplicationProperties.getInt("datasource.pool.validation-timeout-s", 2),
+                ApplicationProperties.getInt("datasource.pool.statement-cache-size", 50));
     }
 
     public static synchronized ConnectionFactory getInstance() {
@@ -26,18 +44,11 @@ public class ConnectionFactory {
             return instance;
         }
 
-        try (InputStream file = ConnectionFactory.class.getClassLoader().getResourceAsStream("application.properties")) {
-            if (file == null) {
-                throw new RuntimeException("Arquivo application.properties não encontrado no classpath.");
-            }
-
-            Properties prop = new Properties();
-            prop.load(file);
-
-            String url = prop.getProperty("datasource.url");
-            String user = prop.getProperty("datasource.username");
-            String pass = prop.getProperty("datasource.password");
-            String driver = prop.getProperty("datasource.driver-class-name");
+        try {
+            String url = ApplicationProperties.getString("datasource.url");
+            String user = ApplicationProperties.getString("datasource.username");
+            String pass = ApplicationProperties.getString("datasource.password");
+            String driver = ApplicationProperties.getString("datasource.driver-class-name");
 
             instance = new ConnectionFactory(url, user, pass, driver);
         } catch (Exception e) {
@@ -47,24 +58,32 @@ public class ConnectionFactory {
         return instance;
     }
 
+    /**
+     * Retira uma conexão do pool. A conexão deve ser fechada ao final do uso,
+     * o que a devolve ao pool.
+     *
+     * @return Conexão emprestada do pool.
+     */
     public Connection getConexao() {
         try {
-            if (this.conexao != null && !this.conexao.isClosed()) {
-                return this.conexao;
-            }
-
-            if (this.getDriver() == null || this.getDriver().isEmpty()) {
-                throw new ClassNotFoundException("Nome do driver nulo ou vazio.");
-            }
-
-            Class.forName(this.getDriver());
-            this.conexao = DriverManager.getConnection(this.getUrl(), this.getUser(), this.getPass());
+            return pool.getConnection();
         } catch (SQLException e) {
             throw new RuntimeException("Erro ao estabelecer a conexão com o banco de dados: " + e.getMessage(), e);
-        } catch (ClassNotFoundException e) {
-            throw new RuntimeException("Driver do banco de dados não encontrado: " + e.getMessage(), e);
         }
-        return conexao;
+    }
+
+    public ConnectionPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Encerra o pool, fechando as conexões ociosas.
+     */
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.pool.close();
+            instance = null;
+        }
     }
 
     public String getUrl() {
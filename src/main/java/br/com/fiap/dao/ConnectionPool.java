@@ -0,0 +1,355 @@
+package br.com.fiap.dao;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Pool de conexões JDBC com tamanho máximo, remoção de conexões ociosas,
+ * validação na retirada, tempo de vida máximo e tempo limite de espera.
+ * <p>
+ * As conexões entregues são proxies: chamar {@link Connection#close()} devolve
+ * a conexão física ao pool em vez de fechá-la. Cada conexão física mantém um
+ * {@link StatementCache}, de modo que prepareStatement com um SQL já usado na
+ * conexão reaproveita o statement preparado.
+ */
+public class ConnectionPool {
+    private static final Logger LOGGER = Logger.getLogger(ConnectionPool.class.getName());
+
+    private final String url;
+    private final String user;
+    private final String pass;
+    private final int maximumSize;
+    private final int minimumIdle;
+    private final long idleTimeoutMs;
+    private final long maxLifetimeMs;
+    private final long connectionTimeoutMs;
+    private final long validationIntervalMs;
+    private final int validationTimeoutSeconds;
+    private final int statementCacheSize;
+
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong destroyedCount = new AtomicLong();
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong waitNanos = new AtomicLong();
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+    private final AtomicLong statementCacheEvictions = new AtomicLong();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    public ConnectionPool(String url, String user, String pass, int maximumSize, int minimumIdle,
+                          long idleTimeoutMs, long maxLifetimeMs, long connectionTimeoutMs,
+                          long validationIntervalMs, int validationTimeoutSeconds, int statementCacheSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("O tamanho máximo do pool deve ser maior que zero.");
+        }
+        this.url = url;
+        this.user = user;
+        this.pass = pass;
+        this.maximumSize = maximumSize;
+        this.minimumIdle = Math.min(Math.max(minimumIdle, 0), maximumSize);
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.maxLifetimeMs = maxLifetimeMs;
+        this.connectionTimeoutMs = connectionTimeoutMs;
+        this.validationIntervalMs = validationIntervalMs;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.statementCacheSize = Math.max(statementCacheSize, 0);
+        this.permits = new Semaphore(maximumSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "connection-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long intervalo = Math.max(1000L, Math.min(30000L, idleTimeoutMs / 2));
+        housekeeper.scheduleWithFixedDelay(this::housekeep, intervalo, intervalo, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Retira uma conexão do pool, aguardando no máximo o tempo limite configurado.
+     *
+     * @return Conexão que deve ser fechada ao final do uso para ser devolvida ao pool.
+     * @throws SQLException Se o pool estiver esgotado ou não for possível abrir uma conexão.
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("O pool de conexões foi encerrado.");
+        }
+        long inicio = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(connectionTimeoutMs, TimeUnit.MILLISECONDS)) {
+                timeoutCount.incrementAndGet();
+                throw new SQLTransientConnectionException(
+                        "Tempo de espera por conexão esgotado após " + connectionTimeoutMs + " ms (máximo de "
+                                + maximumSize + " conexões em uso).");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrompido enquanto aguardava uma conexão do pool.", e);
+        }
+        waitNanos.addAndGet(System.nanoTime() - inicio);
+        borrowCount.incrementAndGet();
+
+        try {
+            PooledConnection pooled;
+            while ((pooled = idle.pollFirst()) != null) {
+                if (isExpired(pooled) || !isValid(pooled)) {
+                    destroy(pooled);
+                    continue;
+                }
+                return pooled.checkout();
+            }
+            return create().checkout();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Fecha todas as conexões ociosas e recusa novas retiradas.
+     */
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            destroy(pooled);
+        }
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public int getTotalConnections() {
+        return totalConnections.get();
+    }
+
+    public int getIdleConnections() {
+        return idle.size();
+    }
+
+    public int getActiveConnections() {
+        return maximumSize - permits.availablePermits();
+    }
+
+    public int getThreadsAwaitingConnection() {
+        return permits.getQueueLength();
+    }
+
+    public long getBorrowCount() {
+        return borrowCount.get();
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount.get();
+    }
+
+    public long getCreatedCount() {
+        return createdCount.get();
+    }
+
+    public long getDestroyedCount() {
+        return destroyedCount.get();
+    }
+
+    public long getTotalWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(waitNanos.get());
+    }
+
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    public long getStatementCacheHits() {
+        return statementCacheHits.get();
+    }
+
+    public long getStatementCacheMisses() {
+        return statementCacheMisses.get();
+    }
+
+    public long getStatementCacheEvictions() {
+        return statementCacheEvictions.get();
+    }
+
+    private PooledConnection create() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, user, pass);
+        totalConnections.incrementAndGet();
+        createdCount.incrementAndGet();
+        return new PooledConnection(physical);
+    }
+
+    private void release(PooledConnection pooled) {
+        try {
+            if (closed || isExpired(pooled) || pooled.physical.isClosed()) {
+                destroy(pooled);
+                return;
+            }
+            if (!pooled.physical.getAutoCommit()) {
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+            pooled.lastUsedAt = System.currentTimeMillis();
+            idle.offerFirst(pooled);
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Descartando conexão após erro ao devolvê-la ao pool: " + e.getMessage());
+            destroy(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private boolean isExpired(PooledConnection pooled) {
+        return maxLifetimeMs > 0 && System.currentTimeMillis() - pooled.createdAt >= maxLifetimeMs;
+    }
+
+    private boolean isValid(PooledConnection pooled) {
+        if (System.currentTimeMillis() - pooled.lastUsedAt < validationIntervalMs) {
+            return true;
+        }
+        try {
+            return pooled.physical.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void destroy(PooledConnection pooled) {
+        totalConnections.decrementAndGet();
+        destroyedCount.incrementAndGet();
+        if (pooled.statementCache != null) {
+            pooled.statementCache.closeAll();
+        }
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            LOGGER.log(Level.FINE, "Erro ao fechar conexão física: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Remove conexões ociosas além do mínimo ou que ultrapassaram o tempo de vida,
+     * e repõe conexões até o mínimo de ociosas configurado.
+     */
+    private void housekeep() {
+        long agora = System.currentTimeMillis();
+        List<PooledConnection> remover = new ArrayList<>();
+        int ociosas = idle.size();
+        for (Iterator<PooledConnection> it = idle.descendingIterator(); it.hasNext(); ) {
+            PooledConnection pooled = it.next();
+            boolean ociosaDemais = idleTimeoutMs > 0 && agora - pooled.lastUsedAt >= idleTimeoutMs
+                    && ociosas - remover.size() > minimumIdle;
+            if ((ociosaDemais || isExpired(pooled)) && idle.remove(pooled)) {
+                remover.add(pooled);
+            }
+        }
+        for (PooledConnection pooled : remover) {
+            destroy(pooled);
+        }
+
+        while (!closed && idle.size() < minimumIdle && totalConnections.get() < maximumSize
+                && permits.tryAcquire()) {
+            try {
+                idle.offerLast(create());
+            } catch (SQLException e) {
+                LOGGER.log(Level.WARNING, "Não foi possível repor conexões ociosas: " + e.getMessage());
+                break;
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * Conexão física mantida pelo pool.
+     */
+    private final class PooledConnection {
+        private final Connection physical;
+        private final long createdAt = System.currentTimeMillis();
+        private volatile long lastUsedAt = createdAt;
+        private final StatementCache statementCache = statementCacheSize > 0
+                ? new StatementCache(statementCacheSize, statementCacheHits, statementCacheMisses, statementCacheEvictions)
+                : null;
+
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        private Connection checkout() {
+            return (Connection) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new Handle(this));
+        }
+    }
+
+    /**
+     * Proxy entregue a quem retira uma conexão; válido até ser fechado.
+     */
+    private final class Handle implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean returned;
+
+        private Handle(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String nome = method.getName();
+            switch (nome) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.physical + "]";
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("A conexão já foi devolvida ao pool.");
+            }
+            if (pooled.statementCache != null && StatementCache.isCacheable(nome, args)) {
+                return pooled.statementCache.prepare(pooled.physical, (Connection) proxy, args);
+            }
+            try {
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,396 @@
+package br.com.fiap.dao;
+
+import br.com.fiap.to.EstatisticaEstimativaTO;
+import br.com.fiap.to.EstimativaGeracaoTO;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Quantidade, soma, mínimo, máximo e variância (Welford) das estimativas de cada
+ * microgrid, mantidos incrementalmente pelas escritas do {@link EstimativaGeracaoDAO}
+ * após o commit, de modo que as estatísticas de uma microgrid custam O(1).
+ * <p>
+ * Cada microgrid guarda também o valor de cada período, já que há no máximo uma
+ * estimativa por período: uma regravação retira o valor antigo antes de somar o
+ * novo, e consultas por intervalo percorrem apenas os períodos do intervalo.
+ * Quando o valor retirado é o mínimo ou o máximo, os acumuladores da microgrid são
+ * recalculados a partir dos valores, o que também descarta o erro de arredondamento
+ * acumulado pelas retiradas.
+ * <p>
+ * As ações pós-commit de transações diferentes não rodam necessariamente na ordem
+ * dos commits. Por isso cada escrita relê do banco os períodos gravados e aplica
+ * o valor confirmado, e não o que ela própria gravou; a leitura e a aplicação são
+ * serializadas por microgrid, de modo que a última a aplicar lê o banco depois de
+ * todos os commits que a antecederam. Uma escrita que alcança várias microgrids
+ * as relê em uma única consulta.
+ * <p>
+ * Depois de {@link #habilitar()}, cada microgrid é lida do banco na primeira
+ * consulta, em vez de todas as estimativas na inicialização; até lá as escritas
+ * que a alcançam são ignoradas, pois a leitura já encontrará os valores
+ * confirmados. {@link #carregar()} lê todas de uma vez. Antes de habilitado as
+ * escritas são ignoradas e as consultas devem ir ao banco.
+ */
+public final class EstatisticasEstimativa {
+    private static final Logger LOGGER = Logger.getLogger(EstatisticasEstimativa.class.getName());
+    private static final EstatisticasEstimativa INSTANCE = new EstatisticasEstimativa();
+
+    private final Fonte fonte;
+    private volatile Map<Long, Acumulado> porMicrogrid = new ConcurrentHashMap<>();
+    private volatile boolean habilitado;
+    private final AtomicLong duracaoCargaMs = new AtomicLong();
+    private final AtomicLong cargas = new AtomicLong();
+    private final AtomicLong atualizacoes = new AtomicLong();
+    private final AtomicLong recalculos = new AtomicLong();
+    private final AtomicLong falhasReleitura = new AtomicLong();
+
+    EstatisticasEstimativa() {
+        // O DAO é criado a cada leitura: ele próprio referencia esta instância
+        this((idsMicrogrid, de, ate, leitor) -> new EstimativaGeracaoDAO().lerValores(idsMicrogrid, de, ate, leitor));
+    }
+
+    EstatisticasEstimativa(Fonte fonte) {
+        this.fonte = fonte;
+    }
+
+    public static EstatisticasEstimativa getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Passa a manter as estatísticas, carregando cada microgrid na primeira consulta.
+     */
+    public void habilitar() {
+        habilitado = true;
+    }
+
+    /**
+     * Lê todas as estimativas do banco e substitui os acumuladores. Deve ser chamado
+     * antes de o serviço aceitar requisições, pois escritas concorrentes com a
+     * leitura podem não ser refletidas.
+     *
+     * @return Quantidade de estimativas lidas.
+     */
+    public synchronized long carregar() {
+        long inicio = System.currentTimeMillis();
+        Map<Long, Acumulado> novo = new ConcurrentHashMap<>();
+        long lidas = fonte.ler(null, null, null, (idMicrogrid, ano, mes, wattsEstimados) ->
+                novo.computeIfAbsent(idMicrogrid, id -> new Acumulado()).gravar(periodo(ano, mes), wattsEstimados));
+        novo.values().forEach(acumulado -> acumulado.carregado = true);
+        porMicrogrid = novo;
+        habilitado = true;
+        cargas.incrementAndGet();
+        duracaoCargaMs.addAndGet(System.currentTimeMillis() - inicio);
+        return lidas;
+    }
+
+    // Lê do banco as estimativas de uma microgrid ainda não carregada
+    private void carregar(long idMicrogrid, Acumulado acumulado) {
+        acumulado.releitura.lock();
+        try {
+            if (acumulado.carregado) {
+                return;
+            }
+            long inicio = System.currentTimeMillis();
+            fonte.ler(Collections.singletonList(idMicrogrid), null, null,
+                    (id, ano, mes, wattsEstimados) -> acumulado.gravar(periodo(ano, mes), wattsEstimados));
+            acumulado.carregado = true;
+            cargas.incrementAndGet();
+            duracaoCargaMs.addAndGet(System.currentTimeMillis() - inicio);
+        } finally {
+            acumulado.releitura.unlock();
+        }
+    }
+
+    /**
+     * Registra estimativas gravadas (inseridas ou substituídas), após o commit.
+     */
+    void gravar(Collection<EstimativaGeracaoTO> estimativas) {
+        if (!habilitado) {
+            return;
+        }
+        TreeMap<Long, Map<Integer, Double>> gravadas = new TreeMap<>();
+        for (EstimativaGeracaoTO estimativa : estimativas) {
+            gravadas.computeIfAbsent(estimativa.getIdMicrogrid(), id -> new HashMap<>())
+                    .put(periodo(estimativa.getAno(), estimativa.getMes()), estimativa.getWattsEstimados());
+        }
+        sincronizar(gravadas);
+    }
+
+    /**
+     * Registra a exclusão da estimativa do período, após o commit.
+     */
+    void remover(long idMicrogrid, int ano, int mes) {
+        remover(idMicrogrid, Collections.singletonList(periodo(ano, mes)));
+    }
+
+    /**
+     * Registra a exclusão das estimativas dos períodos (ano * 12 + mes - 1) da microgrid, após o commit.
+     */
+    void remover(long idMicrogrid, Collection<Integer> periodos) {
+        if (!habilitado || periodos.isEmpty()) {
+            return;
+        }
+        // Valor null: o período foi excluído
+        Map<Integer, Double> excluidos = new HashMap<>();
+        periodos.forEach(periodo -> excluidos.put(periodo, null));
+        sincronizar(new TreeMap<>(Collections.singletonMap(idMicrogrid, excluidos)));
+    }
+
+    /**
+     * Relê do banco, em uma única consulta, os períodos escritos em todas as
+     * microgrids e aplica os valores confirmados. Se a leitura falhar, aplica os
+     * valores da própria escrita.
+     *
+     * @param escritos Por microgrid, em ordem de ID, o valor gravado em cada período,
+     *                 ou null se o período foi excluído.
+     */
+    private void sincronizar(TreeMap<Long, Map<Integer, Double>> escritos) {
+        // Bloqueia as microgrids em ordem de ID: duas escritas com microgrids em comum não se bloqueiam mutuamente.
+        // Microgrids ainda não carregadas ficam de fora: a primeira consulta lerá os valores já confirmados
+        TreeMap<Long, Acumulado> bloqueados = new TreeMap<>();
+        int de = Integer.MAX_VALUE;
+        int ate = Integer.MIN_VALUE;
+        for (Map.Entry<Long, Map<Integer, Double>> microgrid : escritos.entrySet()) {
+            Acumulado acumulado = porMicrogrid.get(microgrid.getKey());
+            if (acumulado == null) {
+                continue;
+            }
+            acumulado.releitura.lock();
+            if (!acumulado.carregado) {
+                acumulado.releitura.unlock();
+                continue;
+            }
+            bloqueados.put(microgrid.getKey(), acumulado);
+            de = Math.min(de, Collections.min(microgrid.getValue().keySet()));
+            ate = Math.max(ate, Collections.max(microgrid.getValue().keySet()));
+        }
+        if (bloqueados.isEmpty()) {
+            return;
+        }
+        try {
+            Map<Long, Map<Integer, Double>> confirmados = new HashMap<>();
+            try {
+                fonte.ler(bloqueados.keySet(), de, ate, (id, ano, mes, wattsEstimados) ->
+                        confirmados.computeIfAbsent(id, chave -> new HashMap<>()).put(periodo(ano, mes), wattsEstimados));
+            } catch (RuntimeException e) {
+                falhasReleitura.incrementAndGet();
+                LOGGER.log(Level.WARNING, "Erro ao reler estimativas das microgrids " + bloqueados.keySet() + ": " + e.getMessage(), e);
+                confirmados.clear();
+                confirmados.putAll(escritos);
+            }
+            for (Map.Entry<Long, Acumulado> microgrid : bloqueados.entrySet()) {
+                Acumulado acumulado = microgrid.getValue();
+                Map<Integer, Double> valores = confirmados.getOrDefault(microgrid.getKey(), Collections.emptyMap());
+                for (Integer periodo : escritos.get(microgrid.getKey()).keySet()) {
+                    Double valor = valores.get(periodo);
+                    if (valor != null ? acumulado.gravar(periodo, valor) : acumulado.remover(periodo)) {
+                        recalculos.incrementAndGet();
+                    }
+                    atualizacoes.incrementAndGet();
+                }
+            }
+        } finally {
+            bloqueados.values().forEach(acumulado -> acumulado.releitura.unlock());
+        }
+    }
+
+    /**
+     * @param idMicrogrid ID da microgrid.
+     * @param de          Primeiro período (ano * 12 + mes - 1), ou null para o início.
+     * @param ate         Último período, ou null para o fim.
+     * @return Estatísticas das estimativas, com quantidade zero se não houver nenhuma.
+     */
+    public EstatisticaEstimativaTO consultar(long idMicrogrid, Integer de, Integer ate) {
+        EstatisticaEstimativaTO estatistica = new EstatisticaEstimativaTO();
+        estatistica.setIdMicrogrid(idMicrogrid);
+        Acumulado acumulado = porMicrogrid.computeIfAbsent(idMicrogrid, id -> new Acumulado());
+        if (!acumulado.carregado) {
+            carregar(idMicrogrid, acumulado);
+        }
+        acumulado.preencher(estatistica, de, ate);
+        return estatistica;
+    }
+
+    static int periodo(int ano, int mes) {
+        return ano * 12 + mes - 1;
+    }
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    /**
+     * @return Quantidade de microgrids carregadas em memória.
+     */
+    public int getMicrogrids() {
+        return porMicrogrid.size();
+    }
+
+    public long getEstimativas() {
+        long total = 0;
+        for (Acumulado acumulado : porMicrogrid.values()) {
+            total += acumulado.getQuantidade();
+        }
+        return total;
+    }
+
+    /**
+     * @return Tempo total gasto lendo microgrids do banco, somando as cargas sob demanda.
+     */
+    public long getDuracaoCargaMs() {
+        return duracaoCargaMs.get();
+    }
+
+    public long getCargas() {
+        return cargas.get();
+    }
+
+    public long getAtualizacoes() {
+        return atualizacoes.get();
+    }
+
+    public long getRecalculos() {
+        return recalculos.get();
+    }
+
+    public long getFalhasReleitura() {
+        return falhasReleitura.get();
+    }
+
+    /**
+     * Lê as estimativas gravadas, como {@link EstimativaGeracaoDAO#lerValores(Collection, Integer, Integer,
+     * EstimativaGeracaoDAO.LeitorEstimativa)}.
+     */
+    @FunctionalInterface
+    interface Fonte {
+        long ler(Collection<Long> idsMicrogrid, Integer de, Integer ate, EstimativaGeracaoDAO.LeitorEstimativa leitor);
+    }
+
+    /**
+     * Acumuladores de uma microgrid. Todos os acessos são sincronizados na instância.
+     */
+    private static final class Acumulado {
+        // Serializa releitura e aplicação das escritas; consultas usam apenas o monitor
+        private final ReentrantLock releitura = new ReentrantLock();
+        // Valores já lidos do banco; alterado apenas com a releitura bloqueada
+        private volatile boolean carregado;
+        private final TreeMap<Integer, Double> valores = new TreeMap<>();
+        private long quantidade;
+        private double soma;
+        private double media;
+        private double m2;
+        private double minimo = Double.POSITIVE_INFINITY;
+        private double maximo = Double.NEGATIVE_INFINITY;
+
+        /**
+         * @return true se foi necessário recalcular a microgrid.
+         */
+        synchronized boolean gravar(int periodo, double valor) {
+            Double anterior = valores.put(periodo, valor);
+            if (anterior != null && anterior == valor) {
+                return false;
+            }
+            boolean recalcular = anterior != null && retirar(anterior);
+            if (recalcular) {
+                recalcular();
+            } else {
+                adicionar(valor);
+            }
+            return recalcular;
+        }
+
+        /**
+         * @return true se foi necessário recalcular a microgrid.
+         */
+        synchronized boolean remover(int periodo) {
+            Double anterior = valores.remove(periodo);
+            if (anterior != null && retirar(anterior)) {
+                recalcular();
+                return true;
+            }
+            return false;
+        }
+
+        synchronized long getQuantidade() {
+            return quantidade;
+        }
+
+        synchronized void preencher(EstatisticaEstimativaTO estatistica, Integer de, Integer ate) {
+            if (de == null && ate == null) {
+                preencher(estatistica, quantidade, soma, media, m2, minimo, maximo);
+                return;
+            }
+            Map<Integer, Double> intervalo = de == null ? valores.headMap(ate, true)
+                    : ate == null ? valores.tailMap(de, true)
+                    : valores.subMap(de, true, ate, true);
+            Acumulado parcial = new Acumulado();
+            for (double valor : intervalo.values()) {
+                parcial.adicionar(valor);
+            }
+            preencher(estatistica, parcial.quantidade, parcial.soma, parcial.media, parcial.m2,
+                    parcial.minimo, parcial.maximo);
+        }
+
+        private void adicionar(double valor) {
+            quantidade++;
+            soma += valor;
+            double delta = valor - media;
+            media += delta / quantidade;
+            m2 += delta * (valor - media);
+            minimo = Math.min(minimo, valor);
+            maximo = Math.max(maximo, valor);
+        }
+
+        /**
+         * Desfaz {@link #adicionar(double)}.
+         *
+         * @return true se o valor era o mínimo ou o máximo e os acumuladores precisam ser recalculados.
+         */
+        private boolean retirar(double valor) {
+            if (valor <= minimo || valor >= maximo || quantidade <= 1) {
+                return true;
+            }
+            double delta = valor - media;
+            quantidade--;
+            soma -= valor;
+            media -= delta / quantidade;
+            m2 = Math.max(0.0, m2 - delta * (valor - media));
+            return false;
+        }
+
+        private void recalcular() {
+            quantidade = 0;
+            soma = 0.0;
+            media = 0.0;
+            m2 = 0.0;
+            minimo = Double.POSITIVE_INFINITY;
+            maximo = Double.NEGATIVE_INFINITY;
+            for (double valor : valores.values()) {
+                adicionar(valor);
+            }
+        }
+
+        private static void preencher(EstatisticaEstimativaTO estatistica, long quantidade, double soma, double media,
+                                      double m2, double minimo, double maximo) {
+            estatistica.setQuantidade(quantidade);
+            if (quantidade == 0) {
+                return;
+            }
+            estatistica.setSoma(soma);
+            estatistica.setMedia(media);
+            estatistica.setMinimo(minimo);
+            estatistica.setMaximo(maximo);
+            estatistica.setVariancia(m2 / quantidade);
+            estatistica.setDesvioPadrao(Math.sqrt(m2 / quantidade));
+        }
+    }
+}
@@ -1,20 +1,46 @@
 package br.com.fiap.dao;
 
+import br.com.fiap.to.EstatisticaEstimativaTO;
 import br.com.fiap.to.EstimativaGeracaoTO;
+import br.com.fiap.to.PaginaTO;
 import br.com.fiap.exception.InvalidEstimativaGeracaoException;
 import br.com.fiap.exception.EstimativaGeracaoNotFoundException;
 
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 public class EstimativaGeracaoDAO extends Repository {
+    private static final String SQL_MERGE = "MERGE INTO ESTIMATIVA_GERACAO e "
+            + "USING (SELECT CAST(? AS NUMBER) AS ID_MICROGRID, CAST(? AS NUMBER) AS ANO, CAST(? AS NUMBER) AS MES, "
+            + "CAST(? AS NUMBER) AS WATTS_ESTIMADOS FROM DUAL) n "
+            + "ON (e.ID_MICROGRID = n.ID_MICROGRID AND e.ANO = n.ANO AND e.MES = n.MES) "
+            + "WHEN MATCHED THEN UPDATE SET e.WATTS_ESTIMADOS = n.WATTS_ESTIMADOS, "
+            + "e.VERSAO = e.VERSAO + 1, e.ATUALIZADO_EM = CURRENT_TIMESTAMP "
+            + "WHEN NOT MATCHED THEN INSERT (ID_MICROGRID, ANO, MES, WATTS_ESTIMADOS) "
+            + "VALUES (n.ID_MICROGRID, n.ANO, n.MES, n.WATTS_ESTIMADOS)";
+    private static final String SQL_UPDATE_PERIODO =
+            "UPDATE ESTIMATIVA_GERACAO SET WATTS_ESTIMADOS = ?, VERSAO = VERSAO + 1, ATUALIZADO_EM = CURRENT_TIMESTAMP "
+            + "WHERE ID_MICROGRID = ? AND ANO = ? AND MES = ?";
+    private static final String SQL_INSERT =
+            "INSERT INTO ESTIMATIVA_GERACAO (ID_MICROGRID, ANO, MES, WATTS_ESTIMADOS) VALUES (?, ?, ?, ?)";
+
+    private final EstatisticasEstimativa estatisticas = EstatisticasEstimativa.getInstance();
 
     // Salva uma nova estimativa
     public EstimativaGeracaoTO save(EstimativaGeracaoTO estimativa) {
         String sql = "INSERT INTO ESTIMATIVA_GERACAO (ID_MICROGRID, ANO, MES, WATTS_ESTIMADOS) VALUES (?, ?, ?, ?)";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql, new String[]{"ID_ESTIMATIVA"})) {
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql, new String[]{"ID_ESTIMATIVA"})) {
             ps.setLong(1, estimativa.getIdMicrogrid());
             ps.setInt(2, estimativa.getAno());
             ps.setInt(3, estimativa.getMes());
@@ -26,29 +52,126 @@ public class EstimativaGeracaoDAO extends Repository {
                         estimativa.setIdEstimativa(rs.getLong(1));
                     }
                 }
+                registrarGravacoes(Collections.singletonList(estimativa));
                 return estimativa;
             }
         } catch (SQLException e) {
             throw new InvalidEstimativaGeracaoException("Erro ao salvar estimativa: " + e.getMessage());
-        } finally {
-            closeConnection();
         }
         throw new InvalidEstimativaGeracaoException("Falha ao salvar estimativa.");
     }
 
+    // Salva várias estimativas usando batch JDBC, executando um batch a cada tamanhoLote linhas
+    public int saveBatch(List<EstimativaGeracaoTO> estimativas, int tamanhoLote) {
+        String sql = "INSERT INTO ESTIMATIVA_GERACAO (ID_MICROGRID, ANO, MES, WATTS_ESTIMADOS) VALUES (?, ?, ?, ?)";
+        int inseridas = 0;
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            int pendentes = 0;
+            for (EstimativaGeracaoTO estimativa : estimativas) {
+                ps.setLong(1, estimativa.getIdMicrogrid());
+                ps.setInt(2, estimativa.getAno());
+                ps.setInt(3, estimativa.getMes());
+                ps.setDouble(4, estimativa.getWattsEstimados());
+                ps.addBatch();
+                if (++pendentes == tamanhoLote) {
+                    inseridas += executeBatch(ps);
+                    pendentes = 0;
+                }
+            }
+            if (pendentes > 0) {
+                inseridas += executeBatch(ps);
+            }
+        } catch (SQLException e) {
+            throw new InvalidEstimativaGeracaoException("Erro ao salvar estimativas em lote: " + e.getMessage());
+        }
+        registrarGravacoes(estimativas);
+        return inseridas;
+    }
+
+    /**
+     * Grava a estimativa do período (microgrid, ano e mês), inserindo-a ou
+     * substituindo o valor existente. No Oracle é um único MERGE; em bancos sem
+     * suporte, tenta o UPDATE e insere apenas se nenhuma linha for afetada.
+     *
+     * @param estimativa Estimativa a gravar.
+     * @return true se a estimativa foi gravada.
+     */
+    public boolean upsert(EstimativaGeracaoTO estimativa) {
+        validateEstimativa(estimativa);
+        boolean gravada;
+        try (Connection conn = getConnection()) {
+            if (suportaMerge(conn)) {
+                try (PreparedStatement ps = conn.prepareStatement(SQL_MERGE)) {
+                    preencherPeriodo(ps, estimativa);
+                    gravada = ps.executeUpdate() > 0;
+                }
+            } else {
+                gravada = atualizarOuInserir(conn, estimativa);
+            }
+        } catch (SQLException e) {
+            throw new InvalidEstimativaGeracaoException("Erro ao gravar estimativa: " + e.getMessage());
+        }
+        if (gravada) {
+            registrarGravacoes(Collections.singletonList(estimativa));
+        }
+        return gravada;
+    }
+
+    /**
+     * Grava várias estimativas como {@link #upsert}, usando batch JDBC e executando
+     * um batch a cada tamanhoLote linhas.
+     *
+     * @return Quantidade de estimativas gravadas.
+     */
+    public int upsertBatch(List<EstimativaGeracaoTO> estimativas, int tamanhoLote) {
+        for (EstimativaGeracaoTO estimativa : estimativas) {
+            validateEstimativa(estimativa);
+        }
+        int gravadas = 0;
+        try (Connection conn = getConnection()) {
+            if (!suportaMerge(conn)) {
+                for (EstimativaGeracaoTO estimativa : estimativas) {
+                    if (atualizarOuInserir(conn, estimativa)) {
+                        gravadas++;
+                    }
+                }
+                registrarGravacoes(estimativas);
+                return gravadas;
+            }
+            try (PreparedStatement ps = conn.prepareStatement(SQL_MERGE)) {
+                int pendentes = 0;
+                for (EstimativaGeracaoTO estimativa : estimativas) {
+                    preencherPeriodo(ps, estimativa);
+                    ps.addBatch();
+                    if (++pendentes == tamanhoLote) {
+                        gravadas += executeBatch(ps);
+                        pendentes = 0;
+                    }
+                }
+                if (pendentes > 0) {
+                    gravadas += executeBatch(ps);
+                }
+            }
+        } catch (SQLException e) {
+            throw new InvalidEstimativaGeracaoException("Erro ao gravar estimativas em lote: " + e.getMessage());
+        }
+        registrarGravacoes(estimativas);
+        return gravadas;
+    }
+
     // Busca todas as estimativas
     public ArrayList<EstimativaGeracaoTO> findAll() {
         String sql = "SELECT * FROM ESTIMATIVA_GERACAO ORDER BY ANO, MES";
         ArrayList<EstimativaGeracaoTO> estimativas = new ArrayList<>();
-        try (PreparedStatement ps = getConnection().prepareStatement(sql);
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql);
              ResultSet rs = ps.executeQuery()) {
             while (rs.next()) {
                 estimativas.add(populateEstimativa(rs));
             }
         } catch (SQLException e) {
             throw new InvalidEstimativaGeracaoException("Erro ao buscar estimativas: " + e.getMessage());
-        } finally {
-            closeConnection();
         }
         if (estimativas.isEmpty()) {
             throw new EstimativaGeracaoNotFoundException("Nenhuma estimativa encontrada.");
@@ -56,12 +179,43 @@ public class EstimativaGeracaoDAO extends Repository {
         return estimativas;
     }
 
+    // Busca uma página de estimativas ordenadas por ano e mês, a partir do cursor informado
+    public PaginaTO<EstimativaGeracaoTO> findPage(String after, Integer limite) {
+        int tamanho = limitePagina(limite);
+        long[] chave = decodeCursor(after);
+        String sql = chave == null
+                ? "SELECT * FROM ESTIMATIVA_GERACAO ORDER BY ANO, MES, ID_ESTIMATIVA FETCH FIRST ? ROWS ONLY"
+                : "SELECT * FROM ESTIMATIVA_GERACAO WHERE ANO > ? OR (ANO = ? AND (MES > ? OR (MES = ? AND ID_ESTIMATIVA > ?))) ORDER BY ANO, MES, ID_ESTIMATIVA FETCH FIRST ? ROWS ONLY";
+        List<EstimativaGeracaoTO> estimativas = new ArrayList<>(tamanho + 1);
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            int i = 1;
+            if (chave != null) {
+                ps.setInt(i++, (int) chave[0]);
+                ps.setInt(i++, (int) chave[0]);
+                ps.setInt(i++, (int) chave[1]);
+                ps.setInt(i++, (int) chave[1]);
+                ps.setLong(i++, chave[2]);
+            }
+            ps.setInt(i, tamanho + 1);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    estimativas.add(populateEstimativa(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new InvalidEstimativaGeracaoException("Erro ao buscar página de estimativas: " + e.getMessage());
+        }
+        return montarPagina(estimativas, tamanho, e -> KeysetCursor.encode(e.getAno(), e.getMes(), e.getIdEstimativa()));
+    }
+
     // Busca estimativas por ID de microgrid
     public ArrayList<EstimativaGeracaoTO> findByMicrogrid(Long idMicrogrid) {
         validateMicrogridId(idMicrogrid);
         String sql = "SELECT * FROM ESTIMATIVA_GERACAO WHERE ID_MICROGRID = ? ORDER BY ANO, MES";
         ArrayList<EstimativaGeracaoTO> estimativas = new ArrayList<>();
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setLong(1, idMicrogrid);
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
@@ -70,8 +224,6 @@ public class EstimativaGeracaoDAO extends Repository {
             }
         } catch (SQLException e) {
             throw new InvalidEstimativaGeracaoException("Erro ao buscar estimativas por microgrid: " + e.getMessage());
-        } finally {
-            closeConnection();
         }
         if (estimativas.isEmpty()) {
             throw new EstimativaGeracaoNotFoundException("Nenhuma estimativa encontrada para a microgrid.");
@@ -85,7 +237,8 @@ public class EstimativaGeracaoDAO extends Repository {
             throw new InvalidEstimativaGeracaoException("ID da estimativa é obrigatório.");
         }
         String sql = "SELECT * FROM ESTIMATIVA_GERACAO WHERE ID_ESTIMATIVA = ?";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setLong(1, idEstimativa);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
@@ -94,8 +247,6 @@ public class EstimativaGeracaoDAO extends Repository {
             }
         } catch (SQLException e) {
             throw new InvalidEstimativaGeracaoException("Erro ao buscar estimativa por ID: " + e.getMessage());
-        } finally {
-            closeConnection();
         }
         throw new EstimativaGeracaoNotFoundException("Estimativa não encontrada para o ID informado.");
     }
@@ -103,17 +254,19 @@ public class EstimativaGeracaoDAO extends Repository {
     // Atualiza uma estimativa
     public boolean update(EstimativaGeracaoTO estimativa) {
         validateEstimativa(estimativa);
-        String sql = "UPDATE ESTIMATIVA_GERACAO SET WATTS_ESTIMADOS = ? WHERE ID_MICROGRID = ? AND ANO = ? AND MES = ?";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(SQL_UPDATE_PERIODO)) {
             ps.setDouble(1, estimativa.getWattsEstimados());
             ps.setLong(2, estimativa.getIdMicrogrid());
             ps.setInt(3, estimativa.getAno());
             ps.setInt(4, estimativa.getMes());
-            return ps.executeUpdate() > 0;
+            if (ps.executeUpdate() > 0) {
+                registrarGravacoes(Collections.singletonList(estimativa));
+                return true;
+            }
+            return false;
         } catch (SQLException e) {
             throw new InvalidEstimativaGeracaoException("Erro ao atualizar estimativa: " + e.getMessage());
-        } finally {
-            closeConnection();
         }
     }
 
@@ -123,13 +276,22 @@ public class EstimativaGeracaoDAO extends Repository {
             throw new InvalidEstimativaGeracaoException("ID da estimativa é obrigatório.");
         }
         String sql = "DELETE FROM ESTIMATIVA_GERACAO WHERE ID_ESTIMATIVA = ?";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
-            ps.setLong(1, idEstimativa);
-            return ps.executeUpdate() > 0;
+        try (Connection conn = getConnection()) {
+            // O período só é conhecido pela linha; é lido antes da exclusão para atualizar as estatísticas
+            long[] periodo = estatisticas.isHabilitado() ? buscarPeriodo(conn, idEstimativa) : null;
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setLong(1, idEstimativa);
+                if (ps.executeUpdate() == 0) {
+                    return false;
+                }
+            }
+            if (periodo != null) {
+                UnitOfWork.afterCommit(() -> estatisticas.remover(periodo[0], (int) periodo[1], (int) periodo[2]));
+            }
+            VersaoColecao.ESTIMATIVA_GERACAO.alterada();
+            return true;
         } catch (SQLException e) {
             throw new InvalidEstimativaGeracaoException("Erro ao excluir estimativa: " + e.getMessage());
-        } finally {
-            closeConnection();
         }
     }
     // Exclui estimativas por ID da microgrid, ano e mês
@@ -139,18 +301,236 @@ public class EstimativaGeracaoDAO extends Repository {
         }
 
         String sql = "DELETE FROM ESTIMATIVA_GERACAO WHERE ID_MICROGRID = ? AND ANO = ? AND MES = ?";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setLong(1, idMicrogrid);
             ps.setInt(2, ano);
             ps.setInt(3, mes);
-            return ps.executeUpdate() > 0; // Retorna true se uma ou mais linhas forem afetadas
+            if (ps.executeUpdate() > 0) { // Retorna true se uma ou mais linhas forem afetadas
+                UnitOfWork.afterCommit(() -> estatisticas.remover(idMicrogrid, ano, mes));
+                VersaoColecao.ESTIMATIVA_GERACAO.alterada();
+                return true;
+            }
+            return false;
         } catch (SQLException e) {
             throw new InvalidEstimativaGeracaoException("Erro ao excluir estimativa por microgrid, ano e mês: " + e.getMessage());
-        } finally {
-            closeConnection();
         }
     }
 
+    /**
+     * Exclui as estimativas da microgrid cujo período não está entre as informadas,
+     * por exemplo as que ficaram fora de uma nova previsão.
+     *
+     * @param mantidas Estimativas da nova previsão da microgrid.
+     * @return Quantidade de estimativas excluídas.
+     */
+    public int deleteForaDosPeriodos(Long idMicrogrid, Collection<EstimativaGeracaoTO> mantidas) {
+        validateMicrogridId(idMicrogrid);
+        Set<Integer> periodos = new HashSet<>();
+        for (EstimativaGeracaoTO estimativa : mantidas) {
+            periodos.add(EstatisticasEstimativa.periodo(estimativa.getAno(), estimativa.getMes()));
+        }
+        try (Connection conn = getConnection()) {
+            List<Integer> excluidas = new ArrayList<>();
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "SELECT ANO, MES FROM ESTIMATIVA_GERACAO WHERE ID_MICROGRID = ?")) {
+                ps.setLong(1, idMicrogrid);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        int periodo = EstatisticasEstimativa.periodo(rs.getInt(1), rs.getInt(2));
+                        if (!periodos.contains(periodo)) {
+                            excluidas.add(periodo);
+                        }
+                    }
+                }
+            }
+            if (excluidas.isEmpty()) {
+                return 0;
+            }
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "DELETE FROM ESTIMATIVA_GERACAO WHERE ID_MICROGRID = ? AND ANO = ? AND MES = ?")) {
+                for (int periodo : excluidas) {
+                    ps.setLong(1, idMicrogrid);
+                    ps.setInt(2, periodo / 12);
+                    ps.setInt(3, periodo % 12 + 1);
+                    ps.addBatch();
+                }
+                executeBatch(ps);
+            }
+            UnitOfWork.afterCommit(() -> estatisticas.remover(idMicrogrid, excluidas));
+            VersaoColecao.ESTIMATIVA_GERACAO.alterada();
+            return excluidas.size();
+        } catch (SQLException e) {
+            throw new InvalidEstimativaGeracaoException("Erro ao excluir estimativas fora da previsão: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Calcula no banco as estatísticas das estimativas da microgrid, usado quando
+     * {@link EstatisticasEstimativa} não está habilitado.
+     *
+     * @param de  Primeiro período (ano * 12 + mes - 1), ou null para o início.
+     * @param ate Último período, ou null para o fim.
+     */
+    public EstatisticaEstimativaTO estatisticas(Long idMicrogrid, Integer de, Integer ate) {
+        validateMicrogridId(idMicrogrid);
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*), SUM(WATTS_ESTIMADOS), AVG(WATTS_ESTIMADOS), "
+                + "MIN(WATTS_ESTIMADOS), MAX(WATTS_ESTIMADOS), VAR_POP(WATTS_ESTIMADOS) "
+                + "FROM ESTIMATIVA_GERACAO WHERE ID_MICROGRID = ?");
+        filtrarIntervalo(sql, de, ate);
+        EstatisticaEstimativaTO estatistica = new EstatisticaEstimativaTO();
+        estatistica.setIdMicrogrid(idMicrogrid);
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+            ps.setLong(1, idMicrogrid);
+            preencherIntervalo(ps, 2, de, ate);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next() && rs.getLong(1) > 0) {
+                    estatistica.setQuantidade(rs.getLong(1));
+                    estatistica.setSoma(rs.getDouble(2));
+                    estatistica.setMedia(rs.getDouble(3));
+                    estatistica.setMinimo(rs.getDouble(4));
+                    estatistica.setMaximo(rs.getDouble(5));
+                    estatistica.setVariancia(rs.getDouble(6));
+                    estatistica.setDesvioPadrao(Math.sqrt(rs.getDouble(6)));
+                }
+            }
+        } catch (SQLException e) {
+            throw new InvalidEstimativaGeracaoException("Erro ao calcular estatísticas das estimativas: " + e.getMessage());
+        }
+        return estatistica;
+    }
+
+    /**
+     * Percorre todas as estimativas entregando as colunas ao leitor, sem criar um
+     * objeto por linha.
+     *
+     * @return Quantidade de estimativas lidas.
+     */
+    public long lerValores(LeitorEstimativa leitor) {
+        return lerValores(null, null, null, leitor);
+    }
+
+    /**
+     * Como {@link #lerValores(LeitorEstimativa)}, restrito a algumas microgrids e a
+     * um intervalo de períodos. As microgrids são lidas com IN, em uma consulta a
+     * cada 1000 IDs.
+     *
+     * @param idsMicrogrid IDs das microgrids, ou null para todas.
+     * @param de           Primeiro período (ano * 12 + mes - 1), ou null para o início.
+     * @param ate          Último período, ou null para o fim.
+     */
+    public long lerValores(Collection<Long> idsMicrogrid, Integer de, Integer ate, LeitorEstimativa leitor) {
+        List<Long> ids = idsMicrogrid == null ? null : new ArrayList<>(new LinkedHashSet<>(idsMicrogrid));
+        if (ids != null && ids.isEmpty()) {
+            return 0;
+        }
+        long lidas = 0;
+        try (Connection conn = getConnection()) {
+            int inicio = 0;
+            do {
+                List<Long> faixa = ids == null ? List.of() : ids.subList(inicio, Math.min(inicio + 1000, ids.size()));
+                StringBuilder sql = new StringBuilder("SELECT ID_MICROGRID, ANO, MES, WATTS_ESTIMADOS FROM ESTIMATIVA_GERACAO WHERE 1 = 1");
+                if (ids != null) {
+                    sql.append(" AND ID_MICROGRID IN (").append(String.join(", ", Collections.nCopies(faixa.size(), "?"))).append(")");
+                }
+                filtrarIntervalo(sql, de, ate);
+                try (PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+                    int i = 1;
+                    for (Long id : faixa) {
+                        ps.setLong(i++, id);
+                    }
+                    preencherIntervalo(ps, i, de, ate);
+                    ps.setFetchSize(1000);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            leitor.ler(rs.getLong(1), rs.getInt(2), rs.getInt(3), rs.getDouble(4));
+                            lidas++;
+                        }
+                    }
+                }
+                inicio += 1000;
+            } while (ids != null && inicio < ids.size());
+        } catch (SQLException e) {
+            throw new InvalidEstimativaGeracaoException("Erro ao ler as estimativas: " + e.getMessage());
+        }
+        return lidas;
+    }
+
+    // Intervalo de períodos comparando ANO e MES diretamente, para que o índice (ID_MICROGRID, ANO, MES) seja usado
+    private static void filtrarIntervalo(StringBuilder sql, Integer de, Integer ate) {
+        if (de != null) {
+            sql.append(" AND (ANO > ? OR (ANO = ? AND MES >= ?))");
+        }
+        if (ate != null) {
+            sql.append(" AND (ANO < ? OR (ANO = ? AND MES <= ?))");
+        }
+    }
+
+    // Preenche os parâmetros de filtrarIntervalo a partir da posição i
+    private static void preencherIntervalo(PreparedStatement ps, int i, Integer de, Integer ate) throws SQLException {
+        for (Integer periodo : new Integer[]{de, ate}) {
+            if (periodo != null) {
+                ps.setInt(i++, periodo / 12);
+                ps.setInt(i++, periodo / 12);
+                ps.setInt(i++, periodo % 12 + 1);
+            }
+        }
+    }
+
+    /**
+     * Recebe as colunas de uma estimativa lida por {@link #lerValores(LeitorEstimativa)}.
+     */
+    @FunctionalInterface
+    public interface LeitorEstimativa {
+        void ler(long idMicrogrid, int ano, int mes, double wattsEstimados);
+    }
+
+    // Retorna {ID_MICROGRID, ANO, MES} da estimativa, ou null se ela não existir
+    private long[] buscarPeriodo(Connection conn, Long idEstimativa) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT ID_MICROGRID, ANO, MES FROM ESTIMATIVA_GERACAO WHERE ID_ESTIMATIVA = ?")) {
+            ps.setLong(1, idEstimativa);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? new long[]{rs.getLong(1), rs.getInt(2), rs.getInt(3)} : null;
+            }
+        }
+    }
+
+    // Atualiza as estatísticas em memória e a versão da coleção depois que a transação for confirmada
+    private void registrarGravacoes(List<EstimativaGeracaoTO> estimativas) {
+        if (!estimativas.isEmpty()) {
+            VersaoColecao.ESTIMATIVA_GERACAO.alterada();
+        }
+        if (estatisticas.isHabilitado() && !estimativas.isEmpty()) {
+            List<EstimativaGeracaoTO> gravadas = new ArrayList<>(estimativas);
+            UnitOfWork.afterCommit(() -> estatisticas.gravar(gravadas));
+        }
+    }
+
+    private boolean atualizarOuInserir(Connection conn, EstimativaGeracaoTO estimativa) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SQL_UPDATE_PERIODO)) {
+            ps.setDouble(1, estimativa.getWattsEstimados());
+            ps.setLong(2, estimativa.getIdMicrogrid());
+            ps.setInt(3, estimativa.getAno());
+            ps.setInt(4, estimativa.getMes());
+            if (ps.executeUpdate() > 0) {
+                return true;
+            }
+        }
+        try (PreparedStatement ps = conn.prepareStatement(SQL_INSERT)) {
+            preencherPeriodo(ps, estimativa);
+            return ps.executeUpdate() > 0;
+        }
+    }
+
+    // Parâmetros na ordem ID_MICROGRID, ANO, MES, WATTS_ESTIMADOS (MERGE e INSERT)
+    private void preencherPeriodo(PreparedStatement ps, EstimativaGeracaoTO estimativa) throws SQLException {
+        ps.setLong(1, estimativa.getIdMicrogrid());
+        ps.setInt(2, estimativa.getAno());
+        ps.setInt(3, estimativa.getMes());
+        ps.setDouble(4, estimativa.getWattsEstimados());
+    }
 
     // Preenche o objeto EstimativaGeracaoTO com os dados do ResultSet
     private EstimativaGeracaoTO populateEstimativa(ResultSet rs) throws SQLException {
@@ -160,6 +540,9 @@ public class EstimativaGeracaoDAO extends Repository {
         estimativa.setAno(rs.getInt("ANO"));
         estimativa.setMes(rs.getInt("MES"));
         estimativa.setWattsEstimados(rs.getDouble("WATTS_ESTIMADOS"));
+        estimativa.setVersao(rs.getLong("VERSAO"));
+        Timestamp atualizadoEm = rs.getTimestamp("ATUALIZADO_EM");
+        estimativa.setAtualizadoEm(atualizadoEm != null ? atualizadoEm.toLocalDateTime() : null);
         return estimativa;
     }
 
@@ -170,6 +553,18 @@ public class EstimativaGeracaoDAO extends Repository {
         }
     }
 
+    private long[] decodeCursor(String after) {
+        if (after == null || after.isEmpty()) {
+            return null;
+        }
+        try {
+            String[] chave = KeysetCursor.decode(after, 3);
+            return new long[]{Integer.parseInt(chave[0]), Integer.parseInt(chave[1]), Long.parseLong(chave[2])};
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEstimativaGeracaoException("Cursor de paginação inválido.");
+        }
+    }
+
     private void validateEstimativa(EstimativaGeracaoTO estimativa) {
         validateMicrogridId(estimativa.getIdMicrogrid());
         if (estimativa.getAno() == null || estimativa.getAno() < 1000 || estimativa.getAno() > 9999) {
@@ -1,13 +1,18 @@
 package br.com.fiap.dao;
 
 import br.com.fiap.to.FonteEnergiaTO;
+import br.com.fiap.to.PaginaTO;
 import br.com.fiap.exception.FonteEnergiaNotFoundException;
 import br.com.fiap.exception.InvalidFonteEnergiaException;
+import br.com.fiap.exception.VersaoDesatualizadaException;
 
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.List;
 
 public class FonteEnergiaDAO extends Repository {
 
@@ -19,15 +24,15 @@ public class FonteEnergiaDAO extends Repository {
     public ArrayList<FonteEnergiaTO> findAll() {
         ArrayList<FonteEnergiaTO> fontes = new ArrayList<>();
         String sql = "SELECT * FROM FONTE_ENERGIA ORDER BY ID_FONTE";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
-            ResultSet rs = ps.executeQuery();
-            while (rs.next()) {
-                fontes.add(populateFonte(rs));
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    fontes.add(populateFonte(rs));
+                }
             }
         } catch (SQLException e) {
             throw new RuntimeException("Erro ao buscar todas as fontes de energia: " + e.getMessage(), e);
-        } finally {
-            closeConnection();
         }
         if (fontes.isEmpty()) {
             throw new FonteEnergiaNotFoundException("Nenhuma fonte de energia encontrada.");
@@ -35,6 +40,49 @@ public class FonteEnergiaDAO extends Repository {
         return fontes;
     }
 
+    /**
+     * Busca uma página de fontes de energia ordenadas por ID, a partir do cursor informado.
+     *
+     * @param after  Cursor da página anterior, ou null para a primeira página.
+     * @param limite Quantidade máxima de itens na página.
+     * @return Página de fontes de energia e cursor da próxima página.
+     */
+    public PaginaTO<FonteEnergiaTO> findPage(String after, Integer limite) {
+        int tamanho = limitePagina(limite);
+        Long ultimoId = decodeCursor(after);
+        String sql = ultimoId == null
+                ? "SELECT * FROM FONTE_ENERGIA ORDER BY ID_FONTE FETCH FIRST ? ROWS ONLY"
+                : "SELECT * FROM FONTE_ENERGIA WHERE ID_FONTE > ? ORDER BY ID_FONTE FETCH FIRST ? ROWS ONLY";
+        List<FonteEnergiaTO> fontes = new ArrayList<>(tamanho + 1);
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            int i = 1;
+            if (ultimoId != null) {
+                ps.setLong(i++, ultimoId);
+            }
+            ps.setInt(i, tamanho + 1);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    fontes.add(populateFonte(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao buscar página de fontes de energia: " + e.getMessage(), e);
+        }
+        return montarPagina(fontes, tamanho, f -> KeysetCursor.encode(f.getIdFonte()));
+    }
+
+    private Long decodeCursor(String after) {
+        if (after == null || after.isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(KeysetCursor.decode(after, 1)[0]);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidFonteEnergiaException("Cursor de paginação inválido.");
+        }
+    }
+
     /**
      * Busca uma fonte de energia pelo ID.
      *
@@ -47,16 +95,16 @@ public class FonteEnergiaDAO extends Repository {
             throw new InvalidFonteEnergiaException("ID da fonte não pode ser nulo.");
         }
         String sql = "SELECT * FROM FONTE_ENERGIA WHERE ID_FONTE = ?";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setLong(1, idFonte);
-            ResultSet rs = ps.executeQuery();
-            if (rs.next()) {
-                return populateFonte(rs);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return populateFonte(rs);
+                }
             }
         } catch (SQLException e) {
             throw new RuntimeException("Erro ao buscar fonte de energia por ID: " + e.getMessage(), e);
-        } finally {
-            closeConnection();
         }
         throw new FonteEnergiaNotFoundException("Fonte de energia não encontrada para o ID informado.");
     }
@@ -70,7 +118,8 @@ public class FonteEnergiaDAO extends Repository {
      */
     public FonteEnergiaTO save(FonteEnergiaTO fonte) {
         String sql = "INSERT INTO FONTE_ENERGIA (ID_MICROGRID, TIPO, CAPACIDADE_INSTALADA, UNIDADE_CAPACIDADE, DATA_INSTALACAO, STATUS) VALUES (?, ?, ?, ?, ?, ?)";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql, new String[]{"ID_FONTE"})) {
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql, new String[]{"ID_FONTE"})) {
             ps.setLong(1, fonte.getIdMicrogrid());
             ps.setString(2, fonte.getTipo());
             ps.setDouble(3, fonte.getCapacidadeInstalada());
@@ -79,16 +128,17 @@ public class FonteEnergiaDAO extends Repository {
             ps.setString(6, fonte.getStatus());
 
             if (ps.executeUpdate() > 0) {
-                ResultSet rs = ps.getGeneratedKeys();
-                if (rs.next()) {
-                    fonte.setIdFonte(rs.getLong(1)); // Define o ID gerado.
+                try (ResultSet rs = ps.getGeneratedKeys()) {
+                    if (rs.next()) {
+                        fonte.setIdFonte(rs.getLong(1)); // Define o ID gerado.
+                    }
                 }
+                fonte.setVersao(1L);
+                VersaoColecao.FONTE_ENERGIA.alterada();
                 return fonte;
             }
         } catch (SQLException e) {
             throw new RuntimeException("Erro ao salvar fonte de energia: " + e.getMessage(), e);
-        } finally {
-            closeConnection();
         }
         throw new InvalidFonteEnergiaException("Erro ao salvar fonte de energia.");
     }
@@ -105,16 +155,16 @@ public class FonteEnergiaDAO extends Repository {
             throw new InvalidFonteEnergiaException("ID da fonte não pode ser nulo.");
         }
         String sql = "DELETE FROM FONTE_ENERGIA WHERE ID_FONTE = ?";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setLong(1, idFonte);
             int rowsAffected = ps.executeUpdate();
             if (rowsAffected > 0) {
+                VersaoColecao.FONTE_ENERGIA.alterada();
                 return true;
             }
         } catch (SQLException e) {
             throw new RuntimeException("Erro ao excluir fonte de energia: " + e.getMessage(), e);
-        } finally {
-            closeConnection();
         }
         throw new FonteEnergiaNotFoundException("Fonte de energia não encontrada para exclusão.");
     }
@@ -127,26 +177,62 @@ public class FonteEnergiaDAO extends Repository {
      * @throws FonteEnergiaNotFoundException Se a fonte não for encontrada.
      */
     public boolean update(FonteEnergiaTO fonte) {
-        String sql = "UPDATE FONTE_ENERGIA SET TIPO = ?, CAPACIDADE_INSTALADA = ?, UNIDADE_CAPACIDADE = ?, DATA_INSTALACAO = ?, STATUS = ? WHERE ID_FONTE = ?";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
-            ps.setString(1, fonte.getTipo());
-            ps.setDouble(2, fonte.getCapacidadeInstalada());
-            ps.setString(3, fonte.getUnidadeCapacidade());
-            ps.setDate(4, fonte.getDataInstalacao() != null ? java.sql.Date.valueOf(fonte.getDataInstalacao()) : null);
-            ps.setString(5, fonte.getStatus());
-            ps.setLong(6, fonte.getIdFonte());
-            int rowsAffected = ps.executeUpdate();
+        return update(fonte, null);
+    }
+
+    /**
+     * Atualiza os dados de uma fonte de energia, opcionalmente apenas se ela ainda
+     * estiver na versão esperada. A existência da fonte só é consultada quando o
+     * UPDATE não altera nenhuma linha.
+     *
+     * @param fonte          Objeto FonteEnergiaTO com os dados atualizados.
+     * @param versaoEsperada Versão informada em If-Match, ou null para atualizar incondicionalmente.
+     * @return true se a atualização for bem-sucedida.
+     * @throws FonteEnergiaNotFoundException Se a fonte não for encontrada.
+     * @throws VersaoDesatualizadaException  Se a fonte estiver em outra versão.
+     */
+    public boolean update(FonteEnergiaTO fonte, Long versaoEsperada) {
+        String sql = "UPDATE FONTE_ENERGIA SET TIPO = ?, CAPACIDADE_INSTALADA = ?, UNIDADE_CAPACIDADE = ?, DATA_INSTALACAO = ?, STATUS = ?, "
+                + "VERSAO = VERSAO + 1, ATUALIZADO_EM = CURRENT_TIMESTAMP WHERE ID_FONTE = ?"
+                + (versaoEsperada != null ? " AND VERSAO = ?" : "");
+        try (Connection conn = getConnection()) {
+            int rowsAffected;
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setString(1, fonte.getTipo());
+                ps.setDouble(2, fonte.getCapacidadeInstalada());
+                ps.setString(3, fonte.getUnidadeCapacidade());
+                ps.setDate(4, fonte.getDataInstalacao() != null ? java.sql.Date.valueOf(fonte.getDataInstalacao()) : null);
+                ps.setString(5, fonte.getStatus());
+                ps.setLong(6, fonte.getIdFonte());
+                if (versaoEsperada != null) {
+                    ps.setLong(7, versaoEsperada);
+                }
+                rowsAffected = ps.executeUpdate();
+            }
             if (rowsAffected > 0) {
+                if (versaoEsperada != null) {
+                    fonte.setVersao(versaoEsperada + 1);
+                }
+                VersaoColecao.FONTE_ENERGIA.alterada();
                 return true;
             }
+            if (versaoEsperada != null && existe(conn, fonte.getIdFonte())) {
+                throw new VersaoDesatualizadaException("A fonte de energia foi alterada após a versão informada.");
+            }
         } catch (SQLException e) {
             throw new RuntimeException("Erro ao atualizar fonte de energia: " + e.getMessage(), e);
-        } finally {
-            closeConnection();
         }
         throw new FonteEnergiaNotFoundException("Fonte de energia não encontrada para atualização.");
     }
 
+    private static boolean existe(Connection conn, long idFonte) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT 1 FROM FONTE_ENERGIA WHERE ID_FONTE = ?")) {
+            ps.setLong(1, idFonte);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
 
     /**
      * Preenche os dados de um objeto FonteEnergiaTO a partir de um ResultSet.
@@ -164,6 +250,9 @@ public class FonteEnergiaDAO extends Repository {
         fonte.setUnidadeCapacidade(rs.getString("UNIDADE_CAPACIDADE"));
         fonte.setDataInstalacao(rs.getDate("DATA_INSTALACAO") != null ? rs.getDate("DATA_INSTALACAO").toLocalDate() : null);
         fonte.setStatus(rs.getString("STATUS"));
+        fonte.setVersao(rs.getLong("VERSAO"));
+        Timestamp atualizadoEm = rs.getTimestamp("ATUALIZADO_EM");
+        fonte.setAtualizadoEm(atualizadoEm != null ? atualizadoEm.toLocalDateTime() : null);
         return fonte;
     }
 
@@ -1,28 +1,42 @@
 package br.com.fiap.dao;
 
+import br.com.fiap.config.ApplicationProperties;
+import br.com.fiap.to.AgregadoGeracaoConsumoTO;
 import br.com.fiap.to.GeracaoConsumoMensalTO;
+import br.com.fiap.to.Granularidade;
+import br.com.fiap.to.PaginaTO;
+import br.com.fiap.to.SaldoMicrogridTO;
+import br.com.fiap.to.SerieMensalTO;
+import br.com.fiap.to.SinalSaldo;
 import br.com.fiap.exception.GeracaoConsumoMensalNotFoundException;
 import br.com.fiap.exception.InvalidGeracaoConsumoMensalException;
 
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 
 public class GeracaoConsumoMensalDAO extends Repository {
+    private static final int FETCH_SIZE_EXPORTACAO = ApplicationProperties.getInt("geracao-consumo.exportacao.fetch-size", 1000);
 
     public ArrayList<GeracaoConsumoMensalTO> findAll() {
         ArrayList<GeracaoConsumoMensalTO> registros = new ArrayList<>();
         String sql = "SELECT ID_REGISTRO, ID_MICROGRID, ANO, MES, WATTS_GERADOS, UNIDADE_GERACAO, WATTS_CONSUMIDOS, UNIDADE_CONSUMO FROM GERACAO_CONSUMO_MENSAL ORDER BY ANO, MES";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql);
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql);
              ResultSet rs = ps.executeQuery()) {
             while (rs.next()) {
                 registros.add(populateRegistro(rs));
             }
         } catch (SQLException e) {
             throw new InvalidGeracaoConsumoMensalException("Erro ao buscar registros: " + e.getMessage());
-        } finally {
-            closeConnection();
         }
 
         if (registros.isEmpty()) {
@@ -31,6 +45,326 @@ public class GeracaoConsumoMensalDAO extends Repository {
         return registros;
     }
 
+    /**
+     * Busca uma página de registros ordenados por ano e mês, a partir do cursor informado.
+     *
+     * @param after  Cursor da página anterior, ou null para a primeira página.
+     * @param limite Quantidade máxima de itens na página.
+     * @return Página de registros e cursor da próxima página.
+     */
+    public PaginaTO<GeracaoConsumoMensalTO> findPage(String after, Integer limite) {
+        int tamanho = limitePagina(limite);
+        long[] chave = decodeCursor(after);
+        String colunas = "SELECT ID_REGISTRO, ID_MICROGRID, ANO, MES, WATTS_GERADOS, UNIDADE_GERACAO, WATTS_CONSUMIDOS, UNIDADE_CONSUMO FROM GERACAO_CONSUMO_MENSAL ";
+        String sql = chave == null
+                ? colunas + "ORDER BY ANO, MES, ID_REGISTRO FETCH FIRST ? ROWS ONLY"
+                : colunas + "WHERE ANO > ? OR (ANO = ? AND (MES > ? OR (MES = ? AND ID_REGISTRO > ?))) ORDER BY ANO, MES, ID_REGISTRO FETCH FIRST ? ROWS ONLY";
+        List<GeracaoConsumoMensalTO> registros = new ArrayList<>(tamanho + 1);
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            int i = 1;
+            if (chave != null) {
+                ps.setInt(i++, (int) chave[0]);
+                ps.setInt(i++, (int) chave[0]);
+                ps.setInt(i++, (int) chave[1]);
+                ps.setInt(i++, (int) chave[1]);
+                ps.setLong(i++, chave[2]);
+            }
+            ps.setInt(i, tamanho + 1);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    registros.add(populateRegistro(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new InvalidGeracaoConsumoMensalException("Erro ao buscar página de registros: " + e.getMessage());
+        }
+        return montarPagina(registros, tamanho, r -> KeysetCursor.encode(r.getAno(), r.getMes(), r.getIdRegistro()));
+    }
+
+    private long[] decodeCursor(String after) {
+        if (after == null || after.isEmpty()) {
+            return null;
+        }
+        try {
+            String[] chave = KeysetCursor.decode(after, 3);
+            return new long[]{Integer.parseInt(chave[0]), Integer.parseInt(chave[1]), Long.parseLong(chave[2])};
+        } catch (IllegalArgumentException e) {
+            throw new InvalidGeracaoConsumoMensalException("Cursor de paginação inválido.");
+        }
+    }
+
+    /**
+     * Percorre todos os registros ordenados por ano e mês, entregando cada linha ao
+     * consumidor assim que é lida do cursor JDBC, sem acumulá-las em memória.
+     * A conexão permanece emprestada até o fim da leitura.
+     *
+     * @param consumidor Recebe cada registro lido.
+     * @return Quantidade de registros lidos.
+     */
+    public long forEach(Consumer<GeracaoConsumoMensalTO> consumidor) {
+        String sql = "SELECT ID_REGISTRO, ID_MICROGRID, ANO, MES, WATTS_GERADOS, UNIDADE_GERACAO, WATTS_CONSUMIDOS, UNIDADE_CONSUMO FROM GERACAO_CONSUMO_MENSAL ORDER BY ANO, MES, ID_REGISTRO";
+        long lidos = 0;
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setFetchSize(FETCH_SIZE_EXPORTACAO);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    consumidor.accept(populateRegistro(rs));
+                    lidos++;
+                }
+            }
+        } catch (SQLException e) {
+            throw new InvalidGeracaoConsumoMensalException("Erro ao exportar registros: " + e.getMessage());
+        }
+        return lidos;
+    }
+
+    /**
+     * Busca o histórico de uma microgrid em ordem cronológica.
+     *
+     * @param idMicrogrid ID da microgrid.
+     * @return Registros da microgrid; lista vazia se não houver nenhum.
+     */
+    public ArrayList<GeracaoConsumoMensalTO> findByMicrogrid(Long idMicrogrid) {
+        if (idMicrogrid == null) {
+            throw new InvalidGeracaoConsumoMensalException("ID da microgrid não pode ser nulo.");
+        }
+        String sql = "SELECT ID_REGISTRO, ID_MICROGRID, ANO, MES, WATTS_GERADOS, UNIDADE_GERACAO, WATTS_CONSUMIDOS, UNIDADE_CONSUMO FROM GERACAO_CONSUMO_MENSAL WHERE ID_MICROGRID = ? ORDER BY ANO, MES, ID_REGISTRO";
+        ArrayList<GeracaoConsumoMensalTO> registros = new ArrayList<>();
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setLong(1, idMicrogrid);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    registros.add(populateRegistro(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new InvalidGeracaoConsumoMensalException("Erro ao buscar registros da microgrid: " + e.getMessage());
+        }
+        return registros;
+    }
+
+    /**
+     * Lê a série mensal de geração da microgrid, somando os registros de um mesmo
+     * mês, direto para os vetores da série, sem criar um objeto por linha.
+     *
+     * @param idMicrogrid ID da microgrid.
+     * @param serie       Série que recebe os meses em ordem cronológica; é limpa antes da leitura.
+     * @return A própria série.
+     */
+    public SerieMensalTO lerSerieGeracao(Long idMicrogrid, SerieMensalTO serie) {
+        if (idMicrogrid == null) {
+            throw new InvalidGeracaoConsumoMensalException("ID da microgrid não pode ser nulo.");
+        }
+        String sql = "SELECT ANO, MES, SUM(WATTS_GERADOS) FROM GERACAO_CONSUMO_MENSAL WHERE ID_MICROGRID = ? GROUP BY ANO, MES ORDER BY ANO, MES";
+        serie.limpar();
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setLong(1, idMicrogrid);
+            ps.setFetchSize(FETCH_SIZE_EXPORTACAO);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    serie.adicionar(rs.getInt(1) * 12 + rs.getInt(2) - 1, rs.getDouble(3));
+                }
+            }
+        } catch (SQLException e) {
+            throw new InvalidGeracaoConsumoMensalException("Erro ao ler a série de geração da microgrid: " + e.getMessage());
+        }
+        return serie;
+    }
+
+    /**
+     * Percorre os registros entregando as colunas numéricas ao leitor, sem criar
+     * um objeto por linha.
+     *
+     * @param idMicrogrid     Restringe a uma microgrid, ou null para todas.
+     * @param aposIdRegistro  Lê apenas registros com ID maior que este, ou null para todos.
+     * @return Quantidade de registros lidos.
+     */
+    public long lerColunas(Long idMicrogrid, Long aposIdRegistro, LeitorRegistro leitor) {
+        StringBuilder sql = new StringBuilder("SELECT ID_REGISTRO, ID_MICROGRID, ANO, MES, WATTS_GERADOS, WATTS_CONSUMIDOS "
+                + "FROM GERACAO_CONSUMO_MENSAL WHERE 1 = 1");
+        if (idMicrogrid != null) {
+            sql.append(" AND ID_MICROGRID = ?");
+        }
+        if (aposIdRegistro != null) {
+            sql.append(" AND ID_REGISTRO > ?");
+        }
+        long lidos = 0;
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+            int i = 1;
+            if (idMicrogrid != null) {
+                ps.setLong(i++, idMicrogrid);
+            }
+            if (aposIdRegistro != null) {
+                ps.setLong(i, aposIdRegistro);
+            }
+            ps.setFetchSize(FETCH_SIZE_EXPORTACAO);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    leitor.ler(rs.getLong(1), rs.getLong(2), rs.getInt(3), rs.getInt(4), rs.getDouble(5), rs.getDouble(6));
+                    lidos++;
+                }
+            }
+        } catch (SQLException e) {
+            throw new InvalidGeracaoConsumoMensalException("Erro ao ler os registros: " + e.getMessage());
+        }
+        return lidos;
+    }
+
+    /**
+     * @return Maior ID_REGISTRO visível na transação atual, ou 0 se não houver registros.
+     */
+    public long maiorIdRegistro() {
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT MAX(ID_REGISTRO) FROM GERACAO_CONSUMO_MENSAL");
+             ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0L;
+        } catch (SQLException e) {
+            throw new InvalidGeracaoConsumoMensalException("Erro ao buscar o maior ID de registro: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Recebe as colunas numéricas de um registro lido por {@link #lerColunas(Long, Long, LeitorRegistro)}.
+     */
+    @FunctionalInterface
+    public interface LeitorRegistro {
+        void ler(long idRegistro, long idMicrogrid, int ano, int mes, double wattsGerados, double wattsConsumidos);
+    }
+
+    /**
+     * Soma geração e consumo por período no banco, retornando apenas as linhas agregadas.
+     *
+     * @param granularidade Período de agrupamento.
+     * @param idMicrogrid   Restringe a uma microgrid, ou null para todas.
+     * @param porMicrogrid  Se true, agrupa também por microgrid; caso contrário soma a frota.
+     * @param anoInicial    Primeiro ano considerado, ou null.
+     * @param anoFinal      Último ano considerado, ou null.
+     * @return Linhas agregadas em ordem de microgrid e período.
+     */
+    public List<AgregadoGeracaoConsumoTO> agregar(Granularidade granularidade, Long idMicrogrid, boolean porMicrogrid,
+                                                  Integer anoInicial, Integer anoFinal) {
+        String periodo;
+        switch (granularidade) {
+            case ANO:
+                periodo = "ANO";
+                break;
+            case TRIMESTRE:
+                periodo = "ANO, TRUNC((MES + 2) / 3)";
+                break;
+            default:
+                periodo = "ANO, MES";
+                break;
+        }
+        String grupo = porMicrogrid ? "ID_MICROGRID, " + periodo : periodo;
+
+        StringBuilder sql = new StringBuilder("SELECT ").append(grupo)
+                .append(", SUM(WATTS_GERADOS), SUM(WATTS_CONSUMIDOS), COUNT(*) FROM GERACAO_CONSUMO_MENSAL WHERE 1 = 1");
+        if (idMicrogrid != null) {
+            sql.append(" AND ID_MICROGRID = ?");
+        }
+        if (anoInicial != null) {
+            sql.append(" AND ANO >= ?");
+        }
+        if (anoFinal != null) {
+            sql.append(" AND ANO <= ?");
+        }
+        sql.append(" GROUP BY ").append(grupo).append(" ORDER BY ").append(grupo);
+
+        List<AgregadoGeracaoConsumoTO> agregados = new ArrayList<>();
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+            int i = 1;
+            if (idMicrogrid != null) {
+                ps.setLong(i++, idMicrogrid);
+            }
+            if (anoInicial != null) {
+                ps.setInt(i++, anoInicial);
+            }
+            if (anoFinal != null) {
+                ps.setInt(i, anoFinal);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    int coluna = 1;
+                    Long microgrid = porMicrogrid ? Long.valueOf(rs.getLong(coluna++)) : idMicrogrid;
+                    int ano = rs.getInt(coluna++);
+                    Integer trimestre = granularidade == Granularidade.TRIMESTRE ? Integer.valueOf(rs.getInt(coluna++)) : null;
+                    Integer mes = granularidade == Granularidade.MES ? Integer.valueOf(rs.getInt(coluna++)) : null;
+                    agregados.add(new AgregadoGeracaoConsumoTO(microgrid, ano, trimestre, mes,
+                            rs.getDouble(coluna), rs.getDouble(coluna + 1), rs.getLong(coluna + 2)));
+                }
+            }
+        } catch (SQLException e) {
+            throw new InvalidGeracaoConsumoMensalException("Erro ao agregar registros: " + e.getMessage());
+        }
+        return agregados;
+    }
+
+    /**
+     * Soma geração e consumo de cada microgrid no intervalo em uma única consulta,
+     * filtrando e ordenando pelo saldo no banco.
+     *
+     * @param anoInicial Ano do primeiro mês.
+     * @param mesInicial Primeiro mês.
+     * @param anoFinal   Ano do último mês.
+     * @param mesFinal   Último mês.
+     * @param sinal      Sinal do saldo mantido.
+     * @param limiar     Valor absoluto mínimo do saldo.
+     * @param crescente  Se true, ordena do menor saldo (maior déficit) para o maior.
+     * @param limite     Quantidade máxima de microgrids, ou null para todas.
+     */
+    public List<SaldoMicrogridTO> saldos(int anoInicial, int mesInicial, int anoFinal, int mesFinal,
+                                         SinalSaldo sinal, double limiar, boolean crescente, Integer limite) {
+        String saldo = "SUM(WATTS_GERADOS) - SUM(WATTS_CONSUMIDOS)";
+        StringBuilder sql = new StringBuilder("SELECT ID_MICROGRID, SUM(WATTS_GERADOS), SUM(WATTS_CONSUMIDOS), COUNT(*) "
+                + "FROM GERACAO_CONSUMO_MENSAL WHERE ANO BETWEEN ? AND ? "
+                + "AND (ANO > ? OR MES >= ?) AND (ANO < ? OR MES <= ?) GROUP BY ID_MICROGRID HAVING ");
+        switch (sinal) {
+            case DEFICIT:
+                sql.append(saldo).append(" < 0 AND -(").append(saldo).append(") >= ?");
+                break;
+            case SUPERAVIT:
+                sql.append(saldo).append(" > 0 AND ").append(saldo).append(" >= ?");
+                break;
+            default:
+                sql.append("ABS(").append(saldo).append(") >= ?");
+                break;
+        }
+        sql.append(" ORDER BY ").append(saldo).append(crescente ? " ASC" : " DESC").append(", ID_MICROGRID");
+        if (limite != null) {
+            sql.append(" FETCH FIRST ? ROWS ONLY");
+        }
+
+        List<SaldoMicrogridTO> saldos = new ArrayList<>();
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+            ps.setInt(1, anoInicial);
+            ps.setInt(2, anoFinal);
+            ps.setInt(3, anoInicial);
+            ps.setInt(4, mesInicial);
+            ps.setInt(5, anoFinal);
+            ps.setInt(6, mesFinal);
+            ps.setDouble(7, limiar);
+            if (limite != null) {
+                ps.setInt(8, limite);
+            }
+            ps.setFetchSize(FETCH_SIZE_EXPORTACAO);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    saldos.add(new SaldoMicrogridTO(rs.getLong(1), rs.getDouble(2), rs.getDouble(3), rs.getLong(4)));
+                }
+            }
+        } catch (SQLException e) {
+            throw new InvalidGeracaoConsumoMensalException("Erro ao calcular os saldos: " + e.getMessage());
+        }
+        return saldos;
+    }
+
     private GeracaoConsumoMensalTO populateRegistro(ResultSet rs) throws SQLException {
         GeracaoConsumoMensalTO registro = new GeracaoConsumoMensalTO();
         registro.setIdRegistro(rs.getLong("ID_REGISTRO"));
@@ -53,7 +387,8 @@ public class GeracaoConsumoMensalDAO extends Repository {
         String sql = "SELECT * FROM GERACAO_CONSUMO_MENSAL WHERE ID_REGISTRO = ?";
         System.out.println("Executando query para buscar registro por ID: " + idRegistro);
 
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setLong(1, idRegistro);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
@@ -66,20 +401,40 @@ public class GeracaoConsumoMensalDAO extends Repository {
         } catch (SQLException e) {
             System.err.println("Erro ao buscar registro por ID: " + idRegistro + " - " + e.getMessage());
             throw new InvalidGeracaoConsumoMensalException("Erro ao buscar registro por ID: " + e.getMessage());
-        } finally {
-            closeConnection();
         }
 
         throw new GeracaoConsumoMensalNotFoundException("Registro não encontrado para o ID especificado.");
     }
 
+    /**
+     * Lê o registro com {@code SELECT ... FOR UPDATE}, bloqueando a linha até o fim
+     * da transação. Alterações e exclusões concorrentes do mesmo registro esperam
+     * o commit desta, e o valor lido é o que a alteração vai substituir. Deve ser
+     * chamado dentro de uma {@link UnitOfWork}.
+     *
+     * @return Registro bloqueado, ou null se não existir.
+     */
+    public GeracaoConsumoMensalTO findByIdParaAlteracao(Long idRegistro) {
+        String sql = "SELECT * FROM GERACAO_CONSUMO_MENSAL WHERE ID_REGISTRO = ? FOR UPDATE";
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setLong(1, idRegistro);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? populateRegistro(rs) : null;
+            }
+        } catch (SQLException e) {
+            throw new InvalidGeracaoConsumoMensalException("Erro ao bloquear registro: " + e.getMessage());
+        }
+    }
+
 
 
 
 
     public GeracaoConsumoMensalTO save(GeracaoConsumoMensalTO registro) {
         String sql = "INSERT INTO GERACAO_CONSUMO_MENSAL (ID_MICROGRID, ANO, MES, WATTS_GERADOS, UNIDADE_GERACAO, WATTS_CONSUMIDOS, UNIDADE_CONSUMO) VALUES (?, ?, ?, ?, ?, ?, ?)";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql, new String[]{"ID_REGISTRO"})) {
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql, new String[]{"ID_REGISTRO"})) {
             ps.setLong(1, registro.getIdMicrogrid());
             ps.setInt(2, registro.getAno());
             ps.setInt(3, registro.getMes());
@@ -94,29 +449,91 @@ public class GeracaoConsumoMensalDAO extends Repository {
                         registro.setIdRegistro(rs.getLong(1));
                     }
                 }
+                VersaoColecao.GERACAO_CONSUMO.alterada();
                 return registro;
             }
         } catch (SQLException e) {
             throw new InvalidGeracaoConsumoMensalException("Erro ao salvar registro: " + e.getMessage());
-        } finally {
-            closeConnection();
         }
         throw new InvalidGeracaoConsumoMensalException("Falha ao salvar o registro.");
     }
 
+    /**
+     * Insere vários registros usando batch JDBC, executando um batch a cada
+     * {@code tamanhoLote} linhas. Os IDs gerados não são retornados.
+     * <p>
+     * Uma linha recusada pelo banco não desfaz as demais: as contagens da
+     * {@link BatchUpdateException} indicam as linhas que falharam (drivers que
+     * continuam após o erro) ou até onde o batch chegou (drivers que param na
+     * primeira falha); a linha que falhou é registrada e o restante é reenviado.
+     *
+     * @param registros   Registros já validados.
+     * @param tamanhoLote Quantidade de linhas por executeBatch.
+     * @return Mensagem de erro de cada linha recusada, pela posição na lista; vazio se todas foram inseridas.
+     */
+    public Map<Integer, String> saveBatch(List<GeracaoConsumoMensalTO> registros, int tamanhoLote) {
+        String sql = "INSERT INTO GERACAO_CONSUMO_MENSAL (ID_MICROGRID, ANO, MES, WATTS_GERADOS, UNIDADE_GERACAO, WATTS_CONSUMIDOS, UNIDADE_CONSUMO) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        Map<Integer, String> recusados = new TreeMap<>();
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            int inicio = 0;
+            while (inicio < registros.size()) {
+                int fim = Math.min(inicio + tamanhoLote, registros.size());
+                for (GeracaoConsumoMensalTO registro : registros.subList(inicio, fim)) {
+                    ps.setLong(1, registro.getIdMicrogrid());
+                    ps.setInt(2, registro.getAno());
+                    ps.setInt(3, registro.getMes());
+                    ps.setDouble(4, registro.getWattsGerados());
+                    ps.setString(5, registro.getUnidadeGeracao());
+                    ps.setDouble(6, registro.getWattsConsumidos());
+                    ps.setString(7, registro.getUnidadeConsumo());
+                    ps.addBatch();
+                }
+                try {
+                    ps.executeBatch();
+                    inicio = fim;
+                } catch (BatchUpdateException e) {
+                    ps.clearBatch();
+                    int[] contagens = e.getUpdateCounts() != null ? e.getUpdateCounts() : new int[0];
+                    boolean falhasIndicadas = false;
+                    for (int i = 0; i < contagens.length; i++) {
+                        if (contagens[i] == Statement.EXECUTE_FAILED) {
+                            recusados.put(inicio + i, e.getMessage());
+                            falhasIndicadas = true;
+                        }
+                    }
+                    if (contagens.length >= fim - inicio) {
+                        inicio = fim;
+                    } else if (falhasIndicadas) {
+                        inicio += contagens.length;
+                    } else {
+                        // O driver parou na linha seguinte às contadas
+                        recusados.put(inicio + contagens.length, e.getMessage());
+                        inicio += contagens.length + 1;
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new InvalidGeracaoConsumoMensalException("Erro ao salvar registros em lote: " + e.getMessage());
+        }
+        if (recusados.size() < registros.size()) {
+            VersaoColecao.GERACAO_CONSUMO.alterada();
+        }
+        return recusados;
+    }
+
     public boolean delete(Long idRegistro) {
         if (idRegistro == null) {
             throw new InvalidGeracaoConsumoMensalException("ID do registro não pode ser nulo.");
         }
 
         String sql = "DELETE FROM GERACAO_CONSUMO_MENSAL WHERE ID_REGISTRO = ?";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setLong(1, idRegistro);
-            return ps.executeUpdate() > 0;
+            return alterada(ps.executeUpdate());
         } catch (SQLException e) {
             throw new InvalidGeracaoConsumoMensalException("Erro ao excluir registro: " + e.getMessage());
-        } finally {
-            closeConnection();
         }
     }
 
@@ -124,17 +541,25 @@ public class GeracaoConsumoMensalDAO extends Repository {
 
     public boolean update(GeracaoConsumoMensalTO registro) {
         String sql = "UPDATE GERACAO_CONSUMO_MENSAL SET WATTS_GERADOS = ?, UNIDADE_GERACAO = ?, WATTS_CONSUMIDOS = ?, UNIDADE_CONSUMO = ? WHERE ID_REGISTRO = ?";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setDouble(1, registro.getWattsGerados());
             ps.setString(2, registro.getUnidadeGeracao());
             ps.setDouble(3, registro.getWattsConsumidos());
             ps.setString(4, registro.getUnidadeConsumo());
             ps.setLong(5, registro.getIdRegistro());
-            return ps.executeUpdate() > 0;
+            return alterada(ps.executeUpdate());
         } catch (SQLException e) {
             throw new InvalidGeracaoConsumoMensalException("Erro ao atualizar registro: " + e.getMessage());
-        } finally {
-            closeConnection();
         }
     }
+
+    // Registra a alteração na versão da coleção quando alguma linha foi afetada
+    private static boolean alterada(int linhas) {
+        if (linhas > 0) {
+            VersaoColecao.GERACAO_CONSUMO.alterada();
+            return true;
+        }
+        return false;
+    }
 }
@@ -0,0 +1,41 @@
+package br.com.fiap.dao;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Codifica e decodifica cursores opacos de paginação por chave. O cursor
+ * carrega os valores da chave de ordenação do último item da página.
+ */
+final class KeysetCursor {
+    private static final String SEPARADOR = "\u001f";
+
+    private KeysetCursor() {
+    }
+
+    static String encode(Object... partes) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < partes.length; i++) {
+            if (i > 0) {
+                sb.append(SEPARADOR);
+            }
+            sb.append(partes[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param cursor Cursor recebido do cliente.
+     * @param partes Quantidade de valores esperada.
+     * @return Valores da chave, na ordem em que foram codificados.
+     * @throws IllegalArgumentException Se o cursor for inválido.
+     */
+    static String[] decode(String cursor, int partes) {
+        String texto = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        String[] valores = texto.split(SEPARADOR, -1);
+        if (valores.length != partes) {
+            throw new IllegalArgumentException("Cursor de paginação inválido.");
+        }
+        return valores;
+    }
+}
@@ -0,0 +1,199 @@
+package br.com.fiap.dao;
+
+import br.com.fiap.config.ApplicationProperties;
+import br.com.fiap.to.MicrogridTO;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache de leitura de microgrids, indexado por ID e por nome normalizado, com
+ * limite de tamanho (LRU) e tempo de expiração. É preenchido pelas leituras do
+ * {@link MicrogridDAO} e invalidado pelas escritas.
+ * <p>
+ * As entradas são cópias: alterar o objeto devolvido não altera o cache.
+ * <p>
+ * Cada invalidação incrementa um contador da faixa do ID e um contador geral.
+ * Quem lê do banco captura o contador com {@link #marca(Long)} antes da
+ * consulta, e {@link #put} descarta o resultado se houve invalidação desde
+ * então: uma leitura que começou antes do commit de uma escrita não recoloca o
+ * estado anterior depois da invalidação pós-commit.
+ */
+public final class MicrogridCache {
+    private static final MicrogridCache INSTANCE = new MicrogridCache(
+            ApplicationProperties.getInt("cache.microgrid.max-size", 10000),
+            ApplicationProperties.getLong("cache.microgrid.ttl-ms", 60000L));
+
+    // Potência de 2: IDs distintos na mesma faixa só fazem uma leitura deixar de ser guardada
+    private static final int FAIXAS = 1024;
+
+    private final int maxSize;
+    private final long ttlMs;
+    private final LinkedHashMap<Long, Entrada> porId = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Long> porNome = new HashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final long[] invalidacoes = new long[FAIXAS];
+    private long invalidacoesTotal;
+
+    MicrogridCache(int maxSize, long ttlMs) {
+        this.maxSize = maxSize;
+        this.ttlMs = ttlMs;
+    }
+
+    public static MicrogridCache getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isEnabled() {
+        return maxSize > 0 && ttlMs > 0;
+    }
+
+    synchronized MicrogridTO get(Long idMicrogrid) {
+        Entrada entrada = porId.get(idMicrogrid);
+        if (entrada == null || expirada(entrada)) {
+            if (entrada != null) {
+                remover(idMicrogrid);
+            }
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return copiar(entrada.microgrid);
+    }
+
+    synchronized MicrogridTO getByNome(String nome) {
+        Long idMicrogrid = porNome.get(MicrogridDAO.normalizarNome(nome));
+        if (idMicrogrid == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        return get(idMicrogrid);
+    }
+
+    /**
+     * Contador de invalidações a capturar antes de ler a microgrid do banco.
+     *
+     * @param idMicrogrid ID lido, ou null para uma leitura por nome (usa o contador geral).
+     */
+    synchronized long marca(Long idMicrogrid) {
+        return idMicrogrid != null ? invalidacoes[faixa(idMicrogrid)] : invalidacoesTotal;
+    }
+
+    /**
+     * Guarda a microgrid lida do banco, a menos que tenha sido invalidada depois de
+     * {@code marca} ser capturada. Leituras feitas dentro de uma {@link UnitOfWork}
+     * não são guardadas, pois podem ver alterações ainda não confirmadas.
+     *
+     * @param marca       Valor de {@link #marca(Long)} obtido antes da consulta.
+     * @param lidaPorNome true se a marca foi capturada para uma leitura por nome.
+     */
+    synchronized void put(MicrogridTO microgrid, long marca, boolean lidaPorNome) {
+        if (!isEnabled() || microgrid == null || microgrid.getIdMicrogrid() == null
+                || UnitOfWork.currentConnection() != null) {
+            return;
+        }
+        if (marca != (lidaPorNome ? invalidacoesTotal : invalidacoes[faixa(microgrid.getIdMicrogrid())])) {
+            return;
+        }
+        remover(microgrid.getIdMicrogrid());
+        porId.put(microgrid.getIdMicrogrid(), new Entrada(copiar(microgrid), System.currentTimeMillis() + ttlMs));
+        if (microgrid.getNome() != null) {
+            porNome.put(MicrogridDAO.normalizarNome(microgrid.getNome()), microgrid.getIdMicrogrid());
+        }
+        if (porId.size() > maxSize) {
+            Iterator<Map.Entry<Long, Entrada>> it = porId.entrySet().iterator();
+            Map.Entry<Long, Entrada> maisAntiga = it.next();
+            it.remove();
+            removerNome(maisAntiga.getValue().microgrid);
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * Remove a microgrid do cache agora e novamente após o commit da transação
+     * atual. As duas remoções invalidam as leituras em andamento.
+     */
+    void invalidate(Long idMicrogrid) {
+        if (idMicrogrid == null) {
+            return;
+        }
+        invalidar(idMicrogrid);
+        UnitOfWork.afterCommit(() -> invalidar(idMicrogrid));
+    }
+
+    private synchronized void invalidar(Long idMicrogrid) {
+        invalidacoes[faixa(idMicrogrid)]++;
+        invalidacoesTotal++;
+        remover(idMicrogrid);
+    }
+
+    public synchronized void invalidateAll() {
+        for (int i = 0; i < FAIXAS; i++) {
+            invalidacoes[i]++;
+        }
+        invalidacoesTotal++;
+        porId.clear();
+        porNome.clear();
+    }
+
+    public synchronized int size() {
+        return porId.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    private void remover(Long idMicrogrid) {
+        Entrada entrada = porId.remove(idMicrogrid);
+        if (entrada != null) {
+            removerNome(entrada.microgrid);
+        }
+    }
+
+    private void removerNome(MicrogridTO microgrid) {
+        if (microgrid.getNome() != null) {
+            porNome.remove(MicrogridDAO.normalizarNome(microgrid.getNome()), microgrid.getIdMicrogrid());
+        }
+    }
+
+    private static int faixa(Long idMicrogrid) {
+        return Long.hashCode(idMicrogrid) & (FAIXAS - 1);
+    }
+
+    private boolean expirada(Entrada entrada) {
+        return System.currentTimeMillis() >= entrada.expiraEm;
+    }
+
+    private static MicrogridTO copiar(MicrogridTO origem) {
+        MicrogridTO copia = new MicrogridTO(origem.getNome(), origem.getEndereco(),
+                origem.getTotalResidencias(), origem.getTotalHabitantes());
+        copia.setIdMicrogrid(origem.getIdMicrogrid());
+        copia.setVersao(origem.getVersao());
+        copia.setAtualizadoEm(origem.getAtualizadoEm());
+        return copia;
+    }
+
+    private static final class Entrada {
+        private final MicrogridTO microgrid;
+        private final long expiraEm;
+
+        private Entrada(MicrogridTO microgrid, long expiraEm) {
+            this.microgrid = microgrid;
+            this.expiraEm = expiraEm;
+        }
+    }
+}
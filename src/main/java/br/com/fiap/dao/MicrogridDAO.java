@@ -1,15 +1,28 @@
 package br.com.fiap.dao;
 
 import br.com.fiap.to.MicrogridTO;
+import br.com.fiap.to.PaginaTO;
 import br.com.fiap.exception.MicrogridNotFoundException;
 import br.com.fiap.exception.InvalidMicrogridException;
+import br.com.fiap.exception.VersaoDesatualizadaException;
 
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 
 public class MicrogridDAO extends Repository {
+    private final MicrogridCache cache = MicrogridCache.getInstance();
 
     /**
      * Busca todas as microgrids do banco de dados.
@@ -20,7 +33,8 @@ public class MicrogridDAO extends Repository {
         ArrayList<MicrogridTO> microgrids = new ArrayList<>();
         String sql = "SELECT * FROM MICROGRID ORDER BY NOME";
         System.out.println("Executando query: " + sql);
-        try (PreparedStatement ps = getConnection().prepareStatement(sql);
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql);
              ResultSet rs = ps.executeQuery()) {
 
             while (rs.next()) {
@@ -42,20 +56,104 @@ public class MicrogridDAO extends Repository {
         return microgrids;
     }
 
+    /**
+     * Busca os IDs de todas as microgrids, em ordem crescente.
+     *
+     * @return IDs das microgrids; vetor vazio se não houver nenhuma.
+     */
+    public long[] findAllIds() {
+        String sql = "SELECT ID_MICROGRID FROM MICROGRID ORDER BY ID_MICROGRID";
+        long[] ids = new long[64];
+        int total = 0;
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setFetchSize(1000);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    if (total == ids.length) {
+                        ids = Arrays.copyOf(ids, total * 2);
+                    }
+                    ids[total++] = rs.getLong(1);
+                }
+            }
+        } catch (SQLException e) {
+            throw new InvalidMicrogridException("Erro ao buscar IDs das microgrids: " + e.getMessage());
+        }
+        return Arrays.copyOf(ids, total);
+    }
+
+    /**
+     * Busca uma página de microgrids ordenadas por nome, a partir do cursor informado.
+     *
+     * @param after  Cursor da página anterior, ou null para a primeira página.
+     * @param limite Quantidade máxima de itens na página.
+     * @return Página de microgrids e cursor da próxima página.
+     */
+    public PaginaTO<MicrogridTO> findPage(String after, Integer limite) {
+        int tamanho = limitePagina(limite);
+        String[] chave = decodeCursor(after);
+        String sql = chave == null
+                ? "SELECT * FROM MICROGRID ORDER BY NOME, ID_MICROGRID FETCH FIRST ? ROWS ONLY"
+                : "SELECT * FROM MICROGRID WHERE NOME > ? OR (NOME = ? AND ID_MICROGRID > ?) ORDER BY NOME, ID_MICROGRID FETCH FIRST ? ROWS ONLY";
+        List<MicrogridTO> microgrids = new ArrayList<>(tamanho + 1);
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            int i = 1;
+            if (chave != null) {
+                ps.setString(i++, chave[0]);
+                ps.setString(i++, chave[0]);
+                ps.setLong(i++, Long.parseLong(chave[1]));
+            }
+            ps.setInt(i, tamanho + 1);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    microgrids.add(populateMicrogrid(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Erro ao buscar página de microgrids: " + e.getMessage());
+            throw new InvalidMicrogridException("Erro ao buscar página de microgrids: " + e.getMessage());
+        }
+        return montarPagina(microgrids, tamanho, m -> KeysetCursor.encode(m.getNome(), m.getIdMicrogrid()));
+    }
+
+    private String[] decodeCursor(String after) {
+        if (after == null || after.isEmpty()) {
+            return null;
+        }
+        try {
+            String[] chave = KeysetCursor.decode(after, 2);
+            Long.parseLong(chave[1]);
+            return chave;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidMicrogridException("Cursor de paginação inválido.");
+        }
+    }
+
     public MicrogridTO findByNome(String nome) {
         if (nome == null || nome.trim().isEmpty()) {
             throw new InvalidMicrogridException("O nome da microgrid não pode ser vazio.");
         }
 
-        String sql = "SELECT * FROM MICROGRID WHERE TRIM(NOME) = TRIM(?)";
+        MicrogridTO emCache = cache.getByNome(nome);
+        if (emCache != null) {
+            return emCache;
+        }
+
+        long marca = cache.marca(null);
+        // NOME_NORMALIZADO possui índice único; a busca não aplica funções sobre a coluna
+        String sql = "SELECT * FROM MICROGRID WHERE NOME_NORMALIZADO = ?";
         System.out.println("Executando query para buscar microgrid por nome: " + nome);
 
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
-            ps.setString(1, nome.trim());
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, normalizarNome(nome));
 
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
-                    return populateMicrogrid(rs);
+                    MicrogridTO microgrid = populateMicrogrid(rs);
+                    cache.put(microgrid, marca, true);
+                    return microgrid;
                 }
             }
 
@@ -69,14 +167,16 @@ public class MicrogridDAO extends Repository {
     }
 
     public MicrogridTO save(MicrogridTO microgrid) {
-        String sql = "INSERT INTO MICROGRID (NOME, ENDERECO, TOTAL_RESIDENCIAS, TOTAL_HABITANTES) VALUES (?, ?, ?, ?)";
+        String sql = "INSERT INTO MICROGRID (NOME, NOME_NORMALIZADO, ENDERECO, TOTAL_RESIDENCIAS, TOTAL_HABITANTES) VALUES (?, ?, ?, ?, ?)";
         System.out.println("Executando query para salvar microgrid: " + microgrid.getNome());
 
-        try (PreparedStatement ps = getConnection().prepareStatement(sql, new String[]{"ID_MICROGRID"})) {
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql, new String[]{"ID_MICROGRID"})) {
             ps.setString(1, microgrid.getNome());
-            ps.setString(2, microgrid.getEndereco());
-            ps.setInt(3, microgrid.getTotalResidencias());
-            ps.setInt(4, microgrid.getTotalHabitantes());
+            ps.setString(2, normalizarNome(microgrid.getNome()));
+            ps.setString(3, microgrid.getEndereco());
+            ps.setInt(4, microgrid.getTotalResidencias());
+            ps.setInt(5, microgrid.getTotalHabitantes());
 
             if (ps.executeUpdate() > 0) {
                 try (ResultSet rs = ps.getGeneratedKeys()) {
@@ -84,11 +184,14 @@ public class MicrogridDAO extends Repository {
                         microgrid.setIdMicrogrid(rs.getLong(1)); // Define o ID gerado
                     }
                 }
+                microgrid.setVersao(1L);
+                cache.invalidate(microgrid.getIdMicrogrid());
+                VersaoColecao.MICROGRID.alterada();
                 System.out.println("Microgrid salva com sucesso: " + microgrid.getNome());
                 return microgrid;
             }
         } catch (SQLException e) {
-            if (e.getMessage().contains("UNIQUE")) { // Lida com violação de restrição única
+            if (isViolacaoUnicidade(e)) { // Lida com violação de restrição única
                 System.err.println("Já existe uma microgrid com o nome informado: " + microgrid.getNome());
                 throw new InvalidMicrogridException("Já existe uma microgrid com o nome informado.");
             }
@@ -103,15 +206,24 @@ public class MicrogridDAO extends Repository {
             throw new InvalidMicrogridException("O ID da microgrid não pode ser nulo.");
         }
 
+        MicrogridTO emCache = cache.get(idMicrogrid);
+        if (emCache != null) {
+            return emCache;
+        }
+
+        long marca = cache.marca(idMicrogrid);
         String sql = "SELECT * FROM MICROGRID WHERE ID_MICROGRID = ?";
         System.out.println("Executando query para buscar microgrid por ID: " + idMicrogrid);
 
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setLong(1, idMicrogrid);
 
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
-                    return populateMicrogrid(rs);
+                    MicrogridTO microgrid = populateMicrogrid(rs);
+                    cache.put(microgrid, marca, false);
+                    return microgrid;
                 }
             }
 
@@ -132,10 +244,13 @@ public class MicrogridDAO extends Repository {
         String sql = "DELETE FROM MICROGRID WHERE ID_MICROGRID = ?";
         System.out.println("Executando query para excluir microgrid com ID: " + idMicrogrid);
 
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setLong(1, idMicrogrid); // Configura o parâmetro corretamente
             int rowsAffected = ps.executeUpdate();
+            cache.invalidate(idMicrogrid);
             if (rowsAffected > 0) {
+                VersaoColecao.MICROGRID.alterada();
                 System.out.println("Microgrid excluída com sucesso. ID: " + idMicrogrid);
                 return true;
             }
@@ -148,24 +263,53 @@ public class MicrogridDAO extends Repository {
     }
 
     public boolean update(MicrogridTO microgrid) {
+        return update(microgrid, null);
+    }
+
+    /**
+     * Atualiza a microgrid, opcionalmente apenas se ela ainda estiver na versão
+     * esperada. A verificação faz parte do próprio UPDATE; a existência da
+     * microgrid só é consultada quando nenhuma linha é alterada.
+     *
+     * @param microgrid      Dados da microgrid.
+     * @param versaoEsperada Versão lida pelo cliente (If-Match), ou null para atualizar incondicionalmente.
+     * @return true se a microgrid foi atualizada.
+     * @throws VersaoDesatualizadaException Se a microgrid existir em outra versão.
+     */
+    public boolean update(MicrogridTO microgrid, Long versaoEsperada) {
         if (microgrid == null || microgrid.getIdMicrogrid() == null) {
             throw new InvalidMicrogridException("A microgrid ou o ID da microgrid não podem ser nulos.");
         }
 
-        String sql = "UPDATE MICROGRID SET ENDERECO = ?, TOTAL_RESIDENCIAS = ?, TOTAL_HABITANTES = ? WHERE ID_MICROGRID = ?";
+        String sql = "UPDATE MICROGRID SET ENDERECO = ?, TOTAL_RESIDENCIAS = ?, TOTAL_HABITANTES = ?, "
+                + "VERSAO = VERSAO + 1, ATUALIZADO_EM = CURRENT_TIMESTAMP WHERE ID_MICROGRID = ?"
+                + (versaoEsperada != null ? " AND VERSAO = ?" : "");
         System.out.println("Executando query para atualizar microgrid com ID: " + microgrid.getIdMicrogrid());
 
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
-            ps.setString(1, microgrid.getEndereco());
-            ps.setInt(2, microgrid.getTotalResidencias());
-            ps.setInt(3, microgrid.getTotalHabitantes());
-            ps.setLong(4, microgrid.getIdMicrogrid());
-
-            int rowsAffected = ps.executeUpdate();
+        try (Connection conn = getConnection()) {
+            int rowsAffected;
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setString(1, microgrid.getEndereco());
+                ps.setInt(2, microgrid.getTotalResidencias());
+                ps.setInt(3, microgrid.getTotalHabitantes());
+                ps.setLong(4, microgrid.getIdMicrogrid());
+                if (versaoEsperada != null) {
+                    ps.setLong(5, versaoEsperada);
+                }
+                rowsAffected = ps.executeUpdate();
+            }
+            cache.invalidate(microgrid.getIdMicrogrid());
             if (rowsAffected > 0) {
+                if (versaoEsperada != null) {
+                    microgrid.setVersao(versaoEsperada + 1);
+                }
+                VersaoColecao.MICROGRID.alterada();
                 System.out.println("Microgrid atualizada com sucesso. ID: " + microgrid.getIdMicrogrid());
                 return true;
             }
+            if (versaoEsperada != null && existe(conn, microgrid.getIdMicrogrid())) {
+                throw new VersaoDesatualizadaException("A microgrid foi alterada após a versão informada.");
+            }
         } catch (SQLException e) {
             System.err.println("Erro ao atualizar microgrid: " + e.getMessage());
             throw new InvalidMicrogridException("Erro ao atualizar microgrid: " + e.getMessage());
@@ -174,6 +318,70 @@ public class MicrogridDAO extends Repository {
         throw new MicrogridNotFoundException("Microgrid não encontrada para atualização.");
     }
 
+    private static boolean existe(Connection conn, long idMicrogrid) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT 1 FROM MICROGRID WHERE ID_MICROGRID = ?")) {
+            ps.setLong(1, idMicrogrid);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    /**
+     * Verifica de uma vez quais microgrids existem, com uma consulta {@code IN} a
+     * cada 1000 IDs (limite de itens da lista no Oracle).
+     *
+     * @param ids IDs a verificar.
+     * @return Os IDs informados que existem no banco.
+     */
+    public Set<Long> existentes(Collection<Long> ids) {
+        Set<Long> existentes = new HashSet<>();
+        List<Long> distintos = new ArrayList<>(new LinkedHashSet<>(ids));
+        try (Connection conn = getConnection()) {
+            for (int inicio = 0; inicio < distintos.size(); inicio += 1000) {
+                List<Long> faixa = distintos.subList(inicio, Math.min(inicio + 1000, distintos.size()));
+                String sql = "SELECT ID_MICROGRID FROM MICROGRID WHERE ID_MICROGRID IN ("
+                        + String.join(", ", Collections.nCopies(faixa.size(), "?")) + ")";
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < faixa.size(); i++) {
+                        ps.setLong(i + 1, faixa.get(i));
+                    }
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            existentes.add(rs.getLong(1));
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new InvalidMicrogridException("Erro ao verificar microgrids: " + e.getMessage());
+        }
+        return existentes;
+    }
+
+    /**
+     * Normaliza o nome da microgrid para comparação: remove espaços nas pontas e
+     * converte para minúsculas. É o valor gravado em NOME_NORMALIZADO.
+     *
+     * @param nome Nome informado.
+     * @return Nome normalizado, ou null se o nome for null.
+     */
+    public static String normalizarNome(String nome) {
+        return nome == null ? null : nome.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Reconhece apenas a violação de chave única: ORA-00001 (SQLState 23000, código 1)
+     * ou SQLState 23505 (H2 e demais bancos). Outras violações da classe 23, como
+     * chave estrangeira (ORA-02291) ou coluna obrigatória (ORA-01400), não indicam
+     * nome repetido.
+     */
+    static boolean isViolacaoUnicidade(SQLException e) {
+        return "23505".equals(e.getSQLState())
+                || ("23000".equals(e.getSQLState()) && e.getErrorCode() == 1)
+                || (e.getMessage() != null && e.getMessage().toUpperCase(Locale.ROOT).contains("UK_MICROGRID_NOME"));
+    }
+
     /**
      * Preenche os dados de um objeto MicrogridTO a partir de um ResultSet.
      *
@@ -188,6 +396,9 @@ public class MicrogridDAO extends Repository {
         microgrid.setEndereco(rs.getString("ENDERECO"));
         microgrid.setTotalResidencias(rs.getInt("TOTAL_RESIDENCIAS"));
         microgrid.setTotalHabitantes(rs.getInt("TOTAL_HABITANTES"));
+        microgrid.setVersao(rs.getLong("VERSAO"));
+        Timestamp atualizadoEm = rs.getTimestamp("ATUALIZADO_EM");
+        microgrid.setAtualizadoEm(atualizadoEm != null ? atualizadoEm.toLocalDateTime() : null);
         return microgrid;
     }
 }
@@ -0,0 +1,226 @@
+package br.com.fiap.dao;
+
+import br.com.fiap.exception.MigracaoException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Aplica as migrações versionadas de {@code db/migration} (listadas em
+ * {@code db/migration/index.txt}) e registra cada versão aplicada na tabela
+ * SCHEMA_MIGRACAO. Versões já aplicadas são ignoradas; se o conteúdo de um
+ * script aplicado mudar, a execução é interrompida.
+ * <p>
+ * Em bancos que já possuíam o esquema antes do controle de versões, a
+ * {@code baselineVersion} marca as versões até ela como aplicadas sem executá-las.
+ * <p>
+ * Os scripts devem usar SQL aceito tanto pelo Oracle quanto pelo H2 em modo
+ * Oracle, com um comando por instrução terminada em ponto e vírgula.
+ */
+public class MigrationRunner {
+    private static final Logger LOGGER = Logger.getLogger(MigrationRunner.class.getName());
+    private static final String DIRETORIO = "db/migration/";
+    private static final String TABELA_HISTORICO = "SCHEMA_MIGRACAO";
+    private static final Pattern NOME_SCRIPT = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+
+    private final Connection connection;
+    private final int baselineVersion;
+
+    public MigrationRunner(Connection connection, int baselineVersion) {
+        this.connection = connection;
+        this.baselineVersion = baselineVersion;
+    }
+
+    /**
+     * Aplica as migrações pendentes.
+     *
+     * @return Quantidade de migrações executadas.
+     */
+    public int migrate() {
+        try {
+            boolean historicoNovo = criarHistoricoSeNecessario();
+            Map<Integer, Long> aplicadas = carregarAplicadas();
+            int executadas = 0;
+
+            for (String script : listarScripts()) {
+                Matcher matcher = NOME_SCRIPT.matcher(script);
+                if (!matcher.matches()) {
+                    throw new MigracaoException("Nome de script de migração inválido: " + script);
+                }
+                int versao = Integer.parseInt(matcher.group(1));
+                String descricao = matcher.group(2).replace('_', ' ');
+                String conteudo = lerRecurso(DIRETORIO + script);
+                long checksum = checksum(conteudo);
+
+                Long checksumAplicado = aplicadas.get(versao);
+                if (checksumAplicado != null) {
+                    if (checksumAplicado != checksum) {
+                        throw new MigracaoException("O script " + script + " foi alterado depois de aplicado.");
+                    }
+                    continue;
+                }
+
+                if (historicoNovo && versao <= baselineVersion) {
+                    LOGGER.info("Marcando migração V" + versao + " como baseline: " + descricao);
+                    registrar(versao, "<< baseline >> " + descricao, checksum);
+                    connection.commit();
+                    continue;
+                }
+
+                LOGGER.info("Aplicando migração V" + versao + ": " + descricao);
+                aplicar(script, conteudo);
+                registrar(versao, descricao, checksum);
+                connection.commit();
+                executadas++;
+            }
+            return executadas;
+        } catch (SQLException e) {
+            rollbackQuietly();
+            throw new MigracaoException("Erro ao aplicar migrações: " + e.getMessage(), e);
+        } catch (MigracaoException e) {
+            rollbackQuietly();
+            throw e;
+        }
+    }
+
+    private boolean criarHistoricoSeNecessario() throws SQLException {
+        connection.setAutoCommit(false);
+        DatabaseMetaData metaData = connection.getMetaData();
+        try (ResultSet rs = metaData.getTables(null, connection.getSchema(), TABELA_HISTORICO, new String[]{"TABLE"})) {
+            if (rs.next()) {
+                return false;
+            }
+        }
+        try (Statement st = connection.createStatement()) {
+            st.execute("CREATE TABLE " + TABELA_HISTORICO + " ("
+                    + "VERSAO NUMBER(10) CONSTRAINT PK_SCHEMA_MIGRACAO PRIMARY KEY, "
+                    + "DESCRICAO VARCHAR2(200) NOT NULL, "
+                    + "CHECKSUM NUMBER(19) NOT NULL, "
+                    + "APLICADA_EM TIMESTAMP NOT NULL)");
+        }
+        connection.commit();
+        return true;
+    }
+
+    private Map<Integer, Long> carregarAplicadas() throws SQLException {
+        Map<Integer, Long> aplicadas = new HashMap<>();
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT VERSAO, CHECKSUM FROM " + TABELA_HISTORICO)) {
+            while (rs.next()) {
+                aplicadas.put(rs.getInt("VERSAO"), rs.getLong("CHECKSUM"));
+            }
+        }
+        return aplicadas;
+    }
+
+    private void aplicar(String script, String conteudo) throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            for (String comando : dividirComandos(conteudo)) {
+                try {
+                    st.execute(comando);
+                } catch (SQLException e) {
+                    throw new MigracaoException("Erro no script " + script + " ao executar: " + comando
+                            + " - " + e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    private void registrar(int versao, String descricao, long checksum) throws SQLException {
+        String sql = "INSERT INTO " + TABELA_HISTORICO + " (VERSAO, DESCRICAO, CHECKSUM, APLICADA_EM) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setInt(1, versao);
+            ps.setString(2, descricao);
+            ps.setLong(3, checksum);
+            ps.setTimestamp(4, new Timestamp(System.currentTimeMillis()));
+            ps.executeUpdate();
+        }
+    }
+
+    private void rollbackQuietly() {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            LOGGER.warning("Erro ao desfazer migração: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Divide o script em comandos terminados por ponto e vírgula no fim da linha,
+     * ignorando linhas de comentário.
+     */
+    static List<String> dividirComandos(String conteudo) {
+        List<String> comandos = new ArrayList<>();
+        StringBuilder atual = new StringBuilder();
+        for (String linha : conteudo.split("\\r?\\n")) {
+            String aparada = linha.trim();
+            if (aparada.isEmpty() || aparada.startsWith("--")) {
+                continue;
+            }
+            if (aparada.endsWith(";")) {
+                atual.append(aparada, 0, aparada.length() - 1);
+                comandos.add(atual.toString().trim());
+                atual.setLength(0);
+            } else {
+                atual.append(aparada).append('\n');
+            }
+        }
+        if (atual.toString().trim().length() > 0) {
+            comandos.add(atual.toString().trim());
+        }
+        return comandos;
+    }
+
+    private static List<String> listarScripts() {
+        List<String> scripts = new ArrayList<>();
+        for (String linha : lerRecurso(DIRETORIO + "index.txt").split("\\r?\\n")) {
+            String nome = linha.trim();
+            if (!nome.isEmpty() && !nome.startsWith("#")) {
+                scripts.add(nome);
+            }
+        }
+        return scripts;
+    }
+
+    private static String lerRecurso(String caminho) {
+        try (InputStream in = MigrationRunner.class.getClassLoader().getResourceAsStream(caminho)) {
+            if (in == null) {
+                throw new MigracaoException("Recurso de migração não encontrado no classpath: " + caminho);
+            }
+            StringBuilder sb = new StringBuilder();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+                String linha;
+                while ((linha = reader.readLine()) != null) {
+                    sb.append(linha).append('\n');
+                }
+            }
+            return sb.toString();
+        } catch (IOException e) {
+            throw new MigracaoException("Erro ao ler " + caminho + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static long checksum(String conteudo) {
+        CRC32 crc = new CRC32();
+        crc.update(conteudo.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+}
@@ -1,28 +1,104 @@
 package br.com.fiap.dao;
 
+import br.com.fiap.config.ApplicationProperties;
+import br.com.fiap.to.PaginaTO;
+
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
 
 public abstract class Repository {
-    protected Connection connection;
-    public Repository() {
-        getConnection();
+    private static final int LIMITE_PADRAO = ApplicationProperties.getInt("paginacao.limite-padrao", 100);
+    private static final int LIMITE_MAXIMO = ApplicationProperties.getInt("paginacao.limite-maximo", 1000);
+
+    // Nome do banco (DatabaseMetaData.getDatabaseProductName), detectado na primeira consulta
+    private static volatile String produtoBanco;
+
+    /**
+     * Obtém a conexão para uma única operação. Dentro de uma {@link UnitOfWork}
+     * retorna a conexão da transação em andamento; fora dela, retira uma conexão
+     * do pool. Deve ser usada em try-with-resources em ambos os casos.
+     *
+     * @return Conexão da unidade de trabalho ou emprestada do pool.
+     * @throws SQLException Se não houver conexão disponível dentro do tempo limite.
+     */
+    public Connection getConnection() throws SQLException {
+        Connection transacional = UnitOfWork.currentConnection();
+        if (transacional != null) {
+            return transacional;
+        }
+        return ConnectionFactory.getInstance().getPool().getConnection();
+    }
+
+    /**
+     * Executa o batch pendente do statement e soma as linhas afetadas. Drivers que
+     * não informam a contagem por linha (SUCCESS_NO_INFO) têm cada linha contada uma vez.
+     *
+     * @param ps Statement com comandos adicionados via addBatch.
+     * @return Total de linhas afetadas.
+     * @throws SQLException Em caso de erro na execução do batch.
+     */
+    protected static int executeBatch(PreparedStatement ps) throws SQLException {
+        int total = 0;
+        for (int afetadas : ps.executeBatch()) {
+            total += afetadas == Statement.SUCCESS_NO_INFO ? 1 : afetadas;
+        }
+        return total;
+    }
+
+    /**
+     * @return true se o banco for Oracle.
+     */
+    protected static boolean isOracle(Connection conn) throws SQLException {
+        return produtoBanco(conn).contains("ORACLE");
+    }
+
+    /**
+     * @return true se o banco aceita {@code MERGE ... USING (SELECT ... FROM DUAL)}
+     * (Oracle, e H2 em modo Oracle).
+     */
+    protected static boolean suportaMerge(Connection conn) throws SQLException {
+        String produto = produtoBanco(conn);
+        return produto.contains("ORACLE") || produto.contains("H2");
+    }
+
+    private static String produtoBanco(Connection conn) throws SQLException {
+        String produto = produtoBanco;
+        if (produto == null) {
+            produto = conn.getMetaData().getDatabaseProductName().toUpperCase(Locale.ROOT);
+            produtoBanco = produto;
+        }
+        return produto;
     }
-    public Connection getConnection() {
-        try{
-            connection = ConnectionFactory.getInstance().getConexao();
-            return connection;
-        } catch (Exception e) {
-            System.out.println("Erro: " + e.getMessage());
+
+    /**
+     * Ajusta o tamanho de página pedido pelo cliente aos limites configurados.
+     */
+    protected static int limitePagina(Integer limite) {
+        if (limite == null || limite < 1) {
+            return LIMITE_PADRAO;
         }
-        return null;
+        return Math.min(limite, LIMITE_MAXIMO);
     }
-    public void closeConnection() {
-        try {
-            if (!connection.isClosed()) {
-                connection.close();
-            }
-        }catch (Exception e) {
-            System.out.println("Erro: " + e.getMessage());
+
+    /**
+     * Monta a página a partir de uma consulta que buscou {@code limite + 1} linhas:
+     * a linha excedente apenas indica que existe uma próxima página.
+     *
+     * @param itens  Linhas lidas, no máximo limite + 1.
+     * @param limite Tamanho da página.
+     * @param cursor Gera o cursor a partir do último item da página.
+     */
+    protected static <T> PaginaTO<T> montarPagina(List<T> itens, int limite, Function<T, String> cursor) {
+        String proximoCursor = null;
+        if (itens.size() > limite) {
+            itens.remove(limite);
+            proximoCursor = cursor.apply(itens.get(limite - 1));
         }
+        return new PaginaTO<>(itens, proximoCursor);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,284 @@
+package br.com.fiap.dao;
+
+import br.com.fiap.exception.InvalidGeracaoConsumoMensalException;
+import br.com.fiap.to.AgregadoGeracaoConsumoTO;
+import br.com.fiap.to.GeracaoConsumoMensalTO;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Acesso à tabela GERACAO_CONSUMO_RESUMO, que guarda os totais por microgrid e
+ * ano, por ano da frota e por mês da frota. {@link #FROTA} no ID da microgrid
+ * indica a frota e {@link #ANO_INTEIRO} no mês indica o total do ano.
+ * <p>
+ * Os totais são atualizados com deltas na mesma transação que grava os
+ * registros; {@link #reconstruir()} recalcula tudo a partir da tabela de registros.
+ */
+public class ResumoGeracaoConsumoDAO extends Repository {
+    public static final long FROTA = 0L;
+    public static final int ANO_INTEIRO = 0;
+
+    private static final String SQL_MERGE = "MERGE INTO GERACAO_CONSUMO_RESUMO r "
+            + "USING (SELECT CAST(? AS NUMBER) AS ID_MICROGRID, CAST(? AS NUMBER) AS ANO, CAST(? AS NUMBER) AS MES, "
+            + "CAST(? AS NUMBER) AS GERADO, CAST(? AS NUMBER) AS CONSUMIDO, CAST(? AS NUMBER) AS REGISTROS FROM DUAL) d "
+            + "ON (r.ID_MICROGRID = d.ID_MICROGRID AND r.ANO = d.ANO AND r.MES = d.MES) "
+            + "WHEN MATCHED THEN UPDATE SET r.TOTAL_GERADO = r.TOTAL_GERADO + d.GERADO, "
+            + "r.TOTAL_CONSUMIDO = r.TOTAL_CONSUMIDO + d.CONSUMIDO, r.REGISTROS = r.REGISTROS + d.REGISTROS "
+            + "WHEN NOT MATCHED THEN INSERT (ID_MICROGRID, ANO, MES, TOTAL_GERADO, TOTAL_CONSUMIDO, REGISTROS) "
+            + "VALUES (d.ID_MICROGRID, d.ANO, d.MES, d.GERADO, d.CONSUMIDO, d.REGISTROS)";
+    private static final String SQL_UPDATE = "UPDATE GERACAO_CONSUMO_RESUMO SET TOTAL_GERADO = TOTAL_GERADO + ?, "
+            + "TOTAL_CONSUMIDO = TOTAL_CONSUMIDO + ?, REGISTROS = REGISTROS + ? WHERE ID_MICROGRID = ? AND ANO = ? AND MES = ?";
+    private static final String SQL_INSERT = "INSERT INTO GERACAO_CONSUMO_RESUMO "
+            + "(ID_MICROGRID, ANO, MES, TOTAL_GERADO, TOTAL_CONSUMIDO, REGISTROS) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String[] SQL_RECONSTRUCAO = {
+            "INSERT INTO GERACAO_CONSUMO_RESUMO (ID_MICROGRID, ANO, MES, TOTAL_GERADO, TOTAL_CONSUMIDO, REGISTROS) "
+                    + "SELECT ID_MICROGRID, ANO, 0, SUM(WATTS_GERADOS), SUM(WATTS_CONSUMIDOS), COUNT(*) "
+                    + "FROM GERACAO_CONSUMO_MENSAL GROUP BY ID_MICROGRID, ANO",
+            "INSERT INTO GERACAO_CONSUMO_RESUMO (ID_MICROGRID, ANO, MES, TOTAL_GERADO, TOTAL_CONSUMIDO, REGISTROS) "
+                    + "SELECT 0, ANO, 0, SUM(WATTS_GERADOS), SUM(WATTS_CONSUMIDOS), COUNT(*) "
+                    + "FROM GERACAO_CONSUMO_MENSAL GROUP BY ANO",
+            "INSERT INTO GERACAO_CONSUMO_RESUMO (ID_MICROGRID, ANO, MES, TOTAL_GERADO, TOTAL_CONSUMIDO, REGISTROS) "
+                    + "SELECT 0, ANO, MES, SUM(WATTS_GERADOS), SUM(WATTS_CONSUMIDOS), COUNT(*) "
+                    + "FROM GERACAO_CONSUMO_MENSAL GROUP BY ANO, MES"
+    };
+
+    /**
+     * Soma aos totais a inclusão ({@code sinal = 1}) ou a exclusão ({@code sinal = -1})
+     * dos registros, acumulando os deltas por linha do resumo.
+     *
+     * @param deltas Deltas acumulados até aqui, por linha do resumo; é alterado.
+     */
+    public static void acumular(Map<List<Object>, AgregadoGeracaoConsumoTO> deltas, GeracaoConsumoMensalTO registro,
+                                int sinal) {
+        acumular(deltas, registro.getIdMicrogrid(), registro.getAno(), ANO_INTEIRO,
+                sinal * registro.getWattsGerados(), sinal * registro.getWattsConsumidos(), sinal);
+        acumular(deltas, FROTA, registro.getAno(), ANO_INTEIRO,
+                sinal * registro.getWattsGerados(), sinal * registro.getWattsConsumidos(), sinal);
+        acumular(deltas, FROTA, registro.getAno(), registro.getMes(),
+                sinal * registro.getWattsGerados(), sinal * registro.getWattsConsumidos(), sinal);
+    }
+
+    /**
+     * Soma a diferença entre os valores novos e os antigos de um registro alterado,
+     * sem mudar a quantidade de registros.
+     */
+    public static void acumularAlteracao(Map<List<Object>, AgregadoGeracaoConsumoTO> deltas,
+                                         GeracaoConsumoMensalTO antigo, GeracaoConsumoMensalTO novo) {
+        double gerado = novo.getWattsGerados() - antigo.getWattsGerados();
+        double consumido = novo.getWattsConsumidos() - antigo.getWattsConsumidos();
+        acumular(deltas, antigo.getIdMicrogrid(), antigo.getAno(), ANO_INTEIRO, gerado, consumido, 0);
+        acumular(deltas, FROTA, antigo.getAno(), ANO_INTEIRO, gerado, consumido, 0);
+        acumular(deltas, FROTA, antigo.getAno(), antigo.getMes(), gerado, consumido, 0);
+    }
+
+    private static void acumular(Map<List<Object>, AgregadoGeracaoConsumoTO> deltas, long idMicrogrid, int ano, int mes,
+                                 double gerado, double consumido, long registros) {
+        AgregadoGeracaoConsumoTO delta = deltas.computeIfAbsent(List.of(idMicrogrid, ano, mes),
+                chave -> new AgregadoGeracaoConsumoTO(idMicrogrid, ano, null, mes, 0.0, 0.0, 0));
+        delta.setTotalGerado(delta.getTotalGerado() + gerado);
+        delta.setTotalConsumido(delta.getTotalConsumido() + consumido);
+        delta.setRegistros(delta.getRegistros() + registros);
+    }
+
+    /**
+     * Aplica os deltas aos totais, com um MERGE por linha do resumo em batch JDBC.
+     * As linhas são atualizadas em ordem de microgrid, ano e mês: todas as
+     * transações disputam as linhas da frota, e bloqueá-las sempre na mesma
+     * ordem evita o deadlock (ORA-00060) entre duas gravações concorrentes.
+     *
+     * @param deltas Deltas por linha do resumo (microgrid, ano e mês).
+     * @return Quantidade de linhas do resumo atualizadas ou criadas.
+     */
+    public int aplicarDeltas(Collection<AgregadoGeracaoConsumoTO> deltas) {
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+        deltas = emOrdemDeBloqueio(deltas);
+        int aplicadas = 0;
+        try (Connection conn = getConnection()) {
+            if (!suportaMerge(conn)) {
+                for (AgregadoGeracaoConsumoTO delta : deltas) {
+                    aplicadas += atualizarOuInserir(conn, delta);
+                }
+                return aplicadas;
+            }
+            try (PreparedStatement ps = conn.prepareStatement(SQL_MERGE)) {
+                for (AgregadoGeracaoConsumoTO delta : deltas) {
+                    ps.setLong(1, delta.getIdMicrogrid());
+                    ps.setInt(2, delta.getAno());
+                    ps.setInt(3, delta.getMes());
+                    ps.setDouble(4, delta.getTotalGerado());
+                    ps.setDouble(5, delta.getTotalConsumido());
+                    ps.setLong(6, delta.getRegistros());
+                    ps.addBatch();
+                }
+                aplicadas = executeBatch(ps);
+            }
+        } catch (SQLException e) {
+            throw new InvalidGeracaoConsumoMensalException("Erro ao atualizar o resumo de geração e consumo: " + e.getMessage());
+        }
+        return aplicadas;
+    }
+
+    static List<AgregadoGeracaoConsumoTO> emOrdemDeBloqueio(Collection<AgregadoGeracaoConsumoTO> deltas) {
+        List<AgregadoGeracaoConsumoTO> ordenados = new ArrayList<>(deltas);
+        ordenados.sort(Comparator.comparing(AgregadoGeracaoConsumoTO::getIdMicrogrid)
+                .thenComparing(AgregadoGeracaoConsumoTO::getAno)
+                .thenComparing(AgregadoGeracaoConsumoTO::getMes));
+        return ordenados;
+    }
+
+    /**
+     * Busca totais do resumo.
+     *
+     * @param idMicrogrid ID da microgrid, {@link #FROTA} para a frota ou null para todas as microgrids.
+     * @param mensal      Se true, busca os meses (apenas para a frota); caso contrário, os totais anuais.
+     * @param anoInicial  Primeiro ano, ou null.
+     * @param anoFinal    Último ano, ou null.
+     * @return Linhas em ordem de microgrid, ano e mês.
+     */
+    public List<AgregadoGeracaoConsumoTO> buscar(Long idMicrogrid, boolean mensal, Integer anoInicial, Integer anoFinal) {
+        StringBuilder sql = new StringBuilder("SELECT ID_MICROGRID, ANO, MES, TOTAL_GERADO, TOTAL_CONSUMIDO, REGISTROS "
+                + "FROM GERACAO_CONSUMO_RESUMO WHERE ");
+        sql.append(idMicrogrid == null ? "ID_MICROGRID <> 0" : "ID_MICROGRID = ?");
+        sql.append(mensal ? " AND MES <> 0" : " AND MES = 0");
+        if (anoInicial != null) {
+            sql.append(" AND ANO >= ?");
+        }
+        if (anoFinal != null) {
+            sql.append(" AND ANO <= ?");
+        }
+        sql.append(" ORDER BY ID_MICROGRID, ANO, MES");
+
+        List<AgregadoGeracaoConsumoTO> totais = new ArrayList<>();
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+            int i = 1;
+            if (idMicrogrid != null) {
+                ps.setLong(i++, idMicrogrid);
+            }
+            if (anoInicial != null) {
+                ps.setInt(i++, anoInicial);
+            }
+            if (anoFinal != null) {
+                ps.setInt(i, anoFinal);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    totais.add(populateTotal(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new InvalidGeracaoConsumoMensalException("Erro ao buscar o resumo de geração e consumo: " + e.getMessage());
+        }
+        return totais;
+    }
+
+    /**
+     * Recalcula todo o resumo a partir de GERACAO_CONSUMO_MENSAL, na transação atual.
+     * No Oracle a tabela de resumo fica bloqueada até o commit, de modo que
+     * gravações concorrentes aplicam seus deltas sobre o resumo já reconstruído.
+     *
+     * @return Quantidade de linhas do resumo que estavam diferentes do recalculado
+     * (incluindo linhas ausentes ou sobrando).
+     */
+    public int reconstruir() {
+        try (Connection conn = getConnection()) {
+            if (isOracle(conn)) {
+                try (Statement st = conn.createStatement()) {
+                    st.execute("LOCK TABLE GERACAO_CONSUMO_RESUMO IN EXCLUSIVE MODE");
+                }
+            }
+            Map<List<Object>, AgregadoGeracaoConsumoTO> anteriores = carregarTudo(conn);
+            try (Statement st = conn.createStatement()) {
+                st.executeUpdate("DELETE FROM GERACAO_CONSUMO_RESUMO");
+                for (String sql : SQL_RECONSTRUCAO) {
+                    st.executeUpdate(sql);
+                }
+            }
+            Map<List<Object>, AgregadoGeracaoConsumoTO> recalculados = carregarTudo(conn);
+
+            int divergentes = 0;
+            for (Map.Entry<List<Object>, AgregadoGeracaoConsumoTO> linha : recalculados.entrySet()) {
+                AgregadoGeracaoConsumoTO anterior = anteriores.remove(linha.getKey());
+                if (anterior == null || !iguais(anterior, linha.getValue())) {
+                    divergentes++;
+                }
+            }
+            // Linhas que existiam no resumo mas não têm registros correspondentes
+            for (AgregadoGeracaoConsumoTO sobra : anteriores.values()) {
+                if (sobra.getRegistros() != 0) {
+                    divergentes++;
+                }
+            }
+            return divergentes;
+        } catch (SQLException e) {
+            throw new InvalidGeracaoConsumoMensalException("Erro ao reconstruir o resumo de geração e consumo: " + e.getMessage());
+        }
+    }
+
+    private Map<List<Object>, AgregadoGeracaoConsumoTO> carregarTudo(Connection conn) throws SQLException {
+        Map<List<Object>, AgregadoGeracaoConsumoTO> linhas = new HashMap<>();
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT ID_MICROGRID, ANO, MES, TOTAL_GERADO, TOTAL_CONSUMIDO, REGISTROS FROM GERACAO_CONSUMO_RESUMO");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                AgregadoGeracaoConsumoTO total = populateTotal(rs);
+                linhas.put(List.of(total.getIdMicrogrid(), total.getAno(), total.getMes()), total);
+            }
+        }
+        return linhas;
+    }
+
+    private static boolean iguais(AgregadoGeracaoConsumoTO a, AgregadoGeracaoConsumoTO b) {
+        return a.getRegistros() == b.getRegistros()
+                && Math.abs(a.getTotalGerado() - b.getTotalGerado()) < 1e-6
+                && Math.abs(a.getTotalConsumido() - b.getTotalConsumido()) < 1e-6;
+    }
+
+    private int atualizarOuInserir(Connection conn, AgregadoGeracaoConsumoTO delta) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SQL_UPDATE)) {
+            ps.setDouble(1, delta.getTotalGerado());
+            ps.setDouble(2, delta.getTotalConsumido());
+            ps.setLong(3, delta.getRegistros());
+            ps.setLong(4, delta.getIdMicrogrid());
+            ps.setInt(5, delta.getAno());
+            ps.setInt(6, delta.getMes());
+            if (ps.executeUpdate() > 0) {
+                return 1;
+            }
+        }
+        try (PreparedStatement ps = conn.prepareStatement(SQL_INSERT)) {
+            ps.setLong(1, delta.getIdMicrogrid());
+            ps.setInt(2, delta.getAno());
+            ps.setInt(3, delta.getMes());
+            ps.setDouble(4, delta.getTotalGerado());
+            ps.setDouble(5, delta.getTotalConsumido());
+            ps.setLong(6, delta.getRegistros());
+            return ps.executeUpdate();
+        }
+    }
+
+    private AgregadoGeracaoConsumoTO populateTotal(ResultSet rs) throws SQLException {
+        return new AgregadoGeracaoConsumoTO(
+                rs.getLong("ID_MICROGRID"),
+                rs.getInt("ANO"),
+                null,
+                rs.getInt("MES"),
+                rs.getDouble("TOTAL_GERADO"),
+                rs.getDouble("TOTAL_CONSUMIDO"),
+                rs.getLong("REGISTROS"));
+    }
+}
@@ -0,0 +1,158 @@
+package br.com.fiap.dao;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache de PreparedStatements de uma conexão física do pool, indexado pelo texto
+ * SQL e pelas colunas de chave gerada. Um statement retirado do cache fica
+ * exclusivo de quem o retirou até ser fechado, quando volta ao cache com os
+ * parâmetros limpos.
+ * <p>
+ * Como uma conexão é usada por uma thread de cada vez, a classe não é sincronizada.
+ */
+final class StatementCache {
+    private final int maxSize;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final AtomicLong evictions;
+    private final LinkedHashMap<String, PreparedStatement> idle = new LinkedHashMap<>(16, 0.75f, true);
+
+    StatementCache(int maxSize, AtomicLong hits, AtomicLong misses, AtomicLong evictions) {
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+    }
+
+    /**
+     * Indica se a chamada é uma das variantes de prepareStatement atendidas pelo cache.
+     */
+    static boolean isCacheable(String methodName, Object[] args) {
+        if (!"prepareStatement".equals(methodName) || args == null || !(args[0] instanceof String)) {
+            return false;
+        }
+        return args.length == 1
+                || (args.length == 2 && (args[1] instanceof String[] || args[1] instanceof Integer));
+    }
+
+    /**
+     * Retorna um statement do cache ou prepara um novo na conexão física.
+     *
+     * @param physical   Conexão física dona do cache.
+     * @param connection Proxy da conexão entregue ao chamador.
+     * @param args       Argumentos de prepareStatement.
+     */
+    PreparedStatement prepare(Connection physical, Connection connection, Object[] args) throws SQLException {
+        String key = key(args);
+        PreparedStatement statement = idle.remove(key);
+        if (statement != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            statement = prepareNew(physical, args);
+        }
+        return wrap(key, statement, connection);
+    }
+
+    /**
+     * Fecha todos os statements mantidos no cache.
+     */
+    void closeAll() {
+        for (PreparedStatement statement : idle.values()) {
+            closeQuietly(statement);
+        }
+        idle.clear();
+    }
+
+    private void giveBack(String key, PreparedStatement statement) {
+        try {
+            statement.clearParameters();
+            statement.clearBatch();
+        } catch (SQLException e) {
+            closeQuietly(statement);
+            return;
+        }
+        PreparedStatement anterior = idle.put(key, statement);
+        if (anterior != null) {
+            // O mesmo SQL estava em uso duas vezes; mantém apenas um no cache.
+            closeQuietly(anterior);
+        }
+        if (idle.size() > maxSize) {
+            Iterator<Map.Entry<String, PreparedStatement>> it = idle.entrySet().iterator();
+            closeQuietly(it.next().getValue());
+            it.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private PreparedStatement wrap(String key, PreparedStatement statement, Connection connection) {
+        boolean[] closed = {false};
+        return (PreparedStatement) Proxy.newProxyInstance(
+                StatementCache.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            if (!closed[0]) {
+                                closed[0] = true;
+                                giveBack(key, statement);
+                            }
+                            return null;
+                        case "isClosed":
+                            return closed[0] || statement.isClosed();
+                        case "getConnection":
+                            return connection;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            break;
+                    }
+                    if (closed[0]) {
+                        throw new SQLException("O statement já foi fechado.");
+                    }
+                    try {
+                        return method.invoke(statement, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    private static PreparedStatement prepareNew(Connection physical, Object[] args) throws SQLException {
+        String sql = (String) args[0];
+        if (args.length == 1) {
+            return physical.prepareStatement(sql);
+        }
+        if (args[1] instanceof String[]) {
+            return physical.prepareStatement(sql, (String[]) args[1]);
+        }
+        return physical.prepareStatement(sql, (Integer) args[1]);
+    }
+
+    private static String key(Object[] args) {
+        if (args.length == 1) {
+            return (String) args[0];
+        }
+        String chaves = args[1] instanceof String[] ? Arrays.toString((String[]) args[1]) : String.valueOf(args[1]);
+        return args[0] + "\u0000" + chaves;
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException ignored) {
+            // O statement será descartado de qualquer forma.
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package br.com.fiap.dao;
+
+import br.com.fiap.exception.TransacaoException;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Unidade de trabalho vinculada à thread atual: todos os DAOs que estendem
+ * {@link Repository} chamados dentro de {@link #execute(Supplier)} usam a mesma
+ * conexão e a mesma transação, confirmada uma única vez ao final.
+ * <p>
+ * Chamadas aninhadas participam da unidade de trabalho externa. Qualquer exceção
+ * que escape da unidade externa desfaz a transação inteira.
+ */
+public final class UnitOfWork {
+    private static final Logger LOGGER = Logger.getLogger(UnitOfWork.class.getName());
+    private static final ThreadLocal<UnitOfWork> CURRENT = new ThreadLocal<>();
+
+    private final Connection connection;
+    private final Connection shared;
+    private final List<Runnable> afterCommit = new ArrayList<>();
+
+    private UnitOfWork(Connection connection) {
+        this.connection = connection;
+        this.shared = (Connection) Proxy.newProxyInstance(
+                UnitOfWork.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            // A conexão só é devolvida ao pool ao final da unidade de trabalho.
+                            return null;
+                        case "commit":
+                        case "rollback":
+                        case "setAutoCommit":
+                            throw new SQLException("A transação é controlada pela unidade de trabalho.");
+                        default:
+                            try {
+                                return method.invoke(connection, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                    }
+                });
+    }
+
+    /**
+     * Executa o trabalho em uma transação, ou participa da transação já aberta na thread.
+     *
+     * @param work Trabalho a ser executado.
+     * @return Resultado do trabalho.
+     */
+    public static <T> T execute(Supplier<T> work) {
+        if (CURRENT.get() != null) {
+            return work.get();
+        }
+
+        Connection connection;
+        try {
+            connection = ConnectionFactory.getInstance().getPool().getConnection();
+            connection.setAutoCommit(false);
+        } catch (SQLException e) {
+            throw new TransacaoException("Erro ao iniciar transação: " + e.getMessage(), e);
+        }
+
+        UnitOfWork unitOfWork = new UnitOfWork(connection);
+        CURRENT.set(unitOfWork);
+        T resultado;
+        try {
+            resultado = work.get();
+            connection.commit();
+        } catch (SQLException e) {
+            rollbackQuietly(connection);
+            throw new TransacaoException("Erro ao confirmar transação: " + e.getMessage(), e);
+        } catch (RuntimeException | Error e) {
+            rollbackQuietly(connection);
+            throw e;
+        } finally {
+            CURRENT.remove();
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                LOGGER.log(Level.WARNING, "Erro ao devolver conexão ao pool: " + e.getMessage());
+            }
+        }
+        // Com a conexão já devolvida: uma ação que bloqueie (fila de estimativas cheia) não retém o pool
+        unitOfWork.runAfterCommit();
+        return resultado;
+    }
+
+    /**
+     * Executa o trabalho em uma transação, sem valor de retorno.
+     *
+     * @param work Trabalho a ser executado.
+     */
+    public static void run(Runnable work) {
+        execute(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Agenda uma ação para depois da confirmação da transação atual. Fora de uma
+     * unidade de trabalho a ação é executada imediatamente.
+     *
+     * @param action Ação a executar após o commit.
+     */
+    public static void afterCommit(Runnable action) {
+        UnitOfWork unitOfWork = CURRENT.get();
+        if (unitOfWork == null) {
+            action.run();
+        } else {
+            unitOfWork.afterCommit.add(action);
+        }
+    }
+
+    /**
+     * @return true se houver uma unidade de trabalho aberta na thread atual.
+     */
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * @return Conexão da unidade de trabalho atual (fechá-la não tem efeito), ou null.
+     */
+    static Connection currentConnection() {
+        UnitOfWork unitOfWork = CURRENT.get();
+        return unitOfWork != null ? unitOfWork.shared : null;
+    }
+
+    private void runAfterCommit() {
+        for (Runnable action : afterCommit) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Erro em ação pós-commit: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private static void rollbackQuietly(Connection connection) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Erro ao desfazer transação: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package br.com.fiap.dao;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contador de alterações de cada coleção exposta pela API, incrementado pelos DAOs
+ * após o commit de qualquer escrita na tabela correspondente.
+ * <p>
+ * Os recursos leem a versão antes de consultar o banco e a usam como ETag e
+ * Last-Modified das listagens: um GET condicional cuja ETag ainda é a atual é
+ * respondido com 304 sem nenhuma consulta. A ETag inclui o instante de
+ * inicialização do processo, já que o contador recomeça do zero a cada reinício.
+ * <p>
+ * Como {@link MicrogridCache}, supõe que as tabelas só são alteradas por este
+ * serviço; escritas feitas diretamente no banco não mudam a versão.
+ */
+public enum VersaoColecao {
+    MICROGRID("microgrid"),
+    FONTE_ENERGIA("fonte-energia"),
+    GERACAO_CONSUMO("geracao-consumo"),
+    ESTIMATIVA_GERACAO("estimativa-geracao");
+
+    private static final String INSTANCIA = Long.toString(System.currentTimeMillis(), 36);
+
+    private final String nome;
+    private final AtomicLong versao = new AtomicLong();
+    private volatile long alteradaEm = System.currentTimeMillis();
+
+    VersaoColecao(String nome) {
+        this.nome = nome;
+    }
+
+    /**
+     * Registra uma alteração na coleção, aplicada quando a transação atual for confirmada.
+     */
+    void alterada() {
+        UnitOfWork.afterCommit(() -> {
+            // A data vem antes do contador: quem vê a versão nova já vê a data nova.
+            alteradaEm = System.currentTimeMillis();
+            versao.incrementAndGet();
+        });
+    }
+
+    public long getVersao() {
+        return versao.get();
+    }
+
+    /**
+     * @return Instante, em milissegundos, da última alteração confirmada ou da inicialização.
+     */
+    public long getAlteradaEm() {
+        return alteradaEm;
+    }
+
+    /**
+     * @return Valor da ETag da coleção na versão atual, sem aspas.
+     */
+    public String getEtag() {
+        return nome + "-" + INSTANCIA + "-" + versao.get();
+    }
+}
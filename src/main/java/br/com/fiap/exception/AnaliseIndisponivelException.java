@@ -0,0 +1,10 @@
+package br.com.fiap.exception;
+
+/**
+ * Exceção lançada quando as séries em memória ainda não foram carregadas ou estão desabilitadas.
+ */
+public class AnaliseIndisponivelException extends RuntimeException {
+    public AnaliseIndisponivelException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package br.com.fiap.exception;
+
+/**
+ * Exceção lançada quando os parâmetros de uma análise são inválidos.
+ */
+public class InvalidAnaliseException extends RuntimeException {
+    public InvalidAnaliseException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,14 @@
+package br.com.fiap.exception;
+
+/**
+ * Exceção lançada quando uma migração de esquema não pode ser aplicada.
+ */
+public class MigracaoException extends RuntimeException {
+    public MigracaoException(String message) {
+        super(message);
+    }
+
+    public MigracaoException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,10 @@
+package br.com.fiap.exception;
+
+/**
+ * Exceção lançada ao pedir um recálculo de estimativas enquanto outro está em execução.
+ */
+public class RecalculoEmAndamentoException extends RuntimeException {
+    public RecalculoEmAndamentoException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package br.com.fiap.exception;
+
+/**
+ * Exceção lançada quando não é possível iniciar, confirmar ou desfazer uma transação.
+ */
+public class TransacaoException extends RuntimeException {
+    public TransacaoException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
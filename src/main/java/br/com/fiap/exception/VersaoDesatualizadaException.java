@@ -0,0 +1,10 @@
+package br.com.fiap.exception;
+
+/**
+ * Exceção lançada quando a versão informada em If-Match não é mais a versão atual do registro.
+ */
+public class VersaoDesatualizadaException extends RuntimeException {
+    public VersaoDesatualizadaException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,27 @@
+package br.com.fiap.json;
+
+import jakarta.json.stream.JsonGenerator;
+import jakarta.json.stream.JsonParser;
+
+/**
+ * Leitura e escrita de um TO em JSON pela API de streaming. As implementações são
+ * geradas a partir de {@link JsonStreaming} e encontradas por {@link CodecsJson}.
+ *
+ * @param <T> Tipo do TO.
+ */
+public interface CodecJson<T> {
+
+    Class<T> getTipo();
+
+    /**
+     * Escreve o objeto como valor JSON na posição atual do gerador.
+     */
+    void escrever(JsonGenerator gerador, T objeto);
+
+    /**
+     * Lê o objeto a partir do parser, logo após o evento START_OBJECT, consumindo até o END_OBJECT.
+     *
+     * @throws jakarta.json.JsonException Se o JSON não corresponder ao TO.
+     */
+    T ler(JsonParser parser);
+}
@@ -0,0 +1,41 @@
+package br.com.fiap.json;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * Codecs gerados por {@link br.com.fiap.json.processador.GeradorCodecJson},
+ * registrados em META-INF/services e carregados uma única vez.
+ */
+public final class CodecsJson {
+    private static final Map<Class<?>, CodecJson<?>> POR_TIPO;
+
+    static {
+        Map<Class<?>, CodecJson<?>> codecs = new HashMap<>();
+        for (CodecJson<?> codec : ServiceLoader.load(CodecJson.class, CodecsJson.class.getClassLoader())) {
+            codecs.put(codec.getTipo(), codec);
+        }
+        POR_TIPO = Collections.unmodifiableMap(codecs);
+    }
+
+    private CodecsJson() {
+    }
+
+    /**
+     * @return Codec do tipo exato, ou null se o tipo não tiver sido gerado.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> CodecJson<T> de(Class<T> tipo) {
+        return (CodecJson<T>) POR_TIPO.get(tipo);
+    }
+
+    public static boolean suporta(Class<?> tipo) {
+        return POR_TIPO.containsKey(tipo);
+    }
+
+    public static int getQuantidade() {
+        return POR_TIPO.size();
+    }
+}
@@ -0,0 +1,19 @@
+package br.com.fiap.json;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca um TO para o qual {@link br.com.fiap.json.processador.GeradorCodecJson}
+ * gera, em tempo de compilação, um {@link CodecJson} que lê e escreve o JSON com
+ * a API de streaming do JSON-P, sem reflexão.
+ * <p>
+ * As propriedades são os pares de getter e setter públicos declarados na classe,
+ * escritas em ordem alfabética e omitidas quando nulas, como faz o Yasson.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface JsonStreaming {
+}
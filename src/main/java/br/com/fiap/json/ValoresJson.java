@@ -0,0 +1,109 @@
+package br.com.fiap.json;
+
+import jakarta.json.JsonException;
+import jakarta.json.stream.JsonParser;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Conversões de valores JSON usadas pelos codecs gerados. Números também são
+ * aceitos como texto; qualquer outro tipo de valor é rejeitado com o nome do campo.
+ */
+public final class ValoresJson {
+
+    private ValoresJson() {
+    }
+
+    public static String lerTexto(JsonParser parser, JsonParser.Event evento, String campo) {
+        if (evento == JsonParser.Event.VALUE_STRING || evento == JsonParser.Event.VALUE_NUMBER) {
+            return parser.getString();
+        }
+        throw invalido(campo, "texto");
+    }
+
+    public static long lerLong(JsonParser parser, JsonParser.Event evento, String campo) {
+        try {
+            if (evento == JsonParser.Event.VALUE_NUMBER) {
+                return parser.getBigDecimal().longValueExact();
+            }
+            if (evento == JsonParser.Event.VALUE_STRING) {
+                return Long.parseLong(parser.getString().trim());
+            }
+        } catch (ArithmeticException | NumberFormatException e) {
+            throw invalido(campo, "número inteiro");
+        }
+        throw invalido(campo, "número inteiro");
+    }
+
+    public static int lerInt(JsonParser parser, JsonParser.Event evento, String campo) {
+        long valor = lerLong(parser, evento, campo);
+        if (valor < Integer.MIN_VALUE || valor > Integer.MAX_VALUE) {
+            throw invalido(campo, "número inteiro de 32 bits");
+        }
+        return (int) valor;
+    }
+
+    public static double lerDouble(JsonParser parser, JsonParser.Event evento, String campo) {
+        try {
+            if (evento == JsonParser.Event.VALUE_NUMBER) {
+                return parser.getBigDecimal().doubleValue();
+            }
+            if (evento == JsonParser.Event.VALUE_STRING) {
+                return Double.parseDouble(parser.getString().trim());
+            }
+        } catch (NumberFormatException e) {
+            throw invalido(campo, "número");
+        }
+        throw invalido(campo, "número");
+    }
+
+    public static boolean lerBoolean(JsonParser parser, JsonParser.Event evento, String campo) {
+        if (evento == JsonParser.Event.VALUE_TRUE) {
+            return true;
+        }
+        if (evento == JsonParser.Event.VALUE_FALSE) {
+            return false;
+        }
+        throw invalido(campo, "booleano");
+    }
+
+    public static LocalDate lerData(JsonParser parser, JsonParser.Event evento, String campo) {
+        try {
+            return LocalDate.parse(lerTexto(parser, evento, campo));
+        } catch (DateTimeParseException e) {
+            throw invalido(campo, "data no formato AAAA-MM-DD");
+        }
+    }
+
+    public static LocalDateTime lerDataHora(JsonParser parser, JsonParser.Event evento, String campo) {
+        try {
+            return LocalDateTime.parse(lerTexto(parser, evento, campo));
+        } catch (DateTimeParseException e) {
+            throw invalido(campo, "data e hora no formato ISO-8601");
+        }
+    }
+
+    /**
+     * Descarta o valor de um campo desconhecido, inclusive objetos e arrays aninhados.
+     */
+    public static void ignorar(JsonParser parser, JsonParser.Event evento) {
+        if (evento == JsonParser.Event.START_OBJECT) {
+            parser.skipObject();
+        } else if (evento == JsonParser.Event.START_ARRAY) {
+            parser.skipArray();
+        }
+    }
+
+    /**
+     * @return Exceção para um JSON que terminou ou saiu da estrutura esperada.
+     */
+    public static JsonException inesperado(JsonParser.Event evento) {
+        return new JsonException("JSON inválido: evento inesperado " + evento + ".");
+    }
+
+    private static JsonException invalido(String campo, String esperado) {
+        return new JsonException("Campo '" + campo + "': esperado " + esperado + ".");
+    }
+}
@@ -0,0 +1,264 @@
+package br.com.fiap.json.processador;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Gera um {@code CodecJson} para cada classe anotada com {@code @JsonStreaming} e o
+ * registra em META-INF/services, para ser carregado por {@code CodecsJson}.
+ * <p>
+ * O codec gerado chama diretamente os getters e setters do TO: a escrita segue a
+ * ordem alfabética das propriedades e omite valores nulos, produzindo o mesmo JSON
+ * que o Yasson; a leitura ignora campos desconhecidos e valores nulos e passa os
+ * demais pelos setters, preservando suas validações.
+ * <p>
+ * É compilado antes do restante do projeto, em uma execução separada do
+ * maven-compiler-plugin sem processamento de anotações; por isso não depende de
+ * nenhuma classe do projeto e refere-se a elas apenas pelo nome.
+ */
+@SupportedAnnotationTypes(GeradorCodecJson.ANOTACAO)
+public class GeradorCodecJson extends AbstractProcessor {
+    static final String ANOTACAO = "br.com.fiap.json.JsonStreaming";
+    private static final String SERVICO = "META-INF/services/br.com.fiap.json.CodecJson";
+
+    /**
+     * Tipos suportados: expressão de escrita (sobre a variável {@code v}) e método de leitura de ValoresJson.
+     */
+    private static final Map<String, String[]> TIPOS = new HashMap<>();
+
+    static {
+        TIPOS.put("java.lang.String", new String[]{"v", "lerTexto"});
+        TIPOS.put("long", new String[]{"v", "lerLong"});
+        TIPOS.put("java.lang.Long", new String[]{"v", "lerLong"});
+        TIPOS.put("int", new String[]{"v", "lerInt"});
+        TIPOS.put("java.lang.Integer", new String[]{"v", "lerInt"});
+        TIPOS.put("double", new String[]{"v", "lerDouble"});
+        TIPOS.put("java.lang.Double", new String[]{"v", "lerDouble"});
+        TIPOS.put("boolean", new String[]{"v", "lerBoolean"});
+        TIPOS.put("java.lang.Boolean", new String[]{"v", "lerBoolean"});
+        TIPOS.put("java.time.LocalDate", new String[]{"v.toString()", "lerData"});
+        TIPOS.put("java.time.LocalDateTime",
+                new String[]{"java.time.format.DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(v)", "lerDataHora"});
+    }
+
+    private final List<String> gerados = new ArrayList<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(java.util.Set<? extends TypeElement> anotacoes, RoundEnvironment ambiente) {
+        TypeElement anotacao = processingEnv.getElementUtils().getTypeElement(ANOTACAO);
+        if (anotacao != null) {
+            for (Element elemento : ambiente.getElementsAnnotatedWith(anotacao)) {
+                if (elemento.getKind() != ElementKind.CLASS) {
+                    erro(elemento, "@JsonStreaming só pode ser usada em classes.");
+                    continue;
+                }
+                gerar((TypeElement) elemento);
+            }
+        }
+        if (ambiente.processingOver() && !gerados.isEmpty()) {
+            registrar();
+        }
+        return true;
+    }
+
+    private void gerar(TypeElement classe) {
+        if (!temConstrutorVazio(classe)) {
+            erro(classe, "O TO precisa de um construtor público sem parâmetros.");
+            return;
+        }
+        Map<String, Propriedade> propriedades = new TreeMap<>();
+        for (ExecutableElement metodo : ElementFilter.methodsIn(classe.getEnclosedElements())) {
+            if (!metodo.getModifiers().contains(Modifier.PUBLIC) || metodo.getModifiers().contains(Modifier.STATIC)) {
+                continue;
+            }
+            String nome = metodo.getSimpleName().toString();
+            if (metodo.getParameters().isEmpty() && metodo.getReturnType().getKind() != TypeKind.VOID) {
+                String tipo = metodo.getReturnType().toString();
+                String propriedade = nome.startsWith("get") && nome.length() > 3 ? propriedade(nome.substring(3))
+                        : nome.startsWith("is") && nome.length() > 2 && tipo.equals("boolean") ? propriedade(nome.substring(2))
+                        : null;
+                if (propriedade != null) {
+                    Propriedade p = propriedades.computeIfAbsent(propriedade, Propriedade::new);
+                    p.getter = nome;
+                    p.tipoGetter = tipo;
+                }
+            } else if (metodo.getParameters().size() == 1 && nome.startsWith("set") && nome.length() > 3
+                    && metodo.getReturnType().getKind() == TypeKind.VOID) {
+                Propriedade p = propriedades.computeIfAbsent(propriedade(nome.substring(3)), Propriedade::new);
+                p.setter = nome;
+                p.tipoSetter = metodo.getParameters().get(0).asType().toString();
+            }
+        }
+        for (Propriedade p : propriedades.values()) {
+            if ((p.getter != null && !TIPOS.containsKey(p.tipoGetter))
+                    || (p.setter != null && !TIPOS.containsKey(p.tipoSetter))) {
+                erro(classe, "Tipo não suportado na propriedade '" + p.nome + "': "
+                        + (p.getter != null ? p.tipoGetter : p.tipoSetter) + ".");
+                return;
+            }
+        }
+
+        String pacote = ((PackageElement) classe.getEnclosingElement()).getQualifiedName().toString();
+        String to = classe.getSimpleName().toString();
+        String codec = to + "CodecJson";
+        try (Writer arquivo = processingEnv.getFiler().createSourceFile(pacote + "." + codec, classe).openWriter();
+             PrintWriter out = new PrintWriter(arquivo)) {
+            escrever(out, pacote, to, codec, propriedades);
+        } catch (IOException e) {
+            erro(classe, "Erro ao gerar " + codec + ": " + e.getMessage());
+            return;
+        }
+        gerados.add(pacote + "." + codec);
+    }
+
+    private static void escrever(PrintWriter out, String pacote, String to, String codec,
+                                 Map<String, Propriedade> propriedades) {
+        out.println("package " + pacote + ";");
+        out.println();
+        out.println("import br.com.fiap.json.CodecJson;");
+        out.println("import br.com.fiap.json.ValoresJson;");
+        out.println("import jakarta.json.stream.JsonGenerator;");
+        out.println("import jakarta.json.stream.JsonParser;");
+        out.println();
+        out.println("/**");
+        out.println(" * Gerado por GeradorCodecJson a partir de {@link " + to + "}; não editar.");
+        out.println(" */");
+        out.println("public final class " + codec + " implements CodecJson<" + to + "> {");
+        out.println();
+        out.println("    @Override");
+        out.println("    public Class<" + to + "> getTipo() {");
+        out.println("        return " + to + ".class;");
+        out.println("    }");
+        out.println();
+        out.println("    @Override");
+        out.println("    public void escrever(JsonGenerator gerador, " + to + " objeto) {");
+        out.println("        gerador.writeStartObject();");
+        for (Propriedade p : propriedades.values()) {
+            if (p.getter == null) {
+                continue;
+            }
+            String escrita = TIPOS.get(p.tipoGetter)[0];
+            if (p.tipoGetter.indexOf('.') < 0) {
+                out.println("        {");
+                out.println("            " + p.tipoGetter + " v = objeto." + p.getter + "();");
+                out.println("            gerador.write(\"" + p.nome + "\", " + escrita + ");");
+                out.println("        }");
+            } else {
+                out.println("        {");
+                out.println("            " + p.tipoGetter + " v = objeto." + p.getter + "();");
+                out.println("            if (v != null) {");
+                out.println("                gerador.write(\"" + p.nome + "\", " + escrita + ");");
+                out.println("            }");
+                out.println("        }");
+            }
+        }
+        out.println("        gerador.writeEnd();");
+        out.println("    }");
+        out.println();
+        out.println("    @Override");
+        out.println("    public " + to + " ler(JsonParser parser) {");
+        out.println("        " + to + " objeto = new " + to + "();");
+        out.println("        while (parser.hasNext()) {");
+        out.println("            JsonParser.Event evento = parser.next();");
+        out.println("            if (evento == JsonParser.Event.END_OBJECT) {");
+        out.println("                return objeto;");
+        out.println("            }");
+        out.println("            if (evento != JsonParser.Event.KEY_NAME) {");
+        out.println("                throw ValoresJson.inesperado(evento);");
+        out.println("            }");
+        out.println("            String campo = parser.getString();");
+        out.println("            JsonParser.Event valor = parser.next();");
+        out.println("            if (valor == JsonParser.Event.VALUE_NULL) {");
+        out.println("                continue;");
+        out.println("            }");
+        out.println("            switch (campo) {");
+        for (Propriedade p : propriedades.values()) {
+            if (p.setter == null) {
+                continue;
+            }
+            out.println("                case \"" + p.nome + "\":");
+            out.println("                    objeto." + p.setter + "(ValoresJson." + TIPOS.get(p.tipoSetter)[1]
+                    + "(parser, valor, \"" + p.nome + "\"));");
+            out.println("                    break;");
+        }
+        out.println("                default:");
+        out.println("                    ValoresJson.ignorar(parser, valor);");
+        out.println("            }");
+        out.println("        }");
+        out.println("        throw ValoresJson.inesperado(null);");
+        out.println("    }");
+        out.println("}");
+    }
+
+    private void registrar() {
+        try {
+            FileObject servico = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", SERVICO);
+            try (PrintWriter out = new PrintWriter(servico.openWriter())) {
+                for (String codec : gerados) {
+                    out.println(codec);
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Erro ao registrar os codecs: " + e.getMessage());
+        }
+    }
+
+    private static boolean temConstrutorVazio(TypeElement classe) {
+        for (ExecutableElement construtor : ElementFilter.constructorsIn(classe.getEnclosedElements())) {
+            if (construtor.getParameters().isEmpty() && construtor.getModifiers().contains(Modifier.PUBLIC)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Regra do JavaBeans: "IdMicrogrid" -> "idMicrogrid", mas "URL" permanece "URL"
+    private static String propriedade(String sufixo) {
+        if (sufixo.length() > 1 && Character.isUpperCase(sufixo.charAt(0)) && Character.isUpperCase(sufixo.charAt(1))) {
+            return sufixo;
+        }
+        return Character.toLowerCase(sufixo.charAt(0)) + sufixo.substring(1);
+    }
+
+    private void erro(Element elemento, String mensagem) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, mensagem, elemento);
+    }
+
+    private static final class Propriedade {
+        private final String nome;
+        private String getter;
+        private String tipoGetter;
+        private String setter;
+        private String tipoSetter;
+
+        private Propriedade(String nome) {
+            this.nome = nome;
+        }
+    }
+}
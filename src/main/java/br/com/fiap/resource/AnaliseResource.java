@@ -0,0 +1,90 @@
+package br.com.fiap.resource;
+
+import br.com.fiap.bo.AnaliseBO;
+import br.com.fiap.exception.AnaliseIndisponivelException;
+import br.com.fiap.exception.InvalidAnaliseException;
+import br.com.fiap.to.ComparacaoPeriodoTO;
+import br.com.fiap.to.PontoSerieTO;
+import br.com.fiap.to.TotalPeriodoTO;
+import br.com.fiap.to.Unidade;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Análises de geração e consumo sobre as séries em memória. Sem {@code idMicrogrid}
+ * a análise considera a frota inteira; {@code de} e {@code ate} usam o formato AAAA-MM
+ * e {@code unit} escolhe a unidade de energia da resposta (padrão: kWh).
+ */
+@Path("/analise")
+public class AnaliseResource {
+
+    private final AnaliseBO analiseBO = new AnaliseBO();
+
+    @GET
+    @Path("/totais")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response totais(@QueryParam("idMicrogrid") Long idMicrogrid,
+                           @QueryParam("de") String de,
+                           @QueryParam("ate") String ate,
+                           @QueryParam("unit") String unit) {
+        return responder(() -> {
+            Unidade unidade = analiseBO.unidade(unit);
+            TotalPeriodoTO total = analiseBO.totais(idMicrogrid, de, ate);
+            total.converterPara(unidade);
+            return total;
+        });
+    }
+
+    @GET
+    @Path("/serie")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response serie(@QueryParam("idMicrogrid") Long idMicrogrid,
+                          @QueryParam("de") String de,
+                          @QueryParam("ate") String ate,
+                          @QueryParam("janela") Integer janela,
+                          @QueryParam("unit") String unit) {
+        return responder(() -> {
+            Unidade unidade = analiseBO.unidade(unit);
+            List<PontoSerieTO> pontos = analiseBO.serie(idMicrogrid, de, ate, janela);
+            if (!unidade.isBase()) {
+                pontos.forEach(ponto -> ponto.converterPara(unidade));
+            }
+            return pontos;
+        });
+    }
+
+    @GET
+    @Path("/comparacao")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response comparacao(@QueryParam("idMicrogrid") Long idMicrogrid,
+                               @QueryParam("de") String de,
+                               @QueryParam("ate") String ate,
+                               @QueryParam("deslocamento") Integer deslocamento,
+                               @QueryParam("unit") String unit) {
+        return responder(() -> {
+            Unidade unidade = analiseBO.unidade(unit);
+            ComparacaoPeriodoTO comparacao = analiseBO.comparar(idMicrogrid, de, ate, deslocamento);
+            comparacao.converterPara(unidade);
+            return comparacao;
+        });
+    }
+
+    private Response responder(Supplier<Object> analise) {
+        try {
+            return Response.ok(analise.get()).build();
+        } catch (InvalidAnaliseException e) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+        } catch (AnaliseIndisponivelException e) {
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE).entity(e.getMessage()).build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity("Erro inesperado: " + e.getMessage()).build();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package br.com.fiap.resource;
+
+import br.com.fiap.config.ApplicationProperties;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache dos corpos já serializados (e, quando for o caso, comprimidos) das
+ * listagens, indexado por caminho, query string, Accept e codificação negociada.
+ * <p>
+ * Cada entrada guarda a ETag da coleção ({@link br.com.fiap.dao.VersaoColecao})
+ * com que a resposta foi gerada. Toda escrita feita pelos BOs incrementa essa
+ * versão após o commit, então uma entrada só é servida enquanto sua ETag for a
+ * atual: a requisição é respondida com os bytes guardados, sem consulta,
+ * serialização nem compressão. Entradas de versões anteriores são descartadas
+ * ao serem encontradas ou saem pelo limite de tamanho (LRU).
+ */
+public final class CacheRespostas {
+    private static final CacheRespostas INSTANCE = new CacheRespostas(
+            ApplicationProperties.getInt("http.cache-respostas.max-entradas", 256),
+            ApplicationProperties.getLong("http.cache-respostas.max-bytes", 33554432L));
+
+    private static final String SEM_CODIFICACAO = "identity";
+
+    private final int maxEntradas;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entrada> entradas = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    CacheRespostas(int maxEntradas, long maxBytes) {
+        this.maxEntradas = maxEntradas;
+        this.maxBytes = maxBytes;
+    }
+
+    public static CacheRespostas getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isEnabled() {
+        return maxEntradas > 0 && maxBytes > 0;
+    }
+
+    /**
+     * Procura a resposta da requisição atual gerada com a ETag informada.
+     *
+     * @return Resposta 200 pronta com o corpo guardado, ou null se não houver entrada válida.
+     */
+    Response responder(HttpHeaders httpHeaders, UriInfo uriInfo, EntityTag etag, Date ultimaAlteracao) {
+        if (!isEnabled()) {
+            return null;
+        }
+        Entrada entrada = buscar(chave(httpHeaders, uriInfo), etag);
+        if (entrada == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        Response.ResponseBuilder resposta = Response.ok(entrada.corpo, MediaType.APPLICATION_JSON_TYPE)
+                .tag(etag)
+                .lastModified(ultimaAlteracao);
+        if (entrada.codificacao != null) {
+            resposta.header(HttpHeaders.CONTENT_ENCODING, entrada.codificacao);
+        }
+        return resposta.build();
+    }
+
+    /**
+     * Guarda o corpo enviado na resposta à requisição atual.
+     *
+     * @param codificacao Content-Encoding do corpo, ou null se não foi comprimido.
+     */
+    void guardar(HttpHeaders httpHeaders, UriInfo uriInfo, EntityTag etag, String codificacao, byte[] corpo) {
+        if (!isEnabled() || corpo.length > maxBytes) {
+            return;
+        }
+        String chave = chave(httpHeaders, uriInfo);
+        synchronized (this) {
+            Entrada anterior = entradas.put(chave, new Entrada(etag, codificacao, corpo));
+            if (anterior != null) {
+                bytes -= anterior.corpo.length;
+            }
+            bytes += corpo.length;
+            Iterator<Map.Entry<String, Entrada>> it = entradas.entrySet().iterator();
+            while (entradas.size() > maxEntradas || bytes > maxBytes) {
+                bytes -= it.next().getValue().corpo.length;
+                it.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private synchronized Entrada buscar(String chave, EntityTag etag) {
+        Entrada entrada = entradas.get(chave);
+        if (entrada == null) {
+            return null;
+        }
+        if (!entrada.etag.equals(etag)) {
+            // A coleção mudou desde que a resposta foi gerada
+            entradas.remove(chave);
+            bytes -= entrada.corpo.length;
+            return null;
+        }
+        return entrada;
+    }
+
+    // A codificação entra na chave já negociada, e não o Accept-Encoding bruto, para
+    // que variações do cabeçalho que resultam na mesma codificação compartilhem a entrada
+    private static String chave(HttpHeaders httpHeaders, UriInfo uriInfo) {
+        RespostasComprimidas.Codificacao codificacao = RespostasComprimidas.getInstance().isEnabled()
+                ? RespostasComprimidas.negociar(httpHeaders.getHeaderString(HttpHeaders.ACCEPT_ENCODING))
+                : null;
+        String query = uriInfo.getRequestUri().getRawQuery();
+        String accept = httpHeaders.getHeaderString(HttpHeaders.ACCEPT);
+        return uriInfo.getRequestUri().getRawPath() + (query != null ? "?" + query : "")
+                + "|" + (accept != null ? accept : "")
+                + "|" + (codificacao != null ? codificacao.getNome() : SEM_CODIFICACAO);
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public synchronized int size() {
+        return entradas.size();
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    private static final class Entrada {
+        private final EntityTag etag;
+        private final String codificacao;
+        private final byte[] corpo;
+
+        private Entrada(EntityTag etag, String codificacao, byte[] corpo) {
+            this.etag = etag;
+            this.codificacao = codificacao;
+            this.corpo = corpo;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package br.com.fiap.resource;
+
+import jakarta.annotation.Priority;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.core.UriInfo;
+import jakarta.ws.rs.ext.Provider;
+import jakarta.ws.rs.ext.WriterInterceptor;
+import jakarta.ws.rs.ext.WriterInterceptorContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Comprime as respostas dos métodos anotados com {@link Comprimir} na codificação
+ * negociada pelo Accept-Encoding.
+ * <p>
+ * Respostas em streaming são comprimidas à medida que são escritas. As demais são
+ * serializadas em memória primeiro: abaixo de {@code http.compressao.limite-bytes}
+ * seguem sem compressão, pois o ganho não paga a CPU; acima, são comprimidas. Se o
+ * método pedir cache e a resposta tiver ETag, o corpo enviado é guardado em
+ * {@link CacheRespostas}.
+ */
+@Provider
+@Comprimir
+@Priority(Priorities.ENTITY_CODER)
+public class CompressaoInterceptor implements WriterInterceptor {
+
+    @Context
+    private HttpHeaders httpHeaders;
+
+    @Context
+    private UriInfo uriInfo;
+
+    @Context
+    private ResourceInfo resourceInfo;
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext contexto) throws IOException {
+        RespostasComprimidas respostas = RespostasComprimidas.getInstance();
+        MultivaluedMap<String, Object> cabecalhos = contexto.getHeaders();
+        cabecalhos.putSingle(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        // Corpos em byte[] vêm prontos do cache, já na codificação negociada
+        if (contexto.getEntity() instanceof byte[]) {
+            contexto.proceed();
+            return;
+        }
+        RespostasComprimidas.Codificacao codificacao = respostas.isEnabled()
+                ? RespostasComprimidas.negociar(httpHeaders.getHeaderString(HttpHeaders.ACCEPT_ENCODING))
+                : null;
+
+        OutputStream saida = contexto.getOutputStream();
+        if (contexto.getEntity() instanceof StreamingOutput) {
+            if (codificacao == null) {
+                contexto.proceed();
+                return;
+            }
+            cabecalhos.putSingle(HttpHeaders.CONTENT_ENCODING, codificacao.getNome());
+            try (OutputStream comprimida = respostas.abrir(saida, codificacao)) {
+                contexto.setOutputStream(comprimida);
+                contexto.proceed();
+            } finally {
+                contexto.setOutputStream(saida);
+            }
+            return;
+        }
+
+        Object etag = cabecalhos.getFirst(HttpHeaders.ETAG);
+        Comprimir comprimir = resourceInfo.getResourceMethod() != null
+                ? resourceInfo.getResourceMethod().getAnnotation(Comprimir.class)
+                : null;
+        boolean guardar = etag instanceof EntityTag && comprimir != null && comprimir.cache()
+                && CacheRespostas.getInstance().isEnabled();
+        if (codificacao == null && !guardar) {
+            contexto.proceed();
+            return;
+        }
+
+        ByteArrayOutputStream serializado = new ByteArrayOutputStream();
+        contexto.setOutputStream(serializado);
+        try {
+            contexto.proceed();
+        } finally {
+            contexto.setOutputStream(saida);
+        }
+        byte[] corpo = serializado.toByteArray();
+        String codificacaoUsada = null;
+        if (codificacao != null && corpo.length < respostas.getLimiteBytes()) {
+            respostas.registrarAbaixoDoLimite();
+        } else if (codificacao != null) {
+            corpo = respostas.comprimir(corpo, codificacao);
+            codificacaoUsada = codificacao.getNome();
+            cabecalhos.putSingle(HttpHeaders.CONTENT_ENCODING, codificacaoUsada);
+        }
+        if (guardar) {
+            CacheRespostas.getInstance().guardar(httpHeaders, uriInfo, (EntityTag) etag, codificacaoUsada, corpo);
+        }
+        saida.write(corpo);
+    }
+}
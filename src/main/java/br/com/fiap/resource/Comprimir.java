@@ -0,0 +1,25 @@
+package br.com.fiap.resource;
+
+import jakarta.ws.rs.NameBinding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca os métodos cujas respostas são comprimidas conforme o Accept-Encoding
+ * da requisição ({@link CompressaoInterceptor}).
+ */
+@NameBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface Comprimir {
+
+    /**
+     * Guarda o corpo enviado nas respostas com ETag, comprimido ou não, em
+     * {@link CacheRespostas}, para atender as próximas requisições equivalentes
+     * enquanto a ETag for a atual.
+     */
+    boolean cache() default false;
+}
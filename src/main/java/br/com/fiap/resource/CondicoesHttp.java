@@ -0,0 +1,111 @@
+package br.com.fiap.resource;
+
+import br.com.fiap.dao.VersaoColecao;
+import br.com.fiap.exception.VersaoDesatualizadaException;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Date;
+
+/**
+ * ETags e Last-Modified das respostas e avaliação de GETs condicionais e de If-Match.
+ * <p>
+ * Listagens usam a versão da coleção ({@link VersaoColecao}), lida antes da consulta:
+ * se uma escrita for confirmada durante a consulta, a resposta sai com a versão
+ * anterior e a próxima requisição condicional simplesmente a busca de novo. A ETag
+ * da coleção é fraca, pois a mesma versão atende parâmetros e codificações diferentes.
+ * <p>
+ * Registros usam a coluna VERSAO como ETag forte, e If-Match é comparado com ela
+ * pelo próprio UPDATE, sem leitura prévia.
+ */
+final class CondicoesHttp {
+
+    private CondicoesHttp() {
+    }
+
+    /**
+     * Avalia If-None-Match e If-Modified-Since contra a versão atual da coleção.
+     *
+     * @return Resposta 304 pronta, ou null se a coleção precisa ser consultada.
+     */
+    static Response naoModificada(Request request, VersaoColecao colecao) {
+        Response.ResponseBuilder naoModificada = request.evaluatePreconditions(ultimaAlteracao(colecao), etag(colecao));
+        return naoModificada != null ? naoModificada.build() : null;
+    }
+
+    /**
+     * Avalia If-None-Match e If-Modified-Since contra a versão do registro.
+     *
+     * @return Resposta 304 pronta, ou null se o registro precisa ser enviado.
+     */
+    static Response naoModificada(Request request, Long versao, LocalDateTime atualizadoEm) {
+        if (versao == null) {
+            return null;
+        }
+        Response.ResponseBuilder naoModificada = atualizadoEm != null
+                ? request.evaluatePreconditions(Timestamp.valueOf(atualizadoEm), etag(versao))
+                : request.evaluatePreconditions(etag(versao));
+        return naoModificada != null ? naoModificada.build() : null;
+    }
+
+    /**
+     * Resposta 200 com a entidade e os validadores da coleção, capturados antes da consulta.
+     */
+    static Response ok(Object entidade, EntityTag etag, Date ultimaAlteracao) {
+        return Response.ok(JsonStreamingProvider.tipada(entidade)).tag(etag).lastModified(ultimaAlteracao).build();
+    }
+
+    /**
+     * Resposta 200 com a entidade e os validadores do registro.
+     */
+    static Response ok(Object entidade, Long versao, LocalDateTime atualizadoEm) {
+        Response.ResponseBuilder resposta = Response.ok(JsonStreamingProvider.tipada(entidade));
+        if (versao != null) {
+            resposta.tag(etag(versao));
+        }
+        if (atualizadoEm != null) {
+            resposta.lastModified(Timestamp.valueOf(atualizadoEm));
+        }
+        return resposta.build();
+    }
+
+    static EntityTag etag(VersaoColecao colecao) {
+        return new EntityTag(colecao.getEtag(), true);
+    }
+
+    static Date ultimaAlteracao(VersaoColecao colecao) {
+        return new Date(colecao.getAlteradaEm());
+    }
+
+    static EntityTag etag(long versao) {
+        return new EntityTag(Long.toString(versao));
+    }
+
+    /**
+     * Interpreta o cabeçalho If-Match de uma atualização.
+     *
+     * @param ifMatch Valor do cabeçalho.
+     * @return Versão esperada, ou null se o cabeçalho estiver ausente ou for "*".
+     * @throws VersaoDesatualizadaException Se nenhuma das ETags informadas for uma versão de registro.
+     */
+    static Long versaoEsperada(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().isEmpty() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        // Versões são comparadas de forma forte: ETags fracas (W/) nunca correspondem.
+        for (String etag : ifMatch.split(",")) {
+            String valor = etag.trim();
+            if (valor.length() > 2 && valor.startsWith("\"") && valor.endsWith("\"")) {
+                try {
+                    return Long.parseLong(valor.substring(1, valor.length() - 1));
+                } catch (NumberFormatException e) {
+                    // Não é uma versão de registro; tenta a próxima ETag.
+                }
+            }
+        }
+        throw new VersaoDesatualizadaException("If-Match não corresponde à versão atual do registro.");
+    }
+}
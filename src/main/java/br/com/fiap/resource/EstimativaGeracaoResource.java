@@ -1,15 +1,24 @@
 package br.com.fiap.resource;
 
 import br.com.fiap.bo.EstimativaGeracaoBO;
+import br.com.fiap.bo.RecalculoEstimativasJob;
+import br.com.fiap.dao.VersaoColecao;
+import br.com.fiap.to.EstatisticaEstimativaTO;
 import br.com.fiap.to.EstimativaGeracaoTO;
 import br.com.fiap.exception.InvalidEstimativaGeracaoException;
 import br.com.fiap.exception.EstimativaGeracaoNotFoundException;
+import br.com.fiap.exception.RecalculoEmAndamentoException;
 
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
 
-import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.logging.Logger;
 
@@ -21,16 +30,37 @@ public class EstimativaGeracaoResource {
 
     @GET
     @Produces(MediaType.APPLICATION_JSON)
-    public Response findAll() {
+    @Comprimir(cache = true)
+    public Response findAll(@QueryParam("after") String after, @QueryParam("limit") Integer limit,
+                            @Context Request request, @Context HttpHeaders httpHeaders, @Context UriInfo uriInfo) {
+        EntityTag etag = CondicoesHttp.etag(VersaoColecao.ESTIMATIVA_GERACAO);
+        Date ultimaAlteracao = CondicoesHttp.ultimaAlteracao(VersaoColecao.ESTIMATIVA_GERACAO);
+        Response naoModificada = CondicoesHttp.naoModificada(request, VersaoColecao.ESTIMATIVA_GERACAO);
+        if (naoModificada != null) {
+            return naoModificada;
+        }
+        Response emCache = CacheRespostas.getInstance().responder(httpHeaders, uriInfo, etag, ultimaAlteracao);
+        if (emCache != null) {
+            return emCache;
+        }
         try {
+            if (after != null || limit != null) {
+                LOGGER.info("Buscando página de estimativas.");
+                return CondicoesHttp.ok(estimativaGeracaoBO.findPage(after, limit), etag, ultimaAlteracao);
+            }
             LOGGER.info("Buscando todas as estimativas.");
             List<EstimativaGeracaoTO> estimativas = estimativaGeracaoBO.findAll();
-            return Response.ok(estimativas).build();
+            return CondicoesHttp.ok(estimativas, etag, ultimaAlteracao);
         } catch (EstimativaGeracaoNotFoundException e) {
             LOGGER.warning("Nenhuma estimativa encontrada: " + e.getMessage());
             return Response.status(Response.Status.NOT_FOUND)
                     .entity("{\"erro\": \"" + e.getMessage() + "\"}")
                     .build();
+        } catch (InvalidEstimativaGeracaoException e) {
+            LOGGER.warning("Parâmetros de paginação inválidos: " + e.getMessage());
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("{\"erro\": \"" + e.getMessage() + "\"}")
+                    .build();
         } catch (Exception e) {
             LOGGER.severe("Erro inesperado ao buscar estimativas: " + e.getMessage());
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
@@ -42,7 +72,7 @@ public class EstimativaGeracaoResource {
     @GET
     @Path("/{idEstimativa}")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response findById(@PathParam("idEstimativa") Long idEstimativa) {
+    public Response findById(@PathParam("idEstimativa") Long idEstimativa, @Context Request request) {
         if (idEstimativa == null) {
             LOGGER.warning("Parâmetro 'idEstimativa' não foi fornecido.");
             return Response.status(Response.Status.BAD_REQUEST)
@@ -51,7 +81,11 @@ public class EstimativaGeracaoResource {
         }
         try {
             EstimativaGeracaoTO estimativa = estimativaGeracaoBO.findById(idEstimativa);
-            return Response.ok(estimativa).build();
+            Response naoModificada = CondicoesHttp.naoModificada(request, estimativa.getVersao(), estimativa.getAtualizadoEm());
+            if (naoModificada != null) {
+                return naoModificada;
+            }
+            return CondicoesHttp.ok(estimativa, estimativa.getVersao(), estimativa.getAtualizadoEm());
         } catch (EstimativaGeracaoNotFoundException | InvalidEstimativaGeracaoException e) {
             LOGGER.warning("Erro ao buscar estimativa por ID: " + e.getMessage());
             return Response.status(Response.Status.BAD_REQUEST)
@@ -65,21 +99,80 @@ public class EstimativaGeracaoResource {
         }
     }
 
+    /**
+     * Média das estimativas da microgrid, com quantidade, soma, mínimo, máximo e
+     * variância, opcionalmente restrita aos meses {@code de}..{@code ate} (AAAA-MM).
+     */
     @GET
     @Path("/{idMicrogrid}/calcular-media")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response calcularMediaPorIdMicrogrid(@PathParam("idMicrogrid") Long idMicrogrid) {
+    public Response calcularMediaPorIdMicrogrid(@PathParam("idMicrogrid") Long idMicrogrid,
+                                                @QueryParam("de") String de,
+                                                @QueryParam("ate") String ate,
+                                                @Context Request request) {
+        // As estatísticas só mudam com as estimativas: valem os validadores da coleção
+        EntityTag etag = CondicoesHttp.etag(VersaoColecao.ESTIMATIVA_GERACAO);
+        Date ultimaAlteracao = CondicoesHttp.ultimaAlteracao(VersaoColecao.ESTIMATIVA_GERACAO);
+        Response naoModificada = CondicoesHttp.naoModificada(request, VersaoColecao.ESTIMATIVA_GERACAO);
+        if (naoModificada != null) {
+            return naoModificada;
+        }
         try {
-            ArrayList<EstimativaGeracaoTO> estimativas = estimativaGeracaoBO.findByMicrogrid(idMicrogrid);
-            double media = estimativaGeracaoBO.calcularMediaDeEstimativas(estimativas);
-            return Response.ok(String.format("{\"media\": %.2f}", media)).build();
+            EstatisticaEstimativaTO estatistica = estimativaGeracaoBO.estatisticas(idMicrogrid, de, ate);
+            return CondicoesHttp.ok(estatistica, etag, ultimaAlteracao);
         } catch (EstimativaGeracaoNotFoundException e) {
             return Response.status(Response.Status.NOT_FOUND).entity("{\"erro\": \"" + e.getMessage() + "\"}").build();
+        } catch (InvalidEstimativaGeracaoException e) {
+            return Response.status(Response.Status.BAD_REQUEST).entity("{\"erro\": \"" + e.getMessage() + "\"}").build();
         } catch (Exception e) {
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity("{\"erro\": \"Erro inesperado: " + e.getMessage() + "\"}")
                     .build();
         }
     }
-}
 
+    @POST
+    @Path("/{idMicrogrid}/reajustar")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response reajustar(@PathParam("idMicrogrid") Long idMicrogrid) {
+        try {
+            LOGGER.info("Reajustando o modelo de previsão da microgrid " + idMicrogrid);
+            return Response.ok(estimativaGeracaoBO.reajustar(idMicrogrid)).build();
+        } catch (EstimativaGeracaoNotFoundException e) {
+            return Response.status(Response.Status.NOT_FOUND).entity("{\"erro\": \"" + e.getMessage() + "\"}").build();
+        } catch (InvalidEstimativaGeracaoException e) {
+            return Response.status(Response.Status.BAD_REQUEST).entity("{\"erro\": \"" + e.getMessage() + "\"}").build();
+        } catch (Exception e) {
+            LOGGER.severe("Erro inesperado ao reajustar estimativas: " + e.getMessage());
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("{\"erro\": \"Erro inesperado: " + e.getMessage() + "\"}")
+                    .build();
+        }
+    }
+
+    @POST
+    @Path("/recalcular")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response recalcular() {
+        try {
+            LOGGER.info("Iniciando recálculo das estimativas de todas as microgrids.");
+            return Response.status(Response.Status.ACCEPTED)
+                    .entity(RecalculoEstimativasJob.getInstance().iniciar())
+                    .build();
+        } catch (RecalculoEmAndamentoException e) {
+            return Response.status(Response.Status.CONFLICT).entity("{\"erro\": \"" + e.getMessage() + "\"}").build();
+        } catch (Exception e) {
+            LOGGER.severe("Erro inesperado ao iniciar o recálculo: " + e.getMessage());
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("{\"erro\": \"Erro inesperado: " + e.getMessage() + "\"}")
+                    .build();
+        }
+    }
+
+    @GET
+    @Path("/recalcular")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response situacaoRecalculo() {
+        return Response.ok(RecalculoEstimativasJob.getInstance().getSituacao()).build();
+    }
+}
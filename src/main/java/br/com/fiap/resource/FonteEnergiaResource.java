@@ -2,12 +2,23 @@ package br.com.fiap.resource;
 
 import br.com.fiap.bo.FonteEnergiaBO;
 import br.com.fiap.to.FonteEnergiaTO;
+import br.com.fiap.to.PaginaTO;
+import br.com.fiap.to.Unidade;
 import br.com.fiap.exception.FonteEnergiaNotFoundException;
 import br.com.fiap.exception.InvalidFonteEnergiaException;
+import br.com.fiap.exception.VersaoDesatualizadaException;
+import br.com.fiap.dao.VersaoColecao;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
 import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
 
 @Path("/fonte-energia")
 public class FonteEnergiaResource {
@@ -16,10 +27,43 @@ public class FonteEnergiaResource {
 
     @GET
     @Produces(MediaType.APPLICATION_JSON)
-    public Response findAll() {
+    @Comprimir(cache = true)
+    public Response findAll(@QueryParam("after") String after, @QueryParam("limit") Integer limit,
+                            @QueryParam("unit") String unit, @Context Request request,
+                            @Context HttpHeaders httpHeaders, @Context UriInfo uriInfo) {
+        EntityTag etag = CondicoesHttp.etag(VersaoColecao.FONTE_ENERGIA);
+        Date ultimaAlteracao = CondicoesHttp.ultimaAlteracao(VersaoColecao.FONTE_ENERGIA);
+        Response naoModificada = CondicoesHttp.naoModificada(request, VersaoColecao.FONTE_ENERGIA);
+        if (naoModificada != null) {
+            return naoModificada;
+        }
+        Response emCache = CacheRespostas.getInstance().responder(httpHeaders, uriInfo, etag, ultimaAlteracao);
+        if (emCache != null) {
+            return emCache;
+        }
+        Unidade unidade;
+        try {
+            unidade = fonteEnergiaBO.unidadeSaida(unit);
+        } catch (InvalidFonteEnergiaException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(e.getMessage())
+                    .build();
+        }
+        if (after != null || limit != null) {
+            try {
+                PaginaTO<FonteEnergiaTO> pagina = fonteEnergiaBO.findPage(after, limit);
+                converter(pagina.getItens(), unidade);
+                return CondicoesHttp.ok(pagina, etag, ultimaAlteracao);
+            } catch (InvalidFonteEnergiaException e) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                        .entity(e.getMessage())
+                        .build();
+            }
+        }
         ArrayList<FonteEnergiaTO> resultado = fonteEnergiaBO.findAll();
         if (resultado != null && !resultado.isEmpty()) {
-            return Response.ok(resultado).build();
+            converter(resultado, unidade);
+            return CondicoesHttp.ok(resultado, etag, ultimaAlteracao);
         } else {
             return Response.status(Response.Status.NOT_FOUND)
                     .entity("Nenhuma fonte de energia encontrada.")
@@ -30,10 +74,19 @@ public class FonteEnergiaResource {
     @GET
     @Path("/{idFonte}")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response findById(@PathParam("idFonte") Long idFonte) {
+    public Response findById(@PathParam("idFonte") Long idFonte, @QueryParam("unit") String unit,
+                             @Context Request request) {
         try {
+            Unidade unidade = fonteEnergiaBO.unidadeSaida(unit);
             FonteEnergiaTO resultado = fonteEnergiaBO.findById(idFonte);
-            return Response.ok(resultado).build();
+            Response naoModificada = CondicoesHttp.naoModificada(request, resultado.getVersao(), resultado.getAtualizadoEm());
+            if (naoModificada != null) {
+                return naoModificada;
+            }
+            if (!unidade.isBase()) {
+                resultado.converterPara(unidade);
+            }
+            return CondicoesHttp.ok(resultado, resultado.getVersao(), resultado.getAtualizadoEm());
         } catch (FonteEnergiaNotFoundException e) {
             return Response.status(Response.Status.NOT_FOUND)
                     .entity(e.getMessage())
@@ -69,16 +122,28 @@ public class FonteEnergiaResource {
     @PUT
     @Path("/{idFonte}")
     @Consumes(MediaType.APPLICATION_JSON)
-    public Response update(FonteEnergiaTO fonteEnergia) {
+    public Response update(FonteEnergiaTO fonteEnergia, @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch) {
         try {
-            boolean atualizado = fonteEnergiaBO.update(fonteEnergia);
+            Long versaoEsperada = CondicoesHttp.versaoEsperada(ifMatch);
+            boolean atualizado = fonteEnergiaBO.update(fonteEnergia, versaoEsperada);
             if (atualizado) {
-                return Response.ok().build();
+                // Só com If-Match a nova versão é conhecida sem reler a fonte
+                return versaoEsperada != null
+                        ? Response.ok().tag(CondicoesHttp.etag(fonteEnergia.getVersao())).build()
+                        : Response.ok().build();
             } else {
                 return Response.status(Response.Status.NOT_FOUND)
                         .entity("Fonte de energia não encontrada para atualização.")
                         .build();
             }
+        } catch (VersaoDesatualizadaException e) {
+            return Response.status(Response.Status.PRECONDITION_FAILED)
+                    .entity(e.getMessage())
+                    .build();
+        } catch (FonteEnergiaNotFoundException e) {
+            return Response.status(Response.Status.NOT_FOUND)
+                    .entity(e.getMessage())
+                    .build();
         } catch (InvalidFonteEnergiaException e) {
             return Response.status(Response.Status.BAD_REQUEST)
                     .entity(e.getMessage())
@@ -113,5 +178,10 @@ public class FonteEnergiaResource {
         }
     }
 
+    // Capacidades são gravadas em kW; converte apenas se outra unidade for pedida
+    private static void converter(List<FonteEnergiaTO> fontes, Unidade unidade) {
+        if (!unidade.isBase()) {
+            fontes.forEach(fonte -> fonte.converterPara(unidade));
+        }
+    }
 }
-
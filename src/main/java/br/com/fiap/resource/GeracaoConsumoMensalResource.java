@@ -1,14 +1,33 @@
 package br.com.fiap.resource;
 
 import br.com.fiap.bo.GeracaoConsumoMensalBO;
+import br.com.fiap.dao.VersaoColecao;
 import br.com.fiap.exception.GeracaoConsumoMensalNotFoundException;
 import br.com.fiap.exception.InvalidGeracaoConsumoMensalException;
+import br.com.fiap.to.AgregadoGeracaoConsumoTO;
 import br.com.fiap.to.GeracaoConsumoMensalTO;
+import br.com.fiap.to.PaginaTO;
+import br.com.fiap.to.ResultadoLoteTO;
+import br.com.fiap.to.SaldoMicrogridTO;
+import br.com.fiap.to.Unidade;
+import br.com.fiap.json.CodecJson;
+import br.com.fiap.json.CodecsJson;
+import jakarta.json.Json;
+import jakarta.json.stream.JsonGenerator;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.core.UriInfo;
 
 import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
 
 @Path("/geracao-consumo")
 public class GeracaoConsumoMensalResource {
@@ -17,23 +36,150 @@ public class GeracaoConsumoMensalResource {
 
     @GET
     @Produces(MediaType.APPLICATION_JSON)
-    public Response findAll() {
+    @Comprimir(cache = true)
+    public Response findAll(@QueryParam("after") String after, @QueryParam("limit") Integer limit,
+                            @QueryParam("stream") boolean stream, @QueryParam("unit") String unit,
+                            @Context Request request, @Context HttpHeaders httpHeaders, @Context UriInfo uriInfo) {
         try {
+            Unidade unidade = geracaoConsumoMensalBO.unidadeSaida(unit);
+            if (stream) {
+                return Response.ok(exportar(unidade), MediaType.APPLICATION_JSON).build();
+            }
+            EntityTag etag = CondicoesHttp.etag(VersaoColecao.GERACAO_CONSUMO);
+            Date ultimaAlteracao = CondicoesHttp.ultimaAlteracao(VersaoColecao.GERACAO_CONSUMO);
+            Response naoModificada = CondicoesHttp.naoModificada(request, VersaoColecao.GERACAO_CONSUMO);
+            if (naoModificada != null) {
+                return naoModificada;
+            }
+            Response emCache = CacheRespostas.getInstance().responder(httpHeaders, uriInfo, etag, ultimaAlteracao);
+            if (emCache != null) {
+                return emCache;
+            }
+            if (after != null || limit != null) {
+                PaginaTO<GeracaoConsumoMensalTO> pagina = geracaoConsumoMensalBO.findPage(after, limit);
+                converter(pagina.getItens(), unidade);
+                return CondicoesHttp.ok(pagina, etag, ultimaAlteracao);
+            }
             ArrayList<GeracaoConsumoMensalTO> resultado = geracaoConsumoMensalBO.findAll();
-            return Response.ok(resultado).build();
+            converter(resultado, unidade);
+            return CondicoesHttp.ok(resultado, etag, ultimaAlteracao);
         } catch (GeracaoConsumoMensalNotFoundException e) {
             return Response.status(Response.Status.NOT_FOUND).entity(e.getMessage()).build();
+        } catch (InvalidGeracaoConsumoMensalException e) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity("Erro inesperado: " + e.getMessage()).build();
+        }
+    }
+
+    /**
+     * Totais de geração, consumo e saldo agrupados por mês, trimestre ou ano,
+     * para uma microgrid, para cada microgrid ou para a frota inteira.
+     */
+    @GET
+    @Path("/agregado")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response agregar(@QueryParam("granularidade") String granularidade,
+                            @QueryParam("idMicrogrid") Long idMicrogrid,
+                            @QueryParam("porMicrogrid") boolean porMicrogrid,
+                            @QueryParam("anoInicial") Integer anoInicial,
+                            @QueryParam("anoFinal") Integer anoFinal,
+                            @QueryParam("unit") String unit) {
+        try {
+            Unidade unidade = geracaoConsumoMensalBO.unidadeSaida(unit);
+            List<AgregadoGeracaoConsumoTO> agregados =
+                    geracaoConsumoMensalBO.agregar(granularidade, idMicrogrid, porMicrogrid, anoInicial, anoFinal);
+            if (!unidade.isBase()) {
+                agregados.forEach(agregado -> agregado.converterPara(unidade));
+            }
+            return Response.ok(agregados).build();
+        } catch (InvalidGeracaoConsumoMensalException e) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity("Erro inesperado: " + e.getMessage()).build();
+        }
+    }
+
+    /**
+     * Recalcula a tabela de resumo usada pelas agregações a partir dos registros,
+     * corrigindo qualquer divergência.
+     */
+    @POST
+    @Path("/agregado/reconstruir")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response reconstruirResumo() {
+        try {
+            int divergentes = geracaoConsumoMensalBO.reconstruirResumo();
+            return Response.ok(Map.of("divergentes", divergentes)).build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity("Erro inesperado: " + e.getMessage()).build();
+        }
+    }
+
+    /**
+     * Saldo (geração menos consumo) de cada microgrid no mês {@code de} ou no
+     * intervalo {@code de}..{@code ate} (AAAA-MM), filtrado por sinal e limiar e
+     * ordenado pelo saldo.
+     */
+    @GET
+    @Path("/saldo")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response saldos(@QueryParam("de") String de,
+                           @QueryParam("ate") String ate,
+                           @QueryParam("sinal") String sinal,
+                           @QueryParam("limiar") Double limiar,
+                           @QueryParam("ordem") String ordem,
+                           @QueryParam("limite") Integer limite,
+                           @QueryParam("unit") String unit) {
+        try {
+            Unidade unidade = geracaoConsumoMensalBO.unidadeSaida(unit);
+            List<SaldoMicrogridTO> saldos = geracaoConsumoMensalBO.saldos(de, ate, sinal, limiar, ordem, limite);
+            if (!unidade.isBase()) {
+                saldos.forEach(saldo -> saldo.converterPara(unidade));
+            }
+            return Response.ok(saldos).build();
+        } catch (InvalidGeracaoConsumoMensalException e) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
         } catch (Exception e) {
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity("Erro inesperado: " + e.getMessage()).build();
         }
     }
 
+    /**
+     * Escreve o array JSON de registros diretamente na resposta, linha a linha,
+     * enquanto o cursor JDBC é percorrido.
+     */
+    private StreamingOutput exportar(Unidade unidade) {
+        CodecJson<GeracaoConsumoMensalTO> codec = CodecsJson.de(GeracaoConsumoMensalTO.class);
+        return output -> {
+            try (JsonGenerator gerador = Json.createGenerator(output)) {
+                gerador.writeStartArray();
+                geracaoConsumoMensalBO.exportar(registro -> {
+                    if (!unidade.isBase()) {
+                        registro.converterPara(unidade);
+                    }
+                    codec.escrever(gerador, registro);
+                });
+                gerador.writeEnd();
+            }
+        };
+    }
+
+    // Valores são gravados em kWh; converte apenas se outra unidade for pedida
+    private static void converter(List<GeracaoConsumoMensalTO> registros, Unidade unidade) {
+        if (!unidade.isBase()) {
+            registros.forEach(registro -> registro.converterPara(unidade));
+        }
+    }
+
     @GET
     @Path("/{idRegistro}/{idMicrogrid}")
     @Produces(MediaType.APPLICATION_JSON)
     public Response findById(@PathParam("idRegistro") Long idRegistro,
-                             @PathParam("idMicrogrid") Long idMicrogrid) {
+                             @PathParam("idMicrogrid") Long idMicrogrid,
+                             @QueryParam("unit") String unit) {
         try {
+            Unidade unidade = geracaoConsumoMensalBO.unidadeSaida(unit);
             // Você pode usar o idMicrogrid para validações adicionais, se necessário
             GeracaoConsumoMensalTO resultado = geracaoConsumoMensalBO.findById(idRegistro);
 
@@ -44,9 +190,14 @@ public class GeracaoConsumoMensalResource {
                         .build();
             }
 
+            if (!unidade.isBase()) {
+                resultado.converterPara(unidade);
+            }
             return Response.ok(resultado).build();
         } catch (GeracaoConsumoMensalNotFoundException e) {
             return Response.status(Response.Status.NOT_FOUND).entity(e.getMessage()).build();
+        } catch (InvalidGeracaoConsumoMensalException e) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
         } catch (Exception e) {
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity("Erro inesperado: " + e.getMessage()).build();
         }
@@ -65,6 +216,21 @@ public class GeracaoConsumoMensalResource {
         }
     }
 
+    @POST
+    @Path("/lote")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response saveLote(List<GeracaoConsumoMensalTO> registros) {
+        try {
+            List<ResultadoLoteTO> resultados = geracaoConsumoMensalBO.saveLote(registros);
+            return Response.ok(resultados).build();
+        } catch (InvalidGeracaoConsumoMensalException e) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity("Erro inesperado: " + e.getMessage()).build();
+        }
+    }
+
     @PUT
     @Path("/{idRegistro}/{idMicrogrid}")
     @Consumes(MediaType.APPLICATION_JSON)
@@ -114,8 +280,10 @@ public class GeracaoConsumoMensalResource {
     @Path("/{idRegistro}/{idMicrogrid}/diferenca")
     @Produces(MediaType.APPLICATION_JSON)
     public Response calcularDiferencaWatts(@PathParam("idRegistro") Long idRegistro,
-                                           @PathParam("idMicrogrid") Long idMicrogrid) {
+                                           @PathParam("idMicrogrid") Long idMicrogrid,
+                                           @QueryParam("unit") String unit) {
         try {
+            Unidade unidade = geracaoConsumoMensalBO.unidadeSaida(unit);
             GeracaoConsumoMensalTO registro = geracaoConsumoMensalBO.findById(idRegistro);
 
             // Valida se o registro pertence ao microgrid especificado
@@ -126,10 +294,15 @@ public class GeracaoConsumoMensalResource {
             }
 
             // Calcula a diferença de watts
+            if (!unidade.isBase()) {
+                registro.converterPara(unidade);
+            }
             double diferenca = registro.calcularDiferencaWatts();
             return Response.ok(String.format("{\"diferencaWatts\": %.2f}", diferenca)).build();
         } catch (GeracaoConsumoMensalNotFoundException e) {
             return Response.status(Response.Status.NOT_FOUND).entity(e.getMessage()).build();
+        } catch (InvalidGeracaoConsumoMensalException e) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
         } catch (Exception e) {
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity("Erro inesperado: " + e.getMessage()).build();
         }
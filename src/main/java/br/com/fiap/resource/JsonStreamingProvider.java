@@ -0,0 +1,235 @@
+package br.com.fiap.resource;
+
+import br.com.fiap.json.CodecJson;
+import br.com.fiap.json.CodecsJson;
+import br.com.fiap.json.ValoresJson;
+import br.com.fiap.to.PaginaTO;
+import jakarta.annotation.Priority;
+import jakarta.json.Json;
+import jakarta.json.JsonException;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.json.stream.JsonGeneratorFactory;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParserFactory;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.GenericEntity;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.MessageBodyReader;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Provider;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Lê e escreve JSON com os codecs gerados em tempo de compilação ({@link CodecsJson})
+ * para os TOs anotados com {@code @JsonStreaming}, para listas desses TOs e para
+ * páginas ({@link PaginaTO}) deles.
+ * <p>
+ * Coleções e páginas só são aceitas quando o tipo dos itens é conhecido e tem codec;
+ * as demais, inclusive as coleções sem tipo genérico, ficam com o provider JSON-B do
+ * Jersey. Entidades montadas com Response.ok(lista) perdem o tipo dos itens e devem
+ * passar por {@link #tipada(Object)} para serem escritas aqui.
+ */
+@Provider
+@Priority(Priorities.USER - 100)
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+public class JsonStreamingProvider implements MessageBodyWriter<Object>, MessageBodyReader<Object> {
+    private static final JsonGeneratorFactory GERADORES = Json.createGeneratorFactory(Collections.emptyMap());
+    private static final JsonParserFactory LEITORES = Json.createParserFactory(Collections.emptyMap());
+
+    /**
+     * Declara o tipo dos itens de uma coleção ou página cujos itens são todos de um
+     * mesmo tipo com codec, para que ela seja escrita por este provider mesmo dentro
+     * de um Response.
+     *
+     * @return A entidade em um {@link GenericEntity} parametrizado, ou a própria entidade.
+     */
+    static Object tipada(Object entidade) {
+        Collection<?> itens = entidade instanceof PaginaTO ? ((PaginaTO<?>) entidade).getItens()
+                : entidade instanceof Collection ? (Collection<?>) entidade
+                : null;
+        if (itens == null || itens.isEmpty()) {
+            return entidade;
+        }
+        Class<?> item = null;
+        for (Object objeto : itens) {
+            if (objeto == null || (item != null && objeto.getClass() != item)) {
+                return entidade;
+            }
+            item = objeto.getClass();
+        }
+        return CodecsJson.suporta(item) ? new GenericEntity<>(entidade, new TipoParametrizado(entidade.getClass(), item))
+                : entidade;
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        if (CodecsJson.suporta(type)) {
+            return true;
+        }
+        if (Collection.class.isAssignableFrom(type) || type == PaginaTO.class) {
+            Class<?> item = tipoItem(genericType);
+            return item != null && CodecsJson.suporta(item);
+        }
+        return false;
+    }
+
+    @Override
+    public void writeTo(Object objeto, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                        MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) {
+        Collection<?> itens = objeto instanceof PaginaTO ? ((PaginaTO<?>) objeto).getItens()
+                : objeto instanceof Collection ? (Collection<?>) objeto
+                : null;
+        CodecJson<?> codecItem = itens != null ? CodecsJson.de(tipoItem(genericType)) : null;
+        // O gerador não é fechado: o fluxo da resposta pertence ao Jersey
+        JsonGenerator gerador = GERADORES.createGenerator(entityStream, StandardCharsets.UTF_8);
+        if (objeto instanceof PaginaTO) {
+            gerador.writeStartObject();
+            if (itens != null) {
+                gerador.writeKey("itens");
+                escreverItens(gerador, itens, codecItem);
+            }
+            String proximoCursor = ((PaginaTO<?>) objeto).getProximoCursor();
+            if (proximoCursor != null) {
+                gerador.write("proximoCursor", proximoCursor);
+            }
+            gerador.writeEnd();
+        } else if (itens != null) {
+            escreverItens(gerador, itens, codecItem);
+        } else {
+            escrever(gerador, objeto);
+        }
+        gerador.flush();
+    }
+
+    @Override
+    public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        if (CodecsJson.suporta(type)) {
+            return true;
+        }
+        Class<?> item = tipoItem(genericType);
+        return item != null && CodecsJson.suporta(item)
+                && Collection.class.isAssignableFrom(type) && type.isAssignableFrom(ArrayList.class);
+    }
+
+    @Override
+    public Object readFrom(Class<Object> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                           MultivaluedMap<String, String> httpHeaders, InputStream entityStream) {
+        JsonParser parser = LEITORES.createParser(entityStream, StandardCharsets.UTF_8);
+        try {
+            if (CodecsJson.suporta(type)) {
+                return lerObjeto(parser, CodecsJson.de(type));
+            }
+            CodecJson<?> codec = CodecsJson.de(tipoItem(genericType));
+            JsonParser.Event evento = parser.next();
+            if (evento != JsonParser.Event.START_ARRAY) {
+                throw ValoresJson.inesperado(evento);
+            }
+            List<Object> itens = new ArrayList<>();
+            while ((evento = parser.next()) != JsonParser.Event.END_ARRAY) {
+                if (evento != JsonParser.Event.START_OBJECT) {
+                    throw ValoresJson.inesperado(evento);
+                }
+                itens.add(codec.ler(parser));
+            }
+            return itens;
+        } catch (JsonException | IllegalArgumentException | NoSuchElementException e) {
+            // Inclui as validações dos setters dos TOs
+            throw new BadRequestException("JSON inválido: " + e.getMessage(), e);
+        }
+    }
+
+    private static Object lerObjeto(JsonParser parser, CodecJson<?> codec) {
+        JsonParser.Event evento = parser.next();
+        if (evento != JsonParser.Event.START_OBJECT) {
+            throw ValoresJson.inesperado(evento);
+        }
+        return codec.ler(parser);
+    }
+
+    /**
+     * Escreve cada item com o codec da própria classe ou, se ela não tiver um, com o do
+     * tipo declarado dos itens.
+     */
+    @SuppressWarnings("unchecked")
+    private static void escreverItens(JsonGenerator gerador, Collection<?> itens, CodecJson<?> codecItem) {
+        gerador.writeStartArray();
+        for (Object item : itens) {
+            if (item == null) {
+                gerador.writeNull();
+            } else if (CodecsJson.suporta(item.getClass())) {
+                escrever(gerador, item);
+            } else {
+                ((CodecJson<Object>) codecItem).escrever(gerador, item);
+            }
+        }
+        gerador.writeEnd();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void escrever(JsonGenerator gerador, Object objeto) {
+        ((CodecJson<Object>) CodecsJson.de(objeto.getClass())).escrever(gerador, objeto);
+    }
+
+    /**
+     * @return Tipo dos itens de uma coleção ou página parametrizada, ou null se o tipo genérico não for conhecido.
+     */
+    private static Class<?> tipoItem(Type genericType) {
+        if (genericType instanceof ParameterizedType) {
+            Type[] argumentos = ((ParameterizedType) genericType).getActualTypeArguments();
+            if (argumentos.length == 1 && argumentos[0] instanceof Class) {
+                return (Class<?>) argumentos[0];
+            }
+            return Object.class;
+        }
+        return null;
+    }
+
+    /**
+     * Tipo genérico de uma coleção ou página com um único argumento, usado por {@link #tipada(Object)}.
+     */
+    private static final class TipoParametrizado implements ParameterizedType {
+        private final Class<?> bruto;
+        private final Class<?> item;
+
+        TipoParametrizado(Class<?> bruto, Class<?> item) {
+            this.bruto = bruto;
+            this.item = item;
+        }
+
+        @Override
+        public Type[] getActualTypeArguments() {
+            return new Type[]{item};
+        }
+
+        @Override
+        public Type getRawType() {
+            return bruto;
+        }
+
+        @Override
+        public Type getOwnerType() {
+            return null;
+        }
+
+        @Override
+        public String toString() {
+            return bruto.getName() + "<" + item.getName() + ">";
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package br.com.fiap.resource;
+
+import br.com.fiap.bo.EstimativaWriteBehind;
+import br.com.fiap.bo.SerieTemporalStore;
+import br.com.fiap.dao.ConnectionFactory;
+import br.com.fiap.dao.ConnectionPool;
+import br.com.fiap.dao.EstatisticasEstimativa;
+import br.com.fiap.dao.MicrogridCache;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Expõe métricas operacionais do serviço (pool de conexões, caches etc.).
+ */
+@Path("/metricas")
+public class MetricasResource {
+
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response metricas() {
+        Map<String, Object> metricas = new LinkedHashMap<>();
+        metricas.put("pool", metricasPool(ConnectionFactory.getInstance().getPool()));
+        metricas.put("cacheMicrogrid", metricasCacheMicrogrid(MicrogridCache.getInstance()));
+        metricas.put("filaEstimativas", metricasFilaEstimativas(EstimativaWriteBehind.getInstance()));
+        metricas.put("seriesEmMemoria", metricasSeries(SerieTemporalStore.getInstance()));
+        metricas.put("estatisticasEstimativas", metricasEstatisticas(EstatisticasEstimativa.getInstance()));
+        metricas.put("compressao", metricasCompressao(RespostasComprimidas.getInstance()));
+        metricas.put("cacheRespostas", metricasCacheRespostas(CacheRespostas.getInstance()));
+        return Response.ok(metricas).build();
+    }
+
+    private Map<String, Object> metricasPool(ConnectionPool pool) {
+        Map<String, Object> conexoes = new LinkedHashMap<>();
+        conexoes.put("maximo", pool.getMaximumSize());
+        conexoes.put("total", pool.getTotalConnections());
+        conexoes.put("ativas", pool.getActiveConnections());
+        conexoes.put("ociosas", pool.getIdleConnections());
+        conexoes.put("aguardando", pool.getThreadsAwaitingConnection());
+        conexoes.put("retiradas", pool.getBorrowCount());
+        conexoes.put("timeouts", pool.getTimeoutCount());
+        conexoes.put("criadas", pool.getCreatedCount());
+        conexoes.put("descartadas", pool.getDestroyedCount());
+        conexoes.put("esperaTotalMs", pool.getTotalWaitMillis());
+
+        long hits = pool.getStatementCacheHits();
+        long misses = pool.getStatementCacheMisses();
+        Map<String, Object> statements = new LinkedHashMap<>();
+        statements.put("tamanhoPorConexao", pool.getStatementCacheSize());
+        statements.put("hits", hits);
+        statements.put("misses", misses);
+        statements.put("evictions", pool.getStatementCacheEvictions());
+        statements.put("taxaAcerto", taxaAcerto(hits, misses));
+        conexoes.put("statementCache", statements);
+        return conexoes;
+    }
+
+    private Map<String, Object> metricasCacheMicrogrid(MicrogridCache cache) {
+        long hits = cache.getHits();
+        long misses = cache.getMisses();
+        Map<String, Object> metricas = new LinkedHashMap<>();
+        metricas.put("habilitado", cache.isEnabled());
+        metricas.put("tamanho", cache.size());
+        metricas.put("hits", hits);
+        metricas.put("misses", misses);
+        metricas.put("evictions", cache.getEvictions());
+        metricas.put("taxaAcerto", taxaAcerto(hits, misses));
+        return metricas;
+    }
+
+    private Map<String, Object> metricasFilaEstimativas(EstimativaWriteBehind fila) {
+        Map<String, Object> metricas = new LinkedHashMap<>();
+        metricas.put("habilitada", fila.isEnabled());
+        metricas.put("capacidade", fila.getCapacidade());
+        metricas.put("profundidade", fila.getProfundidade());
+        metricas.put("atrasoMs", fila.getAtrasoMs());
+        metricas.put("enfileiradas", fila.getEnfileiradas());
+        metricas.put("coalescidas", fila.getCoalescidas());
+        metricas.put("gravadas", fila.getGravadas());
+        metricas.put("removidas", fila.getRemovidas());
+        metricas.put("sincronas", fila.getSincronas());
+        metricas.put("bloqueadas", fila.getBloqueadas());
+        metricas.put("falhas", fila.getFalhas());
+        metricas.put("descartadas", fila.getDescartadas());
+        metricas.put("ultimoFlush", fila.getUltimoFlushMs());
+        return metricas;
+    }
+
+    private Map<String, Object> metricasSeries(SerieTemporalStore series) {
+        Map<String, Object> metricas = new LinkedHashMap<>();
+        metricas.put("carregadas", series.isCarregado());
+        metricas.put("origemCarga", series.getOrigemCarga());
+        metricas.put("microgrids", series.getMicrogrids());
+        metricas.put("meses", series.getMeses());
+        metricas.put("registrosCarregados", series.getRegistrosCarregados());
+        metricas.put("registrosReaplicados", series.getRegistrosReaplicados());
+        metricas.put("microgridsReconciliadas", series.getMicrogridsReconciliadas());
+        metricas.put("duracaoCargaMs", series.getDuracaoCargaMs());
+        metricas.put("atualizacoes", series.getAtualizacoes());
+        metricas.put("maiorIdRegistro", series.getMaiorIdRegistro());
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("habilitado", series.isSnapshotHabilitado());
+        snapshot.put("ultimo", series.getUltimoSnapshotEm());
+        snapshot.put("meses", series.getUltimoSnapshotMeses());
+        snapshot.put("duracaoMs", series.getDuracaoUltimoSnapshotMs());
+        snapshot.put("falhas", series.getFalhasSnapshot());
+        metricas.put("snapshot", snapshot);
+        return metricas;
+    }
+
+    private Map<String, Object> metricasEstatisticas(EstatisticasEstimativa estatisticas) {
+        Map<String, Object> metricas = new LinkedHashMap<>();
+        metricas.put("habilitadas", estatisticas.isHabilitado());
+        metricas.put("microgrids", estatisticas.getMicrogrids());
+        metricas.put("estimativas", estatisticas.getEstimativas());
+        metricas.put("cargas", estatisticas.getCargas());
+        metricas.put("duracaoCargaMs", estatisticas.getDuracaoCargaMs());
+        metricas.put("atualizacoes", estatisticas.getAtualizacoes());
+        metricas.put("recalculos", estatisticas.getRecalculos());
+        metricas.put("falhasReleitura", estatisticas.getFalhasReleitura());
+        return metricas;
+    }
+
+    private Map<String, Object> metricasCompressao(RespostasComprimidas respostas) {
+        long originais = respostas.getBytesOriginais();
+        long comprimidos = respostas.getBytesComprimidos();
+        Map<String, Object> metricas = new LinkedHashMap<>();
+        metricas.put("habilitada", respostas.isEnabled());
+        metricas.put("limiteBytes", respostas.getLimiteBytes());
+        metricas.put("comprimidas", respostas.getComprimidas());
+        metricas.put("abaixoDoLimite", respostas.getAbaixoDoLimite());
+        metricas.put("bytesOriginais", originais);
+        metricas.put("bytesComprimidos", comprimidos);
+        metricas.put("taxaCompressao", originais == 0 ? 0.0 : (double) comprimidos / originais);
+        metricas.put("cpuMs", respostas.getCpuNanos() / 1_000_000.0);
+        return metricas;
+    }
+
+    private Map<String, Object> metricasCacheRespostas(CacheRespostas cache) {
+        long hits = cache.getHits();
+        long misses = cache.getMisses();
+        Map<String, Object> metricas = new LinkedHashMap<>();
+        metricas.put("habilitado", cache.isEnabled());
+        metricas.put("tamanho", cache.size());
+        metricas.put("bytes", cache.getBytes());
+        metricas.put("hits", hits);
+        metricas.put("misses", misses);
+        metricas.put("evictions", cache.getEvictions());
+        metricas.put("taxaAcerto", taxaAcerto(hits, misses));
+        return metricas;
+    }
+
+    private static double taxaAcerto(long hits, long misses) {
+        return hits + misses == 0 ? 0.0 : (double) hits / (hits + misses);
+    }
+}
@@ -3,27 +3,54 @@ package br.com.fiap.resource;
 import br.com.fiap.bo.MicrogridBO;
 import br.com.fiap.exception.MicrogridNotFoundException;
 import br.com.fiap.exception.InvalidMicrogridException;
+import br.com.fiap.exception.VersaoDesatualizadaException;
+import br.com.fiap.dao.VersaoColecao;
 import br.com.fiap.to.MicrogridTO;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
 
 import java.util.ArrayList;
+import java.util.Date;
 
 @Path("/microgrid")
 public class MicrogridResource {
     private final MicrogridBO microgridBO = new MicrogridBO();
     @GET
     @Produces(MediaType.APPLICATION_JSON)
-    public Response findAll() {
+    @Comprimir(cache = true)
+    public Response findAll(@QueryParam("after") String after, @QueryParam("limit") Integer limit,
+                            @Context Request request, @Context HttpHeaders httpHeaders, @Context UriInfo uriInfo) {
         System.out.println("Requisição recebida: GET /microgrid");
+        // Validadores capturados antes da consulta; com a ETag atual, nem consulta
+        EntityTag etag = CondicoesHttp.etag(VersaoColecao.MICROGRID);
+        Date ultimaAlteracao = CondicoesHttp.ultimaAlteracao(VersaoColecao.MICROGRID);
+        Response naoModificada = CondicoesHttp.naoModificada(request, VersaoColecao.MICROGRID);
+        if (naoModificada != null) {
+            return naoModificada;
+        }
+        Response emCache = CacheRespostas.getInstance().responder(httpHeaders, uriInfo, etag, ultimaAlteracao);
+        if (emCache != null) {
+            return emCache;
+        }
         try {
+            if (after != null || limit != null) {
+                return CondicoesHttp.ok(microgridBO.findPage(after, limit), etag, ultimaAlteracao);
+            }
             ArrayList<MicrogridTO> resultado = microgridBO.findAll();
             System.out.println("Microgrids encontradas: " + resultado.size());
-            return Response.ok(resultado).build();
+            return CondicoesHttp.ok(resultado, etag, ultimaAlteracao);
         } catch (MicrogridNotFoundException e) {
             System.err.println("Erro: " + e.getMessage());
             return buildErrorResponse(Response.Status.NOT_FOUND, e.getMessage());
+        } catch (InvalidMicrogridException e) {
+            System.err.println("Erro: " + e.getMessage());
+            return buildErrorResponse(Response.Status.BAD_REQUEST, e.getMessage());
         } catch (Exception e) {
             e.printStackTrace();
             return buildErrorResponse(Response.Status.INTERNAL_SERVER_ERROR, "Erro inesperado: " + e.getMessage());
@@ -33,11 +60,15 @@ public class MicrogridResource {
     @GET
     @Path("/{idMicrogrid}")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response findById(@PathParam("idMicrogrid") Long idMicrogrid) {
+    public Response findById(@PathParam("idMicrogrid") Long idMicrogrid, @Context Request request) {
         System.out.println("Requisição recebida: GET /microgrid/" + idMicrogrid);
         try {
             MicrogridTO resultado = microgridBO.findById(idMicrogrid);
-            return Response.ok(resultado).build();
+            Response naoModificada = CondicoesHttp.naoModificada(request, resultado.getVersao(), resultado.getAtualizadoEm());
+            if (naoModificada != null) {
+                return naoModificada;
+            }
+            return CondicoesHttp.ok(resultado, resultado.getVersao(), resultado.getAtualizadoEm());
         } catch (MicrogridNotFoundException | InvalidMicrogridException e) {
             System.err.println("Erro: " + e.getMessage());
             return buildErrorResponse(Response.Status.NOT_FOUND, e.getMessage());
@@ -68,15 +99,22 @@ public class MicrogridResource {
     @PUT
     @Path("/{idMicrogrid}")
     @Consumes(MediaType.APPLICATION_JSON)
-    public Response update(MicrogridTO microgrid) {
+    public Response update(MicrogridTO microgrid, @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch) {
         System.out.println("Requisição recebida: PUT /microgrid");
         try {
-            boolean atualizado = microgridBO.update(microgrid);
+            Long versaoEsperada = CondicoesHttp.versaoEsperada(ifMatch);
+            boolean atualizado = microgridBO.update(microgrid, versaoEsperada);
             if (atualizado) {
-                return Response.ok().build();
+                // Só com If-Match a nova versão é conhecida sem reler a microgrid
+                return versaoEsperada != null
+                        ? Response.ok().tag(CondicoesHttp.etag(microgrid.getVersao())).build()
+                        : Response.ok().build();
             } else {
                 throw new MicrogridNotFoundException("Microgrid não encontrada para atualização.");
             }
+        } catch (VersaoDesatualizadaException e) {
+            System.err.println("Erro: " + e.getMessage());
+            return buildErrorResponse(Response.Status.PRECONDITION_FAILED, e.getMessage());
         } catch (MicrogridNotFoundException | InvalidMicrogridException e) {
             System.err.println("Erro: " + e.getMessage());
             return buildErrorResponse(Response.Status.NOT_FOUND, e.getMessage());
@@ -0,0 +1,268 @@
+package br.com.fiap.resource;
+
+import br.com.fiap.config.ApplicationProperties;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Negociação de Content-Encoding (gzip ou deflate) e compressão das respostas,
+ * com as métricas de taxa de compressão e CPU gasta. Os corpos já comprimidos
+ * das listagens são guardados em {@link CacheRespostas}.
+ */
+public final class RespostasComprimidas {
+    private static final RespostasComprimidas INSTANCE = new RespostasComprimidas(
+            ApplicationProperties.getBoolean("http.compressao.enabled", true),
+            ApplicationProperties.getInt("http.compressao.limite-bytes", 1024),
+            ApplicationProperties.getInt("http.compressao.nivel", 6));
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final int TAMANHO_BUFFER = 8192;
+
+    private final boolean enabled;
+    private final int limiteBytes;
+    private final int nivel;
+
+    private final AtomicLong comprimidas = new AtomicLong();
+    private final AtomicLong abaixoDoLimite = new AtomicLong();
+    private final AtomicLong bytesOriginais = new AtomicLong();
+    private final AtomicLong bytesComprimidos = new AtomicLong();
+    private final AtomicLong cpuNanos = new AtomicLong();
+
+    /**
+     * Codificações suportadas, em ordem de preferência quando o cliente aceita mais de uma com o mesmo peso.
+     */
+    enum Codificacao {
+        GZIP("gzip") {
+            @Override
+            DeflaterOutputStream abrir(OutputStream saida, int nivel) throws IOException {
+                return new GZIPOutputStream(saida, TAMANHO_BUFFER) {
+                    {
+                        def.setLevel(nivel);
+                    }
+                };
+            }
+        },
+        // "deflate" no HTTP é o formato zlib, o padrão do Deflater
+        DEFLATE("deflate") {
+            @Override
+            DeflaterOutputStream abrir(OutputStream saida, int nivel) {
+                return new DeflaterOutputStream(saida) {
+                    {
+                        def.setLevel(nivel);
+                        buf = new byte[TAMANHO_BUFFER];
+                    }
+                };
+            }
+        };
+
+        private final String nome;
+
+        Codificacao(String nome) {
+            this.nome = nome;
+        }
+
+        public String getNome() {
+            return nome;
+        }
+
+        abstract DeflaterOutputStream abrir(OutputStream saida, int nivel) throws IOException;
+    }
+
+    RespostasComprimidas(boolean enabled, int limiteBytes, int nivel) {
+        this.enabled = enabled;
+        this.limiteBytes = limiteBytes;
+        this.nivel = nivel;
+    }
+
+    public static RespostasComprimidas getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getLimiteBytes() {
+        return limiteBytes;
+    }
+
+    /**
+     * Escolhe a codificação pelo cabeçalho Accept-Encoding, respeitando os pesos (q)
+     * e o curinga "*". Codificações com q=0 nunca são escolhidas.
+     *
+     * @return Codificação escolhida, ou null para enviar sem compressão.
+     */
+    static Codificacao negociar(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.trim().isEmpty()) {
+            return null;
+        }
+        Double[] pesos = new Double[Codificacao.values().length];
+        Double curinga = null;
+        for (String item : acceptEncoding.split(",")) {
+            String[] partes = item.split(";");
+            String nome = partes[0].trim().toLowerCase(Locale.ROOT);
+            double peso = 1.0;
+            for (int i = 1; i < partes.length; i++) {
+                String parametro = partes[i].trim();
+                if (parametro.startsWith("q=") || parametro.startsWith("Q=")) {
+                    try {
+                        peso = Double.parseDouble(parametro.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        peso = 0.0;
+                    }
+                }
+            }
+            if (nome.equals("*")) {
+                curinga = peso;
+            } else if (nome.equals("gzip") || nome.equals("x-gzip")) {
+                pesos[Codificacao.GZIP.ordinal()] = peso;
+            } else if (nome.equals("deflate")) {
+                pesos[Codificacao.DEFLATE.ordinal()] = peso;
+            }
+        }
+        Codificacao escolhida = null;
+        double melhor = 0.0;
+        for (Codificacao codificacao : Codificacao.values()) {
+            Double peso = pesos[codificacao.ordinal()] != null ? pesos[codificacao.ordinal()] : curinga;
+            if (peso != null && peso > melhor) {
+                escolhida = codificacao;
+                melhor = peso;
+            }
+        }
+        return escolhida;
+    }
+
+    /**
+     * Abre um fluxo que comprime o que for escrito nele e o repassa a {@code saida},
+     * que não é fechada. As métricas são registradas no fechamento.
+     */
+    SaidaComprimida abrir(OutputStream saida, Codificacao codificacao) throws IOException {
+        return new SaidaComprimida(saida, codificacao);
+    }
+
+    /**
+     * Comprime um corpo já serializado.
+     */
+    byte[] comprimir(byte[] corpo, Codificacao codificacao) throws IOException {
+        ByteArrayOutputStream comprimido = new ByteArrayOutputStream(Math.max(64, corpo.length / 4));
+        try (SaidaComprimida saida = abrir(comprimido, codificacao)) {
+            saida.write(corpo, 0, corpo.length);
+        }
+        return comprimido.toByteArray();
+    }
+
+    void registrarAbaixoDoLimite() {
+        abaixoDoLimite.incrementAndGet();
+    }
+
+    private static long cpuAtual() {
+        return THREADS.getCurrentThreadCpuTime();
+    }
+
+    // Getters das métricas
+
+    public long getComprimidas() {
+        return comprimidas.get();
+    }
+
+    public long getAbaixoDoLimite() {
+        return abaixoDoLimite.get();
+    }
+
+    public long getBytesOriginais() {
+        return bytesOriginais.get();
+    }
+
+    public long getBytesComprimidos() {
+        return bytesComprimidos.get();
+    }
+
+    public long getCpuNanos() {
+        return cpuNanos.get();
+    }
+
+    /**
+     * Fluxo de compressão que mede os bytes e o tempo de CPU gasto no Deflater.
+     * Fechá-lo conclui a compressão sem fechar a saída de destino.
+     */
+    final class SaidaComprimida extends OutputStream {
+        private final ContadorBytes destino;
+        private final DeflaterOutputStream deflater;
+        private long originais;
+        private long cpu;
+        private boolean fechada;
+
+        private SaidaComprimida(OutputStream saida, Codificacao codificacao) throws IOException {
+            this.destino = new ContadorBytes(saida);
+            this.deflater = codificacao.abrir(destino, nivel);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            long inicio = cpuAtual();
+            deflater.write(b, off, len);
+            cpu += cpuAtual() - inicio;
+            originais += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            deflater.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (fechada) {
+                return;
+            }
+            fechada = true;
+            long inicio = cpuAtual();
+            // Conclui o fluxo e libera o Deflater; a saída de destino só recebe flush
+            deflater.close();
+            cpu += cpuAtual() - inicio;
+            comprimidas.incrementAndGet();
+            bytesOriginais.addAndGet(originais);
+            bytesComprimidos.addAndGet(destino.contados);
+            cpuNanos.addAndGet(cpu);
+        }
+    }
+
+    private static final class ContadorBytes extends FilterOutputStream {
+        private long contados;
+
+        private ContadorBytes(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            contados++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            contados += len;
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package br.com.fiap.to;
+
+/**
+ * Totais de geração e consumo de um período, de uma microgrid ou de toda a frota.
+ * Campos que não fazem parte do agrupamento (microgrid, trimestre, mês) ficam nulos.
+ */
+public class AgregadoGeracaoConsumoTO {
+
+    private Long idMicrogrid;
+    private Integer ano;
+    private Integer trimestre;
+    private Integer mes;
+    private double totalGerado;
+    private double totalConsumido;
+    private double saldo;
+    private long registros;
+
+    public AgregadoGeracaoConsumoTO() {
+    }
+
+    public AgregadoGeracaoConsumoTO(Long idMicrogrid, Integer ano, Integer trimestre, Integer mes,
+                                    double totalGerado, double totalConsumido, long registros) {
+        this.idMicrogrid = idMicrogrid;
+        this.ano = ano;
+        this.trimestre = trimestre;
+        this.mes = mes;
+        this.totalGerado = totalGerado;
+        this.totalConsumido = totalConsumido;
+        this.saldo = totalGerado - totalConsumido;
+        this.registros = registros;
+    }
+
+    // Getters e Setters
+    public Long getIdMicrogrid() {
+        return idMicrogrid;
+    }
+
+    public void setIdMicrogrid(Long idMicrogrid) {
+        this.idMicrogrid = idMicrogrid;
+    }
+
+    public Integer getAno() {
+        return ano;
+    }
+
+    public void setAno(Integer ano) {
+        this.ano = ano;
+    }
+
+    public Integer getTrimestre() {
+        return trimestre;
+    }
+
+    public void setTrimestre(Integer trimestre) {
+        this.trimestre = trimestre;
+    }
+
+    public Integer getMes() {
+        return mes;
+    }
+
+    public void setMes(Integer mes) {
+        this.mes = mes;
+    }
+
+    public double getTotalGerado() {
+        return totalGerado;
+    }
+
+    public void setTotalGerado(double totalGerado) {
+        this.totalGerado = totalGerado;
+    }
+
+    public double getTotalConsumido() {
+        return totalConsumido;
+    }
+
+    public void setTotalConsumido(double totalConsumido) {
+        this.totalConsumido = totalConsumido;
+    }
+
+    /**
+     * @return Total gerado menos total consumido, como em {@link GeracaoConsumoMensalTO#calcularDiferencaWatts()}.
+     */
+    public double getSaldo() {
+        return saldo;
+    }
+
+    public void setSaldo(double saldo) {
+        this.saldo = saldo;
+    }
+
+    public long getRegistros() {
+        return registros;
+    }
+
+    public void setRegistros(long registros) {
+        this.registros = registros;
+    }
+
+    /**
+     * Converte os totais, calculados na unidade base, para a unidade informada.
+     */
+    public void converterPara(Unidade unidade) {
+        this.totalGerado = unidade.daBase(this.totalGerado);
+        this.totalConsumido = unidade.daBase(this.totalConsumido);
+        this.saldo = unidade.daBase(this.saldo);
+    }
+}
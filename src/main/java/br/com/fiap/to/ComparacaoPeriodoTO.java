@@ -0,0 +1,72 @@
+package br.com.fiap.to;
+
+/**
+ * Comparação dos totais de um intervalo com os de um intervalo anterior de
+ * mesmo tamanho. Variações percentuais ficam nulas quando o valor anterior é zero.
+ */
+public class ComparacaoPeriodoTO {
+
+    private TotalPeriodoTO atual;
+    private TotalPeriodoTO anterior;
+    private Double variacaoGerado;
+    private Double variacaoConsumido;
+    private double diferencaSaldo;
+
+    public ComparacaoPeriodoTO() {
+    }
+
+    // Getters e Setters
+    public TotalPeriodoTO getAtual() {
+        return atual;
+    }
+
+    public void setAtual(TotalPeriodoTO atual) {
+        this.atual = atual;
+    }
+
+    public TotalPeriodoTO getAnterior() {
+        return anterior;
+    }
+
+    public void setAnterior(TotalPeriodoTO anterior) {
+        this.anterior = anterior;
+    }
+
+    public Double getVariacaoGerado() {
+        return variacaoGerado;
+    }
+
+    public void setVariacaoGerado(Double variacaoGerado) {
+        this.variacaoGerado = variacaoGerado;
+    }
+
+    public Double getVariacaoConsumido() {
+        return variacaoConsumido;
+    }
+
+    public void setVariacaoConsumido(Double variacaoConsumido) {
+        this.variacaoConsumido = variacaoConsumido;
+    }
+
+    public double getDiferencaSaldo() {
+        return diferencaSaldo;
+    }
+
+    public void setDiferencaSaldo(double diferencaSaldo) {
+        this.diferencaSaldo = diferencaSaldo;
+    }
+
+    /**
+     * Converte os totais dos dois intervalos e a diferença de saldo para a unidade
+     * informada; as variações percentuais não dependem da unidade.
+     */
+    public void converterPara(Unidade unidade) {
+        if (atual != null) {
+            atual.converterPara(unidade);
+        }
+        if (anterior != null) {
+            anterior.converterPara(unidade);
+        }
+        this.diferencaSaldo = unidade.daBase(this.diferencaSaldo);
+    }
+}
@@ -0,0 +1,103 @@
+package br.com.fiap.to;
+
+/**
+ * Estatísticas das estimativas de geração de uma microgrid, em todo o horizonte
+ * ou em um intervalo de meses.
+ */
+public class EstatisticaEstimativaTO {
+
+    private Long idMicrogrid;
+    private String de;
+    private String ate;
+    private long quantidade;
+    private double soma;
+    private double media;
+    private double minimo;
+    private double maximo;
+    private double variancia;
+    private double desvioPadrao;
+
+    public EstatisticaEstimativaTO() {
+    }
+
+    // Getters e Setters
+    public Long getIdMicrogrid() {
+        return idMicrogrid;
+    }
+
+    public void setIdMicrogrid(Long idMicrogrid) {
+        this.idMicrogrid = idMicrogrid;
+    }
+
+    public String getDe() {
+        return de;
+    }
+
+    public void setDe(String de) {
+        this.de = de;
+    }
+
+    public String getAte() {
+        return ate;
+    }
+
+    public void setAte(String ate) {
+        this.ate = ate;
+    }
+
+    public long getQuantidade() {
+        return quantidade;
+    }
+
+    public void setQuantidade(long quantidade) {
+        this.quantidade = quantidade;
+    }
+
+    public double getSoma() {
+        return soma;
+    }
+
+    public void setSoma(double soma) {
+        this.soma = soma;
+    }
+
+    public double getMedia() {
+        return media;
+    }
+
+    public void setMedia(double media) {
+        this.media = media;
+    }
+
+    public double getMinimo() {
+        return minimo;
+    }
+
+    public void setMinimo(double minimo) {
+        this.minimo = minimo;
+    }
+
+    public double getMaximo() {
+        return maximo;
+    }
+
+    public void setMaximo(double maximo) {
+        this.maximo = maximo;
+    }
+
+    public double getVariancia() {
+        return variancia;
+    }
+
+    public void setVariancia(double variancia) {
+        this.variancia = variancia;
+    }
+
+    public double getDesvioPadrao() {
+        return desvioPadrao;
+    }
+
+    public void setDesvioPadrao(double desvioPadrao) {
+        this.desvioPadrao = desvioPadrao;
+    }
+}
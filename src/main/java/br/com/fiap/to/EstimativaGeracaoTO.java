@@ -1,13 +1,17 @@
 package br.com.fiap.to;
 
+import br.com.fiap.json.JsonStreaming;
+
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.Size;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 
 /**
  * Classe que representa uma estimativa de geração de energia.
  */
+@JsonStreaming
 public class EstimativaGeracaoTO {
 
     @NotNull(message = "O ID da estimativa não pode ser nulo.")
@@ -27,6 +31,13 @@ public class EstimativaGeracaoTO {
     @Positive(message = "Os watts estimados devem ser maiores que zero.")
     private double wattsEstimados;
 
+    /**
+     * Versão da linha, incrementada a cada alteração; é a ETag do registro.
+     */
+    private Long versao;
+
+    private LocalDateTime atualizadoEm;
+
     public EstimativaGeracaoTO() {
     }
 
@@ -94,4 +105,20 @@ public class EstimativaGeracaoTO {
         }
         return soma / estimativas.size();
     }
+
+    public Long getVersao() {
+        return versao;
+    }
+
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
+
+    public LocalDateTime getAtualizadoEm() {
+        return atualizadoEm;
+    }
+
+    public void setAtualizadoEm(LocalDateTime atualizadoEm) {
+        this.atualizadoEm = atualizadoEm;
+    }
 }
@@ -1,11 +1,15 @@
 package br.com.fiap.to;
 
+import br.com.fiap.json.JsonStreaming;
+
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.Size;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
+@JsonStreaming
 public class FonteEnergiaTO {
     @NotNull
     private Long idFonte;
@@ -30,6 +34,13 @@ public class FonteEnergiaTO {
     @Size(max = 20)
     private String status = "Operacional";
 
+    /**
+     * Versão da linha, incrementada a cada alteração; é a ETag do registro.
+     */
+    private Long versao;
+
+    private LocalDateTime atualizadoEm;
+
     // Construtor vazio
     public FonteEnergiaTO() {
     }
@@ -101,4 +112,27 @@ public class FonteEnergiaTO {
         this.status = status;
     }
 
-}
\ No newline at end of file
+    /**
+     * Converte a capacidade instalada, gravada na unidade base, para a unidade informada.
+     */
+    public void converterPara(Unidade unidade) {
+        this.capacidadeInstalada = unidade.daBase(this.capacidadeInstalada);
+        this.unidadeCapacidade = unidade.getSimbolo();
+    }
+
+    public Long getVersao() {
+        return versao;
+    }
+
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
+
+    public LocalDateTime getAtualizadoEm() {
+        return atualizadoEm;
+    }
+
+    public void setAtualizadoEm(LocalDateTime atualizadoEm) {
+        this.atualizadoEm = atualizadoEm;
+    }
+}
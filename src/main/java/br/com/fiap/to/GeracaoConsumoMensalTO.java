@@ -1,10 +1,13 @@
 package br.com.fiap.to;
 
+import br.com.fiap.json.JsonStreaming;
+
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.Size;
 
+@JsonStreaming
 public class GeracaoConsumoMensalTO {
 
     @NotNull
@@ -143,6 +146,16 @@ public class GeracaoConsumoMensalTO {
         this.unidadeConsumo = unidadeConsumo;
     }
 
+    /**
+     * Converte geração e consumo, gravados na unidade base, para a unidade informada.
+     */
+    public void converterPara(Unidade unidade) {
+        this.wattsGerados = unidade.daBase(this.wattsGerados);
+        this.unidadeGeracao = unidade.getSimbolo();
+        this.wattsConsumidos = unidade.daBase(this.wattsConsumidos);
+        this.unidadeConsumo = unidade.getSimbolo();
+    }
+
     public double calcularDiferencaWatts() {
         return this.wattsGerados - this.wattsConsumidos;
     }
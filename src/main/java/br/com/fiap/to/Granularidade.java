@@ -0,0 +1,27 @@
+package br.com.fiap.to;
+
+import java.util.Locale;
+
+/**
+ * Período usado para agrupar registros de geração e consumo.
+ */
+public enum Granularidade {
+    MES,
+    TRIMESTRE,
+    ANO;
+
+    /**
+     * @param valor Nome da granularidade, sem diferenciar maiúsculas; nulo ou vazio equivale a MES.
+     * @throws IllegalArgumentException Se o valor não corresponder a nenhuma granularidade.
+     */
+    public static Granularidade of(String valor) {
+        if (valor == null || valor.trim().isEmpty()) {
+            return MES;
+        }
+        try {
+            return valueOf(valor.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Granularidade inválida: " + valor + ". Use mes, trimestre ou ano.");
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package br.com.fiap.to;
 
+import br.com.fiap.json.JsonStreaming;
+
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.PositiveOrZero;
+import java.time.LocalDateTime;
 
+@JsonStreaming
 public class MicrogridTO {
     @NotNull
     private Long idMicrogrid;
@@ -19,6 +23,13 @@ public class MicrogridTO {
     @PositiveOrZero
     private int totalHabitantes;
 
+    /**
+     * Versão da linha, incrementada a cada alteração; é a ETag do registro.
+     */
+    private Long versao;
+
+    private LocalDateTime atualizadoEm;
+
     // Construtor vazio
     public MicrogridTO() {
     }
@@ -72,4 +83,19 @@ public class MicrogridTO {
         this.totalHabitantes = totalHabitantes;
     }
 
+    public Long getVersao() {
+        return versao;
+    }
+
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
+
+    public LocalDateTime getAtualizadoEm() {
+        return atualizadoEm;
+    }
+
+    public void setAtualizadoEm(LocalDateTime atualizadoEm) {
+        this.atualizadoEm = atualizadoEm;
+    }
 }
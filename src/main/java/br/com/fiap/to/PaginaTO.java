@@ -0,0 +1,44 @@
+package br.com.fiap.to;
+
+import java.util.List;
+
+/**
+ * Página de resultados de uma consulta paginada por chave (keyset).
+ *
+ * @param <T> Tipo dos itens da página.
+ */
+public class PaginaTO<T> {
+
+    private List<T> itens;
+
+    private String proximoCursor;
+
+    public PaginaTO() {
+    }
+
+    public PaginaTO(List<T> itens, String proximoCursor) {
+        this.itens = itens;
+        this.proximoCursor = proximoCursor;
+    }
+
+    // Getters e Setters
+    public List<T> getItens() {
+        return itens;
+    }
+
+    public void setItens(List<T> itens) {
+        this.itens = itens;
+    }
+
+    /**
+     * @return Cursor a ser enviado em {@code after} para obter a próxima página,
+     * ou null se esta for a última.
+     */
+    public String getProximoCursor() {
+        return proximoCursor;
+    }
+
+    public void setProximoCursor(String proximoCursor) {
+        this.proximoCursor = proximoCursor;
+    }
+}
@@ -0,0 +1,109 @@
+package br.com.fiap.to;
+
+/**
+ * Um mês da série de geração e consumo, com as médias móveis dos meses
+ * anteriores. As médias ficam nulas quando a janela não tem meses com dados.
+ */
+public class PontoSerieTO {
+
+    private int ano;
+    private int mes;
+    private double gerado;
+    private double consumido;
+    private double saldo;
+    private int registros;
+    private Double mediaGerado;
+    private Double mediaConsumido;
+    private Double mediaSaldo;
+
+    public PontoSerieTO() {
+    }
+
+    // Getters e Setters
+    public int getAno() {
+        return ano;
+    }
+
+    public void setAno(int ano) {
+        this.ano = ano;
+    }
+
+    public int getMes() {
+        return mes;
+    }
+
+    public void setMes(int mes) {
+        this.mes = mes;
+    }
+
+    public double getGerado() {
+        return gerado;
+    }
+
+    public void setGerado(double gerado) {
+        this.gerado = gerado;
+    }
+
+    public double getConsumido() {
+        return consumido;
+    }
+
+    public void setConsumido(double consumido) {
+        this.consumido = consumido;
+    }
+
+    public double getSaldo() {
+        return saldo;
+    }
+
+    public void setSaldo(double saldo) {
+        this.saldo = saldo;
+    }
+
+    public int getRegistros() {
+        return registros;
+    }
+
+    public void setRegistros(int registros) {
+        this.registros = registros;
+    }
+
+    public Double getMediaGerado() {
+        return mediaGerado;
+    }
+
+    public void setMediaGerado(Double mediaGerado) {
+        this.mediaGerado = mediaGerado;
+    }
+
+    public Double getMediaConsumido() {
+        return mediaConsumido;
+    }
+
+    public void setMediaConsumido(Double mediaConsumido) {
+        this.mediaConsumido = mediaConsumido;
+    }
+
+    public Double getMediaSaldo() {
+        return mediaSaldo;
+    }
+
+    public void setMediaSaldo(Double mediaSaldo) {
+        this.mediaSaldo = mediaSaldo;
+    }
+
+    /**
+     * Converte os valores do mês e as médias móveis, calculados na unidade base,
+     * para a unidade informada.
+     */
+    public void converterPara(Unidade unidade) {
+        this.gerado = unidade.daBase(this.gerado);
+        this.consumido = unidade.daBase(this.consumido);
+        this.saldo = unidade.daBase(this.saldo);
+        if (mediaGerado != null) {
+            this.mediaGerado = unidade.daBase(mediaGerado);
+            this.mediaConsumido = unidade.daBase(mediaConsumido);
+            this.mediaSaldo = unidade.daBase(mediaSaldo);
+        }
+    }
+}
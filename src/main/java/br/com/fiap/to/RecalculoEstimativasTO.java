@@ -0,0 +1,143 @@
+package br.com.fiap.to;
+
+/**
+ * Situação do recálculo das estimativas de todas as microgrids.
+ */
+public class RecalculoEstimativasTO {
+
+    public static final String OCIOSO = "OCIOSO";
+    public static final String EXECUTANDO = "EXECUTANDO";
+    public static final String CONCLUIDO = "CONCLUIDO";
+    public static final String FALHOU = "FALHOU";
+
+    private String status;
+    private int paralelismo;
+    private int totalMicrogrids;
+    private int microgridsProcessadas;
+    private int microgridsComFalha;
+    private long estimativasGravadas;
+    private long estimativasRemovidas;
+    private double percentual;
+    private Long iniciadoEm;
+    private Long concluidoEm;
+    private long duracaoMs;
+    private double microgridsPorSegundo;
+    private double estimativasPorSegundo;
+    private String mensagem;
+
+    public RecalculoEstimativasTO() {
+    }
+
+    // Getters e Setters
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public int getParalelismo() {
+        return paralelismo;
+    }
+
+    public void setParalelismo(int paralelismo) {
+        this.paralelismo = paralelismo;
+    }
+
+    public int getTotalMicrogrids() {
+        return totalMicrogrids;
+    }
+
+    public void setTotalMicrogrids(int totalMicrogrids) {
+        this.totalMicrogrids = totalMicrogrids;
+    }
+
+    public int getMicrogridsProcessadas() {
+        return microgridsProcessadas;
+    }
+
+    public void setMicrogridsProcessadas(int microgridsProcessadas) {
+        this.microgridsProcessadas = microgridsProcessadas;
+    }
+
+    public int getMicrogridsComFalha() {
+        return microgridsComFalha;
+    }
+
+    public void setMicrogridsComFalha(int microgridsComFalha) {
+        this.microgridsComFalha = microgridsComFalha;
+    }
+
+    public long getEstimativasGravadas() {
+        return estimativasGravadas;
+    }
+
+    public void setEstimativasGravadas(long estimativasGravadas) {
+        this.estimativasGravadas = estimativasGravadas;
+    }
+
+    public long getEstimativasRemovidas() {
+        return estimativasRemovidas;
+    }
+
+    public void setEstimativasRemovidas(long estimativasRemovidas) {
+        this.estimativasRemovidas = estimativasRemovidas;
+    }
+
+    public double getPercentual() {
+        return percentual;
+    }
+
+    public void setPercentual(double percentual) {
+        this.percentual = percentual;
+    }
+
+    public Long getIniciadoEm() {
+        return iniciadoEm;
+    }
+
+    public void setIniciadoEm(Long iniciadoEm) {
+        this.iniciadoEm = iniciadoEm;
+    }
+
+    public Long getConcluidoEm() {
+        return concluidoEm;
+    }
+
+    public void setConcluidoEm(Long concluidoEm) {
+        this.concluidoEm = concluidoEm;
+    }
+
+    public long getDuracaoMs() {
+        return duracaoMs;
+    }
+
+    public void setDuracaoMs(long duracaoMs) {
+        this.duracaoMs = duracaoMs;
+    }
+
+    public double getMicrogridsPorSegundo() {
+        return microgridsPorSegundo;
+    }
+
+    public void setMicrogridsPorSegundo(double microgridsPorSegundo) {
+        this.microgridsPorSegundo = microgridsPorSegundo;
+    }
+
+    public double getEstimativasPorSegundo() {
+        return estimativasPorSegundo;
+    }
+
+    public void setEstimativasPorSegundo(double estimativasPorSegundo) {
+        this.estimativasPorSegundo = estimativasPorSegundo;
+    }
+
+    public String getMensagem() {
+        return mensagem;
+    }
+
+    public void setMensagem(String mensagem) {
+        this.mensagem = mensagem;
+    }
+}
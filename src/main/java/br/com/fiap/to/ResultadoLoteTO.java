@@ -0,0 +1,78 @@
+package br.com.fiap.to;
+
+/**
+ * Resultado do processamento de uma linha em uma carga em lote.
+ */
+public class ResultadoLoteTO {
+
+    public static final String CRIADO = "CRIADO";
+    public static final String REJEITADO = "REJEITADO";
+
+    private int indice;
+    private Long idMicrogrid;
+    private Integer ano;
+    private Integer mes;
+    private String status;
+    private String mensagem;
+
+    public ResultadoLoteTO() {
+    }
+
+    public ResultadoLoteTO(int indice, Long idMicrogrid, Integer ano, Integer mes, String status, String mensagem) {
+        this.indice = indice;
+        this.idMicrogrid = idMicrogrid;
+        this.ano = ano;
+        this.mes = mes;
+        this.status = status;
+        this.mensagem = mensagem;
+    }
+
+    // Getters e Setters
+    public int getIndice() {
+        return indice;
+    }
+
+    public void setIndice(int indice) {
+        this.indice = indice;
+    }
+
+    public Long getIdMicrogrid() {
+        return idMicrogrid;
+    }
+
+    public void setIdMicrogrid(Long idMicrogrid) {
+        this.idMicrogrid = idMicrogrid;
+    }
+
+    public Integer getAno() {
+        return ano;
+    }
+
+    public void setAno(Integer ano) {
+        this.ano = ano;
+    }
+
+    public Integer getMes() {
+        return mes;
+    }
+
+    public void setMes(Integer mes) {
+        this.mes = mes;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getMensagem() {
+        return mensagem;
+    }
+
+    public void setMensagem(String mensagem) {
+        this.mensagem = mensagem;
+    }
+}
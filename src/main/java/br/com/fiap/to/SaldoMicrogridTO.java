@@ -0,0 +1,74 @@
+package br.com.fiap.to;
+
+/**
+ * Geração, consumo e saldo de uma microgrid em um intervalo de meses.
+ */
+public class SaldoMicrogridTO {
+
+    private Long idMicrogrid;
+    private double totalGerado;
+    private double totalConsumido;
+    private double saldo;
+    private long registros;
+
+    public SaldoMicrogridTO() {
+    }
+
+    public SaldoMicrogridTO(Long idMicrogrid, double totalGerado, double totalConsumido, long registros) {
+        this.idMicrogrid = idMicrogrid;
+        this.totalGerado = totalGerado;
+        this.totalConsumido = totalConsumido;
+        this.saldo = totalGerado - totalConsumido;
+        this.registros = registros;
+    }
+
+    // Getters e Setters
+    public Long getIdMicrogrid() {
+        return idMicrogrid;
+    }
+
+    public void setIdMicrogrid(Long idMicrogrid) {
+        this.idMicrogrid = idMicrogrid;
+    }
+
+    public double getTotalGerado() {
+        return totalGerado;
+    }
+
+    public void setTotalGerado(double totalGerado) {
+        this.totalGerado = totalGerado;
+    }
+
+    public double getTotalConsumido() {
+        return totalConsumido;
+    }
+
+    public void setTotalConsumido(double totalConsumido) {
+        this.totalConsumido = totalConsumido;
+    }
+
+    public double getSaldo() {
+        return saldo;
+    }
+
+    public void setSaldo(double saldo) {
+        this.saldo = saldo;
+    }
+
+    public long getRegistros() {
+        return registros;
+    }
+
+    public void setRegistros(long registros) {
+        this.registros = registros;
+    }
+
+    /**
+     * Converte os totais, calculados na unidade base, para a unidade informada.
+     */
+    public void converterPara(Unidade unidade) {
+        this.totalGerado = unidade.daBase(this.totalGerado);
+        this.totalConsumido = unidade.daBase(this.totalConsumido);
+        this.saldo = unidade.daBase(this.saldo);
+    }
+}
@@ -0,0 +1,53 @@
+package br.com.fiap.to;
+
+import java.util.Arrays;
+
+/**
+ * Série mensal em vetores primitivos: o índice do mês ({@code ano * 12 + mes - 1})
+ * e o valor observado. Pode ser reaproveitada entre leituras para evitar alocações.
+ */
+public class SerieMensalTO {
+    private int[] periodos;
+    private double[] valores;
+    private int tamanho;
+
+    public SerieMensalTO() {
+        this(64);
+    }
+
+    public SerieMensalTO(int capacidadeInicial) {
+        this.periodos = new int[Math.max(capacidadeInicial, 1)];
+        this.valores = new double[periodos.length];
+    }
+
+    public void adicionar(int periodo, double valor) {
+        if (tamanho == periodos.length) {
+            periodos = Arrays.copyOf(periodos, tamanho * 2);
+            valores = Arrays.copyOf(valores, tamanho * 2);
+        }
+        periodos[tamanho] = periodo;
+        valores[tamanho++] = valor;
+    }
+
+    public void limpar() {
+        tamanho = 0;
+    }
+
+    /**
+     * @return Vetor interno de períodos; apenas as primeiras {@link #getTamanho()} posições são válidas.
+     */
+    public int[] getPeriodos() {
+        return periodos;
+    }
+
+    /**
+     * @return Vetor interno de valores; apenas as primeiras {@link #getTamanho()} posições são válidas.
+     */
+    public double[] getValores() {
+        return valores;
+    }
+
+    public int getTamanho() {
+        return tamanho;
+    }
+}
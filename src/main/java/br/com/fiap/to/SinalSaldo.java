@@ -0,0 +1,43 @@
+package br.com.fiap.to;
+
+import java.util.Locale;
+
+/**
+ * Filtro do saldo (geração menos consumo) de uma microgrid.
+ */
+public enum SinalSaldo {
+    DEFICIT,
+    SUPERAVIT,
+    TODOS;
+
+    /**
+     * @param valor Nome do filtro, sem diferenciar maiúsculas; nulo ou vazio equivale a TODOS.
+     * @throws IllegalArgumentException Se o valor não corresponder a nenhum filtro.
+     */
+    public static SinalSaldo of(String valor) {
+        if (valor == null || valor.trim().isEmpty()) {
+            return TODOS;
+        }
+        try {
+            return valueOf(valor.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Sinal inválido: " + valor + ". Use deficit, superavit ou todos.");
+        }
+    }
+
+    /**
+     * @param saldo  Geração menos consumo.
+     * @param limiar Valor absoluto mínimo do saldo.
+     * @return true se o saldo tem o sinal do filtro e atinge o limiar.
+     */
+    public boolean aceita(double saldo, double limiar) {
+        switch (this) {
+            case DEFICIT:
+                return saldo < 0 && -saldo >= limiar;
+            case SUPERAVIT:
+                return saldo > 0 && saldo >= limiar;
+            default:
+                return Math.abs(saldo) >= limiar;
+        }
+    }
+}
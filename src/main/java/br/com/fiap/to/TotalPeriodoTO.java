@@ -0,0 +1,103 @@
+package br.com.fiap.to;
+
+/**
+ * Totais de geração, consumo e saldo de uma microgrid, ou da frota, em um
+ * intervalo de meses ({@code de} e {@code ate} no formato AAAA-MM).
+ */
+public class TotalPeriodoTO {
+
+    private Long idMicrogrid;
+    private String de;
+    private String ate;
+    private int meses;
+    private int mesesComDados;
+    private double totalGerado;
+    private double totalConsumido;
+    private double saldo;
+    private long registros;
+
+    public TotalPeriodoTO() {
+    }
+
+    // Getters e Setters
+    public Long getIdMicrogrid() {
+        return idMicrogrid;
+    }
+
+    public void setIdMicrogrid(Long idMicrogrid) {
+        this.idMicrogrid = idMicrogrid;
+    }
+
+    public String getDe() {
+        return de;
+    }
+
+    public void setDe(String de) {
+        this.de = de;
+    }
+
+    public String getAte() {
+        return ate;
+    }
+
+    public void setAte(String ate) {
+        this.ate = ate;
+    }
+
+    public int getMeses() {
+        return meses;
+    }
+
+    public void setMeses(int meses) {
+        this.meses = meses;
+    }
+
+    public int getMesesComDados() {
+        return mesesComDados;
+    }
+
+    public void setMesesComDados(int mesesComDados) {
+        this.mesesComDados = mesesComDados;
+    }
+
+    public double getTotalGerado() {
+        return totalGerado;
+    }
+
+    public void setTotalGerado(double totalGerado) {
+        this.totalGerado = totalGerado;
+    }
+
+    public double getTotalConsumido() {
+        return totalConsumido;
+    }
+
+    public void setTotalConsumido(double totalConsumido) {
+        this.totalConsumido = totalConsumido;
+    }
+
+    public double getSaldo() {
+        return saldo;
+    }
+
+    public void setSaldo(double saldo) {
+        this.saldo = saldo;
+    }
+
+    public long getRegistros() {
+        return registros;
+    }
+
+    public void setRegistros(long registros) {
+        this.registros = registros;
+    }
+
+    /**
+     * Converte os totais, calculados na unidade base, para a unidade informada.
+     */
+    public void converterPara(Unidade unidade) {
+        this.totalGerado = unidade.daBase(this.totalGerado);
+        this.totalConsumido = unidade.daBase(this.totalConsumido);
+        this.saldo = unidade.daBase(this.saldo);
+    }
+}
@@ -0,0 +1,94 @@
+package br.com.fiap.to;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Unidades de energia e de potência aceitas pela API, com o fator de conversão
+ * para a unidade base da grandeza (kWh para energia, kW para potência).
+ * <p>
+ * Os valores são gravados sempre na unidade base: a conversão acontece uma vez na
+ * entrada e, se pedida com {@code ?unit=}, uma vez na saída, de modo que somas e
+ * agregações nunca precisam olhar para a unidade de cada linha.
+ */
+public enum Unidade {
+    WH("Wh", Grandeza.ENERGIA, 0.001),
+    KWH("kWh", Grandeza.ENERGIA, 1.0),
+    MWH("MWh", Grandeza.ENERGIA, 1000.0),
+    GWH("GWh", Grandeza.ENERGIA, 1000000.0),
+    W("W", Grandeza.POTENCIA, 0.001),
+    KW("kW", Grandeza.POTENCIA, 1.0),
+    MW("MW", Grandeza.POTENCIA, 1000.0),
+    GW("GW", Grandeza.POTENCIA, 1000000.0);
+
+    public enum Grandeza {
+        ENERGIA,
+        POTENCIA
+    }
+
+    private static final Map<String, Unidade> POR_SIMBOLO = new HashMap<>();
+
+    static {
+        for (Unidade unidade : values()) {
+            POR_SIMBOLO.put(unidade.simbolo.toLowerCase(Locale.ROOT), unidade);
+        }
+    }
+
+    private final String simbolo;
+    private final Grandeza grandeza;
+    private final double fator;
+
+    Unidade(String simbolo, Grandeza grandeza, double fator) {
+        this.simbolo = simbolo;
+        this.grandeza = grandeza;
+        this.fator = fator;
+    }
+
+    /**
+     * @param simbolo  Símbolo da unidade, sem diferenciar maiúsculas; nulo ou vazio equivale à unidade base.
+     * @param grandeza Grandeza esperada.
+     * @throws IllegalArgumentException Se o símbolo for desconhecido ou de outra grandeza.
+     */
+    public static Unidade of(String simbolo, Grandeza grandeza) {
+        if (simbolo == null || simbolo.trim().isEmpty()) {
+            return base(grandeza);
+        }
+        Unidade unidade = POR_SIMBOLO.get(simbolo.trim().toLowerCase(Locale.ROOT));
+        if (unidade == null || unidade.grandeza != grandeza) {
+            throw new IllegalArgumentException("Unidade inválida: " + simbolo + ". Use "
+                    + (grandeza == Grandeza.ENERGIA ? "Wh, kWh, MWh ou GWh." : "W, kW, MW ou GW."));
+        }
+        return unidade;
+    }
+
+    public static Unidade base(Grandeza grandeza) {
+        return grandeza == Grandeza.ENERGIA ? KWH : KW;
+    }
+
+    /**
+     * @return O valor, expresso nesta unidade, convertido para a unidade base.
+     */
+    public double paraBase(double valor) {
+        return valor * fator;
+    }
+
+    /**
+     * @return O valor, expresso na unidade base, convertido para esta unidade.
+     */
+    public double daBase(double valor) {
+        return valor / fator;
+    }
+
+    public boolean isBase() {
+        return fator == 1.0;
+    }
+
+    public String getSimbolo() {
+        return simbolo;
+    }
+
+    public Grandeza getGrandeza() {
+        return grandeza;
+    }
+}
@@ -0,0 +1,37 @@
+-- Esquema inicial das tabelas usadas pelos DAOs.
+CREATE TABLE MICROGRID (
+    ID_MICROGRID      NUMBER GENERATED BY DEFAULT AS IDENTITY CONSTRAINT PK_MICROGRID PRIMARY KEY,
+    NOME              VARCHAR2(255) NOT NULL CONSTRAINT UK_MICROGRID_NOME UNIQUE,
+    ENDERECO          VARCHAR2(255),
+    TOTAL_RESIDENCIAS NUMBER(10) DEFAULT 0 NOT NULL,
+    TOTAL_HABITANTES  NUMBER(10) DEFAULT 0 NOT NULL
+);
+
+CREATE TABLE FONTE_ENERGIA (
+    ID_FONTE             NUMBER GENERATED BY DEFAULT AS IDENTITY CONSTRAINT PK_FONTE_ENERGIA PRIMARY KEY,
+    ID_MICROGRID         NUMBER NOT NULL CONSTRAINT FK_FONTE_MICROGRID REFERENCES MICROGRID (ID_MICROGRID),
+    TIPO                 VARCHAR2(50) NOT NULL,
+    CAPACIDADE_INSTALADA NUMBER NOT NULL,
+    UNIDADE_CAPACIDADE   VARCHAR2(10) DEFAULT 'kW' NOT NULL,
+    DATA_INSTALACAO      DATE,
+    STATUS               VARCHAR2(20) DEFAULT 'Operacional' NOT NULL
+);
+
+CREATE TABLE GERACAO_CONSUMO_MENSAL (
+    ID_REGISTRO      NUMBER GENERATED BY DEFAULT AS IDENTITY CONSTRAINT PK_GERACAO_CONSUMO_MENSAL PRIMARY KEY,
+    ID_MICROGRID     NUMBER NOT NULL CONSTRAINT FK_GERACAO_MICROGRID REFERENCES MICROGRID (ID_MICROGRID),
+    ANO              NUMBER(4) NOT NULL,
+    MES              NUMBER(2) NOT NULL,
+    WATTS_GERADOS    NUMBER NOT NULL,
+    UNIDADE_GERACAO  VARCHAR2(10) DEFAULT 'kWh' NOT NULL,
+    WATTS_CONSUMIDOS NUMBER NOT NULL,
+    UNIDADE_CONSUMO  VARCHAR2(10) DEFAULT 'kWh' NOT NULL
+);
+
+CREATE TABLE ESTIMATIVA_GERACAO (
+    ID_ESTIMATIVA   NUMBER GENERATED BY DEFAULT AS IDENTITY CONSTRAINT PK_ESTIMATIVA_GERACAO PRIMARY KEY,
+    ID_MICROGRID    NUMBER NOT NULL CONSTRAINT FK_ESTIMATIVA_MICROGRID REFERENCES MICROGRID (ID_MICROGRID),
+    ANO             NUMBER(4) NOT NULL,
+    MES             NUMBER(2) NOT NULL,
+    WATTS_ESTIMADOS NUMBER NOT NULL
+);
@@ -0,0 +1,9 @@
+-- Coluna com o nome normalizado (sem espaços nas pontas, em minúsculas),
+-- preenchida pela aplicação em cada inserção, e índice único para a busca por nome.
+ALTER TABLE MICROGRID ADD (NOME_NORMALIZADO VARCHAR2(255));
+
+UPDATE MICROGRID SET NOME_NORMALIZADO = LOWER(TRIM(NOME));
+
+ALTER TABLE MICROGRID MODIFY (NOME_NORMALIZADO NOT NULL);
+
+CREATE UNIQUE INDEX UK_MICROGRID_NOME_NORMALIZADO ON MICROGRID (NOME_NORMALIZADO);
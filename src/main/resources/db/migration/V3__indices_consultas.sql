@@ -0,0 +1,19 @@
+-- Índices compostos que atendem os filtros e ordenações dos DAOs.
+
+-- MicrogridDAO.findPage: ORDER BY NOME, ID_MICROGRID com chave (NOME, ID_MICROGRID)
+CREATE INDEX IX_MICROGRID_NOME_ID ON MICROGRID (NOME, ID_MICROGRID);
+
+-- Chave estrangeira de FONTE_ENERGIA (consultas e exclusões por microgrid)
+CREATE INDEX IX_FONTE_ENERGIA_MICROGRID ON FONTE_ENERGIA (ID_MICROGRID);
+
+-- GeracaoConsumoMensalDAO.findAll/findPage/forEach: ORDER BY ANO, MES, ID_REGISTRO
+CREATE INDEX IX_GERACAO_PERIODO ON GERACAO_CONSUMO_MENSAL (ANO, MES, ID_REGISTRO);
+
+-- Histórico de uma microgrid em ordem cronológica
+CREATE INDEX IX_GERACAO_MICROGRID_PERIODO ON GERACAO_CONSUMO_MENSAL (ID_MICROGRID, ANO, MES);
+
+-- EstimativaGeracaoDAO.findByMicrogrid, update e deleteByMicrogridAnoMes
+CREATE INDEX IX_ESTIMATIVA_MICROGRID_PERIODO ON ESTIMATIVA_GERACAO (ID_MICROGRID, ANO, MES);
+
+-- EstimativaGeracaoDAO.findAll/findPage: ORDER BY ANO, MES, ID_ESTIMATIVA
+CREATE INDEX IX_ESTIMATIVA_PERIODO ON ESTIMATIVA_GERACAO (ANO, MES, ID_ESTIMATIVA);
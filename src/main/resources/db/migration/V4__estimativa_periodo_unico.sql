@@ -0,0 +1,15 @@
+-- Uma estimativa por microgrid e período, exigido pelo upsert (MERGE) de EstimativaGeracaoDAO.
+
+-- Remove duplicatas, mantendo a estimativa gravada por último em cada período
+DELETE FROM ESTIMATIVA_GERACAO e
+WHERE EXISTS (
+    SELECT 1 FROM ESTIMATIVA_GERACAO d
+    WHERE d.ID_MICROGRID = e.ID_MICROGRID
+      AND d.ANO = e.ANO
+      AND d.MES = e.MES
+      AND d.ID_ESTIMATIVA > e.ID_ESTIMATIVA
+);
+
+-- O índice único substitui o índice não único criado em V3
+DROP INDEX IX_ESTIMATIVA_MICROGRID_PERIODO;
+CREATE UNIQUE INDEX UK_ESTIMATIVA_MICROGRID_PERIODO ON ESTIMATIVA_GERACAO (ID_MICROGRID, ANO, MES);
@@ -0,0 +1,26 @@
+-- Totais pré-calculados de GERACAO_CONSUMO_MENSAL, mantidos por ResumoGeracaoConsumoDAO
+-- na mesma transação de cada gravação.
+--   ID_MICROGRID = 0: frota inteira (soma de todas as microgrids)
+--   MES = 0: total do ano
+-- São mantidos: microgrid x ano, frota x ano e frota x mês.
+CREATE TABLE GERACAO_CONSUMO_RESUMO (
+    ID_MICROGRID    NUMBER NOT NULL,
+    ANO             NUMBER(4) NOT NULL,
+    MES             NUMBER(2) NOT NULL,
+    TOTAL_GERADO    NUMBER NOT NULL,
+    TOTAL_CONSUMIDO NUMBER NOT NULL,
+    REGISTROS       NUMBER NOT NULL,
+    CONSTRAINT PK_GERACAO_CONSUMO_RESUMO PRIMARY KEY (ID_MICROGRID, ANO, MES)
+);
+
+INSERT INTO GERACAO_CONSUMO_RESUMO (ID_MICROGRID, ANO, MES, TOTAL_GERADO, TOTAL_CONSUMIDO, REGISTROS)
+SELECT ID_MICROGRID, ANO, 0, SUM(WATTS_GERADOS), SUM(WATTS_CONSUMIDOS), COUNT(*)
+FROM GERACAO_CONSUMO_MENSAL GROUP BY ID_MICROGRID, ANO;
+
+INSERT INTO GERACAO_CONSUMO_RESUMO (ID_MICROGRID, ANO, MES, TOTAL_GERADO, TOTAL_CONSUMIDO, REGISTROS)
+SELECT 0, ANO, 0, SUM(WATTS_GERADOS), SUM(WATTS_CONSUMIDOS), COUNT(*)
+FROM GERACAO_CONSUMO_MENSAL GROUP BY ANO;
+
+INSERT INTO GERACAO_CONSUMO_RESUMO (ID_MICROGRID, ANO, MES, TOTAL_GERADO, TOTAL_CONSUMIDO, REGISTROS)
+SELECT 0, ANO, MES, SUM(WATTS_GERADOS), SUM(WATTS_CONSUMIDOS), COUNT(*)
+FROM GERACAO_CONSUMO_MENSAL GROUP BY ANO, MES;
@@ -0,0 +1,35 @@
+-- Valores de energia passam a ser gravados sempre em kWh e capacidades sempre em kW,
+-- convertidos na entrada pela tabela de unidades (br.com.fiap.to.Unidade).
+-- Linhas com unidades desconhecidas são mantidas como estão.
+UPDATE GERACAO_CONSUMO_MENSAL
+SET WATTS_GERADOS = WATTS_GERADOS * CASE LOWER(TRIM(UNIDADE_GERACAO))
+        WHEN 'wh' THEN 0.001 WHEN 'mwh' THEN 1000 WHEN 'gwh' THEN 1000000 ELSE 1 END,
+    UNIDADE_GERACAO = 'kWh'
+WHERE LOWER(TRIM(UNIDADE_GERACAO)) IN ('wh', 'kwh', 'mwh', 'gwh') AND UNIDADE_GERACAO <> 'kWh';
+
+UPDATE GERACAO_CONSUMO_MENSAL
+SET WATTS_CONSUMIDOS = WATTS_CONSUMIDOS * CASE LOWER(TRIM(UNIDADE_CONSUMO))
+        WHEN 'wh' THEN 0.001 WHEN 'mwh' THEN 1000 WHEN 'gwh' THEN 1000000 ELSE 1 END,
+    UNIDADE_CONSUMO = 'kWh'
+WHERE LOWER(TRIM(UNIDADE_CONSUMO)) IN ('wh', 'kwh', 'mwh', 'gwh') AND UNIDADE_CONSUMO <> 'kWh';
+
+UPDATE FONTE_ENERGIA
+SET CAPACIDADE_INSTALADA = CAPACIDADE_INSTALADA * CASE LOWER(TRIM(UNIDADE_CAPACIDADE))
+        WHEN 'w' THEN 0.001 WHEN 'mw' THEN 1000 WHEN 'gw' THEN 1000000 ELSE 1 END,
+    UNIDADE_CAPACIDADE = 'kW'
+WHERE LOWER(TRIM(UNIDADE_CAPACIDADE)) IN ('w', 'kw', 'mw', 'gw') AND UNIDADE_CAPACIDADE <> 'kW';
+
+-- Os totais do resumo foram somados com as unidades originais e são recalculados
+DELETE FROM GERACAO_CONSUMO_RESUMO;
+
+INSERT INTO GERACAO_CONSUMO_RESUMO (ID_MICROGRID, ANO, MES, TOTAL_GERADO, TOTAL_CONSUMIDO, REGISTROS)
+SELECT ID_MICROGRID, ANO, 0, SUM(WATTS_GERADOS), SUM(WATTS_CONSUMIDOS), COUNT(*)
+FROM GERACAO_CONSUMO_MENSAL GROUP BY ID_MICROGRID, ANO;
+
+INSERT INTO GERACAO_CONSUMO_RESUMO (ID_MICROGRID, ANO, MES, TOTAL_GERADO, TOTAL_CONSUMIDO, REGISTROS)
+SELECT 0, ANO, 0, SUM(WATTS_GERADOS), SUM(WATTS_CONSUMIDOS), COUNT(*)
+FROM GERACAO_CONSUMO_MENSAL GROUP BY ANO;
+
+INSERT INTO GERACAO_CONSUMO_RESUMO (ID_MICROGRID, ANO, MES, TOTAL_GERADO, TOTAL_CONSUMIDO, REGISTROS)
+SELECT 0, ANO, MES, SUM(WATTS_GERADOS), SUM(WATTS_CONSUMIDOS), COUNT(*)
+FROM GERACAO_CONSUMO_MENSAL GROUP BY ANO, MES;
@@ -0,0 +1,10 @@
+-- Versão e data da última alteração de cada linha, mantidas pelos DAOs e usadas
+-- como ETag e Last-Modified das respostas. Linhas existentes começam na versão 1.
+ALTER TABLE MICROGRID ADD VERSAO NUMBER DEFAULT 1 NOT NULL;
+ALTER TABLE MICROGRID ADD ATUALIZADO_EM TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL;
+
+ALTER TABLE FONTE_ENERGIA ADD VERSAO NUMBER DEFAULT 1 NOT NULL;
+ALTER TABLE FONTE_ENERGIA ADD ATUALIZADO_EM TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL;
+
+ALTER TABLE ESTIMATIVA_GERACAO ADD VERSAO NUMBER DEFAULT 1 NOT NULL;
+ALTER TABLE ESTIMATIVA_GERACAO ADD ATUALIZADO_EM TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL;
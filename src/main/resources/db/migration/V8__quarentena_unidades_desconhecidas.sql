@@ -0,0 +1,57 @@
+-- A V6 manteve como estavam as linhas com unidades que ela não reconhecia, e essas
+-- linhas eram somadas como se estivessem em kWh ou kW. Elas passam para tabelas de
+-- quarentena, fora das leituras e dos totais, com a unidade original preservada para
+-- correção manual; a inicialização lista as unidades em quarentena.
+CREATE TABLE GERACAO_CONSUMO_QUARENTENA (
+    ID_REGISTRO      NUMBER CONSTRAINT PK_GERACAO_CONSUMO_QUARENTENA PRIMARY KEY,
+    ID_MICROGRID     NUMBER NOT NULL,
+    ANO              NUMBER(4) NOT NULL,
+    MES              NUMBER(2) NOT NULL,
+    WATTS_GERADOS    NUMBER NOT NULL,
+    UNIDADE_GERACAO  VARCHAR2(10) NOT NULL,
+    WATTS_CONSUMIDOS NUMBER NOT NULL,
+    UNIDADE_CONSUMO  VARCHAR2(10) NOT NULL,
+    QUARENTENA_EM    TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL
+);
+
+CREATE TABLE FONTE_ENERGIA_QUARENTENA (
+    ID_FONTE             NUMBER CONSTRAINT PK_FONTE_ENERGIA_QUARENTENA PRIMARY KEY,
+    ID_MICROGRID         NUMBER NOT NULL,
+    TIPO                 VARCHAR2(50) NOT NULL,
+    CAPACIDADE_INSTALADA NUMBER NOT NULL,
+    UNIDADE_CAPACIDADE   VARCHAR2(10) NOT NULL,
+    DATA_INSTALACAO      DATE,
+    STATUS               VARCHAR2(20) NOT NULL,
+    QUARENTENA_EM        TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL
+);
+
+INSERT INTO GERACAO_CONSUMO_QUARENTENA (ID_REGISTRO, ID_MICROGRID, ANO, MES, WATTS_GERADOS, UNIDADE_GERACAO,
+                                        WATTS_CONSUMIDOS, UNIDADE_CONSUMO)
+SELECT ID_REGISTRO, ID_MICROGRID, ANO, MES, WATTS_GERADOS, UNIDADE_GERACAO, WATTS_CONSUMIDOS, UNIDADE_CONSUMO
+FROM GERACAO_CONSUMO_MENSAL
+WHERE UNIDADE_GERACAO <> 'kWh' OR UNIDADE_CONSUMO <> 'kWh';
+
+DELETE FROM GERACAO_CONSUMO_MENSAL WHERE UNIDADE_GERACAO <> 'kWh' OR UNIDADE_CONSUMO <> 'kWh';
+
+INSERT INTO FONTE_ENERGIA_QUARENTENA (ID_FONTE, ID_MICROGRID, TIPO, CAPACIDADE_INSTALADA, UNIDADE_CAPACIDADE,
+                                      DATA_INSTALACAO, STATUS)
+SELECT ID_FONTE, ID_MICROGRID, TIPO, CAPACIDADE_INSTALADA, UNIDADE_CAPACIDADE, DATA_INSTALACAO, STATUS
+FROM FONTE_ENERGIA
+WHERE UNIDADE_CAPACIDADE <> 'kW';
+
+DELETE FROM FONTE_ENERGIA WHERE UNIDADE_CAPACIDADE <> 'kW';
+
+-- Os totais do resumo incluíam as linhas em quarentena e são recalculados
+DELETE FROM GERACAO_CONSUMO_RESUMO;
+
+INSERT INTO GERACAO_CONSUMO_RESUMO (ID_MICROGRID, ANO, MES, TOTAL_GERADO, TOTAL_CONSUMIDO, REGISTROS)
+SELECT ID_MICROGRID, ANO, 0, SUM(WATTS_GERADOS), SUM(WATTS_CONSUMIDOS), COUNT(*)
+FROM GERACAO_CONSUMO_MENSAL GROUP BY ID_MICROGRID, ANO;
+
+INSERT INTO GERACAO_CONSUMO_RESUMO (ID_MICROGRID, ANO, MES, TOTAL_GERADO, TOTAL_CONSUMIDO, REGISTROS)
+SELECT 0, ANO, 0, SUM(WATTS_GERADOS), SUM(WATTS_CONSUMIDOS), COUNT(*)
+FROM GERACAO_CONSUMO_MENSAL GROUP BY ANO;
+
+INSERT INTO GERACAO_CONSUMO_RESUMO (ID_MICROGRID, ANO, MES, TOTAL_GERADO, TOTAL_CONSUMIDO, REGISTROS)
+SELECT 0, ANO, MES, SUM(WATTS_GERADOS), SUM(WATTS_CONSUMIDOS), COUNT(*)
+FROM GERACAO_CONSUMO_MENSAL GROUP BY ANO, MES;
@@ -0,0 +1,205 @@
+package br.com.fiap.bo;
+
+import br.com.fiap.to.EstimativaGeracaoTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EstimativaWriteBehindTest {
+
+    /**
+     * Gravador que registra cada operação como "microgrid/mês=watts" (ou "=removida"), na ordem gravada.
+     */
+    private static class Registro implements EstimativaWriteBehind.Gravador {
+        final List<String> operacoes = Collections.synchronizedList(new ArrayList<>());
+        final List<Long> lotesEm = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void gravar(List<EstimativaGeracaoTO> upserts, List<EstimativaGeracaoTO> remocoes) {
+            lotesEm.add(System.nanoTime());
+            for (EstimativaGeracaoTO e : upserts) {
+                operacoes.add(e.getIdMicrogrid() + "/" + e.getMes() + "=" + e.getWattsEstimados());
+            }
+            for (EstimativaGeracaoTO e : remocoes) {
+                operacoes.add(e.getIdMicrogrid() + "/" + e.getMes() + "=removida");
+            }
+        }
+    }
+
+    private static EstimativaGeracaoTO estimativa(long idMicrogrid, int mes, double watts) {
+        return new EstimativaGeracaoTO(idMicrogrid, 2024, mes, watts);
+    }
+
+    /**
+     * Operações pendentes do mesmo período são substituídas pela mais recente, e o encerramento grava tudo.
+     */
+    @Test
+    public void testCoalescenciaEDrenagemNoEncerramento() {
+        Registro registro = new Registro();
+        EstimativaWriteBehind fila = new EstimativaWriteBehind(true, 100, 50, 60000L, 3, 10L, registro);
+
+        fila.gravar(estimativa(1L, 1, 10));
+        fila.gravar(estimativa(1L, 1, 20));
+        fila.gravar(estimativa(1L, 2, 30));
+        fila.remover(1L, 2024, 2);
+        fila.remover(1L, 2024, 2);
+        fila.gravar(estimativa(2L, 1, 40));
+
+        assertTrue(fila.encerrar(5000L));
+        assertEquals(List.of("1/1=20.0", "2/1=40.0", "1/2=removida"), registro.operacoes);
+        assertEquals(3, fila.getEnfileiradas());
+        assertEquals(3, fila.getCoalescidas());
+        assertEquals(0, fila.getProfundidade());
+
+        // Depois de drenada, a fila não aceita mais operações: o chamador grava de forma síncrona
+        assertFalse(fila.isEnabled());
+        fila.gravar(estimativa(3L, 1, 50));
+        assertEquals(1, fila.getSincronas());
+        assertEquals("3/1=50.0", registro.operacoes.get(3));
+    }
+
+    /**
+     * Com a fila acima do tamanho do lote, uma falha ainda espera o intervalo crescente antes
+     * de cada nova tentativa, em vez de consumir as tentativas em sequência.
+     */
+    @Test
+    public void testEsperaCrescenteAposFalha() {
+        AtomicInteger chamadas = new AtomicInteger();
+        Registro registro = new Registro() {
+            @Override
+            public void gravar(List<EstimativaGeracaoTO> upserts, List<EstimativaGeracaoTO> remocoes) {
+                if (chamadas.incrementAndGet() <= 3) {
+                    lotesEm.add(System.nanoTime());
+                    throw new IllegalStateException("banco indisponível");
+                }
+                super.gravar(upserts, remocoes);
+            }
+        };
+        EstimativaWriteBehind fila = new EstimativaWriteBehind(true, 100, 1, 10L, 5, 100L, registro);
+
+        fila.gravar(estimativa(1L, 1, 10));
+        fila.gravar(estimativa(1L, 2, 20));
+        fila.gravar(estimativa(1L, 3, 30));
+
+        assertTrue(fila.encerrar(10000L));
+        assertEquals(3, fila.getFalhas());
+        assertEquals(0, fila.getDescartadas());
+        assertEquals(3, registro.operacoes.size());
+        assertTrue(registro.operacoes.containsAll(List.of("1/1=10.0", "1/2=20.0", "1/3=30.0")));
+        long primeira = TimeUnit.NANOSECONDS.toMillis(registro.lotesEm.get(1) - registro.lotesEm.get(0));
+        long segunda = TimeUnit.NANOSECONDS.toMillis(registro.lotesEm.get(2) - registro.lotesEm.get(1));
+        long terceira = TimeUnit.NANOSECONDS.toMillis(registro.lotesEm.get(3) - registro.lotesEm.get(2));
+        assertTrue(primeira >= 100, "primeira espera: " + primeira + " ms");
+        assertTrue(segunda >= 200, "segunda espera: " + segunda + " ms");
+        assertTrue(terceira >= 400, "terceira espera: " + terceira + " ms");
+    }
+
+    /**
+     * Uma falha em todas as tentativas descarta a operação, sem repetir além do limite.
+     */
+    @Test
+    public void testDescartaAposEsgotarTentativas() {
+        AtomicInteger chamadas = new AtomicInteger();
+        EstimativaWriteBehind fila = new EstimativaWriteBehind(true, 100, 1, 10L, 3, 10L, (upserts, remocoes) -> {
+            chamadas.incrementAndGet();
+            throw new IllegalStateException("banco indisponível");
+        });
+
+        fila.gravar(estimativa(1L, 1, 10));
+
+        assertTrue(fila.encerrar(5000L));
+        assertEquals(3, chamadas.get());
+        assertEquals(1, fila.getDescartadas());
+    }
+
+    /**
+     * Com a fila cheia, quem enfileira aguarda espaço: a operação não é gravada por fora da fila
+     * enquanto uma mais antiga do mesmo período ainda está em gravação.
+     */
+    @Test
+    public void testFilaCheiaBloqueiaEmVezDeGravarPorFora() throws Exception {
+        CountDownLatch gravando = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        Registro registro = new Registro() {
+            @Override
+            public void gravar(List<EstimativaGeracaoTO> upserts, List<EstimativaGeracaoTO> remocoes) {
+                gravando.countDown();
+                try {
+                    liberar.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.gravar(upserts, remocoes);
+            }
+        };
+        EstimativaWriteBehind fila = new EstimativaWriteBehind(true, 1, 1, 10L, 3, 10L, registro);
+
+        fila.gravar(estimativa(1L, 1, 10));
+        assertTrue(gravando.await(5, TimeUnit.SECONDS));
+        fila.gravar(estimativa(2L, 1, 20));
+        Thread produtor = new Thread(() -> fila.gravar(estimativa(1L, 1, 30)));
+        produtor.start();
+        produtor.join(300);
+
+        assertTrue(produtor.isAlive());
+        assertEquals(0, fila.getSincronas());
+        assertEquals(1, fila.getBloqueadas());
+
+        liberar.countDown();
+        produtor.join(5000);
+        assertFalse(produtor.isAlive());
+        assertTrue(fila.encerrar(5000L));
+        assertEquals(List.of("1/1=10.0", "2/1=20.0", "1/1=30.0"), registro.operacoes);
+    }
+
+    /**
+     * Antes de uma gravação síncrona, aguardar espera o lote em gravação do período
+     * e faz a thread gravar logo as operações ainda pendentes dele.
+     */
+    @Test
+    public void testAguardarEsperaOperacoesPendentesEEmGravacao() throws Exception {
+        CountDownLatch gravando = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        Registro registro = new Registro() {
+            @Override
+            public void gravar(List<EstimativaGeracaoTO> upserts, List<EstimativaGeracaoTO> remocoes) {
+                gravando.countDown();
+                try {
+                    liberar.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.gravar(upserts, remocoes);
+            }
+        };
+        // Lote e intervalo grandes: sem aguardar, a thread só gravaria depois de um minuto
+        EstimativaWriteBehind fila = new EstimativaWriteBehind(true, 100, 10, 60000L, 3, 10L, registro);
+
+        fila.gravar(estimativa(1L, 1, 10));
+        Thread sincrona = new Thread(() -> fila.aguardar(1L, 2024, 1));
+        sincrona.start();
+        assertTrue(gravando.await(5, TimeUnit.SECONDS));
+        fila.gravar(estimativa(2L, 1, 20));
+        sincrona.join(300);
+        assertTrue(sincrona.isAlive());
+
+        liberar.countDown();
+        sincrona.join(5000);
+        assertFalse(sincrona.isAlive());
+        assertEquals(List.of("1/1=10.0"), registro.operacoes);
+
+        fila.aguardar(2L, 2024, 1);
+        assertEquals(List.of("1/1=10.0", "2/1=20.0"), registro.operacoes);
+        fila.aguardar(3L, 2024, 1);
+        assertTrue(fila.encerrar(5000L));
+    }
+}
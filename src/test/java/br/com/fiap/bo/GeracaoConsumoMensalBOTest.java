@@ -0,0 +1,72 @@
+package br.com.fiap.bo;
+
+import br.com.fiap.dao.BancoH2;
+import br.com.fiap.to.GeracaoConsumoMensalTO;
+import br.com.fiap.to.ResultadoLoteTO;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class GeracaoConsumoMensalBOTest {
+
+    @BeforeAll
+    public static void setUp() {
+        BancoH2.iniciar("geracao_consumo_bo");
+        BancoH2.executar("INSERT INTO MICROGRID (ID_MICROGRID, NOME, NOME_NORMALIZADO) VALUES (1, 'Vila Verde', 'vila verde')");
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        // As estimativas são gravadas pela fila em segundo plano; sem esperar, iriam para o banco do próximo teste
+        EstimativaWriteBehind.getInstance().aguardarMicrogrids(Set.of(1L));
+        BancoH2.encerrar();
+    }
+
+    private static GeracaoConsumoMensalTO registro(long idMicrogrid, int ano, int mes, double gerado, double consumido) {
+        GeracaoConsumoMensalTO registro = new GeracaoConsumoMensalTO();
+        registro.setIdMicrogrid(idMicrogrid);
+        registro.setAno(ano);
+        registro.setMes(mes);
+        registro.setWattsGerados(gerado);
+        registro.setWattsConsumidos(consumido);
+        return registro;
+    }
+
+    private static GeracaoConsumoMensalTO comUnidade(GeracaoConsumoMensalTO registro, String unidade) {
+        registro.setUnidadeGeracao(unidade);
+        return registro;
+    }
+
+    /**
+     * Uma microgrid inexistente é recusada na própria linha, sem impedir a gravação das demais.
+     */
+    @Test
+    public void testSaveLoteRecusaMicrogridInexistentePorLinha() {
+        GeracaoConsumoMensalBO bo = new GeracaoConsumoMensalBO();
+
+        List<ResultadoLoteTO> resultados = bo.saveLote(Arrays.asList(
+                registro(1L, 2021, 1, 100, 80),
+                registro(99L, 2021, 2, 100, 80),
+                null,
+                comUnidade(registro(1L, 2021, 4, 100, 80), "xyz"),
+                registro(1L, 2021, 3, 120, 90)));
+
+        assertEquals(5, resultados.size());
+        assertEquals(ResultadoLoteTO.CRIADO, resultados.get(0).getStatus());
+        assertEquals(ResultadoLoteTO.REJEITADO, resultados.get(1).getStatus());
+        assertEquals("Microgrid não encontrada para o ID informado.", resultados.get(1).getMensagem());
+        assertEquals(ResultadoLoteTO.REJEITADO, resultados.get(2).getStatus());
+        assertEquals(ResultadoLoteTO.REJEITADO, resultados.get(3).getStatus());
+        assertEquals(ResultadoLoteTO.CRIADO, resultados.get(4).getStatus());
+        for (int i = 0; i < resultados.size(); i++) {
+            assertEquals(i, resultados.get(i).getIndice());
+        }
+        assertEquals(2, bo.findPage(null, 100).getItens().size());
+    }
+}
@@ -0,0 +1,65 @@
+package br.com.fiap.bo;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HoltWintersTest {
+
+    private final HoltWinters modelo = new HoltWinters(0.5, 0.1, 0.3);
+
+    /**
+     * O estado atualizado observação a observação é o mesmo do ajuste sobre o histórico completo.
+     */
+    @Test
+    public void testIncrementalIgualAoReajuste() {
+        int[] periodos = new int[36];
+        double[] valores = new double[36];
+        HoltWinters.Estado incremental = null;
+        for (int i = 0; i < periodos.length; i++) {
+            periodos[i] = Periodo.indice(2021, 1) + i + (i >= 20 ? 2 : 0); // lacuna de dois meses
+            valores[i] = 1000 + 10 * i + 200 * Math.sin(2 * Math.PI * Periodo.mesDoAno(periodos[i]) / 12);
+            incremental = modelo.atualizar(incremental, periodos[i], valores[i]);
+        }
+
+        HoltWinters.Estado reajuste = modelo.ajustar(periodos, valores, periodos.length);
+
+        assertEquals(reajuste.getNivel(), incremental.getNivel(), 1e-9);
+        assertEquals(reajuste.getTendencia(), incremental.getTendencia(), 1e-9);
+        assertEquals(reajuste.getUltimoPeriodo(), incremental.getUltimoPeriodo());
+        assertEquals(modelo.prever(reajuste, 3), modelo.prever(incremental, 3), 1e-9);
+    }
+
+    /**
+     * Depois de algumas estações, a previsão acompanha o padrão sazonal da série.
+     */
+    @Test
+    public void testPrevisaoSazonal() {
+        HoltWinters.Estado estado = null;
+        int inicio = Periodo.indice(2020, 1);
+        for (int i = 0; i < 60; i++) {
+            double valor = Periodo.mesDoAno(inicio + i) == 6 ? 2000 : 1000;
+            estado = modelo.atualizar(estado, inicio + i, valor);
+        }
+
+        // Último período: dezembro de 2024; julho de 2025 está sete meses à frente
+        double julho = modelo.prever(estado, 7);
+        double agosto = modelo.prever(estado, 8);
+        assertTrue(julho > agosto + 500, "julho=" + julho + ", agosto=" + agosto);
+
+        // Um mês já observado não pode ser aplicado incrementalmente
+        HoltWinters.Estado primeiro = modelo.atualizar(null, inicio, 1);
+        assertThrows(IllegalArgumentException.class, () -> modelo.atualizar(primeiro, inicio, 1));
+    }
+
+    @Test
+    public void testPeriodoViraOAno() {
+        int dezembro = Periodo.indice(2024, 12);
+        assertEquals(2025, Periodo.ano(dezembro + 1));
+        assertEquals(1, Periodo.mes(dezembro + 1));
+        assertEquals(2024, Periodo.ano(dezembro));
+        assertEquals(12, Periodo.mes(dezembro));
+    }
+}
@@ -0,0 +1,122 @@
+package br.com.fiap.bo;
+
+import br.com.fiap.dao.BancoH2;
+import br.com.fiap.dao.ResumoGeracaoConsumoDAO;
+import br.com.fiap.dao.UnitOfWork;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SerieTemporalStoreTest {
+
+    /**
+     * Meses sem registros não entram na média móvel; sem nenhum mês com dados na janela a média é NaN.
+     */
+    @Test
+    public void testMediaMovelIgnoraMesesSemDados() {
+        double[] valores = {10, 20, 0, 0, 0, 40};
+        int[] registros = {1, 1, 0, 0, 0, 2};
+
+        double[] medias = SerieTemporalStore.Janela.mediaMovel(valores, registros, 3);
+
+        assertEquals(10.0, medias[0], 1e-9);
+        assertEquals(15.0, medias[1], 1e-9);
+        assertEquals(15.0, medias[2], 1e-9);
+        assertEquals(20.0, medias[3], 1e-9);
+        assertTrue(Double.isNaN(medias[4]));
+        assertEquals(40.0, medias[5], 1e-9);
+    }
+
+    /**
+     * Os parâmetros AAAA-MM das análises convertem para o índice de {@link Periodo} e de volta.
+     */
+    @Test
+    public void testPeriodoTexto() {
+        assertEquals(Periodo.indice(2024, 12), Periodo.parse("2024-12"));
+        assertEquals("2025-01", Periodo.formatar(Periodo.parse("2024-12") + 1));
+        assertThrows(IllegalArgumentException.class, () -> Periodo.parse("2024-13"));
+        assertThrows(IllegalArgumentException.class, () -> Periodo.parse("24-01"));
+    }
+
+    /**
+     * O snapshot devolve as mesmas séries e o maior ID gravados; um byte alterado invalida o CRC.
+     */
+    @Test
+    public void testSnapshotIdaEVolta(@TempDir Path diretorio) throws Exception {
+        Map<Long, SerieTemporalStore.Serie> series = new HashMap<>();
+        series.put(7L, new SerieTemporalStore.Serie(Periodo.indice(2023, 11),
+                new double[]{100, 0, 300}, new double[]{40, 0, 90}, new int[]{1, 0, 2}));
+        series.put(3L, new SerieTemporalStore.Serie(Periodo.indice(2024, 5),
+                new double[]{12.5}, new double[]{2.5}, new int[]{1}));
+        Path arquivo = diretorio.resolve("series.snapshot");
+
+        assertEquals(3, SerieTemporalSnapshot.gravar(arquivo, series, 4242L));
+        SerieTemporalSnapshot.Conteudo conteudo = SerieTemporalSnapshot.ler(arquivo);
+
+        assertEquals(4242L, conteudo.getMaiorIdRegistro());
+        assertEquals(2, conteudo.getSeries().size());
+        SerieTemporalStore.Serie lida = conteudo.getSeries().get(7L);
+        assertEquals(Periodo.indice(2023, 11), lida.getInicio());
+        assertArrayEquals(new double[]{100, 0, 300}, new double[]{lida.getGerado(0), lida.getGerado(1), lida.getGerado(2)});
+        assertEquals(0, lida.getRegistros(1));
+        assertEquals(2.5, conteudo.getSeries().get(3L).getConsumido(0));
+
+        try (RandomAccessFile alterado = new RandomAccessFile(arquivo.toFile(), "rw")) {
+            alterado.seek(SerieTemporalSnapshot.CABECALHO + 20);
+            alterado.write(0x7F);
+        }
+        assertThrows(IOException.class, () -> SerieTemporalSnapshot.ler(arquivo));
+    }
+
+    /**
+     * Na restauração do snapshot, o resumo confere as séries sem varrer os registros;
+     * uma divergência do resumo só leva à varredura, e apenas a microgrid que diverge
+     * dos registros é relida.
+     */
+    @Test
+    public void testRestauracaoConfereComResumo(@TempDir Path diretorio) {
+        BancoH2.iniciar("serie_temporal_store");
+        try {
+            BancoH2.executar(
+                    "INSERT INTO MICROGRID (ID_MICROGRID, NOME, NOME_NORMALIZADO) VALUES (1, 'Vila Verde', 'vila verde')",
+                    "INSERT INTO MICROGRID (ID_MICROGRID, NOME, NOME_NORMALIZADO) VALUES (2, 'Vila Azul', 'vila azul')",
+                    "INSERT INTO GERACAO_CONSUMO_MENSAL (ID_MICROGRID, ANO, MES, WATTS_GERADOS, WATTS_CONSUMIDOS) VALUES (1, 2024, 1, 100, 40)",
+                    "INSERT INTO GERACAO_CONSUMO_MENSAL (ID_MICROGRID, ANO, MES, WATTS_GERADOS, WATTS_CONSUMIDOS) VALUES (2, 2024, 1, 50, 10)");
+            UnitOfWork.execute(new ResumoGeracaoConsumoDAO()::reconstruir);
+            Path arquivo = diretorio.resolve("series.snapshot");
+            SerieTemporalStore original = new SerieTemporalStore(true, arquivo, 0L);
+            assertEquals(SerieTemporalStore.ORIGEM_BANCO, original.iniciar());
+            original.encerrar();
+
+            SerieTemporalStore semAlteracao = new SerieTemporalStore(true, arquivo, 0L);
+            assertEquals(SerieTemporalStore.ORIGEM_SNAPSHOT, semAlteracao.iniciar());
+            assertEquals(0, semAlteracao.getMicrogridsReconciliadas());
+
+            // Resumo errado com registros intactos: a varredura confirma as séries
+            BancoH2.executar("UPDATE GERACAO_CONSUMO_RESUMO SET TOTAL_GERADO = 999 WHERE ID_MICROGRID = 2 AND MES = 0");
+            SerieTemporalStore resumoDivergente = new SerieTemporalStore(true, arquivo, 0L);
+            assertEquals(SerieTemporalStore.ORIGEM_SNAPSHOT, resumoDivergente.iniciar());
+            assertEquals(0, resumoDivergente.getMicrogridsReconciliadas());
+
+            // Registro alterado depois do snapshot, com o resumo em dia
+            BancoH2.executar("UPDATE GERACAO_CONSUMO_MENSAL SET WATTS_GERADOS = 120 WHERE ID_MICROGRID = 1");
+            UnitOfWork.execute(new ResumoGeracaoConsumoDAO()::reconstruir);
+            SerieTemporalStore alterada = new SerieTemporalStore(true, arquivo, 0L);
+            assertEquals(SerieTemporalStore.ORIGEM_SNAPSHOT, alterada.iniciar());
+            assertEquals(1, alterada.getMicrogridsReconciliadas());
+            assertEquals(2, alterada.getRegistrosCarregados());
+        } finally {
+            BancoH2.encerrar();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package br.com.fiap.dao;
+
+import java.sql.Connection;
+import java.sql.Statement;
+
+/**
+ * Banco H2 em memória, em modo Oracle e com todas as migrações, usado pelos DAOs
+ * dos testes no lugar do banco configurado em application.properties.
+ */
+public final class BancoH2 {
+
+    private BancoH2() {
+    }
+
+    /**
+     * Aponta o {@link ConnectionFactory} para um banco novo e aplica as migrações.
+     *
+     * @param nome Nome do banco em memória, distinto por classe de teste.
+     */
+    public static void iniciar(String nome) {
+        ConnectionFactory.shutdown();
+        System.setProperty("datasource.url", "jdbc:h2:mem:" + nome + ";MODE=Oracle;DB_CLOSE_DELAY=-1");
+        System.setProperty("datasource.username", "sa");
+        System.setProperty("datasource.password", "");
+        System.setProperty("datasource.driver-class-name", "org.h2.Driver");
+        try (Connection connection = ConnectionFactory.getInstance().getConexao()) {
+            new MigrationRunner(connection, 0).migrate();
+        } catch (Exception e) {
+            throw new IllegalStateException("Erro ao preparar o banco de teste: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Executa comandos SQL fora de uma unidade de trabalho, confirmando ao final.
+     */
+    public static void executar(String... comandos) {
+        try (Connection connection = ConnectionFactory.getInstance().getConexao();
+             Statement st = connection.createStatement()) {
+            for (String comando : comandos) {
+                st.execute(comando);
+            }
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Erro ao executar SQL de teste: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Remove o banco e restaura a configuração do arquivo.
+     */
+    public static void encerrar() {
+        executar("DROP ALL OBJECTS");
+        ConnectionFactory.shutdown();
+        System.clearProperty("datasource.url");
+        System.clearProperty("datasource.username");
+        System.clearProperty("datasource.password");
+        System.clearProperty("datasource.driver-class-name");
+    }
+}
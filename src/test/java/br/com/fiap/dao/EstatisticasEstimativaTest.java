@@ -0,0 +1,179 @@
+package br.com.fiap.dao;
+
+import br.com.fiap.to.EstatisticaEstimativaTO;
+import br.com.fiap.to.EstimativaGeracaoTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class EstatisticasEstimativaTest {
+
+    /**
+     * Tabela de estimativas em memória, indexada pela microgrid e pelo período.
+     */
+    private static final class Banco implements EstatisticasEstimativa.Fonte {
+        private final TreeMap<Long, TreeMap<Integer, Double>> valores = new TreeMap<>();
+        private int leituras;
+
+        void gravar(int ano, int mes, double watts) {
+            gravar(1L, ano, mes, watts);
+        }
+
+        void gravar(long idMicrogrid, int ano, int mes, double watts) {
+            valores.computeIfAbsent(idMicrogrid, id -> new TreeMap<>()).put(EstatisticasEstimativa.periodo(ano, mes), watts);
+        }
+
+        void excluir(int ano, int mes) {
+            valores.get(1L).remove(EstatisticasEstimativa.periodo(ano, mes));
+        }
+
+        @Override
+        public synchronized long ler(Collection<Long> idsMicrogrid, Integer de, Integer ate,
+                                     EstimativaGeracaoDAO.LeitorEstimativa leitor) {
+            leituras++;
+            long lidas = 0;
+            for (Map.Entry<Long, TreeMap<Integer, Double>> microgrid : valores.entrySet()) {
+                if (idsMicrogrid != null && !idsMicrogrid.contains(microgrid.getKey())) {
+                    continue;
+                }
+                Map<Integer, Double> intervalo = microgrid.getValue().subMap(de != null ? de : Integer.MIN_VALUE, true,
+                        ate != null ? ate : Integer.MAX_VALUE, true);
+                intervalo.forEach((periodo, watts) -> leitor.ler(microgrid.getKey(), periodo / 12, periodo % 12 + 1, watts));
+                lidas += intervalo.size();
+            }
+            return lidas;
+        }
+    }
+
+    private static EstimativaGeracaoTO estimativa(int mes, double watts) {
+        return new EstimativaGeracaoTO(1L, 2024, mes, watts);
+    }
+
+    /**
+     * Ações pós-commit executadas na ordem inversa dos commits aplicam o valor
+     * confirmado por último, e não o da ação que roda por último.
+     */
+    @Test
+    public void testAcoesForaDaOrdemDosCommits() {
+        Banco banco = new Banco();
+        banco.gravar(2024, 1, 100.0);
+        banco.gravar(2024, 2, 200.0);
+        EstatisticasEstimativa estatisticas = new EstatisticasEstimativa(banco);
+        estatisticas.carregar();
+
+        // Commit 1 grava 300 e o commit 2 grava 500 no mesmo período; as ações rodam invertidas
+        banco.gravar(2024, 2, 300.0);
+        banco.gravar(2024, 2, 500.0);
+        estatisticas.gravar(List.of(estimativa(2, 500.0)));
+        estatisticas.gravar(List.of(estimativa(2, 300.0)));
+
+        EstatisticaEstimativaTO estatistica = estatisticas.consultar(1L, null, null);
+        assertEquals(2, estatistica.getQuantidade());
+        assertEquals(600.0, estatistica.getSoma(), 1e-9);
+        assertEquals(500.0, estatistica.getMaximo(), 1e-9);
+    }
+
+    /**
+     * Uma exclusão cuja ação roda depois da regravação do mesmo período não apaga o valor confirmado.
+     */
+    @Test
+    public void testExclusaoAtrasadaNaoApagaRegravacao() {
+        Banco banco = new Banco();
+        banco.gravar(2024, 1, 100.0);
+        banco.gravar(2024, 2, 200.0);
+        EstatisticasEstimativa estatisticas = new EstatisticasEstimativa(banco);
+        estatisticas.carregar();
+
+        // Commit 1 exclui o período e o commit 2 volta a gravá-lo
+        banco.excluir(2024, 2);
+        banco.gravar(2024, 2, 250.0);
+        estatisticas.gravar(List.of(estimativa(2, 250.0)));
+        estatisticas.remover(1L, 2024, 2);
+
+        EstatisticaEstimativaTO estatistica = estatisticas.consultar(1L, null, null);
+        assertEquals(2, estatistica.getQuantidade());
+        assertEquals(350.0, estatistica.getSoma(), 1e-9);
+    }
+
+    /**
+     * Sem acesso ao banco, a escrita aplica os próprios valores.
+     */
+    @Test
+    public void testFalhaNaReleituraAplicaValoresEscritos() {
+        Banco banco = new Banco();
+        banco.gravar(2024, 1, 100.0);
+        boolean[] indisponivel = {false};
+        EstatisticasEstimativa estatisticas = new EstatisticasEstimativa((idsMicrogrid, de, ate, leitor) -> {
+            if (indisponivel[0]) {
+                throw new IllegalStateException("banco indisponível");
+            }
+            return banco.ler(idsMicrogrid, de, ate, leitor);
+        });
+        estatisticas.carregar();
+
+        indisponivel[0] = true;
+        estatisticas.gravar(List.of(estimativa(3, 50.0)));
+
+        EstatisticaEstimativaTO estatistica = estatisticas.consultar(1L, null, null);
+        assertEquals(2, estatistica.getQuantidade());
+        assertEquals(50.0, estatistica.getMinimo(), 1e-9);
+        assertEquals(1, estatisticas.getFalhasReleitura());
+    }
+
+    /**
+     * Uma escrita que alcança várias microgrids relê todas em uma única consulta.
+     */
+    @Test
+    public void testReleituraUnicaParaVariasMicrogrids() {
+        Banco banco = new Banco();
+        banco.gravar(1L, 2024, 1, 100.0);
+        banco.gravar(2L, 2024, 1, 200.0);
+        EstatisticasEstimativa estatisticas = new EstatisticasEstimativa(banco);
+        estatisticas.carregar();
+
+        banco.gravar(1L, 2024, 2, 150.0);
+        banco.gravar(2L, 2024, 3, 250.0);
+        banco.gravar(3L, 2024, 4, 50.0);
+        int leituras = banco.leituras;
+        estatisticas.gravar(List.of(estimativa(2, 150.0), new EstimativaGeracaoTO(2L, 2024, 3, 250.0),
+                new EstimativaGeracaoTO(3L, 2024, 4, 50.0)));
+
+        assertEquals(leituras + 1, banco.leituras);
+        assertEquals(250.0, estatisticas.consultar(1L, null, null).getSoma(), 1e-9);
+        assertEquals(450.0, estatisticas.consultar(2L, null, null).getSoma(), 1e-9);
+        assertEquals(1, estatisticas.consultar(3L, null, null).getQuantidade());
+    }
+
+    /**
+     * Habilitada sem carga inicial, uma microgrid só é lida na primeira consulta, e
+     * escritas anteriores a ela não releem o banco.
+     */
+    @Test
+    public void testCargaSobDemandaPorMicrogrid() {
+        Banco banco = new Banco();
+        banco.gravar(1L, 2024, 1, 100.0);
+        banco.gravar(2L, 2024, 1, 200.0);
+        EstatisticasEstimativa estatisticas = new EstatisticasEstimativa(banco);
+        estatisticas.habilitar();
+
+        banco.gravar(1L, 2024, 2, 150.0);
+        estatisticas.gravar(List.of(estimativa(2, 150.0)));
+        assertEquals(0, banco.leituras);
+
+        assertEquals(250.0, estatisticas.consultar(1L, null, null).getSoma(), 1e-9);
+        assertEquals(1, banco.leituras);
+        assertEquals(1, estatisticas.getCargas());
+
+        // Depois de carregada, a microgrid acompanha as escritas sem nova carga
+        banco.gravar(1L, 2024, 3, 50.0);
+        estatisticas.gravar(List.of(estimativa(3, 50.0)));
+        assertEquals(3, estatisticas.consultar(1L, null, null).getQuantidade());
+        assertEquals(1, estatisticas.getCargas());
+        assertEquals(1, estatisticas.getMicrogrids());
+    }
+}
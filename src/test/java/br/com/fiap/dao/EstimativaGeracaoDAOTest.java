@@ -0,0 +1,75 @@
+package br.com.fiap.dao;
+
+import br.com.fiap.to.EstimativaGeracaoTO;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class EstimativaGeracaoDAOTest {
+
+    @BeforeAll
+    public static void setUp() {
+        BancoH2.iniciar("estimativa_geracao_dao");
+        BancoH2.executar(
+                "INSERT INTO MICROGRID (ID_MICROGRID, NOME, NOME_NORMALIZADO) VALUES (1, 'Vila Verde', 'vila verde')",
+                "INSERT INTO MICROGRID (ID_MICROGRID, NOME, NOME_NORMALIZADO) VALUES (2, 'Vila Azul', 'vila azul')");
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        BancoH2.encerrar();
+    }
+
+    /**
+     * A nova previsão substitui a anterior: as estimativas dos períodos que ela não
+     * cobre são excluídas, e as de outras microgrids ficam intactas.
+     */
+    @Test
+    public void testDeleteForaDosPeriodos() {
+        EstimativaGeracaoDAO dao = new EstimativaGeracaoDAO();
+        UnitOfWork.run(() -> dao.upsertBatch(List.of(
+                new EstimativaGeracaoTO(1L, 2024, 11, 10), new EstimativaGeracaoTO(1L, 2024, 12, 20),
+                new EstimativaGeracaoTO(1L, 2025, 1, 30), new EstimativaGeracaoTO(2L, 2024, 11, 40)), 10));
+
+        List<EstimativaGeracaoTO> previsao = List.of(
+                new EstimativaGeracaoTO(1L, 2024, 12, 25), new EstimativaGeracaoTO(1L, 2025, 2, 35));
+        int excluidas = UnitOfWork.execute(() -> {
+            int total = dao.deleteForaDosPeriodos(1L, previsao);
+            dao.upsertBatch(previsao, 10);
+            return total;
+        });
+
+        assertEquals(2, excluidas);
+        assertEquals(List.of("2024/12=25.0", "2025/2=35.0"), dao.findByMicrogrid(1L).stream()
+                .map(e -> e.getAno() + "/" + e.getMes() + "=" + e.getWattsEstimados())
+                .sorted()
+                .collect(Collectors.toList()));
+        assertEquals(1, dao.findByMicrogrid(2L).size());
+    }
+
+    /**
+     * A leitura por intervalo compara ano e mês, inclusive na virada do ano, e lê várias microgrids de uma vez.
+     */
+    @Test
+    public void testLerValoresPorMicrogridsEIntervalo() {
+        EstimativaGeracaoDAO dao = new EstimativaGeracaoDAO();
+        UnitOfWork.run(() -> dao.upsertBatch(List.of(
+                new EstimativaGeracaoTO(1L, 2030, 10, 1), new EstimativaGeracaoTO(1L, 2030, 12, 2),
+                new EstimativaGeracaoTO(2L, 2031, 2, 3), new EstimativaGeracaoTO(2L, 2031, 3, 4),
+                new EstimativaGeracaoTO(1L, 2029, 12, 5)), 10));
+
+        List<String> lidas = new ArrayList<>();
+        long total = dao.lerValores(List.of(1L, 2L), EstatisticasEstimativa.periodo(2030, 11),
+                EstatisticasEstimativa.periodo(2031, 2),
+                (idMicrogrid, ano, mes, watts) -> lidas.add(idMicrogrid + ":" + ano + "/" + mes));
+
+        assertEquals(2, total);
+        assertEquals(List.of("1:2030/12", "2:2031/2"), lidas.stream().sorted().collect(Collectors.toList()));
+    }
+}
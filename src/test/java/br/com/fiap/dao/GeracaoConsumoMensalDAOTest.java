@@ -0,0 +1,65 @@
+package br.com.fiap.dao;
+
+import br.com.fiap.to.GeracaoConsumoMensalTO;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class GeracaoConsumoMensalDAOTest {
+
+    @BeforeAll
+    public static void setUp() {
+        BancoH2.iniciar("geracao_consumo_dao");
+        BancoH2.executar("INSERT INTO MICROGRID (ID_MICROGRID, NOME, NOME_NORMALIZADO) VALUES (1, 'Vila Verde', 'vila verde')");
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        BancoH2.encerrar();
+    }
+
+    static GeracaoConsumoMensalTO registro(long idMicrogrid, int ano, int mes, double gerado, double consumido) {
+        GeracaoConsumoMensalTO registro = new GeracaoConsumoMensalTO();
+        registro.setIdMicrogrid(idMicrogrid);
+        registro.setAno(ano);
+        registro.setMes(mes);
+        registro.setWattsGerados(gerado);
+        registro.setUnidadeGeracao("kWh");
+        registro.setWattsConsumidos(consumido);
+        registro.setUnidadeConsumo("kWh");
+        return registro;
+    }
+
+    /**
+     * Linhas recusadas pelo banco no meio do batch são informadas pela posição, e as demais são inseridas.
+     */
+    @Test
+    public void testSaveBatchRecusaLinhasIndividualmente() {
+        GeracaoConsumoMensalDAO dao = new GeracaoConsumoMensalDAO();
+        List<GeracaoConsumoMensalTO> registros = List.of(
+                registro(1L, 2020, 1, 10, 5),
+                registro(99L, 2020, 2, 10, 5),
+                registro(1L, 2020, 3, 10, 5),
+                registro(99L, 2020, 4, 10, 5),
+                registro(1L, 2020, 5, 10, 5));
+
+        Map<Integer, String> recusados = UnitOfWork.execute(() -> dao.saveBatch(registros, 2));
+
+        assertEquals(Set.of(1, 3), recusados.keySet());
+        assertEquals(3, dao.findByMicrogrid(1L).stream().filter(r -> r.getAno() == 2020).count());
+    }
+
+    /**
+     * A verificação de microgrids responde, em uma consulta, quais dos IDs existem.
+     */
+    @Test
+    public void testMicrogridsExistentes() {
+        assertEquals(Set.of(1L), new MicrogridDAO().existentes(List.of(1L, 99L, 1L)));
+    }
+}
@@ -0,0 +1,74 @@
+package br.com.fiap.dao;
+
+import br.com.fiap.to.MicrogridTO;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class MicrogridCacheTest {
+
+    private static MicrogridTO microgrid(long idMicrogrid, String nome, long versao) {
+        MicrogridTO microgrid = new MicrogridTO(nome, "Rua A", 10, 30);
+        microgrid.setIdMicrogrid(idMicrogrid);
+        microgrid.setVersao(versao);
+        return microgrid;
+    }
+
+    /**
+     * Leitura sem escrita concorrente é guardada e encontrada por ID e por nome.
+     */
+    @Test
+    public void testGuardaLeitura() {
+        MicrogridCache cache = new MicrogridCache(10, 60000L);
+
+        cache.put(microgrid(1L, "Vila Nova", 1L), cache.marca(1L), false);
+
+        assertEquals(1L, cache.get(1L).getVersao());
+        assertEquals(1L, cache.getByNome("vila nova").getIdMicrogrid());
+    }
+
+    /**
+     * Uma leitura que começou antes de uma escrita e termina depois da invalidação
+     * pós-commit não recoloca o estado anterior no cache.
+     */
+    @Test
+    public void testLeituraAntesDaInvalidacaoNaoEGuardada() {
+        MicrogridCache cache = new MicrogridCache(10, 60000L);
+        cache.put(microgrid(2L, "Outra", 1L), cache.marca(2L), false);
+
+        // Leitor captura a marca e lê a versão 1 do banco
+        long marcaPorId = cache.marca(1L);
+        long marcaPorNome = cache.marca(null);
+        MicrogridTO lidaPorId = microgrid(1L, "Vila Nova", 1L);
+        MicrogridTO lidaPorNome = microgrid(1L, "Vila Nova", 1L);
+
+        // Escritor grava a versão 2 e invalida após o commit (fora de uma UnitOfWork, na hora)
+        cache.invalidate(1L);
+
+        // Leitor termina e tenta guardar o que leu
+        cache.put(lidaPorId, marcaPorId, false);
+        cache.put(lidaPorNome, marcaPorNome, true);
+        assertNull(cache.get(1L));
+        assertNull(cache.getByNome("Vila Nova"));
+
+        // Outras microgrids continuam no cache, e uma leitura posterior à invalidação é guardada
+        assertEquals(1L, cache.get(2L).getVersao());
+        cache.put(microgrid(1L, "Vila Nova", 2L), cache.marca(1L), false);
+        assertEquals(2L, cache.get(1L).getVersao());
+    }
+
+    /**
+     * invalidateAll também invalida as leituras em andamento.
+     */
+    @Test
+    public void testInvalidateAllInvalidaLeiturasEmAndamento() {
+        MicrogridCache cache = new MicrogridCache(10, 60000L);
+        long marca = cache.marca(1L);
+
+        cache.invalidateAll();
+        cache.put(microgrid(1L, "Vila Nova", 1L), marca, false);
+
+        assertEquals(0, cache.size());
+    }
+}
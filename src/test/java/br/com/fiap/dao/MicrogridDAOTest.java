@@ -0,0 +1,55 @@
+package br.com.fiap.dao;
+
+import br.com.fiap.exception.InvalidMicrogridException;
+import br.com.fiap.to.MicrogridTO;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MicrogridDAOTest {
+
+    @BeforeAll
+    public static void setUp() {
+        BancoH2.iniciar("microgrid_dao");
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        BancoH2.encerrar();
+    }
+
+    /**
+     * Só a violação de chave única conta como nome repetido; chave estrangeira e coluna obrigatória não.
+     */
+    @Test
+    public void testViolacaoUnicidade() {
+        assertTrue(MicrogridDAO.isViolacaoUnicidade(new SQLException(
+                "ORA-00001: unique constraint (RM.UK_MICROGRID_NOME_NORMALIZADO) violated", "23000", 1)));
+        assertTrue(MicrogridDAO.isViolacaoUnicidade(new SQLException("Unique index or primary key violation", "23505", 23505)));
+        assertFalse(MicrogridDAO.isViolacaoUnicidade(new SQLException(
+                "ORA-02291: integrity constraint (RM.FK_FONTE_MICROGRID) violated - parent key not found", "23000", 2291)));
+        assertFalse(MicrogridDAO.isViolacaoUnicidade(new SQLException(
+                "ORA-01400: cannot insert NULL into (\"RM\".\"MICROGRID\".\"NOME\")", "23000", 1400)));
+        assertFalse(MicrogridDAO.isViolacaoUnicidade(new SQLException("NULL not allowed for column \"NOME\"", "23502", 23502)));
+    }
+
+    /**
+     * Um nome repetido, ignorando maiúsculas e espaços, é recusado com a mensagem de nome existente.
+     */
+    @Test
+    public void testSaveNomeRepetido() {
+        MicrogridDAO dao = new MicrogridDAO();
+        dao.save(new MicrogridTO("Vila Azul", "Rua A", 10, 30));
+
+        InvalidMicrogridException e = assertThrows(InvalidMicrogridException.class,
+                () -> dao.save(new MicrogridTO("  vila azul ", "Rua B", 5, 12)));
+        assertEquals("Já existe uma microgrid com o nome informado.", e.getMessage());
+    }
+}
@@ -0,0 +1,125 @@
+package br.com.fiap.dao;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MigrationRunnerTest {
+
+    private Connection connection;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:h2:mem:migracao;MODE=Oracle;DB_CLOSE_DELAY=-1", "sa", "");
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        try (Statement st = connection.createStatement()) {
+            st.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+    }
+
+    /**
+     * Um banco vazio recebe todas as migrações, com as tabelas e os índices das consultas.
+     */
+    @Test
+    public void testMigrateEmptyDatabase() throws Exception {
+        int aplicadas = new MigrationRunner(connection, 0).migrate();
+
+        assertTrue(aplicadas >= 3);
+        Set<String> indices = indices();
+        assertTrue(indices.contains("UK_MICROGRID_NOME_NORMALIZADO"));
+        assertTrue(indices.contains("IX_GERACAO_PERIODO"));
+        assertTrue(indices.contains("UK_ESTIMATIVA_MICROGRID_PERIODO"));
+        assertTrue(indices.contains("IX_FONTE_ENERGIA_MICROGRID"));
+        assertEquals(0, new MigrationRunner(connection, 0).migrate());
+    }
+
+    /**
+     * Com baseline, as versões até ela são apenas registradas, sem executar o script.
+     */
+    @Test
+    public void testMigrateWithBaseline() throws Exception {
+        try (Statement st = connection.createStatement()) {
+            st.execute("CREATE TABLE MICROGRID (ID_MICROGRID NUMBER PRIMARY KEY, NOME VARCHAR2(255) NOT NULL, "
+                    + "ENDERECO VARCHAR2(255), TOTAL_RESIDENCIAS NUMBER, TOTAL_HABITANTES NUMBER)");
+            st.execute("INSERT INTO MICROGRID (ID_MICROGRID, NOME) VALUES (1, '  Vila Verde ')");
+            st.execute("CREATE TABLE FONTE_ENERGIA (ID_FONTE NUMBER PRIMARY KEY, ID_MICROGRID NUMBER, "
+                    + "TIPO VARCHAR2(50), CAPACIDADE_INSTALADA NUMBER, UNIDADE_CAPACIDADE VARCHAR2(10), DATA_INSTALACAO DATE, "
+                    + "STATUS VARCHAR2(20))");
+            st.execute("CREATE TABLE GERACAO_CONSUMO_MENSAL (ID_REGISTRO NUMBER PRIMARY KEY, ID_MICROGRID NUMBER, ANO NUMBER, MES NUMBER, "
+                    + "WATTS_GERADOS NUMBER, UNIDADE_GERACAO VARCHAR2(10), WATTS_CONSUMIDOS NUMBER, UNIDADE_CONSUMO VARCHAR2(10))");
+            st.execute("CREATE TABLE ESTIMATIVA_GERACAO (ID_ESTIMATIVA NUMBER PRIMARY KEY, ID_MICROGRID NUMBER, ANO NUMBER, MES NUMBER)");
+        }
+
+        new MigrationRunner(connection, 1).migrate();
+
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT NOME_NORMALIZADO FROM MICROGRID WHERE ID_MICROGRID = 1")) {
+            assertTrue(rs.next());
+            assertEquals("vila verde", rs.getString(1));
+        }
+    }
+
+    /**
+     * Linhas com unidades que a V6 não converteu vão para a quarentena e saem dos totais do resumo.
+     */
+    @Test
+    public void testQuarentenaDeUnidadesDesconhecidas() throws Exception {
+        new MigrationRunner(connection, 0).migrate();
+        // Volta o banco ao estado anterior à V8, com linhas que a V6 deixou como estavam
+        try (Statement st = connection.createStatement()) {
+            st.execute("DROP TABLE GERACAO_CONSUMO_QUARENTENA");
+            st.execute("DROP TABLE FONTE_ENERGIA_QUARENTENA");
+            st.execute("DELETE FROM SCHEMA_MIGRACAO WHERE VERSAO = 8");
+            st.execute("INSERT INTO MICROGRID (ID_MICROGRID, NOME, NOME_NORMALIZADO) VALUES (1, 'Vila Verde', 'vila verde')");
+            st.execute("INSERT INTO GERACAO_CONSUMO_MENSAL (ID_REGISTRO, ID_MICROGRID, ANO, MES, WATTS_GERADOS, UNIDADE_GERACAO, "
+                    + "WATTS_CONSUMIDOS, UNIDADE_CONSUMO) VALUES (1, 1, 2024, 1, 100, 'kWh', 40, 'kWh')");
+            st.execute("INSERT INTO GERACAO_CONSUMO_MENSAL (ID_REGISTRO, ID_MICROGRID, ANO, MES, WATTS_GERADOS, UNIDADE_GERACAO, "
+                    + "WATTS_CONSUMIDOS, UNIDADE_CONSUMO) VALUES (2, 1, 2024, 2, 5, 'BTU', 40, 'kWh')");
+            st.execute("INSERT INTO FONTE_ENERGIA (ID_FONTE, ID_MICROGRID, TIPO, CAPACIDADE_INSTALADA, UNIDADE_CAPACIDADE) "
+                    + "VALUES (1, 1, 'Solar', 3, 'hp')");
+            st.execute("INSERT INTO GERACAO_CONSUMO_RESUMO (ID_MICROGRID, ANO, MES, TOTAL_GERADO, TOTAL_CONSUMIDO, REGISTROS) "
+                    + "VALUES (1, 2024, 0, 105, 80, 2)");
+        }
+        connection.commit();
+
+        assertEquals(1, new MigrationRunner(connection, 0).migrate());
+
+        assertEquals(1, contar("SELECT COUNT(*) FROM GERACAO_CONSUMO_MENSAL"));
+        assertEquals(2, contar("SELECT ID_REGISTRO FROM GERACAO_CONSUMO_QUARENTENA WHERE UNIDADE_GERACAO = 'BTU'"));
+        assertEquals(0, contar("SELECT COUNT(*) FROM FONTE_ENERGIA"));
+        assertEquals(1, contar("SELECT ID_FONTE FROM FONTE_ENERGIA_QUARENTENA WHERE UNIDADE_CAPACIDADE = 'hp'"));
+        assertEquals(100, contar("SELECT TOTAL_GERADO FROM GERACAO_CONSUMO_RESUMO WHERE ID_MICROGRID = 1 AND ANO = 2024 AND MES = 0"));
+    }
+
+    private long contar(String sql) throws Exception {
+        try (Statement st = connection.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+            assertTrue(rs.next());
+            return rs.getLong(1);
+        }
+    }
+
+    private Set<String> indices() throws Exception {
+        Set<String> indices = new HashSet<>();
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT INDEX_NAME FROM INFORMATION_SCHEMA.INDEXES")) {
+            while (rs.next()) {
+                indices.add(rs.getString(1));
+            }
+        }
+        return indices;
+    }
+}
@@ -0,0 +1,145 @@
+package br.com.fiap.dao;
+
+import br.com.fiap.bo.EstimativaWriteBehind;
+import br.com.fiap.bo.GeracaoConsumoMensalBO;
+import br.com.fiap.to.AgregadoGeracaoConsumoTO;
+import br.com.fiap.to.GeracaoConsumoMensalTO;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ResumoGeracaoConsumoDAOTest {
+
+    @BeforeAll
+    public static void setUp() {
+        BancoH2.iniciar("resumo_geracao_consumo_dao");
+        BancoH2.executar(
+                "INSERT INTO MICROGRID (ID_MICROGRID, NOME, NOME_NORMALIZADO) VALUES (1, 'Vila Verde', 'vila verde')",
+                "INSERT INTO MICROGRID (ID_MICROGRID, NOME, NOME_NORMALIZADO) VALUES (2, 'Vila Azul', 'vila azul')");
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        // As estimativas são gravadas pela fila em segundo plano; sem esperar, iriam para o banco do próximo teste
+        EstimativaWriteBehind.getInstance().aguardarMicrogrids(Set.of(1L, 2L));
+        BancoH2.encerrar();
+    }
+
+    private static GeracaoConsumoMensalTO registro(long idMicrogrid, int ano, int mes, double gerado, double consumido) {
+        return GeracaoConsumoMensalDAOTest.registro(idMicrogrid, ano, mes, gerado, consumido);
+    }
+
+    /**
+     * Linhas do resumo de uma microgrid (ou da frota) em um ano, como "mês=gerado/consumido/registros".
+     */
+    private static List<String> resumo(long idMicrogrid, int ano) {
+        List<AgregadoGeracaoConsumoTO> linhas = new ArrayList<>(new ResumoGeracaoConsumoDAO().buscar(idMicrogrid, false, ano, ano));
+        if (idMicrogrid == ResumoGeracaoConsumoDAO.FROTA) {
+            linhas.addAll(new ResumoGeracaoConsumoDAO().buscar(idMicrogrid, true, ano, ano));
+        }
+        return linhas.stream()
+                .filter(linha -> linha.getRegistros() != 0)
+                .map(linha -> linha.getMes() + "=" + linha.getTotalGerado() + "/" + linha.getTotalConsumido()
+                        + "/" + linha.getRegistros())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * O resumo mantido por deltas é igual ao GROUP BY dos registros: a reconstrução não encontra divergências.
+     */
+    private static void assertIgualAosRegistros() throws Exception {
+        assertEquals(0, (int) UnitOfWork.execute(new ResumoGeracaoConsumoDAO()::reconstruir));
+        try (Connection conn = ConnectionFactory.getInstance().getConexao();
+             PreparedStatement ps = conn.prepareStatement("SELECT ID_MICROGRID, ANO, SUM(WATTS_GERADOS), COUNT(*) "
+                     + "FROM GERACAO_CONSUMO_MENSAL GROUP BY ID_MICROGRID, ANO");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                List<AgregadoGeracaoConsumoTO> linha = new ResumoGeracaoConsumoDAO().buscar(rs.getLong(1), false,
+                        rs.getInt(2), rs.getInt(2));
+                assertEquals(1, linha.size());
+                assertEquals(rs.getDouble(3), linha.get(0).getTotalGerado(), 1e-6);
+                assertEquals(rs.getLong(4), linha.get(0).getRegistros());
+            }
+        }
+    }
+
+    /**
+     * A inclusão soma o registro ao total anual da microgrid e aos totais anual e mensal da frota.
+     */
+    @Test
+    public void testInclusao() throws Exception {
+        GeracaoConsumoMensalBO bo = new GeracaoConsumoMensalBO();
+
+        bo.save(registro(1L, 2010, 1, 100, 40));
+        bo.save(registro(2L, 2010, 2, 50, 10));
+        bo.save(registro(1L, 2010, 2, 30, 20));
+
+        assertEquals(List.of("0=130.0/60.0/2"), resumo(1L, 2010));
+        assertEquals(List.of("0=50.0/10.0/1"), resumo(2L, 2010));
+        assertEquals(List.of("0=180.0/70.0/3", "1=100.0/40.0/1", "2=80.0/30.0/2"), resumo(ResumoGeracaoConsumoDAO.FROTA, 2010));
+        assertIgualAosRegistros();
+    }
+
+    /**
+     * Uma alteração que traz outro mês e outra microgrid não move o registro: o delta
+     * vai para as linhas do registro gravado, que é o que o UPDATE altera.
+     */
+    @Test
+    public void testAlteracaoComOutroMesEMicrogrid() throws Exception {
+        GeracaoConsumoMensalBO bo = new GeracaoConsumoMensalBO();
+        GeracaoConsumoMensalTO gravado = bo.save(registro(1L, 2011, 3, 100, 40));
+
+        GeracaoConsumoMensalTO alterado = registro(2L, 2011, 5, 70, 50);
+        alterado.setIdRegistro(gravado.getIdRegistro());
+        assertTrue(bo.update(alterado));
+
+        assertEquals(List.of("0=70.0/50.0/1"), resumo(1L, 2011));
+        assertEquals(List.of(), resumo(2L, 2011));
+        assertEquals(List.of("0=70.0/50.0/1", "3=70.0/50.0/1"), resumo(ResumoGeracaoConsumoDAO.FROTA, 2011));
+        assertIgualAosRegistros();
+    }
+
+    /**
+     * A exclusão desconta o registro e zera as linhas que ficam sem registros.
+     */
+    @Test
+    public void testExclusao() throws Exception {
+        GeracaoConsumoMensalBO bo = new GeracaoConsumoMensalBO();
+        GeracaoConsumoMensalTO primeiro = bo.save(registro(1L, 2012, 6, 100, 40));
+        bo.save(registro(2L, 2012, 7, 60, 30));
+
+        assertTrue(bo.delete(primeiro.getIdRegistro()));
+
+        assertEquals(List.of(), resumo(1L, 2012));
+        assertEquals(List.of("0=60.0/30.0/1", "7=60.0/30.0/1"), resumo(ResumoGeracaoConsumoDAO.FROTA, 2012));
+        assertIgualAosRegistros();
+    }
+
+    /**
+     * Os deltas são aplicados em ordem de microgrid, ano e mês, qualquer que seja a ordem recebida.
+     */
+    @Test
+    public void testDeltasEmOrdemDeBloqueio() {
+        List<AgregadoGeracaoConsumoTO> deltas = List.of(
+                new AgregadoGeracaoConsumoTO(2L, 2020, null, 0, 1, 1, 1),
+                new AgregadoGeracaoConsumoTO(0L, 2020, null, 5, 1, 1, 1),
+                new AgregadoGeracaoConsumoTO(1L, 2019, null, 0, 1, 1, 1),
+                new AgregadoGeracaoConsumoTO(0L, 2020, null, 0, 1, 1, 1));
+
+        assertEquals(List.of("0/2020/0", "0/2020/5", "1/2019/0", "2/2020/0"),
+                ResumoGeracaoConsumoDAO.emOrdemDeBloqueio(deltas).stream()
+                        .map(d -> d.getIdMicrogrid() + "/" + d.getAno() + "/" + d.getMes())
+                        .collect(Collectors.toList()));
+    }
+}
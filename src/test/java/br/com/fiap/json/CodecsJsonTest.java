@@ -0,0 +1,88 @@
+package br.com.fiap.json;
+
+import br.com.fiap.to.EstimativaGeracaoTO;
+import br.com.fiap.to.FonteEnergiaTO;
+import br.com.fiap.to.GeracaoConsumoMensalTO;
+import br.com.fiap.to.MicrogridTO;
+import jakarta.json.Json;
+import jakarta.json.JsonException;
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbBuilder;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.json.stream.JsonParser;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CodecsJsonTest {
+    private final Jsonb yasson = JsonbBuilder.create();
+
+    /**
+     * Os codecs gerados escrevem exatamente o mesmo JSON que o Yasson, inclusive com campos nulos e datas.
+     */
+    @Test
+    public void testEscritaIgualAoYasson() {
+        MicrogridTO microgrid = new MicrogridTO("Vila Verde", null, 12, 40);
+        microgrid.setIdMicrogrid(7L);
+        microgrid.setVersao(3L);
+        microgrid.setAtualizadoEm(LocalDateTime.of(2024, 5, 1, 10, 30));
+        assertMesmoJson(microgrid, MicrogridTO.class);
+
+        FonteEnergiaTO fonte = new FonteEnergiaTO(7L, "Solar", 12.5, "kW", LocalDate.of(2023, 1, 15), "Operacional");
+        fonte.setIdFonte(2L);
+        assertMesmoJson(fonte, FonteEnergiaTO.class);
+
+        GeracaoConsumoMensalTO registro = new GeracaoConsumoMensalTO(7L, 11L, 2024, 3, 1234.5678, "kWh", 1e-3, "kWh");
+        assertMesmoJson(registro, GeracaoConsumoMensalTO.class);
+
+        EstimativaGeracaoTO estimativa = new EstimativaGeracaoTO(7L, 2025, 12, 987654321.25);
+        estimativa.setAtualizadoEm(LocalDateTime.of(2024, 5, 1, 10, 30, 15, 123456000));
+        assertMesmoJson(estimativa, EstimativaGeracaoTO.class);
+    }
+
+    /**
+     * A leitura passa pelos setters, ignora campos desconhecidos e nulos e aceita números como texto.
+     */
+    @Test
+    public void testLeitura() {
+        FonteEnergiaTO fonte = ler("{\"idMicrogrid\":\"7\",\"tipo\":\"Eólica\",\"capacidadeInstalada\":2,"
+                + "\"dataInstalacao\":\"2023-01-15\",\"status\":null,\"extra\":{\"a\":[1,2]},\"idFonte\":null}",
+                FonteEnergiaTO.class);
+
+        assertEquals(7L, fonte.getIdMicrogrid());
+        assertEquals("Eólica", fonte.getTipo());
+        assertEquals(2.0, fonte.getCapacidadeInstalada(), 0.0);
+        assertEquals(LocalDate.of(2023, 1, 15), fonte.getDataInstalacao());
+        assertEquals("Operacional", fonte.getStatus());
+        assertNull(fonte.getIdFonte());
+    }
+
+    @Test
+    public void testLeituraInvalida() {
+        assertThrows(JsonException.class, () -> ler("{\"idMicrogrid\":1.5}", MicrogridTO.class));
+        assertThrows(JsonException.class, () -> ler("{\"nome\":[\"a\"]}", MicrogridTO.class));
+        assertThrows(IllegalArgumentException.class, () -> ler("{\"mes\":13}", GeracaoConsumoMensalTO.class));
+    }
+
+    private <T> void assertMesmoJson(T objeto, Class<T> tipo) {
+        StringWriter saida = new StringWriter();
+        try (JsonGenerator gerador = Json.createGenerator(saida)) {
+            CodecsJson.de(tipo).escrever(gerador, objeto);
+        }
+        assertEquals(yasson.toJson(objeto), saida.toString());
+    }
+
+    private static <T> T ler(String json, Class<T> tipo) {
+        try (JsonParser parser = Json.createParser(new StringReader(json))) {
+            parser.next();
+            return CodecsJson.de(tipo).ler(parser);
+        }
+    }
+}
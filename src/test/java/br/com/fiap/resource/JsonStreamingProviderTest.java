@@ -0,0 +1,67 @@
+package br.com.fiap.resource;
+
+import br.com.fiap.to.AgregadoGeracaoConsumoTO;
+import br.com.fiap.to.MicrogridTO;
+import br.com.fiap.to.PaginaTO;
+import jakarta.ws.rs.core.GenericEntity;
+import jakarta.ws.rs.core.MediaType;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JsonStreamingProviderTest {
+
+    private final JsonStreamingProvider provider = new JsonStreamingProvider();
+
+    private boolean escreve(Object entidade) {
+        if (entidade instanceof GenericEntity) {
+            GenericEntity<?> generica = (GenericEntity<?>) entidade;
+            return provider.isWriteable(generica.getRawType(), generica.getType(), null, MediaType.APPLICATION_JSON_TYPE);
+        }
+        return provider.isWriteable(entidade.getClass(), entidade.getClass(), null, MediaType.APPLICATION_JSON_TYPE);
+    }
+
+    /**
+     * Coleções sem tipo genérico ou com itens sem codec ficam com o provider JSON-B do Jersey.
+     */
+    @Test
+    public void testRecusaColecoesSemCodec() {
+        List<AgregadoGeracaoConsumoTO> agregados = new ArrayList<>(List.of(new AgregadoGeracaoConsumoTO()));
+        List<MicrogridTO> microgrids = new ArrayList<>(List.of(new MicrogridTO("Vila Verde", "Rua A", 10, 30)));
+
+        assertFalse(escreve(agregados));
+        assertFalse(escreve(microgrids));
+        assertSame(agregados, JsonStreamingProvider.tipada(agregados));
+        assertFalse(escreve(JsonStreamingProvider.tipada(agregados)));
+    }
+
+    /**
+     * Uma lista ou página de TOs com codec, tipada antes do Response, é escrita pelo codec.
+     */
+    @Test
+    public void testEscreveColecaoTipada() throws Exception {
+        MicrogridTO microgrid = new MicrogridTO("Vila Verde", "Rua A", 10, 30);
+        microgrid.setIdMicrogrid(1L);
+        Object lista = JsonStreamingProvider.tipada(new ArrayList<>(List.of(microgrid)));
+        Object pagina = JsonStreamingProvider.tipada(new PaginaTO<>(List.of(microgrid), "abc"));
+
+        assertTrue(escreve(lista));
+        assertTrue(escreve(pagina));
+
+        GenericEntity<?> generica = (GenericEntity<?>) pagina;
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        provider.writeTo(generica.getEntity(), generica.getRawType(), generica.getType(), null,
+                MediaType.APPLICATION_JSON_TYPE, null, saida);
+        String json = saida.toString(StandardCharsets.UTF_8);
+        assertTrue(json.startsWith("{\"itens\":[{"), json);
+        assertTrue(json.contains("\"nome\":\"Vila Verde\""), json);
+        assertTrue(json.endsWith("\"proximoCursor\":\"abc\"}"), json);
+    }
+}
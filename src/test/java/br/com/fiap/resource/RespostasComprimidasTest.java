@@ -0,0 +1,64 @@
+package br.com.fiap.resource;
+
+import br.com.fiap.resource.RespostasComprimidas.Codificacao;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RespostasComprimidasTest {
+
+    /**
+     * A negociação respeita os pesos, o curinga e q=0, e prefere gzip em caso de empate.
+     */
+    @Test
+    public void testNegociacao() {
+        assertNull(RespostasComprimidas.negociar(null));
+        assertNull(RespostasComprimidas.negociar("identity"));
+        assertEquals(Codificacao.GZIP, RespostasComprimidas.negociar("gzip, deflate, br"));
+        assertEquals(Codificacao.GZIP, RespostasComprimidas.negociar("x-gzip"));
+        assertEquals(Codificacao.DEFLATE, RespostasComprimidas.negociar("gzip;q=0.5, deflate"));
+        assertEquals(Codificacao.DEFLATE, RespostasComprimidas.negociar("gzip;q=0, *"));
+        assertEquals(Codificacao.GZIP, RespostasComprimidas.negociar("*"));
+        assertNull(RespostasComprimidas.negociar("gzip;q=0, *;q=0"));
+        assertNull(RespostasComprimidas.negociar("gzip;q=abc"));
+    }
+
+    /**
+     * O corpo comprimido volta ao original nas duas codificações e as métricas são registradas.
+     */
+    @Test
+    public void testCompressao() throws IOException {
+        RespostasComprimidas respostas = new RespostasComprimidas(true, 1024, 6);
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 500; i++) {
+            json.append(i > 0 ? "," : "").append("{\"idRegistro\":").append(i).append(",\"unidadeGeracao\":\"kWh\"}");
+        }
+        byte[] corpo = json.append("]").toString().getBytes(StandardCharsets.UTF_8);
+
+        byte[] gzip = respostas.comprimir(corpo, Codificacao.GZIP);
+        byte[] deflate = respostas.comprimir(corpo, Codificacao.DEFLATE);
+        assertArrayEquals(corpo, ler(new GZIPInputStream(new ByteArrayInputStream(gzip))));
+        assertArrayEquals(corpo, ler(new InflaterInputStream(new ByteArrayInputStream(deflate))));
+
+        assertEquals(2, respostas.getComprimidas());
+        assertEquals(2L * corpo.length, respostas.getBytesOriginais());
+        assertEquals(gzip.length + deflate.length, respostas.getBytesComprimidos());
+        assertTrue(respostas.getBytesComprimidos() < respostas.getBytesOriginais() / 4);
+    }
+
+    private static byte[] ler(InputStream in) throws IOException {
+        try (InputStream entrada = in) {
+            return entrada.readAllBytes();
+        }
+    }
+}